@@ -13,6 +13,7 @@ import org.aksw.limes.core.io.config.Configuration;
 import org.aksw.limes.core.io.config.reader.AConfigurationReader;
 import org.aksw.limes.core.io.config.reader.rdf.RDFConfigurationReader;
 import org.aksw.limes.core.io.config.reader.xml.XMLConfigurationReader;
+import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.serializer.ISerializer;
 import org.aksw.limes.core.io.serializer.SerializerFactory;
@@ -157,11 +158,13 @@ public class Controller {
                 e.printStackTrace();
             }
         } else {
-            results = LSPipeline.execute(sourceCache, targetCache, config.getMetricExpression(),
-                    config.getVerificationThreshold(), config.getSourceInfo().getVar(), config.getTargetInfo().getVar(),
+            results = LSPipeline.execute(sourceCache, targetCache,
+                    new LinkSpecification(config.getMetricExpression(), config.getVerificationThreshold()),
+                    config.getSourceInfo().getVar(), config.getTargetInfo().getVar(),
                     RewriterFactory.getRewriterType(config.getExecutionRewriter()),
                     ExecutionPlannerFactory.getExecutionPlannerType(config.getExecutionPlanner()),
-                    ExecutionEngineFactory.getExecutionEngineType(config.getExecutionEngine()));
+                    ExecutionEngineFactory.getExecutionEngineType(config.getExecutionEngine()),
+                    config.getExecutionParallelism());
         }
         logger.info("Mapping task finished in " + stopWatch.getTime() + " ms");
         assert results != null;
@@ -59,6 +59,28 @@ public class LSPipeline {
                                    String targetVar, RewriterFactory.RewriterType rewriterType,
                                    ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
                                    ExecutionEngineFactory.ExecutionEngineType executionEngineType) {
+        return execute(sourceCache, targetCache, ls, sourceVar, targetVar, rewriterType, executionPlannerType,
+                executionEngineType, 0);
+    }
+
+    /**
+     * Execute a given LS with a given number of threads, generating a mapping.
+     *
+     * @param sourceCache Resources from source KB
+     * @param targetCache Resources from target KB
+     * @param ls LIMES Link Specification
+     * @param sourceVar Name of SPARQL variable for resources from source KB
+     * @param targetVar Name of SPARQL variable for resources from target KB
+     * @param rewriterType Specifies rewriter module to use
+     * @param executionPlannerType Specifies executionPlanner module to use
+     * @param executionEngineType Specifies executionEngine module to use
+     * @param parallelism Number of threads of the execution, 0 for the default of the execution engine
+     * @return Mapping of resources in sourceCache to resources in targetCache with similarity &gt; threshold
+     */
+    public static AMapping execute(ACache sourceCache, ACache targetCache, LinkSpecification ls, String sourceVar,
+                                   String targetVar, RewriterFactory.RewriterType rewriterType,
+                                   ExecutionPlannerFactory.ExecutionPlannerType executionPlannerType,
+                                   ExecutionEngineFactory.ExecutionEngineType executionEngineType, int parallelism) {
         // Optimize LS by rewriting
         Rewriter rw = RewriterFactory.getRewriter(rewriterType);
         assert rw != null;
@@ -68,7 +90,7 @@ public class LSPipeline {
         assert planner != null;
         // Execute the ExecutionPlan obtained from the LS
         ExecutionEngine engine = ExecutionEngineFactory.getEngine(executionEngineType, sourceCache, targetCache,
-                sourceVar, targetVar);
+                sourceVar, targetVar, parallelism);
         assert engine != null;
         return engine.execute(rwLs, planner);
     }
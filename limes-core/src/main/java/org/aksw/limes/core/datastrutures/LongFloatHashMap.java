@@ -0,0 +1,196 @@
+package org.aksw.limes.core.datastrutures;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive longs to primitive floats. Keys and
+ * values are kept in two parallel arrays and collisions are resolved by
+ * linear probing, so no objects are allocated per entry. The entries can be
+ * iterated over without allocation by looping over all slots from 0 to
+ * {@link #capacity()} and skipping the slots for which {@link #isUsed(int)}
+ * returns false. The key {@link #FREE_KEY} is reserved and cannot be stored.
+ *
+ * @version 1.0
+ */
+public class LongFloatHashMap implements Serializable {
+
+    private static final long serialVersionUID = 6453591278624213981L;
+
+    /**
+     * Marker of free slots.
+     */
+    public static final long FREE_KEY = Long.MIN_VALUE;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private float[] values;
+    private int size;
+
+    public LongFloatHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize,
+     *            number of entries the map is expected to contain
+     */
+    public LongFloatHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        values = new float[capacity];
+        size = 0;
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private int slot(long key) {
+        if (key == FREE_KEY) {
+            throw new IllegalArgumentException("The key " + FREE_KEY + " is reserved");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @param key,
+     *            the key
+     * @param defaultValue,
+     *            value returned if the key is not in the map
+     * @return the value of the key or defaultValue
+     */
+    public float get(long key, float defaultValue) {
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    /**
+     * @param key,
+     *            the key
+     * @return true if the map contains the key
+     */
+    public boolean containsKey(long key) {
+        return keys[slot(key)] == key;
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key,
+     *            the key
+     * @param value,
+     *            the new value of the key
+     * @return true if the key was not in the map before
+     */
+    public boolean put(long key, float value) {
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return false;
+        }
+        insert(slot, key, value);
+        return true;
+    }
+
+    /**
+     * Sets the value of a key to the maximum of its current value and the
+     * given value.
+     *
+     * @param key,
+     *            the key
+     * @param value,
+     *            the value
+     * @return true if the key was not in the map before
+     */
+    public boolean putMax(long key, float value) {
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            if (value > values[slot]) {
+                values[slot] = value;
+            }
+            return false;
+        }
+        insert(slot, key, value);
+        return true;
+    }
+
+    private void insert(int slot, long key, float value) {
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        float[] oldValues = values;
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        values = new float[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != FREE_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries of the map
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of slots of the map
+     */
+    public int capacity() {
+        return keys.length;
+    }
+
+    /**
+     * @param slot,
+     *            a slot between 0 and {@link #capacity()}
+     * @return true if the slot contains an entry
+     */
+    public boolean isUsed(int slot) {
+        return keys[slot] != FREE_KEY;
+    }
+
+    /**
+     * @param slot,
+     *            a used slot
+     * @return the key stored in the slot
+     */
+    public long keyAt(int slot) {
+        return keys[slot];
+    }
+
+    /**
+     * @param slot,
+     *            a used slot
+     * @return the value stored in the slot
+     */
+    public float valueAt(int slot) {
+        return values[slot];
+    }
+}
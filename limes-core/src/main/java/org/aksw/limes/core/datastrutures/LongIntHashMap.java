@@ -0,0 +1,156 @@
+package org.aksw.limes.core.datastrutures;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive longs to primitive ints. It uses
+ * the same layout as {@link LongFloatHashMap}: keys and values are kept in two
+ * parallel arrays, collisions are resolved by linear probing and the key
+ * {@link #FREE_KEY} is reserved.
+ *
+ * @version 1.0
+ */
+public class LongIntHashMap implements Serializable {
+
+    private static final long serialVersionUID = -2818400465718526337L;
+
+    /**
+     * Marker of free slots.
+     */
+    public static final long FREE_KEY = Long.MIN_VALUE;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private long[] keys;
+    private int[] values;
+    private int size;
+
+    public LongIntHashMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize,
+     *            number of entries the map is expected to contain
+     */
+    public LongIntHashMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize) * 2 - 1) << 1;
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        values = new int[capacity];
+        size = 0;
+    }
+
+    private static int hash(long key) {
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        return (int) key;
+    }
+
+    private int slot(long key) {
+        if (key == FREE_KEY) {
+            throw new IllegalArgumentException("The key " + FREE_KEY + " is reserved");
+        }
+        int mask = keys.length - 1;
+        int slot = hash(key) & mask;
+        while (keys[slot] != FREE_KEY && keys[slot] != key) {
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * @param key,
+     *            the key
+     * @param defaultValue,
+     *            value returned if the key is not in the map
+     * @return the value of the key or defaultValue
+     */
+    public int get(long key, int defaultValue) {
+        int slot = slot(key);
+        return keys[slot] == key ? values[slot] : defaultValue;
+    }
+
+    /**
+     * @param key,
+     *            the key
+     * @return true if the map contains the key
+     */
+    public boolean containsKey(long key) {
+        return keys[slot(key)] == key;
+    }
+
+    /**
+     * Sets the value of a key.
+     *
+     * @param key,
+     *            the key
+     * @param value,
+     *            the new value of the key
+     * @return true if the key was not in the map before
+     */
+    public boolean put(long key, int value) {
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            values[slot] = value;
+            return false;
+        }
+        insert(slot, key, value);
+        return true;
+    }
+
+    /**
+     * Sets the value of a key unless the key is already in the map.
+     *
+     * @param key,
+     *            the key
+     * @param value,
+     *            the value of the key if it is added
+     * @return the value of the key after the call
+     */
+    public int putIfAbsent(long key, int value) {
+        int slot = slot(key);
+        if (keys[slot] == key) {
+            return values[slot];
+        }
+        insert(slot, key, value);
+        return value;
+    }
+
+    private void insert(int slot, long key, int value) {
+        keys[slot] = key;
+        values[slot] = value;
+        size++;
+        if (size * 4 > keys.length * 3) {
+            rehash(keys.length * 2);
+        }
+    }
+
+    private void rehash(int capacity) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+        keys = new long[capacity];
+        Arrays.fill(keys, FREE_KEY);
+        values = new int[capacity];
+        int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != FREE_KEY) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (keys[slot] != FREE_KEY) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = oldKeys[i];
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries of the map
+     */
+    public int size() {
+        return size;
+    }
+}
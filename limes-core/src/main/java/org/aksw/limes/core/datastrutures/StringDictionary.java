@@ -0,0 +1,143 @@
+package org.aksw.limes.core.datastrutures;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Dictionary that interns strings to dense int IDs. The first string added to
+ * the dictionary gets the ID 0, the second one the ID 1 and so on. IDs are
+ * never reassigned, hence they can be used as indexes of primitive arrays.
+ * The lookup table uses open addressing with linear probing and stores the
+ * IDs as ints, i.e., no boxed values are created.
+ *
+ * @version 1.0
+ */
+public class StringDictionary implements Serializable {
+
+    private static final long serialVersionUID = -6170282837962458117L;
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    /**
+     * Strings of the dictionary indexed by their ID.
+     */
+    private String[] values;
+    /**
+     * Open addressing table. Each slot contains ID + 1 of a string or 0 if the
+     * slot is free.
+     */
+    private int[] table;
+    private int size;
+
+    public StringDictionary() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize,
+     *            number of strings the dictionary is expected to contain
+     */
+    public StringDictionary(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(DEFAULT_CAPACITY, expectedSize) * 2 - 1) << 1;
+        values = new String[Math.max(DEFAULT_CAPACITY, expectedSize)];
+        table = new int[capacity];
+        size = 0;
+    }
+
+    private static int hash(String s) {
+        int h = s.hashCode() * 0x9E3779B9;
+        return h ^ (h >>> 16);
+    }
+
+    /**
+     * Returns the ID of a string.
+     *
+     * @param s,
+     *            the string
+     * @return the ID of s or -1 if s is not in the dictionary
+     */
+    public int getId(String s) {
+        int mask = table.length - 1;
+        int slot = hash(s) & mask;
+        while (table[slot] != 0) {
+            int id = table[slot] - 1;
+            if (values[id].equals(s)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return -1;
+    }
+
+    /**
+     * Returns the ID of a string. If the string is not in the dictionary, it
+     * is added to the dictionary and gets the next free ID.
+     *
+     * @param s,
+     *            the string
+     * @return the ID of s
+     */
+    public int intern(String s) {
+        int mask = table.length - 1;
+        int slot = hash(s) & mask;
+        while (table[slot] != 0) {
+            int id = table[slot] - 1;
+            if (values[id].equals(s)) {
+                return id;
+            }
+            slot = (slot + 1) & mask;
+        }
+        int id = size;
+        if (id == values.length) {
+            values = Arrays.copyOf(values, values.length * 2);
+        }
+        values[id] = s;
+        table[slot] = id + 1;
+        size++;
+        if (size * 2 > table.length) {
+            rehash(table.length * 2);
+        }
+        return id;
+    }
+
+    private void rehash(int capacity) {
+        int[] newTable = new int[capacity];
+        int mask = capacity - 1;
+        for (int id = 0; id < size; id++) {
+            int slot = hash(values[id]) & mask;
+            while (newTable[slot] != 0) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = id + 1;
+        }
+        table = newTable;
+    }
+
+    /**
+     * @param id,
+     *            the ID of a string
+     * @return the string with the given ID
+     */
+    public String get(int id) {
+        if (id < 0 || id >= size) {
+            throw new IndexOutOfBoundsException("No string with ID " + id + " in dictionary of size " + size);
+        }
+        return values[id];
+    }
+
+    /**
+     * @param s,
+     *            the string
+     * @return true if s is in the dictionary
+     */
+    public boolean contains(String s) {
+        return getId(s) >= 0;
+    }
+
+    /**
+     * @return the number of strings in the dictionary
+     */
+    public int size() {
+        return size;
+    }
+}
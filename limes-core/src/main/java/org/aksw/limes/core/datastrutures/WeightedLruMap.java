@@ -0,0 +1,145 @@
+package org.aksw.limes.core.datastrutures;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/**
+ * Map bounded by the total weight of its values, e.g., their estimated size
+ * in bytes. Whenever the total weight exceeds the capacity, the least recently
+ * used entries are evicted, including the one just added if it alone exceeds
+ * the capacity. Entries of weight 0 are never evicted, so that a value which
+ * is still being computed can be added first and weighed once it is complete.
+ * The map is thread-safe.
+ *
+ * @param <K>
+ *            type of the keys
+ * @param <V>
+ *            type of the values
+ * @version 1.0
+ */
+public class WeightedLruMap<K, V> {
+
+    private final LinkedHashMap<K, Node<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final long capacity;
+    private long weight = 0;
+
+    private static final class Node<V> {
+        private final V value;
+        private long weight;
+
+        private Node(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * @param capacity
+     *            maximal total weight of the values
+     */
+    public WeightedLruMap(long capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * @param key
+     *            a key
+     * @return the value of the key or null if there is none
+     */
+    public synchronized V get(K key) {
+        Node<V> node = entries.get(key);
+        return node == null ? null : node.value;
+    }
+
+    /**
+     * @param key
+     *            a key
+     * @param value
+     *            its value
+     * @param weight
+     *            weight of the value
+     * @return the former value of the key or null if there was none
+     */
+    public synchronized V put(K key, V value, long weight) {
+        Node<V> old = entries.put(key, new Node<>(value, weight));
+        if (old != null) {
+            this.weight -= old.weight;
+        }
+        this.weight += weight;
+        evict();
+        return old == null ? null : old.value;
+    }
+
+    /**
+     * @param key
+     *            a key
+     * @param value
+     *            its value
+     * @param weight
+     *            weight of the value
+     * @return the value of the key if there is one, else null and the value
+     *         was added
+     */
+    public synchronized V putIfAbsent(K key, V value, long weight) {
+        Node<V> node = entries.get(key);
+        if (node != null) {
+            return node.value;
+        }
+        put(key, value, weight);
+        return null;
+    }
+
+    /**
+     * Changes the weight of an entry, e.g., after its value was computed.
+     * Nothing happens if the key was evicted or maps to another value since.
+     *
+     * @param key
+     *            a key
+     * @param value
+     *            the value of the key
+     * @param weight
+     *            new weight of the value
+     */
+    public synchronized void setWeight(K key, V value, long weight) {
+        Node<V> node = entries.get(key);
+        if (node != null && node.value == value) {
+            this.weight += weight - node.weight;
+            node.weight = weight;
+            evict();
+        }
+    }
+
+    private void evict() {
+        Iterator<Node<V>> lru = entries.values().iterator();
+        while (weight > capacity && lru.hasNext()) {
+            Node<V> node = lru.next();
+            if (node.weight > 0) {
+                weight -= node.weight;
+                lru.remove();
+            }
+        }
+    }
+
+    /**
+     * @return the number of entries
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the total weight of the values
+     */
+    public synchronized long getWeight() {
+        return weight;
+    }
+
+    public long getCapacity() {
+        return capacity;
+    }
+
+    public synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+}
@@ -31,6 +31,23 @@ public abstract class APseudoPRF extends APRF {
      */
     public abstract double calculate(AMapping predictions, GoldStandard goldStandard);
 
+    /**
+     * The method calculates the measure from the statistics of the predictions collected by an accumulator,
+     * see {@link #createAccumulator(GoldStandard)}
+     * @param accumulator It contains the statistics of the predictions and the number of source and target URIs
+     * @return double - This returns the calculated measure
+     */
+    public abstract double calculate(PseudoPRFAccumulator accumulator);
+
+    /**
+     * The method creates an accumulator to which the predictions can be added while they are computed
+     * @param goldStandard It contains the source and target URIs
+     * @return PseudoPRFAccumulator - an empty accumulator suitable for the flags of the measure
+     */
+    public PseudoPRFAccumulator createAccumulator(GoldStandard goldStandard) {
+        return new PseudoPRFAccumulator(goldStandard, useOneToOneMapping);
+    }
+
     /**
      * The method checks if one-to-one mapping is used
      * @return boolean - true if one-to-one mapping is used
@@ -1,7 +1,11 @@
 package org.aksw.limes.core.evaluation.qualititativeMeasures;
 
+import java.util.HashMap;
+import java.util.Map.Entry;
+
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.PrimitiveMapping;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,6 +57,92 @@ public class PseudoFMeasure extends APseudoPRF {
     public double getPseudoFMeasure(AMapping predictions, GoldStandard goldStandard, double beta) {
         double p = precision(predictions, goldStandard);// getPseudoPrecision(sourceUris, targetUris, result);
         double r = recall(predictions, goldStandard); //getPseudoRecall(sourceUris, targetUris, result);        
+        return fMeasure(p, r, beta);
+    }
+
+    /** 
+     * The method calculates the pseudo F-Measure for beta = 1 from the statistics of the predictions collected by an accumulator.
+     * @param accumulator It contains the statistics of the predictions.
+     * @return double - This returns the calculated pseudo F-Measure.
+     */
+    @Override
+    public double calculate(PseudoPRFAccumulator accumulator) {
+        return getPseudoFMeasure(accumulator, 1);
+    }
+
+    /** 
+     * The method calculates the pseudo F-Measure for different beta values from the statistics of the predictions collected by an accumulator.
+     * @param accumulator It contains the statistics of the predictions
+     * @param beta   Beta for F-beta
+     * @return double - This returns the calculated pseudo F-Measure
+     */
+    public double getPseudoFMeasure(PseudoPRFAccumulator accumulator, double beta) {
+        return fMeasure(precision(accumulator), recall(accumulator), beta);
+    }
+
+    /** 
+     * The method bounds the pseudo F-Measure of all predictions which contain the links added to an accumulator,
+     * assuming that all links connect source and target URIs. Adding links never increases the bound, hence a
+     * candidate whose bound does not exceed the best pseudo F-Measure so far can be discarded before all its links
+     * are produced. The bound holds for the asymmetric precision and in one-to-one mode as well, since the best
+     * links never link more URIs than all links. Subclasses which change how precision or recall are computed have
+     * to override this method.
+     * @param accumulator It contains the statistics of the links produced so far
+     * @param beta   Beta for F-beta
+     * @return double - This returns the upper bound of the pseudo F-Measure, infinity if there is none
+     */
+    public double getPseudoFMeasureUpperBound(PseudoPRFAccumulator accumulator, double beta) {
+        double reference = accumulator.getSourceSize() + accumulator.getTargetSize();
+        if (reference == 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        double linked = accumulator.getSourceCount() + accumulator.getTargetCount();
+        double unlinked = Math.max(0, reference - linked);
+        double links = accumulator.getLinks();
+        // sources without links raise the precision most, they add linked URIs but no links
+        double unlinkedSources = Math.max(0, accumulator.getSourceSize() - accumulator.getSourceCount());
+        double p;
+        if (!isSymmetricPrecision()) {
+            p = (accumulator.getSourceCount() + unlinkedSources) / Math.max(links, 1);
+        } else {
+            // a further target needs a further link, the precision is monotone in the number
+            // of further targets, hence maximal for none, one or all of them
+            double unlinkedTargets = Math.max(0, accumulator.getTargetSize() - accumulator.getTargetCount());
+            p = 0;
+            for (double targets : new double[] { 0, Math.min(1, unlinkedTargets), unlinkedTargets }) {
+                p = Math.max(p, (linked + unlinkedSources + targets) / (2 * Math.max(links + targets, 1)));
+            }
+        }
+        double r = (linked + unlinked) / reference;
+        return Math.max(fMeasure(p, r, beta), getPseudoFMeasure(accumulator, beta));
+    }
+
+    /** 
+     * The method adds the predictions to an accumulator source by source as long as their pseudo F-Measure may
+     * exceed the given value, see {@link #getPseudoFMeasureUpperBound(PseudoPRFAccumulator, double)}.
+     * @param accumulator The accumulator the links are added to
+     * @param predictions The predictions provided by a machine learning algorithm
+     * @param beta   Beta for F-beta
+     * @param best The pseudo F-Measure to exceed
+     * @return boolean - true if all predictions were added, false if the pseudo F-Measure of the predictions and of
+     * all predictions containing them does not exceed best
+     */
+    public boolean accumulate(PseudoPRFAccumulator accumulator, AMapping predictions, double beta, double best) {
+        if (predictions instanceof PrimitiveMapping) {
+            // has no nested maps to add source by source
+            accumulator.addAll(predictions);
+        } else {
+            for (Entry<String, HashMap<String, Double>> e : predictions.getMap().entrySet()) {
+                accumulator.addAll(e.getKey(), e.getValue());
+                if (getPseudoFMeasureUpperBound(accumulator, beta) <= best) {
+                    return false;
+                }
+            }
+        }
+        return !(getPseudoFMeasureUpperBound(accumulator, beta) <= best);
+    }
+
+    private static double fMeasure(double p, double r, double beta) {
         if (p == 0 && r == 0) {
             return 0.0;
         }
@@ -67,7 +157,7 @@ public class PseudoFMeasure extends APseudoPRF {
      * @return double - This returns the calculated pseudo recall
      */
     public double recall(AMapping predictions, GoldStandard goldStandard) {
-        return new PseudoRecall().calculate(predictions, goldStandard);
+        return withFlags(new PseudoRecall()).calculate(predictions, goldStandard);
     }
 
     /** 
@@ -77,7 +167,36 @@ public class PseudoFMeasure extends APseudoPRF {
      * @return double - This returns the calculated pseudo precision
      */
     public double precision(AMapping predictions, GoldStandard goldStandard) {
-        return new PseudoPrecision().calculate(predictions, goldStandard);
+        return withFlags(new PseudoPrecision()).calculate(predictions, goldStandard);
+    }
+
+    /** 
+     * The method calculates the pseudo recall from the statistics of the predictions collected by an accumulator
+     * @param accumulator It contains the statistics of the predictions
+     * @return double - This returns the calculated pseudo recall
+     */
+    public double recall(PseudoPRFAccumulator accumulator) {
+        return withFlags(new PseudoRecall()).calculate(accumulator);
+    }
+
+    /** 
+     * The method calculates the pseudo precision from the statistics of the predictions collected by an accumulator
+     * @param accumulator It contains the statistics of the predictions
+     * @return double - This returns the calculated pseudo precision
+     */
+    public double precision(PseudoPRFAccumulator accumulator) {
+        return withFlags(new PseudoPrecision()).calculate(accumulator);
+    }
+
+    /**
+     * The method passes the symmetric precision and one-to-one flags of this measure on to a sub-measure
+     * @param measure The precision or recall this measure is computed from
+     * @return T - the measure
+     */
+    protected <T extends APseudoPRF> T withFlags(T measure) {
+        measure.setSymmetricPrecision(isSymmetricPrecision());
+        measure.setUse1To1Mapping(isUse1To1Mapping());
+        return measure;
     }
 
 }
@@ -0,0 +1,296 @@
+package org.aksw.limes.core.evaluation.qualititativeMeasures;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Set;
+
+import org.aksw.limes.core.datastrutures.GoldStandard;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.PrimitiveMapping;
+
+/**
+ * Collects the statistics the pseudo-measures are computed from while the
+ * links of a mapping are produced, so that neither the mapping nor its
+ * reversed or best one-to-n copies have to be materialized. The memory needed
+ * is linear in the number of linked URIs, not in the number of links.<br>
+ * The pseudo-measures are computed from an accumulator by
+ * {@link APseudoPRF#calculate(PseudoPRFAccumulator)}, and
+ * {@link PseudoFMeasure#getPseudoFMeasureUpperBound(PseudoPRFAccumulator, double)}
+ * bounds the pseudo F-Measure of any mapping containing the links added so
+ * far, which allows to stop evaluating candidates that cannot beat the best
+ * one.<br>
+ * Every link has to be added once. An accumulator is not thread-safe, parallel
+ * workers fill one accumulator each for disjoint sets of links and
+ * {@link #merge(PseudoPRFAccumulator)} them afterwards.
+ *
+ * @version 1.0
+ */
+public class PseudoPRFAccumulator {
+
+    private final int sourceSize;
+    private final int targetSize;
+    private final boolean oneToN;
+
+    private long links = 0;
+    private final Set<String> sources = new HashSet<>();
+    private final Set<String> targets = new HashSet<>();
+
+    /**
+     * Targets with the highest confidence per source, null unless the best
+     * one-to-n links are tracked.
+     */
+    private final Map<String, BestTargets> bestTargets;
+    /**
+     * Number of sources each target is a best target of.
+     */
+    private final Map<String, Integer> bestTargetCounts;
+
+    private static class BestTargets {
+        double confidence = 0;
+        Set<String> targets = new HashSet<>();
+    }
+
+    /**
+     * @param sourceSize
+     *            number of source URIs
+     * @param targetSize
+     *            number of target URIs
+     * @param oneToN
+     *            if true, the best one-to-n links are tracked as well, which
+     *            the measures need in one-to-one mode
+     */
+    public PseudoPRFAccumulator(int sourceSize, int targetSize, boolean oneToN) {
+        this.sourceSize = sourceSize;
+        this.targetSize = targetSize;
+        this.oneToN = oneToN;
+        this.bestTargets = oneToN ? new HashMap<>() : null;
+        this.bestTargetCounts = oneToN ? new HashMap<>() : null;
+    }
+
+    /**
+     * @param goldStandard
+     *            its source and target URIs are the reference of the recall,
+     *            missing ones count as none
+     * @param oneToN
+     *            if true, the best one-to-n links are tracked as well
+     */
+    public PseudoPRFAccumulator(GoldStandard goldStandard, boolean oneToN) {
+        this(goldStandard.sourceUris == null ? 0 : goldStandard.sourceUris.size(),
+                goldStandard.targetUris == null ? 0 : goldStandard.targetUris.size(), oneToN);
+    }
+
+    /**
+     * Adds a link.
+     *
+     * @param source
+     *            source URI
+     * @param target
+     *            target URI
+     * @param confidence
+     *            similarity of the link
+     */
+    public void add(String source, String target, double confidence) {
+        links++;
+        sources.add(source);
+        targets.add(target);
+        if (oneToN) {
+            addBestTargets(source, confidence, Collections.singleton(target));
+        }
+    }
+
+    /**
+     * Adds all links of a mapping. As with the mapping itself, sources
+     * without any target count as linked sources.
+     *
+     * @param mapping
+     *            a mapping
+     */
+    public void addAll(AMapping mapping) {
+        if (mapping instanceof PrimitiveMapping) {
+            // avoids materializing the nested maps
+            ((PrimitiveMapping) mapping).forEachLink(this::add);
+            return;
+        }
+        for (Entry<String, HashMap<String, Double>> e : mapping.getMap().entrySet()) {
+            addAll(e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Adds the links of one source.
+     *
+     * @param source
+     *            source URI
+     * @param targetConfidences
+     *            its targets and their similarities
+     */
+    public void addAll(String source, Map<String, Double> targetConfidences) {
+        sources.add(source);
+        for (Entry<String, Double> e : targetConfidences.entrySet()) {
+            add(source, e.getKey(), e.getValue());
+        }
+    }
+
+    /**
+     * Adds the statistics of another accumulator, e.g., of another worker.
+     * The links added to both accumulators have to be disjoint.
+     *
+     * @param other
+     *            accumulator for the same source and target URIs
+     */
+    public void merge(PseudoPRFAccumulator other) {
+        if (other.oneToN != oneToN || other.sourceSize != sourceSize || other.targetSize != targetSize) {
+            throw new IllegalArgumentException("Only accumulators for the same reference and mode can be merged");
+        }
+        links += other.links;
+        sources.addAll(other.sources);
+        targets.addAll(other.targets);
+        if (oneToN) {
+            for (Entry<String, BestTargets> e : other.bestTargets.entrySet()) {
+                addBestTargets(e.getKey(), e.getValue().confidence, e.getValue().targets);
+            }
+        }
+    }
+
+    /**
+     * Same semantics as {@link AMapping#getBestOneToNMapping()}: the targets
+     * with the maximal non-negative confidence are kept per source.
+     */
+    private void addBestTargets(String source, double confidence, Collection<String> candidates) {
+        if (confidence < 0 || candidates.isEmpty()) {
+            return;
+        }
+        BestTargets best = bestTargets.get(source);
+        if (best == null) {
+            best = new BestTargets();
+            bestTargets.put(source, best);
+        }
+        if (confidence > best.confidence) {
+            for (String t : best.targets) {
+                bestTargetCounts.computeIfPresent(t, (k, c) -> c == 1 ? null : c - 1);
+            }
+            best.targets.clear();
+            best.confidence = confidence;
+        }
+        if (confidence == best.confidence) {
+            for (String t : candidates) {
+                if (best.targets.add(t)) {
+                    bestTargetCounts.merge(t, 1, Integer::sum);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return true if the best one-to-n links are tracked
+     */
+    public boolean isOneToN() {
+        return oneToN;
+    }
+
+    /**
+     * @return number of links added
+     */
+    public long getLinks() {
+        return links;
+    }
+
+    /**
+     * @return number of distinct linked sources
+     */
+    public int getSourceCount() {
+        return sources.size();
+    }
+
+    /**
+     * @return number of distinct linked targets
+     */
+    public int getTargetCount() {
+        return targets.size();
+    }
+
+    /**
+     * @return number of sources of the best one-to-n links
+     */
+    public int getBestSourceCount() {
+        checkOneToN();
+        return bestTargets.size();
+    }
+
+    /**
+     * @return number of targets of the best one-to-n links
+     */
+    public int getBestTargetCount() {
+        checkOneToN();
+        return bestTargetCounts.size();
+    }
+
+    /**
+     * @return number of sources of the best one-to-one links, see
+     *         {@link #getBestOneToOneLinks()}
+     */
+    public int getBestOneToOneSourceCount() {
+        return countBestOneToOne()[0];
+    }
+
+    /**
+     * Same semantics as {@link AMapping#getBestOneToOneMappings(AMapping)}:
+     * of the best one-to-n links, the links with the maximal confidence per
+     * target are kept. They are counted from the best one-to-n links in time
+     * linear in their number.
+     *
+     * @return number of the best one-to-one links
+     */
+    public int getBestOneToOneLinks() {
+        return countBestOneToOne()[1];
+    }
+
+    private int[] countBestOneToOne() {
+        checkOneToN();
+        Map<String, Double> maxConfidences = new HashMap<>();
+        for (BestTargets best : bestTargets.values()) {
+            for (String t : best.targets) {
+                maxConfidences.merge(t, best.confidence, Math::max);
+            }
+        }
+        int sources = 0;
+        int links = 0;
+        for (BestTargets best : bestTargets.values()) {
+            int kept = 0;
+            for (String t : best.targets) {
+                if (best.confidence == maxConfidences.get(t)) {
+                    kept++;
+                }
+            }
+            links += kept;
+            if (kept > 0) {
+                sources++;
+            }
+        }
+        return new int[] { sources, links };
+    }
+
+    private void checkOneToN() {
+        if (!oneToN) {
+            throw new IllegalStateException("The best one-to-n links are not tracked by this accumulator");
+        }
+    }
+
+    /**
+     * @return number of source URIs
+     */
+    public int getSourceSize() {
+        return sourceSize;
+    }
+
+    /**
+     * @return number of target URIs
+     */
+    public int getTargetSize() {
+        return targetSize;
+    }
+}
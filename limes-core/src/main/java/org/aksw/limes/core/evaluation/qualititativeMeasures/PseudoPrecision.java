@@ -42,22 +42,25 @@ public class PseudoPrecision extends APseudoPRF {
      */
     @Override
     public double calculate(AMapping predictions, GoldStandard goldStandard) {
-        AMapping res = predictions;
-        AMapping rev = res.reverseSourceTarget();
-        if (useOneToOneMapping) {
-            res = predictions.getBestOneToNMapping();
-            rev = res.reverseSourceTarget().getBestOneToNMapping();
-        }
-        double p = res.getMap().keySet().size();
+        PseudoPRFAccumulator accumulator = createAccumulator(goldStandard);
+        accumulator.addAll(predictions);
+        return calculate(accumulator);
+    }
+
+    /** 
+     * The method calculates the pseudo precision from the statistics of the predictions collected by an accumulator.
+     * In one-to-one mode, the accumulator has to track the best one-to-n links.
+     * @param accumulator It contains the statistics of the predictions.
+     * @return double - This returns the calculated pseudo precision.
+     */
+    @Override
+    public double calculate(PseudoPRFAccumulator accumulator) {
+        double p = useOneToOneMapping ? accumulator.getBestSourceCount() : accumulator.getSourceCount();
+        if (isSymmetricPrecision())
+            p = p + (useOneToOneMapping ? accumulator.getBestTargetCount() : accumulator.getTargetCount());
+        double q = accumulator.getLinks();
         if (isSymmetricPrecision())
-            p = res.getMap().keySet().size() + rev.getMap().keySet().size();
-        double q = 0;
-        for (String s : predictions.getMap().keySet()) {
-            if (isSymmetricPrecision())
-                q = q + 2 * predictions.getMap().get(s).size();
-            else
-                q = q + predictions.getMap().get(s).size();
-        }
+            q = 2 * q;
         if (p == 0 || q == 0) return 0;
         return p / q;
     }
@@ -1,8 +1,5 @@
 package org.aksw.limes.core.evaluation.qualititativeMeasures;
 
-import java.util.HashSet;
-import java.util.Set;
-
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.slf4j.Logger;
@@ -47,18 +44,22 @@ public class PseudoRecall extends APseudoPRF {
      */
 
     public double calculate(AMapping predictions, GoldStandard goldStandard) {
-        AMapping res = predictions;
-        if (useOneToOneMapping) {
-            res = predictions.getBestOneToNMapping();
-        }
-        double q = res.getMap().keySet().size();
-        Set<String> values = new HashSet<String>();
-        for (String s : res.getMap().keySet()) {
-            for (String t : res.getMap().get(s).keySet()) {
-                values.add(t);
-            }
-        }
-        double reference = (double) (goldStandard.sourceUris.size() + goldStandard.targetUris.size());
-        return (q + values.size()) / reference;
+        PseudoPRFAccumulator accumulator = createAccumulator(goldStandard);
+        accumulator.addAll(predictions);
+        return calculate(accumulator);
+    }
+
+    /** 
+     * The method calculates the pseudo recall from the statistics of the predictions collected by an accumulator.
+     * In one-to-one mode, the accumulator has to track the best one-to-n links.
+     * @param accumulator It contains the statistics of the predictions.
+     * @return double - This returns the calculated pseudo recall.
+     */
+    @Override
+    public double calculate(PseudoPRFAccumulator accumulator) {
+        double q = useOneToOneMapping ? accumulator.getBestSourceCount() : accumulator.getSourceCount();
+        double values = useOneToOneMapping ? accumulator.getBestTargetCount() : accumulator.getTargetCount();
+        double reference = (double) (accumulator.getSourceSize() + accumulator.getTargetSize());
+        return (q + values) / reference;
     }
 }
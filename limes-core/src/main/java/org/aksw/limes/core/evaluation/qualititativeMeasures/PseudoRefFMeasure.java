@@ -42,7 +42,7 @@ public class PseudoRefFMeasure extends PseudoFMeasure {
      * @return double - This returns the calculated reference pseudo recall
      */
     public double recall(AMapping predictions, GoldStandard goldStandard) {
-        return new PseudoRefRecall().calculate(predictions, goldStandard);
+        return withFlags(new PseudoRefRecall()).calculate(predictions, goldStandard);
     }
 
     /** 
@@ -52,6 +52,37 @@ public class PseudoRefFMeasure extends PseudoFMeasure {
      * @return double - This returns the calculated pseudo reference precision
      */
     public double precision(AMapping predictions, GoldStandard goldStandard) {
-        return new PseudoRefPrecision().calculate(predictions, goldStandard);
+        return withFlags(new PseudoRefPrecision()).calculate(predictions, goldStandard);
+    }
+
+    /** 
+     * The method calculates the pseudo reference recall from the statistics of the predictions collected by an accumulator
+     * @param accumulator It contains the statistics of the predictions
+     * @return double - This returns the calculated reference pseudo recall
+     */
+    @Override
+    public double recall(PseudoPRFAccumulator accumulator) {
+        return withFlags(new PseudoRefRecall()).calculate(accumulator);
+    }
+
+    /** 
+     * The method calculates the pseudo reference precision from the statistics of the predictions collected by an accumulator
+     * @param accumulator It contains the statistics of the predictions
+     * @return double - This returns the calculated pseudo reference precision
+     */
+    @Override
+    public double precision(PseudoPRFAccumulator accumulator) {
+        return withFlags(new PseudoRefPrecision()).calculate(accumulator);
+    }
+
+    /** 
+     * The pseudo reference recall grows with every link, hence there is no bound.
+     * @param accumulator It contains the statistics of the links produced so far
+     * @param beta   Beta for F-beta
+     * @return double - infinity
+     */
+    @Override
+    public double getPseudoFMeasureUpperBound(PseudoPRFAccumulator accumulator, double beta) {
+        return Double.POSITIVE_INFINITY;
     }
 }
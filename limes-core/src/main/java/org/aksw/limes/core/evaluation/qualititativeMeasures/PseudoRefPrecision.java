@@ -38,4 +38,18 @@ public class PseudoRefPrecision extends PseudoPrecision {
         if (p == 0 || q == 0) return 0;
         return p / q;
     }
+
+    /** 
+     * The method calculates the pseudo reference Precision from the statistics of the predictions collected by an accumulator.
+     * In one-to-one mode, the accumulator has to track the best one-to-n links.
+     * @param accumulator It contains the statistics of the predictions.
+     * @return double - This returns the calculated pseudo reference Precision.
+     */
+    @Override
+    public double calculate(PseudoPRFAccumulator accumulator) {
+        double p = useOneToOneMapping ? accumulator.getBestOneToOneSourceCount() : accumulator.getSourceCount();
+        double q = useOneToOneMapping ? accumulator.getBestOneToOneLinks() : accumulator.getLinks();
+        if (p == 0 || q == 0) return 0;
+        return p / q;
+    }
 }
@@ -41,4 +41,16 @@ public class PseudoRefRecall extends PseudoRecall {
         }
         return size / Math.min(goldStandard.sourceUris.size(), goldStandard.targetUris.size());
     }
+
+    /** 
+     * The method calculates the pseudo reference Recall from the statistics of the predictions collected by an accumulator.
+     * In one-to-one mode, the accumulator has to track the best one-to-n links.
+     * @param accumulator It contains the statistics of the predictions.
+     * @return double - This returns the calculated pseudo reference Recall.
+     */
+    @Override
+    public double calculate(PseudoPRFAccumulator accumulator) {
+        double size = useOneToOneMapping ? accumulator.getBestOneToOneLinks() : accumulator.getLinks();
+        return size / Math.min(accumulator.getSourceSize(), accumulator.getTargetSize());
+    }
 }
@@ -0,0 +1,19 @@
+package org.aksw.limes.core.exceptions;
+
+/**
+ * Exception class for executions whose intermediate mappings exceed the
+ * maximal mapping size of the execution engine.
+ *
+ * @version 1.0
+ */
+public class MappingSizeExceededException extends RuntimeException {
+
+    /**
+     *
+     */
+    private static final long serialVersionUID = -2870911412335146853L;
+
+    public MappingSizeExceededException(long size, long maxSize) {
+        super("Mapping of " + size + " links exceeds the maximal size of " + maxSize + " links.");
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperArtifacts;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,6 +40,19 @@ public abstract class ExecutionEngine implements IExecutionEngine {
      * Target cache.
      */
     protected ACache target;
+    /**
+     * Artifacts the mappers derive from the property values, shared by the
+     * atomic specifications of an execution.
+     */
+    protected MapperArtifacts artifacts;
+    /**
+     * Maximal number of links of the intermediate mappings of an execution.
+     */
+    protected long maxMappingSize = Long.MAX_VALUE;
+    /**
+     * Number of threads each mapper of an execution may use.
+     */
+    protected int mapperParallelism = 1;
 
     /**
      * Constructor for an execution engine.
@@ -58,5 +72,56 @@ public abstract class ExecutionEngine implements IExecutionEngine {
         this.target = target;
         this.sourceVariable = sourceVar;
         this.targetVariable = targetVar;
+        this.artifacts = new MapperArtifacts();
+    }
+
+    public MapperArtifacts getArtifacts() {
+        return artifacts;
+    }
+
+    /**
+     * Sets the store of the artifacts shared by the mappers, e.g., to bound
+     * it by a different capacity.
+     *
+     * @param artifacts
+     *            the store or null to let every mapper build its artifacts
+     */
+    public void setArtifacts(MapperArtifacts artifacts) {
+        this.artifacts = artifacts;
+    }
+
+    public long getMaxMappingSize() {
+        return maxMappingSize;
+    }
+
+    /**
+     * Bounds the size of the intermediate mappings of an execution. An
+     * execution is aborted with a
+     * {@link org.aksw.limes.core.exceptions.MappingSizeExceededException} as
+     * soon as a mapper adds more links to its mapping, see
+     * {@link org.aksw.limes.core.measures.mapper.AMapper#setMaxMappingSize(long)},
+     * or a filter or an operator returns more links, so that runaway
+     * specifications fail before their mappings are complete.
+     *
+     * @param maxMappingSize
+     *            the maximal number of links, Long.MAX_VALUE by default
+     */
+    public void setMaxMappingSize(long maxMappingSize) {
+        this.maxMappingSize = maxMappingSize;
+    }
+
+    public int getMapperParallelism() {
+        return mapperParallelism;
+    }
+
+    /**
+     * Sets the number of threads each mapper may use, e.g., for the probe
+     * phases of PPJoin+ and Ed-Join or the comparisons of HR3 and Orchid.
+     *
+     * @param mapperParallelism
+     *            the number of threads, 1 (serial mappers) by default
+     */
+    public void setMapperParallelism(int mapperParallelism) {
+        this.mapperParallelism = Math.max(1, mapperParallelism);
     }
 }
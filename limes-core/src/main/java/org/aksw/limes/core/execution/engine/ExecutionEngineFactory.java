@@ -19,7 +19,7 @@ public class ExecutionEngineFactory {
      * Enum class of allowed execution engine types.
      */
     public enum ExecutionEngineType {
-        DEFAULT, SIMPLE
+        DEFAULT, SIMPLE, PARALLEL
     }
 
     /**
@@ -30,6 +30,10 @@ public class ExecutionEngineFactory {
      * Execution engine factory field for simple execution engine.
      */
     public static final String SIMPLE = "simple";
+    /**
+     * Execution engine factory field for parallel execution engine.
+     */
+    public static final String PARALLEL = "parallel";
 
     /**
      * Factory function for retrieving an execution engine name from
@@ -46,6 +50,9 @@ public class ExecutionEngineFactory {
         if (name.equalsIgnoreCase(SIMPLE)) {
             return ExecutionEngineType.SIMPLE;
         }
+        if (name.equalsIgnoreCase(PARALLEL)) {
+            return ExecutionEngineType.PARALLEL;
+        }
         logger.error(
                 "Sorry, " + name + " is not yet implemented. Returning the default execution engine type instead...");
         return ExecutionEngineType.DEFAULT;
@@ -73,6 +80,8 @@ public class ExecutionEngineFactory {
             case DEFAULT:
             case SIMPLE:
                 return new SimpleExecutionEngine(source, target, sourceVar, targetVar);
+            case PARALLEL:
+                return new ParallelExecutionEngine(source, target, sourceVar, targetVar);
             default:
                 logger.error(
                         "Sorry, " + type + " is not yet implemented. Returning the default execution engine instead...");
@@ -80,4 +89,38 @@ public class ExecutionEngineFactory {
         }
     }
 
+    /**
+     * Factory function for retrieving the desired execution engine instance
+     * with a given degree of parallelism. Parallel execution engines execute
+     * independent parts of a plan with that many threads, sequential ones
+     * pass it on to their mappers instead.
+     * 
+     * @param type
+     *            Type of the Execution Engine
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     * @param parallelism
+     *            Number of threads used by parallel execution engines, 0 for
+     *            the default of the engine
+     * @return a specific execution engine instance
+     * 
+     */
+    public static ExecutionEngine getEngine(ExecutionEngineType type, ACache source, ACache target, String sourceVar,
+            String targetVar, int parallelism) {
+        if (type == ExecutionEngineType.PARALLEL && parallelism > 0) {
+            return new ParallelExecutionEngine(source, target, sourceVar, targetVar, parallelism);
+        }
+        ExecutionEngine engine = getEngine(type, source, target, sourceVar, targetVar);
+        if (!(engine instanceof ParallelExecutionEngine) && parallelism > 0) {
+            engine.setMapperParallelism(parallelism);
+        }
+        return engine;
+    }
+
 }
@@ -1,23 +1,84 @@
 package org.aksw.limes.core.execution.engine;
 
-import org.aksw.limes.core.execution.planning.planner.IPlanner;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinPool.ForkJoinWorkerThreadFactory;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+
+import org.aksw.limes.core.datastrutures.LogicOperator;
+import org.aksw.limes.core.execution.engine.filter.LinearFilter;
+import org.aksw.limes.core.execution.planning.plan.Instruction;
+import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
+import org.aksw.limes.core.execution.planning.plan.NestedPlan;
+import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.MappingOperations;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
- * Implements the default execution engine class. The idea is that the engine
+ * Implements the parallel execution engine class. The idea is that the engine
  * gets as input a link specification and a planner type, executes the
  * independent parts of the plan returned from the planner in parallel and
  * returns a MemoryMemoryMapping.
  *
+ * A nested plan is executed as a tree of fork/join tasks on a work-stealing
+ * pool: the subplans of a complex plan are forked as independent tasks and
+ * the operator of the plan is applied as soon as the mappings of its subplans
+ * are available, followed by the filtering instruction of the plan (if any).
+ * The results are combined in the order of the subplans, hence the returned
+ * mapping is the same as the one of the {@link SimpleExecutionEngine}.
+ *
+ * Engines with the same parallelism share one pool, whose idle worker threads
+ * terminate, hence creating an engine for each execution leaks no threads. The
+ * workers are daemon threads, so that they do not keep the JVM alive, and the
+ * parallelism of the shared pools is capped at
+ * {@link #MAX_SHARED_PARALLELISM}, which bounds the number of pools.
+ *
+ * For the Dynamic planner, only the children of OR and XOR specifications are
+ * executed in parallel, since AND and MINUS specifications are re-planned
+ * given the result of their first child. All calls to the Dynamic planner are
+ * synchronized on the planner.
  *
  * @author Kleanthi Georgala (georgala@informatik.uni-leipzig.de)
  * @version 1.0
  */
-public class ParallelExecutionEngine extends ExecutionEngine {
+public class ParallelExecutionEngine extends SimpleExecutionEngine {
+
+    static Logger logger = LoggerFactory.getLogger(ParallelExecutionEngine.class);
     /**
-     * Constructor for a parallel execution engine.
+     * Largest parallelism of the shared pools.
+     */
+    public static final int MAX_SHARED_PARALLELISM = 4 * Runtime.getRuntime().availableProcessors();
+    private static final ForkJoinWorkerThreadFactory daemonThreads = pool -> {
+        ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(pool);
+        thread.setDaemon(true);
+        return thread;
+    };
+    /**
+     * Pools shared by the engines, indexed by their parallelism.
+     */
+    private static final Map<Integer, ForkJoinPool> sharedPools = new ConcurrentHashMap<Integer, ForkJoinPool>();
+    /**
+     * Work-stealing pool used to execute the plans.
+     */
+    private ForkJoinPool pool;
+    /**
+     * Map of intermediate mappings. Used for dynamic planning.
+     */
+    private Map<String, AMapping> dynamicResults = new ConcurrentHashMap<String, AMapping>();
+
+    /**
+     * Constructor for a parallel execution engine. The engine uses as many
+     * threads as available processors.
      *
      * @param source
      *            Source cache
@@ -29,22 +90,336 @@ public class ParallelExecutionEngine extends ExecutionEngine {
      *            Target variable
      */
     public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar) {
+        this(source, target, sourceVar, targetVar, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructor for a parallel execution engine.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     * @param parallelism
+     *            Number of threads of the work-stealing pool, which is shared
+     *            with the other engines of the same parallelism, at most
+     *            {@link #MAX_SHARED_PARALLELISM}
+     */
+    public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar,
+            int parallelism) {
+        this(source, target, sourceVar, targetVar, getSharedPool(parallelism));
+    }
+
+    /**
+     * Constructor for a parallel execution engine that executes its plans on
+     * an existing pool, e.g. one shared by several engines.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param sourceVar
+     *            Source variable
+     * @param targetVar
+     *            Target variable
+     * @param pool
+     *            Work-stealing pool used to execute the plans
+     */
+    public ParallelExecutionEngine(ACache source, ACache target, String sourceVar, String targetVar,
+            ForkJoinPool pool) {
         super(source, target, sourceVar, targetVar);
+        this.pool = pool;
+    }
+
+    /**
+     * @param parallelism
+     *            Number of threads of the pool, at most
+     *            {@link #MAX_SHARED_PARALLELISM}
+     * @return the pool shared by the engines with the given parallelism
+     */
+    public static ForkJoinPool getSharedPool(int parallelism) {
+        return sharedPools.computeIfAbsent(Math.max(1, Math.min(MAX_SHARED_PARALLELISM, parallelism)),
+                p -> new ForkJoinPool(p, daemonThreads, null, false));
+    }
+
+    ForkJoinPool getPool() {
+        return pool;
     }
 
     /**
-     * Implementation of the execution of an execution plan. Independent parts
-     * of the plan are executed in parallel.
+     * @return the number of threads of the pool of the engine
+     */
+    public int getParallelism() {
+        return pool.getParallelism();
+    }
+
+    /**
+     * Implements the difference between two mappings, partitioning large
+     * mappings over the threads of the engine.
+     */
+    @Override
+    public AMapping executeDifference(AMapping m1, AMapping m2) {
+        return MappingOperations.difference(m1, m2, getParallelism());
+    }
+
+    /**
+     * Implements the intersection between two mappings, partitioning large
+     * mappings over the threads of the engine.
+     */
+    @Override
+    public AMapping executeIntersection(AMapping m1, AMapping m2) {
+        return MappingOperations.intersection(m1, m2, getParallelism());
+    }
+
+    /**
+     * Implements the union between two mappings, partitioning large mappings
+     * over the threads of the engine.
+     */
+    @Override
+    public AMapping executeUnion(AMapping m1, AMapping m2) {
+        return MappingOperations.union(m1, m2, getParallelism());
+    }
+
+    /**
+     * Invokes a task on the pool of the engine. If the caller is already a
+     * worker of the pool, the task is executed directly.
+     *
+     * @param task
+     *            The task to execute
+     * @return The mapping computed by the task
+     */
+    private AMapping invoke(RecursiveTask<AMapping> task) {
+        if (ForkJoinTask.getPool() == pool) {
+            return task.invoke();
+        }
+        return pool.invoke(task);
+    }
+
+    /**
+     * Executes an immutable nested plan in parallel. See
+     * {@link SimpleExecutionEngine#executeStatic(NestedPlan)}. The subplans of
+     * a complex plan are executed as independent tasks.
+     *
+     * @param plan
+     *            A nested plan created by a static planner (Canonical or
+     *            Helios)
+     * @return The mapping obtained from executing the plan
+     */
+    @Override
+    public AMapping executeStatic(NestedPlan plan) {
+        return invoke(new StaticPlanTask(plan));
+    }
+
+    /**
+     * Executes an input link specification in a dynamic fashion. See
+     * {@link SimpleExecutionEngine#executeDynamic(LinkSpecification, DynamicPlanner)}.
+     * The children of OR and XOR specifications are executed as independent
+     * tasks.
      *
      * @param spec
      *            The input link specification
-     * @param planner
-     *            The chosen planner
-     * @return The mapping from running the plan
+     * @param planner,
+     *            The dynamic planner
+     * @return The mapping obtained from executing the link specification.
      */
     @Override
-    public AMapping execute(LinkSpecification spec, IPlanner planner) {
-        throw new UnsupportedOperationException("Not implemented yet");
+    public AMapping executeDynamic(LinkSpecification spec, DynamicPlanner planner) {
+        return invoke(new DynamicSpecTask(spec, planner));
+    }
+
+    /**
+     * Task that executes a nested plan created by a static planner.
+     */
+    private class StaticPlanTask extends RecursiveTask<AMapping> {
+
+        private static final long serialVersionUID = 1L;
+
+        private NestedPlan plan;
+
+        StaticPlanTask(NestedPlan plan) {
+            this.plan = plan;
+        }
+
+        @Override
+        protected AMapping compute() {
+            AMapping m = MappingFactory.createDefaultMapping();
+            if (plan.isEmpty()) {
+            } // atomic nested plans use their own buffer, so that they can run
+              // concurrently
+            else if (plan.isAtomic()) {
+                m = executeInstructions(plan, new ArrayList<AMapping>());
+            } else {
+                List<NestedPlan> subPlans = plan.getSubPlans();
+                List<StaticPlanTask> tasks = new ArrayList<StaticPlanTask>(subPlans.size());
+                for (NestedPlan subPlan : subPlans) {
+                    tasks.add(new StaticPlanTask(subPlan));
+                }
+                // fork all but the first subplan and run the first one in
+                // the current thread
+                for (int i = tasks.size() - 1; i > 0; i--) {
+                    tasks.get(i).fork();
+                }
+                m = tasks.get(0).invoke();
+                for (int i = 1; i < tasks.size(); i++) {
+                    AMapping m2 = tasks.get(i).join();
+                    m = checkMappingSize(executeOwnedOperator(plan.getOperator(), plan.getThreshold(), m, m2));
+                }
+                if (plan.getFilteringInstruction() != null) {
+                    m = executeFilter(plan.getFilteringInstruction(), m);
+                }
+            }
+            return m;
+        }
+    }
+
+    /**
+     * Task that executes a link specification using a dynamic planner.
+     */
+    private class DynamicSpecTask extends RecursiveTask<AMapping> {
+
+        private static final long serialVersionUID = 1L;
+
+        private LinkSpecification spec;
+        private DynamicPlanner planner;
+
+        DynamicSpecTask(LinkSpecification spec, DynamicPlanner planner) {
+            this.spec = spec;
+            this.planner = planner;
+        }
+
+        @Override
+        protected AMapping compute() {
+            long begin = System.currentTimeMillis();
+            long end = 0;
+            AMapping m = MappingFactory.createDefaultMapping();
+            NestedPlan plan = new NestedPlan();
+            boolean executed;
+            String dependent;
+            synchronized (planner) {
+                executed = planner.isExecuted(spec);
+                dependent = executed ? null : planner.getDependency(spec);
+            }
+            if (executed) {
+                if (dynamicResults.containsKey(spec.toString())) {
+                    return dynamicResults.get(spec.toString());
+                } else {
+                    logger.info("Error in spec: " + spec + ". Result not stored.");
+                    throw new RuntimeException();
+                }
+            }
+            if (dependent != null) {
+                AMapping dependentM = dynamicResults.get(dependent);
+                if (spec.getThreshold() > 0) {
+                    // create a temporary filtering instruction
+                    Instruction tempFilteringInstruction = new Instruction(Instruction.Command.FILTER, null,
+                            spec.getThreshold() + "", -1, -1, 0);
+                    m = executeFilter(tempFilteringInstruction, dependentM);
+                }
+            } else if (spec.isEmpty()) {
+            } else if (spec.isAtomic()) {
+                synchronized (planner) {
+                    plan = planner.getPlan(spec);
+                    if (plan.isEmpty()) // in case the init LS is atomic
+                        plan = planner.plan(spec);
+                }
+                m = executeInstructions(plan, new ArrayList<AMapping>());
+            } else {
+                LinkSpecification firstSpec, secondSpec = null;
+                synchronized (planner) {
+                    plan = planner.plan(spec);
+                    firstSpec = planner.getLinkSpec(plan.getSubPlans().get(0));
+                    if (spec.getOperator().equals(LogicOperator.OR)
+                            || spec.getOperator().equals(LogicOperator.XOR)) {
+                        secondSpec = planner.getLinkSpec(plan.getSubPlans().get(1));
+                    }
+                }
+                AMapping m2, result = MappingFactory.createDefaultMapping();
+                if (secondSpec != null) {
+                    // both children are independent: run them in parallel
+                    DynamicSpecTask secondTask = new DynamicSpecTask(secondSpec, planner);
+                    secondTask.fork();
+                    m = new DynamicSpecTask(firstSpec, planner).invoke();
+                    m2 = secondTask.join();
+                } else {
+                    m = new DynamicSpecTask(firstSpec, planner).invoke();
+                    m2 = null;
+                }
+                result = m;
+                if (spec.getOperator().equals(LogicOperator.AND)) {
+                    synchronized (planner) {
+                        // replan
+                        plan = planner.plan(spec);
+                    }
+                    // second plan is filter
+                    if (plan.getOperator() == null) {
+                        if (plan.getFilteringInstruction().getCommand().equals(Command.FILTER)) {
+                            result = executeFilter(plan.getFilteringInstruction(), m);
+                        }
+                    } else { // second plan is run
+                        synchronized (planner) {
+                            secondSpec = planner.getLinkSpec(plan.getSubPlans().get(1));
+                        }
+                        m2 = new DynamicSpecTask(secondSpec, planner).invoke();
+                        result = executeIntersection(m, m2);
+                    }
+                } else if (spec.getOperator().equals(LogicOperator.MINUS)) {
+                    synchronized (planner) {
+                        // replan
+                        plan = planner.plan(spec);
+                    }
+                    // second plan is (reverse) filter
+                    if (plan.getOperator() == null) {
+                        if (plan.getFilteringInstruction().getCommand().equals(Command.REVERSEFILTER)) {
+                            result = executeReverseFilter(plan.getFilteringInstruction(), m);
+                        }
+                    } else { // second plan is run
+                        synchronized (planner) {
+                            secondSpec = planner.getLinkSpec(plan.getSubPlans().get(1));
+                        }
+                        m2 = new DynamicSpecTask(secondSpec, planner).invoke();
+                        result = executeDifference(m, m2);
+                    }
+                } else if (m2 == null) {
+                    // the second child was not known before executing the
+                    // first one
+                    synchronized (planner) {
+                        plan = planner.plan(spec);
+                        secondSpec = planner.getLinkSpec(plan.getSubPlans().get(1));
+                    }
+                    m2 = new DynamicSpecTask(secondSpec, planner).invoke();
+                }
+                if (spec.getOperator().equals(LogicOperator.OR)) {
+                    result = executeUnion(m, m2);
+                } else if (spec.getOperator().equals(LogicOperator.XOR)) {
+                    LinearFilter f = new LinearFilter();
+                    AMapping mleft = executeUnion(m, m2);
+                    mleft = f.filter(mleft, Double.parseDouble(plan.getThreshold()));
+
+                    AMapping mright = executeIntersection(m, m2);
+                    mright = f.filter(mright, Double.parseDouble(plan.getThreshold()));
+                    result = executeDifference(mleft, mright);
+                }
+                m = checkMappingSize(result);
+                if (plan.getOperator() != null) {
+                    if (plan.getFilteringInstruction() != null) {
+                        m = executeFilter(plan.getFilteringInstruction(), m);
+                    }
+                }
+            }
+            // save results
+            dynamicResults.put(spec.toString(), m);
+            end = System.currentTimeMillis();
+            double msize = m.getNumberofMappings();
+            double selectivity = msize / (source.size() * target.size());
+            synchronized (planner) {
+                planner.updatePlan(spec, end - begin, selectivity, msize);
+            }
+            return m;
+        }
     }
 
 }
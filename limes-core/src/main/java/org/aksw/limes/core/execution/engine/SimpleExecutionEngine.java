@@ -6,6 +6,7 @@ import java.util.List;
 
 import org.aksw.limes.core.datastrutures.LogicOperator;
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
+import org.aksw.limes.core.exceptions.MappingSizeExceededException;
 import org.aksw.limes.core.execution.engine.filter.LinearFilter;
 import org.aksw.limes.core.execution.planning.plan.Instruction;
 import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
@@ -18,7 +19,7 @@ import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.mapping.MemoryMapping;
-import org.aksw.limes.core.measures.mapper.IMapper;
+import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.MapperFactory;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
 import org.aksw.limes.core.measures.measure.MeasureFactory;
@@ -72,6 +73,21 @@ public class SimpleExecutionEngine extends ExecutionEngine {
      */
     public AMapping executeInstructions(Plan plan) {
         buffer = new ArrayList<>();
+        return executeInstructions(plan, buffer);
+    }
+
+    /**
+     * Executes the instructions of a plan sequentially, writing all
+     * intermediate mappings into the given buffer instead of the buffer of
+     * the engine. See {@link #executeInstructions(Plan)}.
+     *
+     * @param plan
+     *            An execution plan
+     * @param buffer
+     *            List that keeps the intermediate mappings of the plan
+     * @return The mapping obtained from executing the plan
+     */
+    protected AMapping executeInstructions(Plan plan, List<AMapping> buffer) {
         if (plan.isEmpty()) {
             logger.info("Plan is empty. Done.");
             return MappingFactory.createDefaultMapping();
@@ -118,6 +134,7 @@ public class SimpleExecutionEngine extends ExecutionEngine {
                     return buffer.get(index);
                 }
             }
+            checkMappingSize(m);
             // place resulting mapping in the buffer
             if (index < 0) {// add the new mapping at the end of the list
                 buffer.add((MemoryMapping) m);
@@ -148,6 +165,23 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         }
     }
 
+    /**
+     * Checks a mapping of an execution against the maximal mapping size of the
+     * engine.
+     *
+     * @param m
+     *            An intermediate mapping
+     * @return m
+     * @throws MappingSizeExceededException
+     *             if m has more links than allowed
+     */
+    protected AMapping checkMappingSize(AMapping m) {
+        if (maxMappingSize < Long.MAX_VALUE && m.size() > maxMappingSize) {
+            throw new MappingSizeExceededException(m.size(), maxMappingSize);
+        }
+        return m;
+    }
+
     /**
      * Implements the execution of the RUN operator. The input instruction must
      * include an atomic link specification.
@@ -163,10 +197,12 @@ public class SimpleExecutionEngine extends ExecutionEngine {
                 throw new InvalidThresholdException(threshold);
 
             } else {
-                IMapper mapper;
+                AMapper mapper;
                 //try {
                     MeasureType type = MeasureFactory.getMeasureType(inst.getMeasureExpression());
-                    mapper = MapperFactory.createMapper(type);
+                    mapper = MapperFactory.createMapper(type, mapperParallelism);
+                    mapper.setArtifacts(artifacts);
+                    mapper.setMaxMappingSize(maxMappingSize);
 
                     return mapper.getMapping(source, target, sourceVariable, targetVariable,
                             inst.getMeasureExpression(), threshold);
@@ -191,7 +227,7 @@ public class SimpleExecutionEngine extends ExecutionEngine {
      *            Mapping that is to be filtered
      * @return Filtered mapping
      */
-    private AMapping executeReverseFilter(Instruction inst, AMapping input) {
+    protected AMapping executeReverseFilter(Instruction inst, AMapping input) {
         LinearFilter filter = new LinearFilter();
         return filter.reversefilter(input, inst.getMeasureExpression(), Double.parseDouble(inst.getThreshold()),
                 Double.parseDouble(inst.getMainThreshold()), source, target, sourceVariable, targetVariable);
@@ -288,28 +324,11 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         else {
             // run all the subplans
             m = executeStatic(plan.getSubPlans().get(0));
-            AMapping m2, result = m;
+            AMapping m2, result;
             for (int i = 1; i < plan.getSubPlans().size(); i++) {
                 m2 = executeStatic(plan.getSubPlans().get(i));
-                if (plan.getOperator().equals(Command.INTERSECTION)) {
-                    result = executeIntersection(m, m2);
-                } // union
-                else if (plan.getOperator().equals(Command.UNION)) {
-                    result = executeUnion(m, m2);
-                } // diff
-                else if (plan.getOperator().equals(Command.DIFF)) {
-                    result = executeDifference(m, m2);
-                    // exclusive or
-                } else if (plan.getOperator().equals(Command.XOR)) {
-                    LinearFilter f = new LinearFilter();
-                    AMapping mleft = executeUnion(m, m2);
-                    mleft = f.filter(mleft, Double.parseDouble(plan.getThreshold()));
-
-                    AMapping mright = executeIntersection(m, m2);
-                    mright = f.filter(mright, Double.parseDouble(plan.getThreshold()));
-                    result = executeDifference(mleft, mright);
-                }
-                m = result;
+                result = executeOwnedOperator(plan.getOperator(), plan.getThreshold(), m, m2);
+                m = checkMappingSize(result);
             }
             // only run filtering if there is a filter indeed, else simply
             // return MemoryMapping
@@ -321,6 +340,66 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         return m;
     }
 
+    /**
+     * Applies the operator of a nested plan to two mappings which are not used
+     * by anyone else, e.g., the fresh mappings of its subplans. Unions are
+     * computed in place, the other operators as in
+     * {@link #executeOperator(Command, String, AMapping, AMapping)}.
+     *
+     * @param operator
+     *            The operator of the nested plan
+     * @param threshold
+     *            The threshold of the nested plan (used by XOR)
+     * @param m1
+     *            First Mapping, which may be modified
+     * @param m2
+     *            Second Mapping, which may be modified
+     * @return The mapping obtained by applying the operator to m1 and m2
+     */
+    protected AMapping executeOwnedOperator(Command operator, String threshold, AMapping m1, AMapping m2) {
+        if (operator.equals(Command.UNION)) {
+            return MappingOperations.unionInPlace(m1, m2);
+        }
+        return executeOperator(operator, threshold, m1, m2);
+    }
+
+    /**
+     * Applies the operator of a nested plan to the mappings of two of its
+     * subplans. If the operator is not a set operator, the first mapping is
+     * returned unchanged.
+     *
+     * @param operator
+     *            The operator of the nested plan
+     * @param threshold
+     *            The threshold of the nested plan (used by XOR)
+     * @param m1
+     *            First Mapping
+     * @param m2
+     *            Second Mapping
+     * @return The mapping obtained by applying the operator to m1 and m2
+     */
+    protected AMapping executeOperator(Command operator, String threshold, AMapping m1, AMapping m2) {
+        if (operator.equals(Command.INTERSECTION)) {
+            return executeIntersection(m1, m2);
+        } // union
+        else if (operator.equals(Command.UNION)) {
+            return executeUnion(m1, m2);
+        } // diff
+        else if (operator.equals(Command.DIFF)) {
+            return executeDifference(m1, m2);
+            // exclusive or
+        } else if (operator.equals(Command.XOR)) {
+            LinearFilter f = new LinearFilter();
+            AMapping mleft = executeUnion(m1, m2);
+            mleft = f.filter(mleft, Double.parseDouble(threshold));
+
+            AMapping mright = executeIntersection(m1, m2);
+            mright = f.filter(mright, Double.parseDouble(threshold));
+            return executeDifference(mleft, mright);
+        }
+        return m1;
+    }
+
     /**
      * Executes an input link specification L in a dynamic fashion. See
      * {@link #execute(LinkSpecification, IPlanner)}. If L is already executed,
@@ -436,7 +515,7 @@ public class SimpleExecutionEngine extends ExecutionEngine {
                         mright = f.filter(mright, Double.parseDouble(plan.getThreshold()));
                         result = executeDifference(mleft, mright);
                     }
-                    m = result;
+                    m = checkMappingSize(result);
                     if (plan.getOperator() != null) {
                         if (plan.getFilteringInstruction() != null) {
                             m = executeFilter(plan.getFilteringInstruction(), m);
@@ -485,11 +564,18 @@ public class SimpleExecutionEngine extends ExecutionEngine {
         AMapping m = MappingFactory.createDefaultMapping();
 
         spec = planner.normalize(spec);
-        if (planner.isStatic() == false) {
-            m = executeDynamic(spec, (DynamicPlanner) planner);
-        } else {
-            NestedPlan plan = planner.plan(spec);
-            m = executeStatic(plan);
+        try {
+            if (planner.isStatic() == false) {
+                m = executeDynamic(spec, (DynamicPlanner) planner);
+            } else {
+                NestedPlan plan = planner.plan(spec);
+                m = executeStatic(plan);
+            }
+        } finally {
+            // the artifacts are kept for one execution only
+            if (artifacts != null) {
+                artifacts.clear();
+            }
         }
 
         return m;
@@ -5,7 +5,8 @@ import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.MappingOperations;
-import org.aksw.limes.core.measures.measure.MeasureProcessor;
+import org.aksw.limes.core.measures.measure.compiled.CompiledMeasureFactory;
+import org.aksw.limes.core.measures.measure.compiled.ICompiledMeasure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -83,6 +84,8 @@ public class LinearFilter implements IFilter {
             logger.error("Null condition in filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
+        ICompiledMeasure measure = CompiledMeasureFactory.getCompiledMeasure(condition, threshold, sourceVar,
+                targetVar);
 
         AMapping result = MappingFactory.createDefaultMapping();
         // 2. run on all pairs and remove those
@@ -90,7 +93,7 @@ public class LinearFilter implements IFilter {
             s = source.getInstance(key);
             for (String value : map.getMap().get(key).keySet()) {
                 t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
+                sim = measure.getSimilarity(s, t);
                 if (sim >= threshold) {
                     result.add(s.getUri(), t.getUri(), sim);
                 }
@@ -138,12 +141,14 @@ public class LinearFilter implements IFilter {
             logger.info("Null condition in extended filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
+        ICompiledMeasure measure = CompiledMeasureFactory.getCompiledMeasure(condition, threshold, sourceVar,
+                targetVar);
 
         for (String key : map.getMap().keySet()) {
             s = source.getInstance(key);
             for (String value : map.getMap().get(key).keySet()) {
                 t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
+                sim = measure.getSimilarity(s, t);
                 // result must pass the filter threshold first!
                 if (sim >= threshold) {
                     double sim2 = map.getConfidence(key, value);
@@ -199,13 +204,15 @@ public class LinearFilter implements IFilter {
             System.err.println("Null condition in extended reverse filter function (LinearFilter). Exiting..");
             throw new RuntimeException();
         }
+        ICompiledMeasure measure = CompiledMeasureFactory.getCompiledMeasure(condition, threshold, sourceVar,
+                targetVar);
 
         // 2. run on all pairs and remove those
         for (String key : map.getMap().keySet()) {
             s = source.getInstance(key);
             for (String value : map.getMap().get(key).keySet()) {
                 t = target.getInstance(value);
-                sim = MeasureProcessor.getSimilarity(s, t, condition, threshold, sourceVar, targetVar);
+                sim = measure.getSimilarity(s, t);
 
                 // similarity of s and t must be 0 to be accepted
                 if (sim == 0) {
@@ -0,0 +1,291 @@
+package org.aksw.limes.core.execution.planning.planner;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.IMapper.Language;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.mapper.calibration.MapperCalibration;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Cost model of the planners for atomic link specifications. Runtimes are
+ * taken from the fitted curves of a {@link MapperCalibration}, mapping sizes
+ * are extrapolated from the selectivity of the atomic specification on random
+ * samples of the source and target caches. Whenever a mapper is not
+ * calibrated or cannot be run on the samples, the approximations of the
+ * mapper are used instead. The runtime approximations are in arbitrary units,
+ * hence they are scaled to milliseconds by the ratio of the calibrated
+ * runtimes to the approximations of the calibrated mappers, so that the
+ * runtimes of calibrated and uncalibrated mappers can be compared. The samples
+ * are drawn with a fixed seed, so that plans are reproducible. The samples of
+ * a pair of caches and the selectivities measured on them are shared by all
+ * cost models of the pair, so that the planners of several link
+ * specifications over the same caches do not run the samples again. They are
+ * dropped once the source cache is no longer used.
+ *
+ * @version 1.0
+ */
+public class CostModel {
+
+    static Logger logger = LoggerFactory.getLogger(CostModel.class);
+
+    /**
+     * Default number of instances sampled from the source and the target.
+     */
+    public static final int DEFAULT_SAMPLE_SIZE = 100;
+    /**
+     * Seed of the random samples.
+     */
+    public static final long SAMPLE_SEED = 42L;
+
+    // samples by source cache, target cache and sample size
+    private static final Map<ACache, Map<ACache, Map<Integer, Samples>>> samples = new WeakHashMap<>();
+
+    private ACache source;
+    private ACache target;
+    private MapperCalibration calibration;
+    private int sampleSize;
+
+    private Samples sample;
+    private Map<String, Double> approximationScales = new HashMap<String, Double>();
+
+    /**
+     * Samples of a pair of caches and the selectivities measured on them. A
+     * cache which is not larger than the sample is used as is, the samples
+     * do not refer to the caches, so that they do not keep them alive. The
+     * sizes of the caches tell whether they changed since they were sampled.
+     */
+    private static final class Samples {
+        private final int sourceSize;
+        private final int targetSize;
+        private final ACache sourceSample;
+        private final ACache targetSample;
+        private final Map<String, Double> selectivities = new ConcurrentHashMap<String, Double>();
+
+        private Samples(ACache source, ACache target, int sampleSize) {
+            sourceSize = source.size();
+            targetSize = target.size();
+            Random random = new Random(SAMPLE_SEED);
+            sourceSample = source.size() <= sampleSize ? null : getSample(source, sampleSize, random);
+            targetSample = target.size() <= sampleSize ? null : getSample(target, sampleSize, random);
+        }
+    }
+
+    /**
+     * Creates a cost model with the calibration of
+     * {@link MapperCalibration#getDefault()}.
+     *
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     */
+    public CostModel(ACache source, ACache target) {
+        this(source, target, MapperCalibration.getDefault(), DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * @param source
+     *            Source cache
+     * @param target
+     *            Target cache
+     * @param calibration
+     *            fitted runtime curves of the mappers
+     * @param sampleSize
+     *            number of instances sampled from the source and the target,
+     *            0 disables sampling
+     */
+    public CostModel(ACache source, ACache target, MapperCalibration calibration, int sampleSize) {
+        this.source = source;
+        this.target = target;
+        this.calibration = calibration;
+        this.sampleSize = sampleSize;
+    }
+
+    public MapperCalibration getCalibration() {
+        return calibration;
+    }
+
+    /**
+     * Estimates the runtime of the mapper of a measure.
+     *
+     * @param measure
+     *            Measure of metric expression
+     * @param threshold
+     *            Threshold of metric expression
+     * @param lang
+     *            Language of the source/target data
+     * @return estimated runtime cost of the metric expression, in
+     *         milliseconds if any mapper is calibrated
+     */
+    public double getRuntimeCost(String measure, double threshold, Language lang) {
+        MeasureType type = MeasureFactory.getMeasureType(measure);
+        if (calibration.isCalibrated(type)) {
+            return calibration.getRuntime(type, source.size(), target.size(), threshold);
+        }
+        AMapper mapper = MapperFactory.createMapper(type);
+        return getApproximationScale(threshold, lang)
+                * mapper.getRuntimeApproximation(source.size(), target.size(), threshold, lang);
+    }
+
+    /**
+     * Computes the factor converting runtime approximations to milliseconds,
+     * i.e., the geometric mean of the ratios of the calibrated runtimes to the
+     * approximations of the calibrated mappers.
+     *
+     * @return the factor or 1 if no mapper is calibrated
+     */
+    private double getApproximationScale(double threshold, Language lang) {
+        String key = threshold + "|" + lang;
+        Double scale = approximationScales.get(key);
+        if (scale == null) {
+            double logSum = 0;
+            int count = 0;
+            for (MeasureType type : calibration.getCalibratedTypes()) {
+                double runtime = calibration.getRuntime(type, source.size(), target.size(), threshold);
+                double approximation;
+                try {
+                    approximation = MapperFactory.createMapper(type).getRuntimeApproximation(source.size(),
+                            target.size(), threshold, lang);
+                } catch (RuntimeException e) {
+                    continue;
+                }
+                if (runtime > 0 && approximation > 0) {
+                    logSum += Math.log(runtime / approximation);
+                    count++;
+                }
+            }
+            scale = count == 0 ? 1d : Math.exp(logSum / count);
+            approximationScales.put(key, scale);
+        }
+        return scale;
+    }
+
+    /**
+     * Estimates the size of the mapping of a measure without looking at the
+     * data.
+     *
+     * @param measure
+     *            Measure of metric expression
+     * @param threshold
+     *            Threshold of metric expression
+     * @param lang
+     *            Language of the source/target data
+     * @return estimated size of returned mapping
+     */
+    public double getMappingSize(String measure, double threshold, Language lang) {
+        MeasureType type = MeasureFactory.getMeasureType(measure);
+        AMapper mapper = MapperFactory.createMapper(type);
+        return mapper.getMappingSizeApproximation(source.size(), target.size(), threshold, lang);
+    }
+
+    /**
+     * Estimates the size of the mapping of an atomic specification from its
+     * selectivity on the samples.
+     *
+     * @param expression
+     *            Metric expression of an atomic specification, e.g.
+     *            trigrams(x.label,y.label)
+     * @param threshold
+     *            Threshold of the atomic specification
+     * @param lang
+     *            Language of the source/target data, used if the selectivity
+     *            cannot be sampled
+     * @return estimated size of returned mapping
+     */
+    public double getSampledMappingSize(String expression, double threshold, Language lang) {
+        double selectivity = getSelectivity(expression, threshold);
+        if (Double.isNaN(selectivity)) {
+            return getMappingSize(new Parser(expression, threshold).getOperator(), threshold, lang);
+        }
+        return selectivity * source.size() * target.size();
+    }
+
+    /**
+     * Computes the selectivity of an atomic specification on the samples. The
+     * estimate is smoothed so that it is positive even if no links are found
+     * on the samples.
+     *
+     * @param expression
+     *            Metric expression of an atomic specification
+     * @param threshold
+     *            Threshold of the atomic specification
+     * @return the selectivity or NaN if it cannot be estimated
+     */
+    public double getSelectivity(String expression, double threshold) {
+        if (sampleSize <= 0 || source.size() == 0 || target.size() == 0) {
+            return Double.NaN;
+        }
+        if (sample == null) {
+            sample = getSamples(source, target, sampleSize);
+        }
+        String key = expression + "|" + threshold;
+        Double selectivity = sample.selectivities.get(key);
+        if (selectivity == null) {
+            ACache sourceSample = sample.sourceSample == null ? source : sample.sourceSample;
+            ACache targetSample = sample.targetSample == null ? target : sample.targetSample;
+            selectivity = computeSelectivity(sourceSample, targetSample, expression, threshold);
+            sample.selectivities.put(key, selectivity);
+        }
+        return selectivity;
+    }
+
+    private static synchronized Samples getSamples(ACache source, ACache target, int sampleSize) {
+        Map<Integer, Samples> bySize = samples.computeIfAbsent(source, s -> new WeakHashMap<>())
+                .computeIfAbsent(target, t -> new HashMap<>());
+        Samples sample = bySize.get(sampleSize);
+        if (sample == null || sample.sourceSize != source.size() || sample.targetSize != target.size()) {
+            sample = new Samples(source, target, sampleSize);
+            bySize.put(sampleSize, sample);
+        }
+        return sample;
+    }
+
+    private static double computeSelectivity(ACache sourceSample, ACache targetSample, String expression,
+            double threshold) {
+        Parser p = new Parser(expression, threshold);
+        try {
+            AMapper mapper = MapperFactory.createMapper(MeasureFactory.getMeasureType(p.getOperator()));
+            AMapping mapping = mapper.getMapping(sourceSample, targetSample, getVariable(p.getLeftTerm(), "?x"),
+                    getVariable(p.getRightTerm(), "?y"), expression, threshold);
+            double pairs = (double) sourceSample.size() * targetSample.size();
+            return (mapping.size() + 0.5) / (pairs + 1);
+        } catch (RuntimeException e) {
+            logger.debug("Cannot sample " + expression + ": " + e.getMessage());
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Draws instances without replacement. Unlike {@link ACache#getSample(int)},
+     * the sample only depends on the random generator.
+     */
+    private static ACache getSample(ACache cache, int size, Random random) {
+        List<String> uris = cache.getAllUris();
+        ACache sample = new MemoryCache();
+        for (int i = 0; i < size; i++) {
+            Collections.swap(uris, i, i + random.nextInt(uris.size() - i));
+            sample.addInstance(cache.getInstance(uris.get(i)));
+        }
+        return sample;
+    }
+
+    private static String getVariable(String term, String defaultVariable) {
+        int dot = term.indexOf('.');
+        return dot > 0 ? "?" + term.substring(0, dot).trim() : defaultVariable;
+    }
+}
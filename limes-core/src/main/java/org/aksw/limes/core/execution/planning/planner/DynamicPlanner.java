@@ -15,9 +15,7 @@ import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
-import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.IMapper.Language;
-import org.aksw.limes.core.measures.mapper.MapperFactory;
 import org.aksw.limes.core.measures.measure.MeasureFactory;
 import org.aksw.limes.core.measures.measure.MeasureProcessor;
 import org.aksw.limes.core.measures.measure.MeasureType;
@@ -45,6 +43,10 @@ public class DynamicPlanner extends Planner {
      * Language of the source/target data.
      */
     private Language lang;
+    /**
+     * Cost model for atomic specifications.
+     */
+    private CostModel costModel;
     /**
      * Sub-link specifications (as string) and their corresponding plans.
      */
@@ -64,6 +66,22 @@ public class DynamicPlanner extends Planner {
         source = s;
         target = t;
         lang = Language.EN;
+        costModel = new CostModel(s, t);
+    }
+
+    public CostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * Replaces the cost model of the atomic specifications, e.g., by one with
+     * a different calibration or sample size.
+     *
+     * @param costModel
+     *            the new cost model
+     */
+    public void setCostModel(CostModel costModel) {
+        this.costModel = costModel;
     }
 
     public Map<String, NestedPlan> getPlans() {
@@ -154,10 +172,7 @@ public class DynamicPlanner extends Planner {
      * 
      */
     public double getAtomicRuntimeCosts(String measure, double threshold) {
-        AMapper mapper = null;
-        MeasureType type = MeasureFactory.getMeasureType(measure);
-        mapper = MapperFactory.createMapper(type);
-        return mapper.getRuntimeApproximation(source.size(), target.size(), threshold, lang);
+        return costModel.getRuntimeCost(measure, threshold, lang);
     }
 
     /**
@@ -173,10 +188,7 @@ public class DynamicPlanner extends Planner {
      * 
      */
     public double getAtomicMappingSizes(String measure, double threshold) {
-        AMapper mapper = null;
-        MeasureType type = MeasureFactory.getMeasureType(measure);
-        mapper = MapperFactory.createMapper(type);
-        return mapper.getMappingSizeApproximation(source.size(), target.size(), threshold, lang);
+        return costModel.getMappingSize(measure, threshold, lang);
     }
 
     /**
@@ -321,7 +333,7 @@ public class DynamicPlanner extends Planner {
             plan.addInstruction(new Instruction(Instruction.Command.RUN, spec.getFilterExpression(),
                     spec.getThreshold() + "", -1, -1, 0));
             plan.setRuntimeCost(getAtomicRuntimeCosts(p.getOperator(), spec.getThreshold()));
-            plan.setMappingSize(getAtomicMappingSizes(p.getOperator(), spec.getThreshold()));
+            plan.setMappingSize(costModel.getSampledMappingSize(spec.getFilterExpression(), spec.getThreshold(), lang));
             plan.setSelectivity(plan.getMappingSize() / (double) (source.size() * target.size()));
 
         } else {
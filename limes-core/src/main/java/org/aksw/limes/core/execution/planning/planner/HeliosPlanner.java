@@ -12,9 +12,7 @@ import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
-import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.IMapper.Language;
-import org.aksw.limes.core.measures.mapper.MapperFactory;
 import org.aksw.limes.core.measures.measure.MeasureFactory;
 import org.aksw.limes.core.measures.measure.MeasureProcessor;
 import org.aksw.limes.core.measures.measure.MeasureType;
@@ -43,6 +41,10 @@ public class HeliosPlanner extends Planner {
      * Language of the source/target data.
      */
     public Language lang;
+    /**
+     * Cost model for atomic specifications.
+     */
+    private CostModel costModel;
 
     /**
      * Constructor of the Helios planner class.
@@ -56,6 +58,22 @@ public class HeliosPlanner extends Planner {
         this.source = source;
         this.target = target;
         this.lang = Language.EN;
+        this.costModel = new CostModel(source, target);
+    }
+
+    public CostModel getCostModel() {
+        return costModel;
+    }
+
+    /**
+     * Replaces the cost model of the atomic specifications, e.g., by one with
+     * a different calibration or sample size.
+     *
+     * @param costModel
+     *            the new cost model
+     */
+    public void setCostModel(CostModel costModel) {
+        this.costModel = costModel;
     }
 
     /**
@@ -71,10 +89,7 @@ public class HeliosPlanner extends Planner {
      */
     public double getAtomicRuntimeCosts(String measure, double threshold) {
 
-        AMapper mapper = null;
-        MeasureType type = MeasureFactory.getMeasureType(measure);
-        mapper = MapperFactory.createMapper(type);
-        return mapper.getRuntimeApproximation(source.size(), target.size(), threshold, lang);
+        return costModel.getRuntimeCost(measure, threshold, lang);
 
     }
 
@@ -90,10 +105,7 @@ public class HeliosPlanner extends Planner {
      * @return estimated size of returned mapping
      */
     public double getAtomicMappingSizes(String measure, double threshold) {
-        AMapper mapper = null;
-        MeasureType type = MeasureFactory.getMeasureType(measure);
-        mapper = MapperFactory.createMapper(type);
-        return mapper.getMappingSizeApproximation(source.size(), target.size(), threshold, lang);
+        return costModel.getMappingSize(measure, threshold, lang);
     }
 
     /**
@@ -166,7 +178,7 @@ public class HeliosPlanner extends Planner {
             plan.addInstruction(new Instruction(Instruction.Command.RUN, spec.getFilterExpression(),
                     spec.getThreshold() + "", -1, -1, 0));
             plan.setRuntimeCost(getAtomicRuntimeCosts(p.getOperator(), spec.getThreshold()));
-            plan.setMappingSize(getAtomicMappingSizes(p.getOperator(), spec.getThreshold()));
+            plan.setMappingSize(costModel.getSampledMappingSize(spec.getFilterExpression(), spec.getThreshold(), lang));
             plan.setSelectivity(plan.getMappingSize() / (double) (source.size() * target.size()));
         } else {
             // no optimization for non AND operators really
@@ -0,0 +1,137 @@
+package org.aksw.limes.core.io.cache;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.apache.jena.rdf.model.Model;
+
+/**
+ * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
+ * @version Jul 8, 2015
+ */
+public abstract class ACache implements ICache {
+
+    private transient Map<String, GeometryStore> geometryStores;
+
+    public abstract void addInstance(Instance i);
+
+    public abstract Instance getNextInstance();
+
+    public abstract ArrayList<Instance> getAllInstances();
+
+    public abstract ArrayList<String> getAllUris();
+
+    public abstract void addTriple(String s, String p, String o);
+
+    /**
+     * Adds a batch of statements to the cache. Unlike
+     * {@link #addTriple(String, String, String)}, batches can be added by
+     * several threads concurrently, e.g., by the threads that parse the
+     * results of a query module. Batches are added one at a time, hence
+     * larger batches cause less contention.
+     *
+     * @param triples
+     *         statements as arrays of subject, property and value
+     */
+    public void addTriples(List<String[]> triples) {
+        synchronized (this) {
+            for (String[] triple : triples) {
+                addTriple(triple[0], triple[1], triple[2]);
+            }
+        }
+    }
+
+    public abstract boolean containsInstance(Instance i);
+
+    public abstract boolean containsUri(String uri);
+
+    public abstract Instance getInstance(String uri);
+
+    public abstract void resetIterator();
+
+    public abstract int size();
+
+    public abstract ACache getSample(int size);
+
+    public abstract void replaceInstance(String uri, Instance a);
+
+    public abstract Set<String> getAllProperties();
+
+    /**
+     * Scans all values of a property, e.g., to index the values of a cache in
+     * a mapper. Caches that store their data per property should override
+     * this method to avoid creating instances.
+     *
+     * @param property
+     *         name of the property
+     * @param consumer
+     *         called with the URI of the instance and the value for each
+     *         value of the property
+     */
+    public void forEachValue(String property, BiConsumer<String, String> consumer) {
+        for (String uri : getAllUris()) {
+            for (String value : getInstance(uri).getProperty(property)) {
+                consumer.accept(uri, value);
+            }
+        }
+    }
+
+    /**
+     * Returns the store of the geometries of a property, e.g., to parse the
+     * WKT values of the property once for all topological mappers that read
+     * it. The store is created on the first call.
+     *
+     * @param property
+     *         name of the property
+     * @return the geometry store of the property
+     */
+    public synchronized GeometryStore getGeometryStore(String property) {
+        if (geometryStores == null) {
+            geometryStores = new HashMap<>();
+        }
+        return geometryStores.computeIfAbsent(property, p -> new GeometryStore());
+    }
+
+    /**
+     * Method to processData according to specific preprocessing steps.
+     *
+     * @param propertyProcess
+     *         Map maps propertyNames to preprocessing functions.
+     * @return cacheof processed data
+     */
+    public abstract ACache processData(Map<String, String> propertyProcess);
+
+    /**
+     * Method to process data of a property into a new property with specific preprocessing.
+     *
+     * @param sourcePropertyName
+     *         Name of the property to process.
+     * @param targetPropertyName
+     *         Name of the new property to process data into.
+     * @param processingChain
+     *         Preprocessing Expression.
+     * @return Cache after property add 
+     */
+    public abstract ACache addProperty(String sourcePropertyName, String targetPropertyName, String processingChain);
+
+
+    /**
+     * Basic method to create a JENA Model out of a cache.
+     * Restriction 1: Assumes all objects are literal values. Thus, resource URIs are represented as Strings.
+     * Restriction 2: Adds a rdf:Type statement for all instances.
+     *
+     * @param baseURI
+     *         Base URI of properties, could be empty.
+     * @param IDbaseURI
+     *         Base URI for id of resources: URI(instance) := IDbaseURI+instance.getID(). Could be empty.
+     * @param rdfType
+     *         rdf:Type of the instances.
+     * @return JENA RDF Model
+     */
+    public abstract Model parseCSVtoRDFModel(String baseURI, String IDbaseURI, String rdfType);
+
+}
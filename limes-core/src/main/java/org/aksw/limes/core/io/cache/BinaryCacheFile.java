@@ -0,0 +1,405 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+import org.aksw.limes.core.datastrutures.StringDictionary;
+
+/**
+ * Versioned binary file format for caches, read through memory mapping. The
+ * file is opened in constant time and its content is paged in by the
+ * operating system when it is accessed. The layout of a file is
+ *
+ * <pre>
+ * header            magic (long), version (int), #instances (int),
+ *                   #properties (int), #strings (int), offsets of the
+ *                   sections (long), padded to 64 bytes
+ * string dictionary #strings + 1 byte offsets (long), UTF-8 bytes
+ * property table    per property: name id (int), padding (int), offset of
+ *                   its instance index (long), offset of its values (long),
+ *                   #values (long)
+ * property blocks   per property: instance index with #instances + 1 value
+ *                   offsets (int), value ids (int)
+ * </pre>
+ *
+ * The first #instances strings of the dictionary are the URIs of the
+ * instances in lexicographic order, i.e., the ID of an instance is the ID of
+ * its URI and URIs are looked up by binary search. The values of instance i
+ * for a property are the strings whose IDs are stored between the offsets i
+ * and i + 1 of the instance index of the property, in their natural order.
+ *
+ * @version 1.0
+ */
+public class BinaryCacheFile {
+
+    /**
+     * "LIMESCCH" in ASCII.
+     */
+    public static final long MAGIC = 0x4C494D4553434348L;
+    /**
+     * Version of the format written by {@link #write(ACache, File)}.
+     */
+    public static final int VERSION = 1;
+    /**
+     * File extension of binary cache files.
+     */
+    public static final String EXTENSION = ".bin";
+
+    private static final int HEADER_SIZE = 64;
+    private static final int PROPERTY_ENTRY_SIZE = 32;
+    private static final int SEGMENT_BITS = 30;
+    private static final long SEGMENT_SIZE = 1L << SEGMENT_BITS;
+
+    private final File file;
+    private final MappedByteBuffer[] segments;
+    private final int instanceCount;
+    private final int stringCount;
+    private final long stringOffsetsPosition;
+    private final long stringBytesPosition;
+    /**
+     * Maps each property name to its entry of the property table.
+     */
+    private final Map<String, Integer> properties;
+    private final long propertyTablePosition;
+
+    private BinaryCacheFile(File file, MappedByteBuffer[] segments) throws IOException {
+        this.file = file;
+        this.segments = segments;
+        if (length() < HEADER_SIZE || getLong(0) != MAGIC) {
+            throw new IOException(file + " is not a binary cache file");
+        }
+        int version = getInt(8);
+        if (version != VERSION) {
+            throw new IOException("Unsupported version " + version + " of binary cache file " + file);
+        }
+        instanceCount = getInt(12);
+        int propertyCount = getInt(16);
+        stringCount = getInt(20);
+        stringOffsetsPosition = getLong(24);
+        stringBytesPosition = stringOffsetsPosition + 8L * (stringCount + 1);
+        propertyTablePosition = getLong(32);
+        properties = new HashMap<String, Integer>();
+        for (int p = 0; p < propertyCount; p++) {
+            properties.put(getString(getInt(propertyTablePosition + (long) p * PROPERTY_ENTRY_SIZE)), p);
+        }
+    }
+
+    /**
+     * Opens a binary cache file.
+     *
+     * @param file
+     *         the binary cache file
+     * @return the opened file
+     * @throws IOException if the file can not be read or is not a binary
+     * cache file of the current version
+     */
+    public static BinaryCacheFile open(File file) throws IOException {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r"); FileChannel channel = raf.getChannel()) {
+            long size = channel.size();
+            int count = (int) ((size + SEGMENT_SIZE - 1) >>> SEGMENT_BITS);
+            MappedByteBuffer[] segments = new MappedByteBuffer[Math.max(1, count)];
+            for (int i = 0; i < count; i++) {
+                long start = i * SEGMENT_SIZE;
+                segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+            }
+            if (count == 0) {
+                segments[0] = channel.map(FileChannel.MapMode.READ_ONLY, 0, 0);
+            }
+            return new BinaryCacheFile(file, segments);
+        }
+    }
+
+    /**
+     * Checks whether a file starts with the header of a binary cache file.
+     *
+     * @param file
+     *         the file to check
+     * @return true if the file is a binary cache file (of any version)
+     */
+    public static boolean isBinaryCacheFile(File file) {
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            return raf.length() >= 8 && raf.readLong() == MAGIC;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Writes the content of a cache to a binary cache file. The file is first
+     * written to a temporary file, which then replaces the given file.
+     *
+     * @param cache
+     *         the cache to write
+     * @param file
+     *         the binary cache file
+     * @throws IOException if the file can not be written
+     */
+    public static void write(ACache cache, File file) throws IOException {
+        ArrayList<String> uris = cache.getAllUris();
+        Collections.sort(uris);
+        StringDictionary dictionary = new StringDictionary(uris.size() * 2);
+        for (String uri : uris) {
+            dictionary.intern(uri);
+        }
+        ArrayList<String> propertyNames = new ArrayList<String>(cache.getAllProperties());
+        Collections.sort(propertyNames);
+        int[] propertyIds = new int[propertyNames.size()];
+        int[][] offsets = new int[propertyNames.size()][uris.size() + 1];
+        int[][] valueIds = new int[propertyNames.size()][];
+        int[] valueCounts = new int[propertyNames.size()];
+        for (int p = 0; p < propertyNames.size(); p++) {
+            propertyIds[p] = dictionary.intern(propertyNames.get(p));
+            valueIds[p] = new int[16];
+        }
+        for (int i = 0; i < uris.size(); i++) {
+            Instance instance = cache.getInstance(uris.get(i));
+            for (int p = 0; p < propertyNames.size(); p++) {
+                for (String value : instance.getProperty(propertyNames.get(p))) {
+                    if (valueCounts[p] == valueIds[p].length) {
+                        valueIds[p] = Arrays.copyOf(valueIds[p], valueCounts[p] * 2);
+                    }
+                    valueIds[p][valueCounts[p]++] = dictionary.intern(value);
+                }
+                offsets[p][i + 1] = valueCounts[p];
+            }
+        }
+        // compute the positions of the sections
+        int[] byteLengths = new int[dictionary.size()];
+        long stringBytes = 0;
+        for (int id = 0; id < dictionary.size(); id++) {
+            byteLengths[id] = dictionary.get(id).getBytes(StandardCharsets.UTF_8).length;
+            stringBytes += byteLengths[id];
+        }
+        long stringOffsetsPosition = HEADER_SIZE;
+        long propertyTablePosition = stringOffsetsPosition + 8L * (dictionary.size() + 1) + stringBytes;
+        long blockPosition = propertyTablePosition + (long) PROPERTY_ENTRY_SIZE * propertyNames.size();
+
+        File tmp = new File(file.getAbsolutePath() + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(tmp), 1 << 16))) {
+            out.writeLong(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(uris.size());
+            out.writeInt(propertyNames.size());
+            out.writeInt(dictionary.size());
+            out.writeLong(stringOffsetsPosition);
+            out.writeLong(propertyTablePosition);
+            out.writeLong(blockPosition);
+            out.write(new byte[HEADER_SIZE - 48]);
+            long offset = 0;
+            for (int id = 0; id < dictionary.size(); id++) {
+                out.writeLong(offset);
+                offset += byteLengths[id];
+            }
+            out.writeLong(offset);
+            for (int id = 0; id < dictionary.size(); id++) {
+                out.write(dictionary.get(id).getBytes(StandardCharsets.UTF_8));
+            }
+            long position = blockPosition;
+            for (int p = 0; p < propertyNames.size(); p++) {
+                out.writeInt(propertyIds[p]);
+                out.writeInt(0);
+                out.writeLong(position);
+                out.writeLong(position + 4L * (uris.size() + 1));
+                out.writeLong(valueCounts[p]);
+                position += 4L * (uris.size() + 1) + 4L * valueCounts[p];
+            }
+            for (int p = 0; p < propertyNames.size(); p++) {
+                for (int i = 0; i <= uris.size(); i++) {
+                    out.writeInt(offsets[p][i]);
+                }
+                for (int j = 0; j < valueCounts[p]; j++) {
+                    out.writeInt(valueIds[p][j]);
+                }
+            }
+        } catch (IOException e) {
+            tmp.delete();
+            throw e;
+        }
+        Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private long length() {
+        long length = 0;
+        for (MappedByteBuffer segment : segments) {
+            length += segment.limit();
+        }
+        return length;
+    }
+
+    private byte getByte(long position) {
+        return segments[(int) (position >>> SEGMENT_BITS)].get((int) (position & (SEGMENT_SIZE - 1)));
+    }
+
+    private int getInt(long position) {
+        MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)];
+        int offset = (int) (position & (SEGMENT_SIZE - 1));
+        if (offset + 4 <= segment.limit()) {
+            return segment.getInt(offset);
+        }
+        int value = 0;
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | (getByte(position + i) & 0xFF);
+        }
+        return value;
+    }
+
+    private long getLong(long position) {
+        MappedByteBuffer segment = segments[(int) (position >>> SEGMENT_BITS)];
+        int offset = (int) (position & (SEGMENT_SIZE - 1));
+        if (offset + 8 <= segment.limit()) {
+            return segment.getLong(offset);
+        }
+        return ((long) getInt(position) << 32) | (getInt(position + 4) & 0xFFFFFFFFL);
+    }
+
+    /**
+     * @param id
+     *         ID of a string
+     * @return the string with the given ID
+     */
+    public String getString(int id) {
+        long start = getLong(stringOffsetsPosition + 8L * id);
+        long end = getLong(stringOffsetsPosition + 8L * (id + 1));
+        byte[] bytes = new byte[(int) (end - start)];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = getByte(stringBytesPosition + start + i);
+        }
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * @return the number of instances in the file
+     */
+    public int size() {
+        return instanceCount;
+    }
+
+    /**
+     * @return the file
+     */
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * @return the names of the properties in the file
+     */
+    public Set<String> getProperties() {
+        return new TreeSet<String>(properties.keySet());
+    }
+
+    /**
+     * @param instanceId
+     *         ID of an instance
+     * @return the URI of the instance
+     */
+    public String getUri(int instanceId) {
+        return getString(instanceId);
+    }
+
+    /**
+     * @return the URIs of all instances in lexicographic order
+     */
+    public ArrayList<String> getAllUris() {
+        ArrayList<String> uris = new ArrayList<String>(instanceCount);
+        for (int i = 0; i < instanceCount; i++) {
+            uris.add(getString(i));
+        }
+        return uris;
+    }
+
+    /**
+     * @param uri
+     *         URI of an instance
+     * @return the ID of the instance or -1 if the file does not contain an
+     * instance with the given URI
+     */
+    public int indexOf(String uri) {
+        int low = 0, high = instanceCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = getString(mid).compareTo(uri);
+            if (cmp < 0) {
+                low = mid + 1;
+            } else if (cmp > 0) {
+                high = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reads an instance from the file.
+     *
+     * @param instanceId
+     *         ID of the instance
+     * @return a new instance with all values of the instance
+     */
+    public Instance getInstance(int instanceId) {
+        Instance instance = new Instance(getString(instanceId));
+        for (Map.Entry<String, Integer> property : properties.entrySet()) {
+            long entry = propertyTablePosition + (long) property.getValue() * PROPERTY_ENTRY_SIZE;
+            long indexPosition = getLong(entry + 8);
+            long valuesPosition = getLong(entry + 16);
+            int from = getInt(indexPosition + 4L * instanceId);
+            int to = getInt(indexPosition + 4L * (instanceId + 1));
+            if (from < to) {
+                TreeSet<String> values = new TreeSet<String>();
+                for (int j = from; j < to; j++) {
+                    values.add(getString(getInt(valuesPosition + 4L * j)));
+                }
+                instance.addProperty(property.getKey(), values);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Scans all values of a property without creating instances.
+     *
+     * @param property
+     *         name of the property
+     * @param consumer
+     *         called with the URI of the instance and the value for each
+     *         value of the property
+     */
+    public void forEachValue(String property, BiConsumer<String, String> consumer) {
+        Integer p = properties.get(property);
+        if (p == null) {
+            return;
+        }
+        long entry = propertyTablePosition + (long) p * PROPERTY_ENTRY_SIZE;
+        long indexPosition = getLong(entry + 8);
+        long valuesPosition = getLong(entry + 16);
+        int from = getInt(indexPosition);
+        for (int i = 0; i < instanceCount; i++) {
+            int to = getInt(indexPosition + 4L * (i + 1));
+            if (from < to) {
+                String uri = getString(i);
+                for (int j = from; j < to; j++) {
+                    consumer.accept(uri, getString(getInt(valuesPosition + 4L * j)));
+                }
+            }
+            from = to;
+        }
+    }
+}
@@ -0,0 +1,473 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import org.aksw.limes.core.io.config.KBInfo;
+import org.apache.jena.query.Query;
+import org.apache.jena.query.QueryExecution;
+import org.apache.jena.query.QueryExecutionFactory;
+import org.apache.jena.query.QueryFactory;
+import org.apache.jena.query.QuerySolution;
+import org.apache.jena.query.ResultSet;
+import org.apache.jena.query.Syntax;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Manifest of a cached data source. The cache of a data source is addressed by
+ * a digest of the normalized description of the source, i.e., its type,
+ * endpoint, graph, variable, restrictions and the prefixes these use. The
+ * properties are not part of the address: the manifest records which
+ * properties were fetched together with their preprocessing functions and
+ * prefixes, so that a configuration that adds properties can reuse the cache
+ * and fetch the added properties only, and a configuration that needs fewer
+ * properties can reuse the cache as it is. The page size and the ID of a
+ * KBInfo do not change the data and are ignored.
+ *
+ * Besides, the manifest stores a fingerprint of the source, which decides
+ * whether the cached data is still up to date. The fingerprint of a file is its
+ * size, modification time and SHA-256 digest. The digest is only recomputed if
+ * size or modification time changed. The fingerprint of a SPARQL endpoint is
+ * the number of instances matching the restrictions and the latest
+ * dcterms:modified date of these instances. If the endpoint can not be probed,
+ * the cached data is reused. An endpoint is probed on every use of the cached
+ * data, unless the probe interval of its KBInfo allows to trust the last
+ * successful probe for a while, see {@link KBInfo#setProbeInterval(long)}.
+ *
+ * @version 1.0
+ */
+public class CacheManifest {
+
+    static Logger logger = LoggerFactory.getLogger(CacheManifest.class.getName());
+
+    /**
+     * File extension of manifest files.
+     */
+    public static final String EXTENSION = ".manifest";
+
+    private static final int VERSION = 1;
+    private static final String MODIFIED = "http://purl.org/dc/terms/modified";
+
+    private String source;
+    private long fileSize = -1;
+    private long fileModified = -1;
+    private String digest;
+    private String probe;
+    private long probed = -1;
+    // cached (optional) properties mapped to their normalized functions
+    private TreeMap<String, String> properties = new TreeMap<String, String>();
+    private TreeMap<String, String> optionalProperties = new TreeMap<String, String>();
+
+    private CacheManifest() {
+    }
+
+    /**
+     * Creates the manifest of the current content of a data source.
+     *
+     * @param kb
+     *         Info to the knowledge base
+     * @return the manifest of kb
+     */
+    public static CacheManifest create(KBInfo kb) {
+        CacheManifest manifest = new CacheManifest();
+        manifest.source = describe(kb);
+        manifest.addProperties(kb, kb.getProperties(), kb.getOptionalProperties());
+        if (isFileSource(kb)) {
+            File file = new File(kb.getEndpoint());
+            if (file.isFile()) {
+                manifest.fileSize = file.length();
+                manifest.fileModified = file.lastModified();
+            }
+            manifest.digest = digest(kb);
+        } else {
+            manifest.probe = probe(kb);
+            if (manifest.probe != null) {
+                manifest.probed = System.currentTimeMillis();
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * @param kb
+     *         Info to the knowledge base
+     * @return true if the SPARQL endpoint has to be probed before the cached
+     * data is reused
+     */
+    boolean isProbeDue(KBInfo kb) {
+        return probe == null || System.currentTimeMillis() - probed >= kb.getProbeInterval();
+    }
+
+    /**
+     * @param kb
+     *         Info to the knowledge base
+     * @return true if kb is read from a file
+     */
+    public static boolean isFileSource(KBInfo kb) {
+        String type = kb.getType() == null ? "" : kb.getType().toLowerCase();
+        for (String prefix : new String[] { "csv", "n3", "nt", "n-triple", "turtle", "ttl", "rdf", "xml", "vector" }) {
+            if (type.startsWith(prefix)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Normalizes the description of a data source. The type is mapped to the
+     * name used by {@link org.aksw.limes.core.io.query.QueryModuleFactory},
+     * restrictions are trimmed and sorted and only the prefixes used by the
+     * restrictions are kept.
+     *
+     * @param kb
+     *         Info to the knowledge base
+     * @return the normalized description of kb without its properties
+     */
+    public static String describe(KBInfo kb) {
+        ArrayList<String> restrictions = new ArrayList<String>();
+        if (kb.getRestrictions() != null) {
+            for (String restriction : kb.getRestrictions()) {
+                if (restriction.trim().length() > 0) {
+                    restrictions.add(restriction.trim());
+                }
+            }
+        }
+        restrictions.sort(null);
+        return "type=" + normalizeType(kb) + "\nendpoint=" + kb.getEndpoint() + "\ngraph=" + kb.getGraph() + "\nvar="
+                + kb.getVar() + "\nrestrictions=" + restrictions + "\nprefixes=" + usedPrefixes(kb, restrictions.toString());
+    }
+
+    private static String normalizeType(KBInfo kb) {
+        String type = kb.getType() == null ? "" : kb.getType().toLowerCase();
+        if (type.startsWith("n3") || type.startsWith("nt")) {
+            return "n3";
+        } else if (type.startsWith("turtle") || type.startsWith("ttl")) {
+            return "turtle";
+        } else if (type.startsWith("rdf") || type.startsWith("xml")) {
+            return "rdf/xml";
+        }
+        return type;
+    }
+
+    private static TreeMap<String, String> usedPrefixes(KBInfo kb, String text) {
+        TreeMap<String, String> prefixes = new TreeMap<String, String>();
+        if (kb.getPrefixes() != null) {
+            for (Map.Entry<String, String> prefix : kb.getPrefixes().entrySet()) {
+                if (text.contains(prefix.getKey() + ":")) {
+                    prefixes.put(prefix.getKey(), prefix.getValue());
+                }
+            }
+        }
+        return prefixes;
+    }
+
+    /**
+     * @param kb
+     *         Info to the knowledge base
+     * @return the content address of the cache of kb, i.e., the SHA-256 digest
+     * of its normalized description
+     */
+    public static String getKey(KBInfo kb) {
+        return toHex(sha256().digest(describe(kb).getBytes(StandardCharsets.UTF_8)));
+    }
+
+    private void addProperties(KBInfo kb, Iterable<String> required, Iterable<String> optional) {
+        if (required != null) {
+            for (String property : required) {
+                properties.put(property, functions(kb, property));
+            }
+        }
+        if (optional != null) {
+            for (String property : optional) {
+                optionalProperties.put(property, functions(kb, property));
+            }
+        }
+    }
+
+    private static String functions(KBInfo kb, String property) {
+        Map<String, String> functions = kb.getFunctions() == null ? null : kb.getFunctions().get(property);
+        return (functions == null ? "{}" : new TreeMap<String, String>(functions).toString())
+                + usedPrefixes(kb, property);
+    }
+
+    /**
+     * Checks whether the cached data can be reused for a data source, i.e.,
+     * whether it describes the same source, the properties of the source that
+     * are cached have the same preprocessing functions and the source did not
+     * change. Cached properties the source does not use are ignored, the
+     * properties it lacks are returned by {@link #getMissingProperties(KBInfo)}.
+     *
+     * @param kb
+     *         Info to the knowledge base
+     * @return true if the cached data can be reused
+     */
+    public boolean matches(KBInfo kb) {
+        if (!source.equals(describe(kb))) {
+            return false;
+        }
+        if (!hasSameFunctions(kb, kb.getProperties(), properties)
+                || !hasSameFunctions(kb, kb.getOptionalProperties(), optionalProperties)) {
+            return false;
+        }
+        return isUpToDate(kb);
+    }
+
+    private static boolean hasSameFunctions(KBInfo kb, Iterable<String> properties, Map<String, String> cached) {
+        if (properties != null) {
+            for (String property : properties) {
+                String functions = cached.get(property);
+                if (functions != null && !functions.equals(functions(kb, property))) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private boolean isUpToDate(KBInfo kb) {
+        if (isFileSource(kb)) {
+            File file = new File(kb.getEndpoint());
+            if (file.isFile() && file.length() == fileSize && file.lastModified() == fileModified) {
+                return true;
+            }
+            String current = digest(kb);
+            if (current == null || !current.equals(digest)) {
+                logger.info("Source " + kb.getEndpoint() + " changed since it was cached");
+                return false;
+            }
+            fileSize = file.length();
+            fileModified = file.lastModified();
+            return true;
+        }
+        if (!isProbeDue(kb)) {
+            return true;
+        }
+        String current = probe(kb);
+        if (current == null || probe == null) {
+            logger.warn("Could not probe " + kb.getEndpoint() + ". Reusing cached data");
+            return true;
+        }
+        if (!current.equals(probe)) {
+            logger.info("Source " + kb.getEndpoint() + " changed since it was cached");
+            return false;
+        }
+        probed = System.currentTimeMillis();
+        return true;
+    }
+
+    /**
+     * @param kb
+     *         Info to the knowledge base
+     * @return the properties of kb that are not cached
+     */
+    public ArrayList<String> getMissingProperties(KBInfo kb) {
+        ArrayList<String> missing = new ArrayList<String>();
+        for (String property : kb.getProperties()) {
+            if (!properties.containsKey(property)) {
+                missing.add(property);
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * @param kb
+     *         Info to the knowledge base
+     * @return the optional properties of kb that are not cached
+     */
+    public ArrayList<String> getMissingOptionalProperties(KBInfo kb) {
+        ArrayList<String> missing = new ArrayList<String>();
+        if (kb.getOptionalProperties() != null) {
+            for (String property : kb.getOptionalProperties()) {
+                if (!optionalProperties.containsKey(property)) {
+                    missing.add(property);
+                }
+            }
+        }
+        return missing;
+    }
+
+    /**
+     * Records that properties of a data source were added to the cache.
+     *
+     * @param kb
+     *         Info to the knowledge base
+     * @param required
+     *         the added properties
+     * @param optional
+     *         the added optional properties
+     */
+    public void addCachedProperties(KBInfo kb, Iterable<String> required, Iterable<String> optional) {
+        addProperties(kb, required, optional);
+    }
+
+    /**
+     * Reads a manifest from a file.
+     *
+     * @param file
+     *         the manifest file
+     * @return the manifest or null if the file does not exist or can not be
+     * read
+     */
+    public static CacheManifest read(File file) {
+        if (!file.exists()) {
+            return null;
+        }
+        Properties p = new Properties();
+        try (Reader in = new InputStreamReader(new FileInputStream(file), StandardCharsets.UTF_8)) {
+            p.load(in);
+        } catch (IOException e) {
+            logger.warn("Could not read cache manifest " + file + ": " + e.getMessage());
+            return null;
+        }
+        if (!Integer.toString(VERSION).equals(p.getProperty("version")) || p.getProperty("source") == null) {
+            return null;
+        }
+        CacheManifest manifest = new CacheManifest();
+        manifest.source = p.getProperty("source");
+        manifest.fileSize = Long.parseLong(p.getProperty("fileSize", "-1"));
+        manifest.fileModified = Long.parseLong(p.getProperty("fileModified", "-1"));
+        manifest.digest = p.getProperty("digest");
+        manifest.probe = p.getProperty("probe");
+        manifest.probed = Long.parseLong(p.getProperty("probed", "-1"));
+        for (String name : p.stringPropertyNames()) {
+            if (name.startsWith("property.")) {
+                manifest.properties.put(name.substring(9), p.getProperty(name));
+            } else if (name.startsWith("optionalProperty.")) {
+                manifest.optionalProperties.put(name.substring(17), p.getProperty(name));
+            }
+        }
+        return manifest;
+    }
+
+    /**
+     * Writes the manifest to a file.
+     *
+     * @param file
+     *         the manifest file
+     * @throws IOException if the file can not be written
+     */
+    public void write(File file) throws IOException {
+        Properties p = new Properties();
+        p.setProperty("version", Integer.toString(VERSION));
+        p.setProperty("source", source);
+        p.setProperty("fileSize", Long.toString(fileSize));
+        p.setProperty("fileModified", Long.toString(fileModified));
+        if (digest != null) {
+            p.setProperty("digest", digest);
+        }
+        if (probe != null) {
+            p.setProperty("probe", probe);
+            p.setProperty("probed", Long.toString(probed));
+        }
+        for (Map.Entry<String, String> property : properties.entrySet()) {
+            p.setProperty("property." + property.getKey(), property.getValue());
+        }
+        for (Map.Entry<String, String> property : optionalProperties.entrySet()) {
+            p.setProperty("optionalProperty." + property.getKey(), property.getValue());
+        }
+        try (Writer out = new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8)) {
+            p.store(out, "LIMES cache manifest");
+        }
+    }
+
+    private static MessageDigest sha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new RuntimeException(e);
+        }
+    }
+
+    private static String toHex(byte[] bytes) {
+        StringBuilder s = new StringBuilder(bytes.length * 2);
+        for (byte b : bytes) {
+            s.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+        }
+        return s.toString();
+    }
+
+    /**
+     * Computes the SHA-256 digest of a file source. As the query modules,
+     * falls back to a resource if the endpoint is not a file.
+     */
+    private static String digest(KBInfo kb) {
+        MessageDigest md = sha256();
+        byte[] buffer = new byte[1 << 16];
+        try (InputStream in = new File(kb.getEndpoint()).isFile() ? new FileInputStream(kb.getEndpoint())
+                : CacheManifest.class.getClassLoader().getResourceAsStream(kb.getEndpoint())) {
+            if (in == null) {
+                return null;
+            }
+            for (int n = in.read(buffer); n >= 0; n = in.read(buffer)) {
+                md.update(buffer, 0, n);
+            }
+        } catch (IOException e) {
+            logger.warn("Could not read " + kb.getEndpoint() + ": " + e.getMessage());
+            return null;
+        }
+        return toHex(md.digest());
+    }
+
+    /**
+     * Probes a SPARQL endpoint for the number of instances that match the
+     * restrictions and their latest modification date.
+     */
+    private static String probe(KBInfo kb) {
+        StringBuilder query = new StringBuilder();
+        if (kb.getPrefixes() != null) {
+            for (Map.Entry<String, String> prefix : kb.getPrefixes().entrySet()) {
+                query.append("PREFIX ").append(prefix.getKey()).append(": <").append(prefix.getValue()).append(">\n");
+            }
+        }
+        query.append("SELECT (COUNT(DISTINCT ").append(kb.getVar()).append(") AS ?count) (MAX(STR(?modified)) AS ?latest)\n");
+        query.append("WHERE {\n");
+        boolean restricted = false;
+        if (kb.getRestrictions() != null) {
+            for (String restriction : kb.getRestrictions()) {
+                if (restriction.trim().length() > 3) {
+                    query.append(restriction.trim()).append(" .\n");
+                    restricted = true;
+                }
+            }
+        }
+        if (!restricted) {
+            query.append(kb.getVar()).append(" ?p ?o .\n");
+        }
+        query.append("OPTIONAL { ").append(kb.getVar()).append(" <" + MODIFIED + "> ?modified }\n}");
+        try {
+            Query sparqlQuery = QueryFactory.create(query.toString(), Syntax.syntaxARQ);
+            QueryExecution qexec = kb.getGraph() != null && kb.getGraph().trim().length() > 3
+                    ? QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery, kb.getGraph())
+                    : QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery);
+            try {
+                ResultSet results = qexec.execSelect();
+                if (!results.hasNext()) {
+                    return null;
+                }
+                QuerySolution soln = results.nextSolution();
+                return "count=" + soln.get("count") + ",latest=" + soln.get("latest");
+            } finally {
+                qexec.close();
+            }
+        } catch (Exception e) {
+            logger.warn("Probing " + kb.getEndpoint() + " failed: " + e.getMessage());
+            return null;
+        }
+    }
+}
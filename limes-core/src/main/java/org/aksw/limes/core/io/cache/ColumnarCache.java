@@ -0,0 +1,543 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.BiConsumer;
+
+import org.aksw.limes.core.datastrutures.StringDictionary;
+import org.aksw.limes.core.io.preprocessing.Preprocessor;
+import org.apache.jena.rdf.model.Literal;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.rdf.model.Statement;
+import org.apache.jena.vocabulary.RDF;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implements a column-oriented, dictionary-encoded in-memory cache. URIs,
+ * property names and property values are interned to int IDs. The values of
+ * each property are stored in one column, i.e., in a contiguous int array of
+ * value IDs sorted by instance, together with an offset index that points to
+ * the first value of each instance. Hence, a literal that occurs several times
+ * in the cache is stored only once and no Instance, HashMap or TreeSet object
+ * is kept per instance.
+ *
+ * New statements are appended to a buffer of their column, which is merged
+ * into the column (sorted and deduplicated) the next time the column is read.
+ * A cache can be read by several threads concurrently, the first reader of a
+ * modified column compacts it for all of them. Modifications must not run
+ * concurrently with other accesses.
+ * Instances returned by {@link #getInstance(String)} and
+ * {@link #getAllInstances()} are created from the columns on each call, thus
+ * changes to them are not reflected in the cache. Mappers should use
+ * {@link #forEachValue(String, BiConsumer)} to scan the values of a property.
+ *
+ * Columnar caches are not created from configurations, whose data sources are
+ * read into {@link HybridCache}s. They are meant for code that builds large
+ * caches itself, e.g., with {@link #addTriple(String, String, String)}, or
+ * copies a cache once with {@link #addInstance(Instance)} before it is linked.
+ *
+ * @version 1.0
+ */
+public class ColumnarCache extends ACache implements Serializable {
+
+    private static final long serialVersionUID = 5026480342557237263L;
+
+    private static final Logger logger = LoggerFactory.getLogger(ColumnarCache.class);
+
+    /**
+     * Dictionary of the URIs of the instances.
+     */
+    protected StringDictionary uris;
+    /**
+     * Dictionary of the property names.
+     */
+    protected StringDictionary properties;
+    /**
+     * Dictionary of the property values.
+     */
+    protected StringDictionary values;
+    /**
+     * Columns indexed by the ID of their property.
+     */
+    protected PropertyColumn[] columns;
+    /**
+     * ID of the next instance returned by {@link #getNextInstance()}.
+     */
+    private int nextInstance = 0;
+
+    public ColumnarCache() {
+        uris = new StringDictionary();
+        properties = new StringDictionary();
+        values = new StringDictionary();
+        columns = new PropertyColumn[8];
+    }
+
+    /**
+     * Values of one property. The values of the instance with ID i are stored
+     * in valueIds[offsets[i]] to valueIds[offsets[i + 1] - 1], sorted by their
+     * string value. Statements that were not merged into the column yet are
+     * kept in the pending arrays.
+     */
+    protected static class PropertyColumn implements Serializable {
+
+        private static final long serialVersionUID = -2836010958011416092L;
+
+        int[] offsets = new int[] { 0 };
+        int[] valueIds = new int[0];
+        int[] pendingInstanceIds = new int[4];
+        int[] pendingValueIds = new int[4];
+        int pending = 0;
+        /**
+         * Number of instances the column was compacted for, -1 if statements
+         * are pending. Written last by a compaction, so that readers seeing
+         * it also see the compacted arrays.
+         */
+        volatile int compactedInstances = -1;
+
+        void add(int instanceId, int valueId) {
+            compactedInstances = -1;
+            if (pending == pendingInstanceIds.length) {
+                pendingInstanceIds = Arrays.copyOf(pendingInstanceIds, pending * 2);
+                pendingValueIds = Arrays.copyOf(pendingValueIds, pending * 2);
+            }
+            pendingInstanceIds[pending] = instanceId;
+            pendingValueIds[pending] = valueId;
+            pending++;
+        }
+
+        int instances() {
+            return offsets.length - 1;
+        }
+
+        int size() {
+            return valueIds.length + pending;
+        }
+
+        /**
+         * Merges the pending statements into the column and extends the
+         * offset index to the given number of instances. Concurrent readers
+         * wait for the first one to compact the column.
+         */
+        void compact(int instanceCount, StringDictionary values) {
+            if (compactedInstances == instanceCount) {
+                return;
+            }
+            synchronized (this) {
+                if (pending > 0 || instances() != instanceCount) {
+                    merge(instanceCount, values);
+                }
+                compactedInstances = instanceCount;
+            }
+        }
+
+        private void merge(int instanceCount, StringDictionary values) {
+            int[] counts = new int[instanceCount + 1];
+            for (int i = 0; i < instances(); i++) {
+                counts[i + 1] += offsets[i + 1] - offsets[i];
+            }
+            for (int i = 0; i < pending; i++) {
+                counts[pendingInstanceIds[i] + 1]++;
+            }
+            for (int i = 0; i < instanceCount; i++) {
+                counts[i + 1] += counts[i];
+            }
+            int[] newValueIds = new int[counts[instanceCount]];
+            int[] position = Arrays.copyOf(counts, instanceCount);
+            for (int i = 0; i < instances(); i++) {
+                for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                    newValueIds[position[i]++] = valueIds[j];
+                }
+            }
+            for (int i = 0; i < pending; i++) {
+                newValueIds[position[pendingInstanceIds[i]]++] = pendingValueIds[i];
+            }
+            // sort and deduplicate the values of each instance
+            int[] newOffsets = new int[instanceCount + 1];
+            int length = 0;
+            for (int i = 0; i < instanceCount; i++) {
+                int from = counts[i], to = counts[i + 1];
+                sort(newValueIds, from, to, values);
+                newOffsets[i] = length;
+                for (int j = from; j < to; j++) {
+                    if (j == from || newValueIds[j] != newValueIds[j - 1]) {
+                        newValueIds[length++] = newValueIds[j];
+                    }
+                }
+            }
+            newOffsets[instanceCount] = length;
+            offsets = newOffsets;
+            valueIds = length == newValueIds.length ? newValueIds : Arrays.copyOf(newValueIds, length);
+            pendingInstanceIds = new int[4];
+            pendingValueIds = new int[4];
+            pending = 0;
+        }
+
+        /**
+         * Removes all values of an instance. The column must be compact.
+         */
+        void remove(int instanceId) {
+            if (instanceId >= instances() || offsets[instanceId] == offsets[instanceId + 1]) {
+                return;
+            }
+            int from = offsets[instanceId], to = offsets[instanceId + 1];
+            int[] newValueIds = new int[valueIds.length - (to - from)];
+            System.arraycopy(valueIds, 0, newValueIds, 0, from);
+            System.arraycopy(valueIds, to, newValueIds, from, valueIds.length - to);
+            for (int i = instanceId + 1; i < offsets.length; i++) {
+                offsets[i] -= to - from;
+            }
+            valueIds = newValueIds;
+        }
+
+        /**
+         * Sorts value IDs by their string value, with insertion sort for short
+         * ranges and merge sort otherwise.
+         */
+        private static void sort(int[] ids, int from, int to, StringDictionary values) {
+            if (to - from < 2) {
+                return;
+            }
+            if (to - from <= 16) {
+                for (int i = from + 1; i < to; i++) {
+                    int id = ids[i];
+                    String value = values.get(id);
+                    int j = i - 1;
+                    while (j >= from && values.get(ids[j]).compareTo(value) > 0) {
+                        ids[j + 1] = ids[j];
+                        j--;
+                    }
+                    ids[j + 1] = id;
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            sort(ids, from, mid, values);
+            sort(ids, mid, to, values);
+            if (values.get(ids[mid - 1]).compareTo(values.get(ids[mid])) <= 0) {
+                return;
+            }
+            int[] left = Arrays.copyOfRange(ids, from, mid);
+            int i = 0, j = mid, k = from;
+            while (i < left.length && j < to) {
+                ids[k++] = values.get(left[i]).compareTo(values.get(ids[j])) <= 0 ? left[i++] : ids[j++];
+            }
+            while (i < left.length) {
+                ids[k++] = left[i++];
+            }
+        }
+    }
+
+    /**
+     * Returns the compacted column of a property.
+     *
+     * @param property
+     *         name of the property
+     * @return the column of the property or null if the cache contains no
+     * value of the property
+     */
+    protected PropertyColumn getColumn(String property) {
+        int propertyId = properties.getId(property);
+        if (propertyId < 0 || columns[propertyId] == null) {
+            return null;
+        }
+        PropertyColumn column = columns[propertyId];
+        column.compact(uris.size(), values);
+        return column;
+    }
+
+    private PropertyColumn getOrCreateColumn(String property) {
+        int propertyId = properties.intern(property);
+        if (propertyId >= columns.length) {
+            columns = Arrays.copyOf(columns, Math.max(columns.length * 2, propertyId + 1));
+        }
+        if (columns[propertyId] == null) {
+            columns[propertyId] = new PropertyColumn();
+        }
+        return columns[propertyId];
+    }
+
+    /**
+     * Creates the instance with the given ID from the columns.
+     */
+    private Instance createInstance(int instanceId) {
+        Instance instance = new Instance(uris.get(instanceId));
+        for (int p = 0; p < properties.size(); p++) {
+            PropertyColumn column = columns[p];
+            if (column == null) {
+                continue;
+            }
+            column.compact(uris.size(), values);
+            int from = column.offsets[instanceId], to = column.offsets[instanceId + 1];
+            if (from < to) {
+                TreeSet<String> set = new TreeSet<String>();
+                for (int j = from; j < to; j++) {
+                    set.add(values.get(column.valueIds[j]));
+                }
+                instance.addProperty(properties.get(p), set);
+            }
+        }
+        return instance;
+    }
+
+    /**
+     * Scans all values of a property. The values of each instance are
+     * visited in their natural order.
+     *
+     * @param property
+     *         name of the property
+     * @param consumer
+     *         called with the URI of the instance and the value for each
+     *         value of the property
+     */
+    @Override
+    public void forEachValue(String property, BiConsumer<String, String> consumer) {
+        PropertyColumn column = getColumn(property);
+        if (column == null) {
+            return;
+        }
+        for (int i = 0; i < column.instances(); i++) {
+            int from = column.offsets[i], to = column.offsets[i + 1];
+            if (from < to) {
+                String uri = uris.get(i);
+                for (int j = from; j < to; j++) {
+                    consumer.accept(uri, values.get(column.valueIds[j]));
+                }
+            }
+        }
+    }
+
+    /**
+     * Adds a new spo statement to the cache
+     *
+     * @param s
+     *         The URI of the instance linked to o via p
+     * @param p
+     *         The property which links s and o
+     * @param o
+     *         The value of the property of p for the entity s
+     */
+    @Override
+    public void addTriple(String s, String p, String o) {
+        int instanceId = uris.intern(s);
+        getOrCreateColumn(p).add(instanceId, values.intern(o));
+    }
+
+    @Override
+    public void addInstance(Instance i) {
+        if (uris.contains(i.getUri())) {
+            return;
+        }
+        int instanceId = uris.intern(i.getUri());
+        for (String p : i.getAllProperties()) {
+            PropertyColumn column = getOrCreateColumn(p);
+            for (String value : i.getProperty(p)) {
+                column.add(instanceId, values.intern(value));
+            }
+        }
+    }
+
+    /**
+     * Returns the next instance in the list of instances
+     *
+     * @return null if no next instance, else the next instance
+     */
+    @Override
+    public Instance getNextInstance() {
+        if (nextInstance < uris.size()) {
+            return createInstance(nextInstance++);
+        }
+        return null;
+    }
+
+    @Override
+    public void resetIterator() {
+        nextInstance = 0;
+    }
+
+    /**
+     * Returns all the instance contained in the cache
+     *
+     * @return ArrayList containing all instances
+     */
+    @Override
+    public ArrayList<Instance> getAllInstances() {
+        ArrayList<Instance> instances = new ArrayList<Instance>(uris.size());
+        for (int i = 0; i < uris.size(); i++) {
+            instances.add(createInstance(i));
+        }
+        return instances;
+    }
+
+    @Override
+    public ArrayList<String> getAllUris() {
+        ArrayList<String> result = new ArrayList<String>(uris.size());
+        for (int i = 0; i < uris.size(); i++) {
+            result.add(uris.get(i));
+        }
+        return result;
+    }
+
+    /**
+     * @param i
+     *         The instance to look for
+     * @return true if the URI of the instance is found in the cache
+     */
+    @Override
+    public boolean containsInstance(Instance i) {
+        return uris.contains(i.getUri());
+    }
+
+    /**
+     * @param uri
+     *         The URI to looks for
+     * @return True if an instance with the URI uri is found in the cache, else
+     * false
+     */
+    @Override
+    public boolean containsUri(String uri) {
+        return uris.contains(uri);
+    }
+
+    /**
+     * @param uri
+     *         URI to look for
+     * @return The instance with the URI uri if it is in the cache, else null
+     */
+    @Override
+    public Instance getInstance(String uri) {
+        int instanceId = uris.getId(uri);
+        if (instanceId < 0) {
+            return null;
+        }
+        return createInstance(instanceId);
+    }
+
+    /**
+     * @return The size of the cache
+     */
+    @Override
+    public int size() {
+        return uris.size();
+    }
+
+    @Override
+    public ACache getSample(int size) {
+        ColumnarCache c = new ColumnarCache();
+        Random random = new Random();
+        size = Math.min(size, size());
+        while (c.size() < size) {
+            c.addInstance(createInstance(random.nextInt(size())));
+        }
+        return c;
+    }
+
+    @Override
+    public void replaceInstance(String uri, Instance a) {
+        int instanceId = uris.getId(uri);
+        if (instanceId >= 0) {
+            for (int p = 0; p < properties.size(); p++) {
+                if (columns[p] != null) {
+                    columns[p].compact(uris.size(), values);
+                    columns[p].remove(instanceId);
+                }
+            }
+        }
+        instanceId = uris.intern(uri);
+        for (String p : a.getAllProperties()) {
+            PropertyColumn column = getOrCreateColumn(p);
+            for (String value : a.getProperty(p)) {
+                column.add(instanceId, values.intern(value));
+            }
+        }
+    }
+
+    /**
+     * Returns the set of properties that have at least one value in the
+     * cache.
+     *
+     * @return set of all properties
+     */
+    @Override
+    public Set<String> getAllProperties() {
+        HashSet<String> props = new HashSet<String>();
+        for (int p = 0; p < properties.size(); p++) {
+            if (columns[p] != null && columns[p].size() > 0) {
+                props.add(properties.get(p));
+            }
+        }
+        return props;
+    }
+
+    @Override
+    public ACache processData(Map<String, String> propertyProcess) {
+        ColumnarCache c = new ColumnarCache();
+        for (int i = 0; i < uris.size(); i++) {
+            c.uris.intern(uris.get(i));
+        }
+        for (String p : getAllProperties()) {
+            if (propertyProcess.containsKey(p)) {
+                String processingChain = propertyProcess.get(p);
+                forEachValue(p, (uri, value) -> c.addTriple(uri, p, Preprocessor.process(value, processingChain)));
+            } else {
+                forEachValue(p, (uri, value) -> c.addTriple(uri, p, value));
+            }
+        }
+        return c;
+    }
+
+    @Override
+    public ACache addProperty(String sourcePropertyName, String targetPropertyName, String processingChain) {
+        ColumnarCache c = new ColumnarCache();
+        for (int i = 0; i < uris.size(); i++) {
+            c.uris.intern(uris.get(i));
+        }
+        for (String p : getAllProperties()) {
+            forEachValue(p, (uri, value) -> c.addTriple(uri, p, value));
+        }
+        forEachValue(sourcePropertyName, (uri, value) -> c.addTriple(uri, targetPropertyName,
+                Preprocessor.process(value, processingChain)));
+        logger.debug("Cache is ready");
+        return c;
+    }
+
+    @Override
+    public Model parseCSVtoRDFModel(String baseURI, String IDbaseURI, String rdfType) {
+        if (baseURI.length() > 0 && !(baseURI.endsWith("#") || baseURI.endsWith("/"))) {
+            baseURI += "#";
+        }
+        Model model = ModelFactory.createDefaultModel();
+        Resource r_rdfType = model.createResource(baseURI + rdfType);
+        Map<String, Property> map = new HashMap<String, Property>();
+        for (String prop : getAllProperties()) {
+            map.put(prop, model.createProperty(baseURI + prop));
+        }
+        for (int i = 0; i < uris.size(); i++) {
+            Resource r = model.createResource(IDbaseURI + uris.get(i));
+            model.add(model.createStatement(r, RDF.type, r_rdfType));
+        }
+        for (String prop : map.keySet()) {
+            forEachValue(prop, (uri, value) -> {
+                Literal lit = model.createLiteral(value);
+                Statement stmt = model.createStatement(model.createResource(IDbaseURI + uri), map.get(prop), lit);
+                model.add(stmt);
+            });
+        }
+        return model;
+    }
+
+    @Override
+    public String toString() {
+        return getAllInstances().toString();
+    }
+}
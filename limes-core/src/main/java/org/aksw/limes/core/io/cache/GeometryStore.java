@@ -0,0 +1,157 @@
+package org.aksw.limes.core.io.cache;
+
+import org.aksw.limes.core.datastrutures.WeightedLruMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.GeometryFactory;
+import com.vividsolutions.jts.geom.impl.PackedCoordinateSequenceFactory;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.io.ParseException;
+import com.vividsolutions.jts.io.WKTReader;
+
+/**
+ * Geometries parsed from WKT values. Each value is parsed once into a
+ * geometry whose coordinates are packed into a double array, the prepared
+ * geometry used to evaluate topological predicates is created on first use.
+ * The entries are keyed by their WKT value, hence a store never returns stale
+ * geometries if the values of a cache change. The geometries are held in a
+ * {@link WeightedLruMap} weighted by their number of coordinates. Stores are
+ * thread-safe.
+ *
+ * @version 1.0
+ * @see ACache#getGeometryStore(String)
+ */
+public class GeometryStore {
+
+    static Logger logger = LoggerFactory.getLogger(GeometryStore.class);
+
+    /**
+     * Default number of coordinates held by a store, about 64 MB.
+     */
+    public static final long DEFAULT_CAPACITY = 1 << 22;
+
+    private static final GeometryStore shared = new GeometryStore();
+
+    private final GeometryFactory factory = new GeometryFactory(
+            new PackedCoordinateSequenceFactory(PackedCoordinateSequenceFactory.DOUBLE, 2));
+    private final WeightedLruMap<String, Entry> entries;
+
+    /**
+     * A parsed geometry and its prepared geometry.
+     */
+    public static class Entry {
+        private final Geometry geometry;
+        private volatile PreparedGeometry prepared;
+
+        private Entry(Geometry geometry) {
+            this.geometry = geometry;
+            // computed before the geometry is shared by several threads
+            geometry.getEnvelopeInternal();
+        }
+
+        public Geometry getGeometry() {
+            return geometry;
+        }
+
+        /**
+         * @return the prepared geometry, created on the first call
+         */
+        public PreparedGeometry getPrepared() {
+            PreparedGeometry p = prepared;
+            if (p == null) {
+                p = PreparedGeometryFactory.prepare(geometry);
+                prepared = p;
+            }
+            return p;
+        }
+    }
+
+    /**
+     * Creates a store with the {@link #DEFAULT_CAPACITY}.
+     */
+    public GeometryStore() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity
+     *            maximal number of coordinates held by the store
+     */
+    public GeometryStore(long capacity) {
+        this.entries = new WeightedLruMap<>(capacity);
+    }
+
+    /**
+     * @return the store shared by the topological measures, which compare
+     *         values without knowing their cache
+     */
+    public static GeometryStore getShared() {
+        return shared;
+    }
+
+    /**
+     * @param wkt
+     *            WKT representation of a geometry
+     * @return the entry of the geometry or null if the value is not valid WKT
+     */
+    public Entry get(String wkt) {
+        Entry entry = entries.get(wkt);
+        if (entry != null) {
+            return entry;
+        }
+        // parse outside of the lock, concurrent parses of a value are rare
+        try {
+            entry = new Entry(new WKTReader(factory).read(wkt));
+        } catch (ParseException e) {
+            logger.warn("Skipping malformed geometry " + wkt + ": " + e.getMessage());
+            return null;
+        }
+        Entry previous = entries.putIfAbsent(wkt, entry, Math.max(1, entry.getGeometry().getNumPoints()));
+        return previous == null ? entry : previous;
+    }
+
+    /**
+     * @param wkt
+     *            WKT representation of a geometry
+     * @return the geometry or null if the value is not valid WKT
+     */
+    public Geometry getGeometry(String wkt) {
+        Entry entry = get(wkt);
+        return entry == null ? null : entry.getGeometry();
+    }
+
+    /**
+     * @param wkt
+     *            WKT representation of a geometry
+     * @return the prepared geometry or null if the value is not valid WKT
+     */
+    public PreparedGeometry getPrepared(String wkt) {
+        Entry entry = get(wkt);
+        return entry == null ? null : entry.getPrepared();
+    }
+
+    /**
+     * @return the number of geometries in the store
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the number of coordinates of the geometries in the store
+     */
+    public long getWeight() {
+        return entries.getWeight();
+    }
+
+    public long getCapacity() {
+        return entries.getCapacity();
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+}
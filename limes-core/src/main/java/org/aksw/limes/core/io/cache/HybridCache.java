@@ -0,0 +1,567 @@
+package org.aksw.limes.core.io.cache;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+import org.aksw.limes.core.io.config.KBInfo;
+import org.aksw.limes.core.io.query.IQueryModule;
+import org.aksw.limes.core.io.query.NoPrefixSparqlQueryModule;
+import org.aksw.limes.core.io.query.QueryModuleFactory;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+
+/**
+ * This cache implements a hybrid between memory and file cache. It generates a
+ * hash for each data source associated with it and serializes the content of the
+ * corresponding data source into a file. If another mapping task is associated
+ * with the same data source, it retrieves the corresponding data from the file,
+ * which is obviously more efficient for online data sources (no HTTP latency,
+ * offline processing, etc.). Else, it retrieves the data, generates a hash and
+ * caches it on the hard drive.
+ * Enhancing it with folders: specify the folder, where the application has
+ * permissions to read and write files.
+ * The cached data of a data source is addressed and validated by its
+ * {@link CacheManifest}, which also allows adding properties to cached data.
+ * The content is stored in the memory-mapped format of {@link BinaryCacheFile}.
+ * A cache loaded from such a file reads its instances directly from the mapped
+ * file and only copies them into memory when the cache is modified. Every
+ * lookup decodes a new instance from the file, so changes made to it do not
+ * change the cache, which is modified by {@link #addTriple(String, String, String)},
+ * {@link #addInstance(Instance)} and {@link #replaceInstance(String, Instance)}. Files
+ * written by former versions with Java serialization (*.ser) are migrated to
+ * the binary format when they are loaded the first time.
+ *
+ * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
+ * @author Lyko
+ * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
+ * @version Jul 8, 2016
+ */
+public class HybridCache extends MemoryCache implements Serializable {
+    private static final long serialVersionUID = -2268344215686055231L;
+    static Logger logger = LoggerFactory.getLogger(HybridCache.class.getName());
+    // maps uris to instance. A bit redundant as instance contain their URI
+    protected HashMap<String, Instance> instanceMap;
+    //Iterator for getting next instance
+    protected Iterator<Instance> instanceIterator;
+
+    // pointing to the parent folder of the "cache" folder
+    private File folder = new File("");
+    // mapped file the content is read from until the cache is modified
+    private transient BinaryCacheFile binaryFile;
+    private transient int nextInstanceId;
+
+    public HybridCache() {
+        instanceMap = new HashMap<String, Instance>();
+    }
+
+    /**
+     * Create cache specifying the parent folder. Make shure the Application has write permissions there.
+     *
+     * @param folder
+     *         File pointing to the the parent folder of the (to-be-created) "cache" folder.
+     */
+    public HybridCache(File folder) {
+        this();
+        setFolder(folder);
+    }
+
+    /**
+     * Tries to load the content of the cache from a file. Binary cache files
+     * are mapped into memory, any other file is deserialized.
+     *
+     * @param file
+     *         File from which the content is to be loaded
+     * @return A Hybrid cache
+     * @throws IOException if file not found
+     */
+    public static HybridCache loadFromFile(File file) throws IOException {
+        String path = file.getAbsolutePath();
+        String parentPath = path.substring(0, path.lastIndexOf("cache"));
+        File parent = new File(parentPath);
+
+        if (BinaryCacheFile.isBinaryCacheFile(file)) {
+            HybridCache cache = new HybridCache(parent);
+            cache.binaryFile = BinaryCacheFile.open(file);
+            return cache;
+        }
+        FileInputStream in = new FileInputStream(file);
+        ObjectInputStream deSerializer = new ObjectInputStream(in);
+        HybridCache cache;
+
+        try {
+            cache = (HybridCache) deSerializer.readObject();
+            cache.setFolder(parent);
+            return cache;
+        } catch (ClassNotFoundException e) {
+            throw new IOException(e);
+        } finally {
+            in.close();
+        }
+    }
+
+    public static HybridCache getData(KBInfo kb) {
+        return getData(new File(""), kb);
+    }
+
+    /**
+     * Method to get Data of the specified endpoint, and cache it to the "cache" folder in the folder specified.
+     *
+     * @param folder
+     *         Path to the parent folder of the "cache" folder.
+     * @param kb
+     *         Endpoint specification.
+     * @return HybridCache of the data
+     */
+    public static HybridCache getData(File folder, KBInfo kb) {
+        return getData(folder, kb, false);
+    }
+
+    /**
+     * This method is used by learners which do not have prefix information.
+     *
+     * @param kb
+     *         Info to the knowledge base to query
+     * @return A cache filled with the entities to link
+     */
+    public static HybridCache getNoPrefixData(KBInfo kb) {
+        return getNoPrefixData(new File(""), kb);
+    }
+
+    /**
+     * This method is used by learners which do not have prefix information and with a specified folder containing the cache folder.
+     *
+     * @param folder
+     *         Path to parent folder of the supposed cache folder.
+     * @param kb
+     *         Info to the knowledge base to query
+     * @return A cache filled with the entities to link
+     */
+    public static HybridCache getNoPrefixData(File folder, KBInfo kb) {
+        return getData(folder, kb, true);
+    }
+
+    /**
+     * Gets the data of a data source. The cached data is addressed and
+     * validated by the {@link CacheManifest} of the source. If the cached data
+     * lacks some of the properties of kb, only these properties are fetched
+     * and merged into the cache. Caches of former versions, which were
+     * addressed by kb.hashCode(), are moved to their new address.
+     *
+     * @param folder
+     *         Path to the parent folder of the "cache" folder.
+     * @param kb
+     *         Info to the knowledge base to query
+     * @param noPrefix
+     *         True if the data is fetched with {@link NoPrefixSparqlQueryModule}
+     * @return A cache filled with the entities to link
+     */
+    private static HybridCache getData(File folder, KBInfo kb, boolean noPrefix) {
+        String key = CacheManifest.getKey(kb) + (noPrefix ? "-noprefix" : "");
+        File cacheFile = getCacheFile(folder, key);
+        File manifestFile = getCacheFile(folder, key, CacheManifest.EXTENSION);
+        logger.info("Checking for file " + cacheFile.getAbsolutePath());
+        //1. Try to get content from the cache folder
+        HybridCache cache = null;
+        try {
+            CacheManifest manifest = CacheManifest.read(manifestFile);
+            if (manifest != null && cacheFile.exists() && manifest.matches(kb)) {
+                logger.info("Found cached data. Loading data from file " + cacheFile.getAbsolutePath());
+                cache = HybridCache.loadFromFile(cacheFile);
+                ArrayList<String> missing = manifest.getMissingProperties(kb);
+                ArrayList<String> missingOptional = manifest.getMissingOptionalProperties(kb);
+                if (!missing.isEmpty() || !missingOptional.isEmpty()) {
+                    logger.info("Fetching properties " + missing + " and optional properties " + missingOptional
+                            + " missing in cached data");
+                    cache = addProperties(cache, kb, missing, missingOptional, noPrefix);
+                    manifest.addCachedProperties(kb, missing, missingOptional);
+                    cache.saveToFile(cacheFile);
+                }
+                manifest.write(manifestFile);
+            } else if (manifest == null) {
+                cache = loadLegacy(folder, kb.hashCode() + "");
+                if (cache != null) {
+                    logger.info("Moving cached data to " + cacheFile.getAbsolutePath());
+                    CacheManifest.create(kb).write(manifestFile);
+                    cache.saveToFile(cacheFile);
+                    cache = HybridCache.loadFromFile(cacheFile);
+                    getCacheFile(folder, kb.hashCode() + "").delete();
+                    getCacheFile(folder, kb.hashCode() + "", ".ser").delete();
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Could not load cached data: " + e.getMessage());
+            cache = null;
+        }
+        if (cache != null && cache.size() > 0) {
+            logger.info("Cached data loaded successfully from file " + cacheFile.getAbsolutePath());
+            logger.info("Size = " + cache.size());
+            return cache;
+        }
+        //2. If it does not work, then get it from data sourceInfo as specified
+        logger.info("No cached data found for " + kb.getId());
+        // the fingerprint is taken before the data is read
+        CacheManifest manifest = CacheManifest.create(kb);
+        cache = new HybridCache(folder);
+        getQueryModule(kb, noPrefix).fillCache(cache);
+
+        if (!new File(folder.getAbsolutePath() + File.separatorChar + "cache").exists() || !new File(folder.getAbsolutePath() + File.separatorChar + "cache").isDirectory()) {
+            new File(folder.getAbsolutePath() + File.separatorChar + "cache").mkdir();
+        }
+        cache.saveToFile(cacheFile);
+        try {
+            manifest.write(manifestFile);
+        } catch (IOException e) {
+            logger.warn("Could not write cache manifest " + manifestFile.getAbsolutePath() + ": " + e.getMessage());
+        }
+        return cache;
+    }
+
+    private static IQueryModule getQueryModule(KBInfo kb, boolean noPrefix) {
+        if (noPrefix) {
+            return new NoPrefixSparqlQueryModule(kb);
+        }
+        return QueryModuleFactory.getQueryModule(kb.getType(), kb);
+    }
+
+    /**
+     * Adds properties to cached data. The added properties are fetched as
+     * required properties. Instances without a value for an added required
+     * property are removed, as they would not have been fetched with all
+     * properties. Instances without a value for an added optional property are
+     * kept.
+     *
+     * @param cache
+     *         Cached data
+     * @param kb
+     *         Info to the knowledge base to query
+     * @param properties
+     *         Properties to add
+     * @param optionalProperties
+     *         Optional properties to add
+     * @param noPrefix
+     *         True if the data is fetched with {@link NoPrefixSparqlQueryModule}
+     * @return A cache with the cached data and the added properties
+     */
+    private static HybridCache addProperties(HybridCache cache, KBInfo kb, List<String> properties,
+            List<String> optionalProperties, boolean noPrefix) {
+        HybridCache result = new HybridCache(cache.getFolder());
+        HybridCache required = null;
+        if (!properties.isEmpty()) {
+            required = new HybridCache();
+            getQueryModule(copy(kb, properties), noPrefix).fillCache(required);
+        }
+        for (Instance instance : cache.getAllInstances()) {
+            if (required != null) {
+                Instance values = required.getInstance(instance.getUri());
+                if (values == null) {
+                    continue;
+                }
+                for (String property : values.getAllProperties()) {
+                    instance.addProperty(property, values.getProperty(property));
+                }
+            }
+            result.addInstance(instance);
+        }
+        if (!optionalProperties.isEmpty()) {
+            HybridCache optional = new HybridCache();
+            getQueryModule(copy(kb, optionalProperties), noPrefix).fillCache(optional);
+            for (Instance values : optional.getAllInstances()) {
+                Instance instance = result.getInstance(values.getUri());
+                if (instance != null) {
+                    for (String property : values.getAllProperties()) {
+                        instance.addProperty(property, values.getProperty(property));
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static KBInfo copy(KBInfo kb, List<String> properties) {
+        KBInfo copy = new KBInfo(kb.getId(), kb.getEndpoint(), kb.getGraph(), kb.getVar(),
+                new ArrayList<String>(properties), new ArrayList<String>(), kb.getRestrictions(), kb.getFunctions(),
+                kb.getPrefixes(), kb.getPageSize(), kb.getType());
+        copy.setParallelism(kb.getParallelism());
+        return copy;
+    }
+
+    /**
+     * @param folder
+     *         Path to the parent folder of the "cache" folder.
+     * @param name
+     *         Name of the cached data
+     * @return the binary cache file of the data source
+     */
+    public static File getCacheFile(File folder, String name) {
+        return getCacheFile(folder, name, BinaryCacheFile.EXTENSION);
+    }
+
+    private static File getCacheFile(File folder, String name, String extension) {
+        return new File(folder.getAbsolutePath() + File.separatorChar + "cache" + File.separatorChar + name + extension);
+    }
+
+    /**
+     * Loads the cached data of a data source written by a former version,
+     * which addressed cached data by the hash code of the KBInfo. Data
+     * serialized with Java serialization is converted into the binary format.
+     *
+     * @param folder
+     *         Path to the parent folder of the "cache" folder.
+     * @param hash
+     *         Hash of the data source
+     * @return the loaded cache or null if no cached data is found
+     * @throws IOException if a cache file can not be read
+     */
+    private static HybridCache loadLegacy(File folder, String hash) throws IOException {
+        File cacheFile = getCacheFile(folder, hash);
+        if (cacheFile.exists()) {
+            logger.info("Found cached data. Loading data from file " + cacheFile.getAbsolutePath());
+            return HybridCache.loadFromFile(cacheFile);
+        }
+        File serFile = getCacheFile(folder, hash, ".ser");
+        if (serFile.exists()) {
+            logger.info("Migrating serialized cache file " + serFile.getAbsolutePath());
+            HybridCache serialized = HybridCache.loadFromFile(serFile);
+            serialized.setFolder(folder);
+            return serialized;
+        }
+        return null;
+    }
+
+    /**
+     * Copies the content of the mapped file into memory before the cache is
+     * modified.
+     */
+    private void materialize() {
+        if (binaryFile != null) {
+            for (int id = 0; id < binaryFile.size(); id++) {
+                Instance instance = binaryFile.getInstance(id);
+                instanceMap.put(instance.getUri(), instance);
+            }
+            binaryFile = null;
+            instanceIterator = null;
+        }
+    }
+
+    /**
+     * Returns the next instance in the list of instances
+     *
+     * @return null if no next instance, else the next instance
+     */
+    public Instance getNextInstance() {
+        if (binaryFile != null) {
+            return nextInstanceId < binaryFile.size() ? binaryFile.getInstance(nextInstanceId++) : null;
+        }
+        if (instanceIterator == null) {
+            instanceIterator = instanceMap.values().iterator();
+        }
+
+        if (instanceIterator.hasNext()) {
+            return instanceIterator.next();
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns all the instance contained in the cache
+     *
+     * @return ArrayList containing all instances
+     */
+    public ArrayList<Instance> getAllInstances() {
+        if (binaryFile != null) {
+            ArrayList<Instance> instances = new ArrayList<Instance>(binaryFile.size());
+            for (int id = 0; id < binaryFile.size(); id++) {
+                instances.add(binaryFile.getInstance(id));
+            }
+            return instances;
+        }
+        return new ArrayList<Instance>(instanceMap.values());
+    }
+
+    public void addInstance(Instance i) {
+        materialize();
+        if (!instanceMap.containsKey(i.getUri())) {
+            instanceMap.put(i.getUri(), i);
+        }
+    }
+
+    /**
+     * @param uri
+     *         URI to look for
+     * @return The instance with the URI uri if it is in the cache, else null.
+     *         Instances read from a binary cache file are decoded per call,
+     *         changes to them do not change the cache.
+     */
+    public Instance getInstance(String uri) {
+        if (binaryFile != null) {
+            int id = binaryFile.indexOf(uri);
+            return id < 0 ? null : binaryFile.getInstance(id);
+        }
+        if (instanceMap.containsKey(uri)) {
+            return instanceMap.get(uri);
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * @return The size of the cache
+     */
+    public int size() {
+        if (binaryFile != null) {
+            return binaryFile.size();
+        }
+        return instanceMap.size();
+    }
+
+    /**
+     * Adds a new spo statement to the cache
+     *
+     * @param s
+     *         The URI of the instance linked to o via p
+     * @param p
+     *         The property which links s and o
+     * @param o
+     *         The value of the property of p for the entity s
+     */
+    public void addTriple(String s, String p, String o) {
+        materialize();
+        if (instanceMap.containsKey(s)) {
+            Instance m = instanceMap.get(s);
+            m.addProperty(p, o);
+        } else {
+            Instance m = new Instance(s);
+            m.addProperty(p, o);
+            instanceMap.put(s, m);
+        }
+    }
+
+    /**
+     * @param uri
+     *         The URI to looks for
+     * @return True if an instance with the URI uri is found in the cache, else false
+     */
+    public boolean containsUri(String uri) {
+        if (binaryFile != null) {
+            return binaryFile.indexOf(uri) >= 0;
+        }
+        return instanceMap.containsKey(uri);
+    }
+
+    public void resetIterator() {
+        nextInstanceId = 0;
+        instanceIterator = instanceMap.values().iterator();
+    }
+
+    @Override
+    public String toString() {
+        if (binaryFile != null) {
+            return "{" + binaryFile.getFile() + ": " + binaryFile.size() + " instances}";
+        }
+        return instanceMap.toString();
+    }
+
+    public ArrayList<String> getAllUris() {
+        if (binaryFile != null) {
+            return binaryFile.getAllUris();
+        }
+        return new ArrayList<String>(instanceMap.keySet());
+    }
+
+    /**
+     * @param i
+     *         The instance to look for
+     * @return true if the URI of the instance is found in the cache
+     */
+    public boolean containsInstance(Instance i) {
+        return containsUri(i.getUri());
+    }
+
+    @Override
+    public Set<String> getAllProperties() {
+        if (binaryFile != null) {
+            return binaryFile.getProperties();
+        }
+        return super.getAllProperties();
+    }
+
+    @Override
+    public void replaceInstance(String uri, Instance a) {
+        materialize();
+        instanceMap.put(uri, a);
+    }
+
+    @Override
+    public void forEachValue(String property, BiConsumer<String, String> consumer) {
+        if (binaryFile != null) {
+            binaryFile.forEachValue(property, consumer);
+        } else {
+            super.forEachValue(property, consumer);
+        }
+    }
+
+    /**
+     * Tries to write the content of the cache to a binary cache file. If it
+     * fails, no file is written to avoid the corruption of future data sources.
+     *
+     * @param file
+     *         File wherein the content of the cache is to be written
+     */
+    public void saveToFile(File file) {
+        logger.info("Writing " + size() + " objects to " + file.getAbsolutePath());
+
+        try {
+            BinaryCacheFile.write(this, file);
+        } catch (Exception e) {
+            e.printStackTrace();
+            file.delete();
+        }
+    }
+
+    /**
+     * Serializes the content of the cache to a file with Java serialization,
+     * i.e., in the format of former versions.
+     *
+     * @param file
+     *         File wherein the content of the cache is to be serialized
+     * @throws IOException if the file can not be written
+     */
+    public void serializeToFile(File file) throws IOException {
+        materialize();
+        try (ObjectOutputStream serializer = new ObjectOutputStream(new FileOutputStream(file))) {
+            serializer.writeObject(this);
+        }
+    }
+
+    /**
+     * Returns the file  pointing to the parent folder of cache.
+     *
+     * @return File folder
+     */
+    public File getFolder() {
+        return folder;
+    }
+
+    /**
+     * Set the parent folder of the cache sub folder.
+     *
+     * @param folder
+     *         Pointing to the parent folder holding the cache.
+     */
+    public void setFolder(File folder) {
+        this.folder = folder;
+    }
+}
@@ -48,6 +48,8 @@ public class Configuration implements IConfiguration {
     protected String executionRewriter = DEFAULT;
     protected String executionPlanner = DEFAULT;
     protected String executionEngine = DEFAULT;
+    // number of threads of the execution, 0 for the default of the engine
+    protected int executionParallelism = 0;
 
     protected int granularity = 2;
 
@@ -288,6 +290,14 @@ public class Configuration implements IConfiguration {
         this.executionEngine = executionEngine;
     }
 
+    public int getExecutionParallelism() {
+        return executionParallelism;
+    }
+
+    public void setExecutionParallelism(int executionParallelism) {
+        this.executionParallelism = executionParallelism;
+    }
+
     public String getMlTrainingDataFile() {
         return mlTrainingDataFile;
     }
@@ -300,7 +310,8 @@ public class Configuration implements IConfiguration {
                 + acceptanceFile + ", verificationThreshold=" + verificationThreshold + ", verificationFile="
                 + verificationFile + ", prefixes=" + prefixes + ", outputFormat=" + outputFormat
                 + ", executionRewriter=" + executionRewriter + ", executionPlanner=" + executionPlanner
-                + ", executionEngine=" + executionEngine + ", granularity=" + granularity + ", mlAlgorithmName="
+                + ", executionEngine=" + executionEngine + ", executionParallelism=" + executionParallelism
+                + ", granularity=" + granularity + ", mlAlgorithmName="
                 + mlAlgorithmName + ", mlParameters=" + mlAlgorithmParameters + ", mlImplementationType=" + mlImplementationType
                 + ", mlTrainingDataFile=" + mlTrainingDataFile + ", mlPseudoFMeasure=" + mlPseudoFMeasure + "]";
     }
@@ -315,6 +326,7 @@ public class Configuration implements IConfiguration {
         temp = Double.doubleToLongBits(acceptanceThreshold);
         result = prime * result + (int) (temp ^ (temp >>> 32));
         result = prime * result + ((executionEngine == null) ? 0 : executionEngine.hashCode());
+        result = prime * result + executionParallelism;
         result = prime * result + ((executionPlanner == null) ? 0 : executionPlanner.hashCode());
         result = prime * result + ((executionRewriter == null) ? 0 : executionRewriter.hashCode());
         result = prime * result + granularity;
@@ -361,6 +373,8 @@ public class Configuration implements IConfiguration {
                 return false;
         } else if (!executionEngine.equals(other.executionEngine))
             return false;
+        if (executionParallelism != other.executionParallelism)
+            return false;
         if (executionPlanner == null) {
             if (other.executionPlanner != null)
                 return false;
@@ -36,6 +36,10 @@ public class KBInfo implements Serializable {
     protected Map<String, String> prefixes;
     protected int pageSize;
     protected String type;
+    // number of concurrent requests used to fill a cache
+    protected int parallelism;
+    // time in milliseconds during which the last probe of a cached endpoint is trusted
+    protected long probeInterval;
 
     /**
      * Constructor
@@ -51,6 +55,8 @@ public class KBInfo implements Serializable {
         functions = new HashMap<>();
         pageSize = -1;      //-1 means query all at once
         type = DEFAULT_QUERY_TYPE;    //default value
+        parallelism = 1;
+        probeInterval = 0;
     }
 
     /**
@@ -77,6 +83,8 @@ public class KBInfo implements Serializable {
         this.prefixes = prefixes;
         this.pageSize = pageSize;
         this.type = type;
+        this.parallelism = 1;
+        this.probeInterval = 0;
     }
 
     public String getId() {
@@ -175,6 +183,31 @@ public class KBInfo implements Serializable {
         return type;
     }
 
+    /**
+     * @return the number of pages fetched concurrently when the cache is
+     * filled. 1 means that pages are fetched one after the other
+     */
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    public void setParallelism(int parallelism) {
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * @return the time in milliseconds during which the last probe of a cached
+     * SPARQL endpoint is trusted. 0 probes the endpoint on every use of the
+     * cached data
+     */
+    public long getProbeInterval() {
+        return probeInterval;
+    }
+
+    public void setProbeInterval(long probeInterval) {
+        this.probeInterval = probeInterval;
+    }
+
     public void setType(String type) {
         this.type = type;
     }
@@ -194,6 +227,8 @@ public class KBInfo implements Serializable {
         s = s + "OptionalProperties: " + optionalProperties + "\n";
         s = s + "Functions: " + functions + "\n";
         s = s + "Page size: " + pageSize + "\n";
+        s = s + "Parallelism: " + parallelism + "\n";
+        s = s + "Probe interval: " + probeInterval + "\n";
         s = s + "Type: " + type + "\n";
         return s;
     }
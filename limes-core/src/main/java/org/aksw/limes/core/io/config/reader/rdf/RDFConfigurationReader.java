@@ -165,10 +165,14 @@ public class RDFConfigurationReader extends AConfigurationReader {
             }  
             RDFNode exeEngine = getObject(exeParamResource, LIMES.executionEngine, false);
             if (exeEngine != null) {
-                configuration.setExecutionPlanner(exeEngine.toString());
+                configuration.setExecutionEngine(exeEngine.toString());
             } else {
                 logger.info("Use default execution engine.");
             } 
+            RDFNode exeParallelism = getObject(exeParamResource, LIMES.executionParallelism, false);
+            if (exeParallelism != null) {
+                configuration.setExecutionParallelism(Integer.parseInt(exeParallelism.toString()));
+            }
         }else {
             logger.info("Use default execution parameters.");
         }
@@ -275,6 +279,18 @@ public class RDFConfigurationReader extends AConfigurationReader {
         // Page size
         kbinfo.setPageSize(parseInt(getObject(kb, LIMES.pageSize, true).toString()));
 
+        // Parallelism
+        RDFNode parallelism = getObject(kb, LIMES.parallelism, false);
+        if (parallelism != null) {
+            kbinfo.setParallelism(parseInt(parallelism.toString()));
+        }
+
+        // Probe interval of cached endpoints
+        RDFNode probeInterval = getObject(kb, LIMES.probeInterval, false);
+        if (probeInterval != null) {
+            kbinfo.setProbeInterval(Long.parseLong(probeInterval.toString()));
+        }
+
         // KB variable
         kbinfo.setVar(getObject(kb, LIMES.variable, true).toString());
 
@@ -51,6 +51,8 @@ public class XMLConfigurationReader extends AConfigurationReader {
     protected static final String SOURCE = "SOURCE";
     protected static final String PREFIX = "PREFIX";
     protected static final String PAGESIZE = "PAGESIZE";
+    protected static final String PARALLELISM = "PARALLELISM";
+    protected static final String PROBE_INTERVAL = "PROBE_INTERVAL";
     protected static final String ENDPOINT = "ENDPOINT";
     protected static final String GRAPH = "GRAPH";
     protected static final String RESTRICTION = "RESTRICTION";
@@ -242,6 +244,10 @@ public class XMLConfigurationReader extends AConfigurationReader {
                 processOptionalProperty(kbinfo, property);
             } else if (child.getNodeName().equals(PAGESIZE)) {
                 kbinfo.setPageSize(Integer.parseInt(getText(child)));
+            } else if (child.getNodeName().equals(PARALLELISM)) {
+                kbinfo.setParallelism(Integer.parseInt(getText(child)));
+            } else if (child.getNodeName().equals(PROBE_INTERVAL)) {
+                kbinfo.setProbeInterval(Long.parseLong(getText(child)));
             } else if (child.getNodeName().equals(VAR)) {
                 kbinfo.setVar(getText(child));
             } else if (child.getNodeName().equals(TYPE)) {
@@ -393,6 +399,8 @@ public class XMLConfigurationReader extends AConfigurationReader {
                                 configuration.setExecutionPlanner(getText(child));
                             } else if (child.getNodeName().equals(ENGINE)) {
                                 configuration.setExecutionEngine(getText(child));
+                            } else if (child.getNodeName().equals(PARALLELISM)) {
+                                configuration.setExecutionParallelism(Integer.parseInt(getText(child)));
                             }
                         }
                     }
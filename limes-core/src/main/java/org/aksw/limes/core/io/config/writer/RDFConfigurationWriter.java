@@ -83,6 +83,12 @@ public class RDFConfigurationWriter implements IConfigurationWriter {
         m.add(source, LIMES.type, String.valueOf(configuration.getSourceInfo().getType()));
         m.add(source, LIMES.variable, configuration.getSourceInfo().getVar());
         m.add(source, LIMES.pageSize, String.valueOf(configuration.getSourceInfo().getPageSize()));
+        if (configuration.getSourceInfo().getParallelism() > 1) {
+            m.add(source, LIMES.parallelism, String.valueOf(configuration.getSourceInfo().getParallelism()));
+        }
+        if (configuration.getSourceInfo().getProbeInterval() > 0) {
+            m.add(source, LIMES.probeInterval, String.valueOf(configuration.getSourceInfo().getProbeInterval()));
+        }
         for (String r : configuration.getSourceInfo().getRestrictions()) {
             m.add(source, LIMES.restriction, r);
         }
@@ -99,6 +105,12 @@ public class RDFConfigurationWriter implements IConfigurationWriter {
         m.add(target, LIMES.type, String.valueOf(configuration.getTargetInfo().getType()));
         m.add(target, LIMES.variable, configuration.getTargetInfo().getVar() + "");
         m.add(target, LIMES.pageSize, String.valueOf(configuration.getTargetInfo().getPageSize()));
+        if (configuration.getTargetInfo().getParallelism() > 1) {
+            m.add(target, LIMES.parallelism, String.valueOf(configuration.getTargetInfo().getParallelism()));
+        }
+        if (configuration.getTargetInfo().getProbeInterval() > 0) {
+            m.add(target, LIMES.probeInterval, String.valueOf(configuration.getTargetInfo().getProbeInterval()));
+        }
         for (String r : configuration.getTargetInfo().getRestrictions()) {
             m.add(target, LIMES.restriction, r);
         }
@@ -133,6 +145,9 @@ public class RDFConfigurationWriter implements IConfigurationWriter {
         m.add(s, LIMES.executionPlanner, configuration.getExecutionPlanner());
         m.add(s, LIMES.executionRewriter, configuration.getExecutionRewriter());
         m.add(s, LIMES.executionEngine, configuration.getExecutionEngine());
+        if (configuration.getExecutionParallelism() > 0) {
+            m.add(s, LIMES.executionParallelism, String.valueOf(configuration.getExecutionParallelism()));
+        }
 
         //7. TILING if necessary
         m.add(s, LIMES.granularity, String.valueOf(configuration.getGranularity()));
@@ -19,6 +19,19 @@ public class MappingFactory {
         return new MemoryMapping();
     }
 
+    /**
+     * @param maxSize maximal number of links, Long.MAX_VALUE for none
+     * @return the default Mapping implementation, which throws a
+     *         {@link org.aksw.limes.core.exceptions.MappingSizeExceededException}
+     *         as soon as it has more than maxSize links
+     */
+    public static AMapping createBoundedMapping(long maxSize) {
+        if (maxSize == Long.MAX_VALUE) {
+            return createDefaultMapping();
+        }
+        return new MemoryMapping(maxSize);
+    }
+
     /**
      * @param type of mapping
      * @return a specific module instance given its module's name
@@ -33,6 +46,8 @@ public class MappingFactory {
             return new HybridMapping();
         if (type == MappingType.FILE_MAPPING)
             return new FileMapping();
+        if (type == MappingType.PRIMITIVE_MAPPING)
+            return new PrimitiveMapping();
         logger.warn("Sorry, " + type + " is not yet implemented. Generating " + MappingType.DEFAULT + " map ...");
         return createDefaultMapping();
     }
@@ -41,7 +56,8 @@ public class MappingFactory {
         DEFAULT, // currently memory mapping
         MEMORY_MAPPING,
         HYBIRD_MAPPING,
-        FILE_MAPPING
+        FILE_MAPPING,
+        PRIMITIVE_MAPPING // interned URIs and primitive similarities, for large mappings
     }
 
 
@@ -6,6 +6,7 @@ import java.util.Iterator;
 import java.util.Set;
 import java.util.TreeSet;
 
+import org.aksw.limes.core.exceptions.MappingSizeExceededException;
 import org.aksw.limes.core.util.RandomStringGenerator;
 
 /**
@@ -27,11 +28,33 @@ public class MemoryMapping extends AMapping{
 	 */
 	private static final long serialVersionUID = 2763300329497546833L;
 
+    /**
+     * Maximal number of links, see
+     * {@link MappingFactory#createBoundedMapping(long)}.
+     */
+    private long maxSize = Long.MAX_VALUE;
+
 	protected MemoryMapping() {
         super();
 
     }
 
+    /**
+     * @param maxSize
+     *         Maximal number of links. Adding more links throws a
+     *         {@link MappingSizeExceededException}.
+     */
+    protected MemoryMapping(long maxSize) {
+        super();
+        this.maxSize = maxSize;
+    }
+
+    private void checkSize() {
+        if (size > maxSize) {
+            throw new MappingSizeExceededException(size, maxSize);
+        }
+    }
+
     public static AMapping generateRandomMapping(int mappingSize, int minSize, int maxSize) {
         AMapping m = MappingFactory.createDefaultMapping();
         RandomStringGenerator generator = new RandomStringGenerator(minSize, maxSize);
@@ -102,6 +125,7 @@ public class MemoryMapping extends AMapping{
         if (!map.containsKey(uri)) {
             map.put(uri, instances);
             size += instances.size();
+            checkSize();
         } else {
             Iterator<String> keyIter = instances.keySet().iterator();
             String mappingUri;
@@ -140,12 +164,14 @@ public class MemoryMapping extends AMapping{
             } else {
                 map.get(source).put(target, similarity);
                 size++;
+                checkSize();
             }
         } else {
             HashMap<String, Double> help = new HashMap<String, Double>();
             help.put(target, similarity);
             map.put(source, help);
             size++;
+            checkSize();
         }
     }
 
@@ -310,8 +336,9 @@ public class MemoryMapping extends AMapping{
         AMapping result = MappingFactory.createDefaultMapping();
         result.map.putAll(this.map);
         result.size = size();
-        for (String s : other.map.keySet()) {
-            result.add(s, other.map.get(s));
+        HashMap<String, HashMap<String, Double>> otherMap = other.getMap();
+        for (String s : otherMap.keySet()) {
+            result.add(s, otherMap.get(s));
             // for(Entry<String, Double> t : other.map.get(s).entrySet()) {
             // if(result.contains(s, t.getKey())) {
             // double val = Math.max(result.getSimilarity(s,
@@ -0,0 +1,554 @@
+package org.aksw.limes.core.io.mapping;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map.Entry;
+
+import org.aksw.limes.core.datastrutures.LongFloatHashMap;
+import org.aksw.limes.core.datastrutures.StringDictionary;
+
+/**
+ * Memory efficient mapping for large sets of links. Source and target URIs are
+ * interned to int IDs and each link is stored as one entry of an open
+ * addressing map from the packed pair of IDs (a long) to its similarity (a
+ * float). Compared to {@link MemoryMapping}, no boxed values and no nested
+ * maps are created per link and no reversed map is needed to compute
+ * sub-mappings. As in {@link MemoryMapping}, if (s, t, sim1) is already in the
+ * mapping and (s, t, sim2) is added then the mapping will contain (s, t,
+ * max(sim1, sim2)).
+ *
+ * Similarities are stored with float precision. Hence,
+ * {@link #getSubMap(double)} compares similarities and threshold with float
+ * precision as well.
+ *
+ * {@link #getMap()} is only supported for compatibility with the code that
+ * accesses the nested maps directly. Every call materializes the links into a
+ * new nested map. Changes of the returned map are not reflected in the
+ * mapping.
+ *
+ * Mappings which share their dictionaries, e.g., the sub-mappings of a
+ * mapping, are combined by merging their links sorted by source and target
+ * ID, see {@link #union(PrimitiveMapping)}. The sorted links are cached until
+ * the mapping is changed, and the results of the merges keep theirs, so that
+ * chains of set operations sort every input once.
+ *
+ * @version 1.0
+ */
+public class PrimitiveMapping extends AMapping {
+
+    private static final long serialVersionUID = -3460137432960174548L;
+
+    /**
+     * Dictionary of the source URIs.
+     */
+    protected StringDictionary sources;
+    /**
+     * Dictionary of the target URIs.
+     */
+    protected StringDictionary targets;
+    /**
+     * Similarities of the links indexed by the packed IDs of their URIs.
+     */
+    protected LongFloatHashMap links;
+    /**
+     * Packed IDs of the links in ascending order and their similarities, null
+     * if not computed since the last change.
+     */
+    protected transient long[] sortedKeys;
+    protected transient float[] sortedSimilarities;
+
+    protected PrimitiveMapping() {
+        this(new StringDictionary(), new StringDictionary(), 16);
+    }
+
+    /**
+     * Creates an empty mapping that shares its dictionaries with other
+     * mappings. Dictionaries only grow, thus the IDs of URIs known to any of
+     * the mappings never change.
+     *
+     * @param sources,
+     *            dictionary of the source URIs
+     * @param targets,
+     *            dictionary of the target URIs
+     * @param expectedSize,
+     *            number of links the mapping is expected to contain
+     */
+    protected PrimitiveMapping(StringDictionary sources, StringDictionary targets, int expectedSize) {
+        super();
+        this.sources = sources;
+        this.targets = targets;
+        this.links = new LongFloatHashMap(expectedSize);
+        this.map = null;
+    }
+
+    private static long pack(int sourceId, int targetId) {
+        return ((long) sourceId << 32) | (targetId & 0xFFFFFFFFL);
+    }
+
+    private static int sourceId(long key) {
+        return (int) (key >>> 32);
+    }
+
+    private static int targetId(long key) {
+        return (int) key;
+    }
+
+    /**
+     * Add one entry to the mapping
+     *
+     * @param source
+     *         Uri in the source knowledge bases
+     * @param target
+     *         Mapping uri in the target knowledge base
+     * @param similarity
+     *         Similarity of uri and mappingUri
+     */
+    @Override
+    public void add(String source, String target, double similarity) {
+        if (links.putMax(pack(sources.intern(source), targets.intern(target)), (float) similarity)) {
+            size++;
+        }
+        sortedKeys = null;
+    }
+
+    /**
+     * Add a batch of similarities to the mapping
+     *
+     * @param uri
+     *         A resource from the source knowledge base
+     * @param instances
+     *         Map containing uris from the target knowledge base and their
+     *         similarity to uri
+     */
+    @Override
+    public void add(String uri, HashMap<String, Double> instances) {
+        int sourceId = sources.intern(uri);
+        for (Entry<String, Double> entry : instances.entrySet()) {
+            if (links.putMax(pack(sourceId, targets.intern(entry.getKey())), entry.getValue().floatValue())) {
+                size++;
+            }
+        }
+        sortedKeys = null;
+    }
+
+    /**
+     * Checks whether the map contains a certain pair. If yes, its similarity is
+     * returned. Else 0 is returned
+     *
+     * @param sourceInstance
+     *         Instance from the source knowledge base
+     * @param targetInstance
+     *         Instance from the target knowledge base
+     * @return Similarity of the two instances according to the mapping
+     */
+    @Override
+    public double getConfidence(String sourceInstance, String targetInstance) {
+        int sourceId = sources.getId(sourceInstance);
+        int targetId = targets.getId(targetInstance);
+        if (sourceId < 0 || targetId < 0) {
+            return 0;
+        }
+        return links.get(pack(sourceId, targetId), 0f);
+    }
+
+    /**
+     * Checks whether a mapping contains a particular entry
+     *
+     * @param sourceInstance
+     *         Key URI
+     * @param targetInstance
+     *         Value URI
+     * @return True if mapping contains (key, value), else false.
+     */
+    @Override
+    public boolean contains(String sourceInstance, String targetInstance) {
+        int sourceId = sources.getId(sourceInstance);
+        int targetId = targets.getId(targetInstance);
+        if (sourceId < 0 || targetId < 0) {
+            return false;
+        }
+        return links.containsKey(pack(sourceId, targetId));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int getNumberofMappings() {
+        return links.size();
+    }
+
+    /**
+     * Returns a mapping that contains all elements of the current mapping that
+     * have similarity above the threshold. The links are read directly from
+     * the link table, i.e., no reversed copy of the mapping is created. The
+     * returned mapping shares the URI dictionaries of this mapping.
+     *
+     * @param threshold
+     *         Similarity threshold for filtering
+     * @return Mapping that contains all elements (s,t) with sim(s,t) {@literal >} = threshold
+     */
+    @Override
+    public AMapping getSubMap(double threshold) {
+        float t = (float) threshold;
+        PrimitiveMapping m = new PrimitiveMapping(sources, targets, 16);
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            if (links.isUsed(slot) && links.valueAt(slot) >= t) {
+                m.links.put(links.keyAt(slot), links.valueAt(slot));
+            }
+        }
+        m.size = m.links.size();
+        return m;
+    }
+
+    /**
+     * Computes the best one to n mapping for the current mapping, i.e., for
+     * each element of the source, it gets the best t from target. This does not
+     * mean an 1 to 1 mapping, as a t can be mapped to several s.
+     *
+     * @return Best one to one mapping
+     */
+    @Override
+    public AMapping getBestOneToNMapping() {
+        float[] maxSim = new float[sources.size()];
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            if (links.isUsed(slot)) {
+                int sourceId = sourceId(links.keyAt(slot));
+                maxSim[sourceId] = Math.max(maxSim[sourceId], links.valueAt(slot));
+            }
+        }
+        PrimitiveMapping m = new PrimitiveMapping(sources, targets, 16);
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            if (links.isUsed(slot) && links.valueAt(slot) == maxSim[sourceId(links.keyAt(slot))]) {
+                m.links.put(links.keyAt(slot), links.valueAt(slot));
+            }
+        }
+        m.size = m.links.size();
+        return m;
+    }
+
+    /**
+     * Reverses source and target
+     *
+     * @return Reversed map
+     */
+    @Override
+    public AMapping reverseSourceTarget() {
+        PrimitiveMapping m = new PrimitiveMapping(targets, sources, links.size());
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            if (links.isUsed(slot)) {
+                long key = links.keyAt(slot);
+                m.links.put(pack(targetId(key), sourceId(key)), links.valueAt(slot));
+            }
+        }
+        m.size = m.links.size();
+        return m;
+    }
+
+    /**
+     * Materializes the links of the mapping into new nested maps. See the
+     * description of the class. Clearing the returned map or putting links
+     * into it does not change the mapping, use
+     * {@link #add(String, String, double)} instead. As every call builds the
+     * nested maps, which costs as much memory as a {@link MemoryMapping},
+     * callers should keep the result instead of calling the method
+     * repeatedly, and code that only reads the links should prefer
+     * {@link #forEachLink}.
+     *
+     * @return a new copy of the links of the mapping as nested maps
+     */
+    @Override
+    public HashMap<String, HashMap<String, Double>> getMap() {
+        HashMap<String, HashMap<String, Double>> nested = new HashMap<>();
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            if (links.isUsed(slot)) {
+                long key = links.keyAt(slot);
+                String source = sources.get(sourceId(key));
+                if (!nested.containsKey(source)) {
+                    nested.put(source, new HashMap<>());
+                }
+                nested.get(source).put(targets.get(targetId(key)), (double) links.valueAt(slot));
+            }
+        }
+        return nested;
+    }
+
+    /**
+     * Consumer of the links of a mapping.
+     */
+    @FunctionalInterface
+    public interface LinkConsumer {
+        void accept(String source, String target, double similarity);
+    }
+
+    /**
+     * Passes every link of the mapping to a consumer. Unlike
+     * {@link #getMap()}, no nested maps are materialized.
+     *
+     * @param consumer,
+     *            receives the links in no particular order
+     */
+    public void forEachLink(LinkConsumer consumer) {
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            if (links.isUsed(slot)) {
+                long key = links.keyAt(slot);
+                consumer.accept(sources.get(sourceId(key)), targets.get(targetId(key)), links.valueAt(slot));
+            }
+        }
+    }
+
+    /**
+     * Replaces the links of the mapping with the given nested maps.
+     *
+     * @param map,
+     *            the new links of the mapping
+     */
+    @Override
+    public void setMap(HashMap<String, HashMap<String, Double>> map) {
+        links = new LongFloatHashMap();
+        size = 0;
+        sortedKeys = null;
+        for (Entry<String, HashMap<String, Double>> entry : map.entrySet()) {
+            add(entry.getKey(), entry.getValue());
+        }
+    }
+
+    /**
+     * @return an empty mapping that shares the dictionaries of this mapping
+     */
+    public PrimitiveMapping createSibling() {
+        return new PrimitiveMapping(sources, targets, 16);
+    }
+
+    /**
+     * @param other,
+     *            another mapping
+     * @return true iff both mappings intern their URIs with the same
+     *         dictionaries, i.e., equal IDs denote equal URIs
+     */
+    public boolean sharesDictionaries(PrimitiveMapping other) {
+        return sources == other.sources && targets == other.targets;
+    }
+
+    private void sort() {
+        if (sortedKeys != null) {
+            return;
+        }
+        long[] keys = new long[links.size()];
+        int n = 0;
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            if (links.isUsed(slot)) {
+                keys[n++] = links.keyAt(slot);
+            }
+        }
+        // IDs are not negative, hence the order is by source and target ID
+        Arrays.sort(keys);
+        float[] similarities = new float[n];
+        for (int i = 0; i < n; i++) {
+            similarities[i] = links.get(keys[i], 0f);
+        }
+        sortedSimilarities = similarities;
+        sortedKeys = keys;
+    }
+
+    private void checkDictionaries(PrimitiveMapping other) {
+        if (!sharesDictionaries(other)) {
+            throw new IllegalArgumentException("The mappings do not share their dictionaries.");
+        }
+    }
+
+    /**
+     * Creates a mapping from links sorted by their packed IDs.
+     */
+    private PrimitiveMapping fromSorted(long[] keys, float[] similarities, int n) {
+        PrimitiveMapping m = new PrimitiveMapping(sources, targets, n);
+        for (int i = 0; i < n; i++) {
+            m.links.put(keys[i], similarities[i]);
+        }
+        m.size = n;
+        m.sortedKeys = n == keys.length ? keys : Arrays.copyOf(keys, n);
+        m.sortedSimilarities = n == similarities.length ? similarities : Arrays.copyOf(similarities, n);
+        return m;
+    }
+
+    /**
+     * Computes the union of two mappings which share their dictionaries by
+     * merging their sorted links. In case a link exists in both mappings the
+     * maximal similarity is taken.
+     *
+     * @param other,
+     *            a mapping that shares the dictionaries of this mapping
+     * @return the union, which shares the dictionaries as well
+     */
+    public PrimitiveMapping union(PrimitiveMapping other) {
+        checkDictionaries(other);
+        sort();
+        other.sort();
+        long[] k1 = sortedKeys, k2 = other.sortedKeys;
+        float[] s1 = sortedSimilarities, s2 = other.sortedSimilarities;
+        long[] keys = new long[k1.length + k2.length];
+        float[] similarities = new float[keys.length];
+        int i = 0, j = 0, n = 0;
+        while (i < k1.length && j < k2.length) {
+            if (k1[i] < k2[j]) {
+                keys[n] = k1[i];
+                similarities[n++] = s1[i++];
+            } else if (k1[i] > k2[j]) {
+                keys[n] = k2[j];
+                similarities[n++] = s2[j++];
+            } else {
+                keys[n] = k1[i];
+                similarities[n++] = Math.max(s1[i++], s2[j++]);
+            }
+        }
+        for (; i < k1.length; i++, n++) {
+            keys[n] = k1[i];
+            similarities[n] = s1[i];
+        }
+        for (; j < k2.length; j++, n++) {
+            keys[n] = k2[j];
+            similarities[n] = s2[j];
+        }
+        return fromSorted(keys, similarities, n);
+    }
+
+    /**
+     * Computes the intersection of two mappings which share their
+     * dictionaries by merging their sorted links. In case a link exists in
+     * both mappings the minimal similarity is taken.
+     *
+     * @param other,
+     *            a mapping that shares the dictionaries of this mapping
+     * @return the intersection, which shares the dictionaries as well
+     */
+    public PrimitiveMapping intersection(PrimitiveMapping other) {
+        checkDictionaries(other);
+        sort();
+        other.sort();
+        long[] k1 = sortedKeys, k2 = other.sortedKeys;
+        float[] s1 = sortedSimilarities, s2 = other.sortedSimilarities;
+        long[] keys = new long[Math.min(k1.length, k2.length)];
+        float[] similarities = new float[keys.length];
+        int i = 0, j = 0, n = 0;
+        while (i < k1.length && j < k2.length) {
+            if (k1[i] < k2[j]) {
+                i++;
+            } else if (k1[i] > k2[j]) {
+                j++;
+            } else {
+                keys[n] = k1[i];
+                similarities[n++] = Math.min(s1[i++], s2[j++]);
+            }
+        }
+        return fromSorted(keys, similarities, n);
+    }
+
+    /**
+     * Computes the difference of two mappings which share their dictionaries
+     * by merging their sorted links.
+     *
+     * @param other,
+     *            a mapping that shares the dictionaries of this mapping
+     * @return the links of this mapping which are not in the other mapping,
+     *         the result shares the dictionaries as well
+     */
+    public PrimitiveMapping difference(PrimitiveMapping other) {
+        checkDictionaries(other);
+        sort();
+        other.sort();
+        long[] k1 = sortedKeys, k2 = other.sortedKeys;
+        float[] s1 = sortedSimilarities;
+        long[] keys = new long[k1.length];
+        float[] similarities = new float[keys.length];
+        int i = 0, j = 0, n = 0;
+        while (i < k1.length) {
+            while (j < k2.length && k2[j] < k1[i]) {
+                j++;
+            }
+            if (j == k2.length || k2[j] != k1[i]) {
+                keys[n] = k1[i];
+                similarities[n++] = s1[i];
+            }
+            i++;
+        }
+        return fromSorted(keys, similarities, n);
+    }
+
+    /**
+     * Adds the links of another mapping to this mapping. In case a link
+     * exists in both mappings the maximal similarity is kept.
+     *
+     * @param other,
+     *            a mapping
+     */
+    public void addAll(PrimitiveMapping other) {
+        boolean shared = sharesDictionaries(other);
+        for (int slot = 0; slot < other.links.capacity(); slot++) {
+            if (other.links.isUsed(slot)) {
+                long key = other.links.keyAt(slot);
+                if (!shared) {
+                    key = pack(sources.intern(other.sources.get(sourceId(key))),
+                            targets.intern(other.targets.get(targetId(key))));
+                }
+                if (links.putMax(key, other.links.valueAt(slot))) {
+                    size++;
+                }
+            }
+        }
+        sortedKeys = null;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder s = new StringBuilder();
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            if (links.isUsed(slot)) {
+                long key = links.keyAt(slot);
+                s.append("[").append(sources.get(sourceId(key))).append(" -> (").append(targets.get(targetId(key)))
+                        .append("|").append(links.valueAt(slot)).append(")]\n");
+            }
+        }
+        return s.toString();
+    }
+
+    @Override
+    public int hashCode() {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + getMap().hashCode();
+        result = prime * result + ((predicate == null) ? 0 : predicate.hashCode());
+        return result;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (getClass() != obj.getClass())
+            return false;
+        PrimitiveMapping other = (PrimitiveMapping) obj;
+        if (predicate == null) {
+            if (other.predicate != null)
+                return false;
+        } else if (!predicate.equals(other.predicate))
+            return false;
+        if (links.size() != other.links.size())
+            return false;
+        for (int slot = 0; slot < links.capacity(); slot++) {
+            if (links.isUsed(slot)) {
+                long key = links.keyAt(slot);
+                String source = sources.get(sourceId(key));
+                String target = targets.get(targetId(key));
+                if (!other.contains(source, target)
+                        || (float) other.getConfidence(source, target) != links.valueAt(slot))
+                    return false;
+            }
+        }
+        return true;
+    }
+
+}
@@ -21,6 +21,8 @@ public class FileQueryModule implements IQueryModule {
 
     KBInfo kb;
     Model model;
+    // true if the file is streamed into the cache instead of being loaded into a model
+    boolean streaming = false;
     private Logger logger = LoggerFactory.getLogger(FileQueryModule.class.getName());
 
     /**
@@ -28,9 +30,18 @@ public class FileQueryModule implements IQueryModule {
      *
      * @param kbinfo
      *         Loads the endpoint as a file and if that fails as a resource.
+     *         If the knowledge base can be streamed (see
+     *         {@link StreamingRDFReader#isStreamable(KBInfo)}), the file is
+     *         not loaded but streamed into the cache by fillCache.
      */
     @SuppressWarnings("resource")
     public FileQueryModule(KBInfo kbinfo) {
+        if (StreamingRDFReader.isStreamable(kbinfo)) {
+            kb = kbinfo;
+            streaming = true;
+            logger.info("Streaming " + kb.getEndpoint() + " into the cache");
+            return;
+        }
         try {
             InputStream in;
             kb = kbinfo;
@@ -60,12 +71,17 @@ public class FileQueryModule implements IQueryModule {
     }
 
     /**
-     * Reads data from a model in the model registry
+     * Reads data from a model in the model registry or streams it from the
+     * file of the knowledge base
      *
      * @param c
      *         Cache to be filled
      */
     public void fillCache(ACache c) {
+        if (streaming) {
+            new StreamingRDFReader(kb).fillCache(c);
+            return;
+        }
         SparqlQueryModule sqm = new SparqlQueryModule(kb);
         sqm.fillCache(c, false);
 
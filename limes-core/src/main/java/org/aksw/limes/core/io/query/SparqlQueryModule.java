@@ -1,6 +1,15 @@
 package org.aksw.limes.core.io.query;
 
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.config.KBInfo;
@@ -14,6 +23,7 @@ import org.apache.jena.query.ResultSet;
 import org.apache.jena.query.ResultSetFormatter;
 import org.apache.jena.query.Syntax;
 import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.RDFNode;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -24,6 +34,10 @@ public class SparqlQueryModule implements IQueryModule {
 
     protected KBInfo kb;
     private Logger logger = LoggerFactory.getLogger(SparqlQueryModule.class.getName());
+    // deepest offset used for concurrent paging, deeper pages are fetched by keyset paging
+    protected int keysetOffset = 10000;
+    // number of solutions parsed per task if the results are not paged
+    protected static final int BATCH_SIZE = 1000;
 
     public SparqlQueryModule(KBInfo kbinfo) {
         kb = kbinfo;
@@ -41,7 +55,9 @@ public class SparqlQueryModule implements IQueryModule {
     }
 
     /**
-     * Reads from a SPARQL endpoint or a file and writes the results in a cache
+     * Reads from a SPARQL endpoint or a file and writes the results in a cache.
+     * If the parallelism of the knowledge base is larger than 1, the results
+     * are fetched by {@link #fillCacheParallel(ACache, boolean)}.
      *
      * @param cache
      *         The cache in which the content on the SPARQL endpoint is to be
@@ -51,6 +67,10 @@ public class SparqlQueryModule implements IQueryModule {
      *         that is is a Jena model
      */
     public void fillCache(ACache cache, boolean isSparql) {
+        if (kb.getParallelism() > 1) {
+            fillCacheParallel(cache, isSparql);
+            return;
+        }
         long startTime = System.currentTimeMillis();
         String query = generateQuery();
 
@@ -67,30 +87,10 @@ public class SparqlQueryModule implements IQueryModule {
             } else {
                 query = basicQuery;
             }
-            Query sparqlQuery = QueryFactory.create(query, Syntax.syntaxARQ);
-            QueryExecution qexec;
-
-            // take care of graph issues. Only takes one graph. Seems like some
-            // sparql endpoint do
-            // not like the FROM option.
-            if (!isSparql) {
-                Model model = ModelRegistry.getInstance().getMap().get(kb.getEndpoint());
-                if (model == null) {
-                    throw new RuntimeException("No model with id '" + kb.getEndpoint() + "' registered");
-                }
-                qexec = QueryExecutionFactory.create(sparqlQuery, model);
-            } else {
-                if (kb.getGraph() != null) {
-                    qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery, kb.getGraph());
-                } //
-                else {
-                    qexec = QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery);
-                }
-            }
+            QueryExecution qexec = createQueryExecution(query, isSparql);
             ResultSet results = qexec.execSelect();
 
             // write
-            String uri, propertyLabel, rawValue, value;
             try {
                 if (results.hasNext()) {
                     moreResults = true;
@@ -101,42 +101,8 @@ public class SparqlQueryModule implements IQueryModule {
 
                 while (results.hasNext()) {
                     QuerySolution soln = results.nextSolution();
-                    {
-                        try {
-                            uri = soln.get(kb.getVar().substring(1)).toString();
-                            for (int i = 0; i < kb.getProperties().size(); i++) {
-                                propertyLabel = kb.getProperties().get(i);
-                                if (soln.contains("v" + i)) {
-                                    rawValue = soln.get("v" + i).toString();
-                                    // remove localization information, e.g. @en
-                                    for (String propertyDub : kb.getFunctions().get(propertyLabel).keySet()) {
-                                        value = Preprocessor.process(rawValue,
-                                                kb.getFunctions().get(propertyLabel).get(propertyDub));
-                                        cache.addTriple(uri, propertyDub, value);
-                                    }
-                                }
-                            }
-                            if(kb.getOptionalProperties() != null){
-                                for (int i = 0; i < kb.getOptionalProperties().size(); i++) {
-                                    propertyLabel = kb.getOptionalProperties().get(i);
-                                    if (soln.contains("v" + i)) {
-                                        rawValue = soln.get("v" + i).toString();
-                                        // remove localization information, e.g. @en
-                                        for (String propertyDub : kb.getFunctions().get(propertyLabel).keySet()) {
-                                            value = Preprocessor.process(rawValue,
-                                                    kb.getFunctions().get(propertyLabel).get(propertyDub));
-                                            cache.addTriple(uri, propertyDub, value);
-                                        }
-                                    }
-                                }
-                            }
-                        } catch (Exception e) {
-                            logger.warn("Error while processing: " + soln.toString());
-                            logger.warn("Following exception occured: " + e.getMessage());
-                            e.printStackTrace();
-                            throw new RuntimeException();
-
-                        }
+                    for (String[] triple : toTriples(soln)) {
+                        cache.addTriple(triple[0], triple[1], triple[2]);
                     }
                     counter++;
                 }
@@ -154,6 +120,360 @@ public class SparqlQueryModule implements IQueryModule {
         logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
     }
 
+    /**
+     * Reads from a SPARQL endpoint or a file with concurrent requests and
+     * writes the results in a cache. The solutions are parsed and preprocessed
+     * by {@link KBInfo#getParallelism()} worker threads, which add them to the
+     * cache with {@link ACache#addTriples(List)}.
+     * <p>
+     * If the results are paged, up to {@link KBInfo#getParallelism()} pages
+     * are requested concurrently. To make the pages of one result disjoint,
+     * the solutions are ordered by the string of the instance URI, as the
+     * keyset pages are, and by all other variables. Pages deeper than the keyset
+     * offset or following a failed page are fetched by keyset paging: each
+     * page contains the solutions of the next page size instances, whose URIs
+     * follow the last URI of the previous page. Keyset pages are requested one
+     * after the other while the previous page is parsed. If the results are
+     * not paged, the solutions are streamed to the workers in batches. As in
+     * {@link #fillCache(ACache, boolean)}, a solution that cannot be processed
+     * is logged and the rest of its page or batch is skipped.
+     *
+     * @param cache
+     *         The cache in which the content on the SPARQL endpoint is to be
+     *         written
+     * @param isSparql
+     *         True if the endpoint is a remote SPARQL endpoint, else assume
+     *         that is is a Jena model
+     */
+    public void fillCacheParallel(ACache cache, boolean isSparql) {
+        long startTime = System.currentTimeMillis();
+        String query = generateQuery();
+        int parallelism = Math.max(1, kb.getParallelism());
+        int pageSize = kb.getPageSize();
+        logger.info("Querying the endpoint with " + parallelism + " threads.");
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        List<Future<Page>> tasks = new ArrayList<>();
+        try {
+            if (pageSize <= 0) {
+                tasks.addAll(streamSolutions(query, isSparql, cache, executor));
+            } else {
+                String last = fetchOffsetPages(query, isSparql, cache, executor, tasks);
+                if (last != null) {
+                    fetchKeysetPages(query, isSparql, cache, executor, tasks, last);
+                }
+            }
+            int counter = 0;
+            for (Future<Page> task : tasks) {
+                counter += task.get().solutions;
+            }
+            logger.info("Retrieved " + counter + " triples and " + cache.size() + " entities.");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while filling the cache", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Filling the cache failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Retrieving statements took " + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
+    }
+
+    /**
+     * Result of fetching or parsing a part of the results.
+     */
+    protected static class Page {
+        // number of solutions
+        int solutions;
+        // largest URI of an instance in the solutions or null if there are no solutions
+        String last;
+        // true if the page could not be fetched
+        boolean failed;
+    }
+
+    /**
+     * Requests pages concurrently until a page is not full, a page fails or
+     * the keyset offset is reached.
+     *
+     * @return null if all pages have been fetched, else the largest URI of the
+     * instances in the complete pages, from which keyset paging continues
+     */
+    private String fetchOffsetPages(String query, boolean isSparql, ACache cache, ExecutorService executor,
+            List<Future<Page>> tasks) throws InterruptedException, ExecutionException {
+        int pageSize = kb.getPageSize();
+        String orderedQuery = query + " ORDER BY STR(" + kb.getVar() + ")" + orderVariables();
+        ArrayDeque<Future<Page>> inFlight = new ArrayDeque<>();
+        long offset = 0;
+        String last = "";
+        while (true) {
+            while (inFlight.size() < kb.getParallelism() && offset < keysetOffset) {
+                String pageQuery = orderedQuery + " LIMIT " + pageSize + " OFFSET " + offset;
+                logger.info("Getting statements " + offset + " to " + (offset + pageSize));
+                inFlight.add(executor.submit(() -> fetchPage(pageQuery, isSparql, cache)));
+                offset += pageSize;
+            }
+            if (inFlight.isEmpty()) {
+                logger.info("Continuing with keyset paging after offset " + keysetOffset);
+                return last;
+            }
+            Future<Page> task = inFlight.poll();
+            tasks.add(task);
+            Page page = task.get();
+            if (page.failed) {
+                logger.warn("Continuing with keyset paging after failed page.");
+                tasks.addAll(inFlight);
+                return last;
+            }
+            if (page.last != null && page.last.compareTo(last) > 0) {
+                last = page.last;
+            }
+            if (page.solutions < pageSize) {
+                tasks.addAll(inFlight);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Requests keyset pages one after the other. The first page starts with
+     * the instance with URI from, whose solutions may be split between the
+     * last offset page and the first keyset page. All other pages start after
+     * the last URI of the previous page.
+     */
+    private void fetchKeysetPages(String query, boolean isSparql, ACache cache, ExecutorService executor,
+            List<Future<Page>> tasks, String from) {
+        String after = from;
+        boolean inclusive = true;
+        while (true) {
+            String pageQuery = generateKeysetQuery(query, after, inclusive);
+            logger.info("Getting statements of instances after " + after);
+            List<QuerySolution> solutions = new ArrayList<>();
+            QueryExecution qexec = createQueryExecution(pageQuery, isSparql);
+            String last = null;
+            // the solutions of the instances of a page may be interleaved
+            Set<String> instances = new HashSet<>();
+            try {
+                ResultSet results = qexec.execSelect();
+                while (results.hasNext()) {
+                    QuerySolution soln = results.nextSolution();
+                    String uri = soln.get(kb.getVar().substring(1)).toString();
+                    if (instances.add(uri) && (last == null || uri.compareTo(last) > 0)) {
+                        last = uri;
+                    }
+                    solutions.add(soln);
+                }
+            } finally {
+                qexec.close();
+            }
+            if (solutions.isEmpty()) {
+                return;
+            }
+            tasks.add(executor.submit(() -> parse(solutions, cache)));
+            if (instances.size() < kb.getPageSize()) {
+                return;
+            }
+            after = last;
+            inclusive = false;
+        }
+    }
+
+    /**
+     * Reads the solutions of an unpaged query and hands them to the workers in
+     * batches.
+     */
+    private List<Future<Page>> streamSolutions(String query, boolean isSparql, ACache cache, ExecutorService executor) {
+        List<Future<Page>> tasks = new ArrayList<>();
+        QueryExecution qexec = createQueryExecution(query, isSparql);
+        try {
+            ResultSet results = qexec.execSelect();
+            List<QuerySolution> batch = new ArrayList<>(BATCH_SIZE);
+            while (results.hasNext()) {
+                batch.add(results.nextSolution());
+                if (batch.size() == BATCH_SIZE) {
+                    List<QuerySolution> solutions = batch;
+                    tasks.add(executor.submit(() -> parse(solutions, cache)));
+                    batch = new ArrayList<>(BATCH_SIZE);
+                }
+            }
+            List<QuerySolution> solutions = batch;
+            tasks.add(executor.submit(() -> parse(solutions, cache)));
+        } finally {
+            qexec.close();
+        }
+        return tasks;
+    }
+
+    private Page fetchPage(String query, boolean isSparql, ACache cache) {
+        List<QuerySolution> solutions = new ArrayList<>();
+        QueryExecution qexec = createQueryExecution(query, isSparql);
+        try {
+            ResultSet results = qexec.execSelect();
+            while (results.hasNext()) {
+                solutions.add(results.nextSolution());
+            }
+        } catch (Exception e) {
+            logger.warn("Exception while handling query");
+            logger.warn(e.toString());
+            Page page = new Page();
+            page.failed = true;
+            return page;
+        } finally {
+            qexec.close();
+        }
+        return parse(solutions, cache);
+    }
+
+    private Page parse(List<QuerySolution> solutions, ACache cache) {
+        Page page = new Page();
+        List<String[]> triples = new ArrayList<>();
+        boolean skip = false;
+        for (QuerySolution soln : solutions) {
+            if (!skip) {
+                try {
+                    triples.addAll(toTriples(soln));
+                } catch (Exception e) {
+                    logger.warn("Exception while handling query");
+                    logger.warn(e.toString());
+                    skip = true;
+                }
+            }
+            // the paging continues after the skipped solutions
+            RDFNode node = soln.get(kb.getVar().substring(1));
+            if (node != null && (page.last == null || node.toString().compareTo(page.last) > 0)) {
+                page.last = node.toString();
+            }
+        }
+        cache.addTriples(triples);
+        page.solutions = solutions.size();
+        return page;
+    }
+
+    /**
+     * @return the value variables of the generated query, separated by blanks
+     */
+    private String orderVariables() {
+        StringBuilder vars = new StringBuilder();
+        for (int i = 0; i < kb.getProperties().size(); i++) {
+            vars.append(" ?v").append(i);
+        }
+        return vars.toString();
+    }
+
+    /**
+     * Generates a keyset page of a query generated by
+     * {@link #generateQuery()}. The page contains all solutions of the first
+     * page size instances whose URI follows after.
+     *
+     * @param query
+     *         Generated query
+     * @param after
+     *         URI after which the page starts
+     * @param inclusive
+     *         True if the page starts with after
+     * @return keyset page query
+     */
+    protected String generateKeysetQuery(String query, String after, boolean inclusive) {
+        int start = query.indexOf("WHERE {\n");
+        int end = query.lastIndexOf("}");
+        if (start < 0 || end < start) {
+            throw new RuntimeException("Keyset paging requires restrictions");
+        }
+        String body = query.substring(start + 8, end);
+        String literal = after.replace("\\", "\\\\").replace("\"", "\\\"");
+        return query.substring(0, start) + "WHERE {\n" //
+                + "{ SELECT DISTINCT " + kb.getVar() + " WHERE {\n" + body //
+                + "FILTER (STR(" + kb.getVar() + ") " + (inclusive ? ">=" : ">") + " \"" + literal + "\")\n" //
+                + "} ORDER BY STR(" + kb.getVar() + ") LIMIT " + kb.getPageSize() + " }\n" //
+                + body + "}";
+    }
+
+    /**
+     * Creates the execution of a query.
+     *
+     * @param query
+     *         SPARQL query
+     * @param isSparql
+     *         True if the endpoint is a remote SPARQL endpoint, else assume
+     *         that is is a Jena model
+     * @return query execution
+     */
+    protected QueryExecution createQueryExecution(String query, boolean isSparql) {
+        Query sparqlQuery = QueryFactory.create(query, Syntax.syntaxARQ);
+        // take care of graph issues. Only takes one graph. Seems like some
+        // sparql endpoint do
+        // not like the FROM option.
+        if (!isSparql) {
+            Model model = ModelRegistry.getInstance().getMap().get(kb.getEndpoint());
+            if (model == null) {
+                throw new RuntimeException("No model with id '" + kb.getEndpoint() + "' registered");
+            }
+            return QueryExecutionFactory.create(sparqlQuery, model);
+        } else {
+            if (kb.getGraph() != null) {
+                return QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery, kb.getGraph());
+            } //
+            else {
+                return QueryExecutionFactory.sparqlService(kb.getEndpoint(), sparqlQuery);
+            }
+        }
+    }
+
+    /**
+     * Converts a solution of a query generated by {@link #generateQuery()}
+     * into statements for the cache, applying the preprocessing functions of
+     * the properties.
+     *
+     * @param soln
+     *         Solution of the query
+     * @return statements as arrays of subject, property and value
+     */
+    protected List<String[]> toTriples(QuerySolution soln) {
+        List<String[]> triples = new ArrayList<>();
+        String uri, propertyLabel, rawValue, value;
+        try {
+            uri = soln.get(kb.getVar().substring(1)).toString();
+            for (int i = 0; i < kb.getProperties().size(); i++) {
+                propertyLabel = kb.getProperties().get(i);
+                if (soln.contains("v" + i)) {
+                    rawValue = soln.get("v" + i).toString();
+                    // remove localization information, e.g. @en
+                    for (String propertyDub : kb.getFunctions().get(propertyLabel).keySet()) {
+                        value = Preprocessor.process(rawValue,
+                                kb.getFunctions().get(propertyLabel).get(propertyDub));
+                        triples.add(new String[] { uri, propertyDub, value });
+                    }
+                }
+            }
+            if(kb.getOptionalProperties() != null){
+                for (int i = 0; i < kb.getOptionalProperties().size(); i++) {
+                    propertyLabel = kb.getOptionalProperties().get(i);
+                    if (soln.contains("v" + i)) {
+                        rawValue = soln.get("v" + i).toString();
+                        // remove localization information, e.g. @en
+                        for (String propertyDub : kb.getFunctions().get(propertyLabel).keySet()) {
+                            value = Preprocessor.process(rawValue,
+                                    kb.getFunctions().get(propertyLabel).get(propertyDub));
+                            triples.add(new String[] { uri, propertyDub, value });
+                        }
+                    }
+                }
+            }
+        } catch (Exception e) {
+            logger.warn("Error while processing: " + soln.toString());
+            logger.warn("Following exception occured: " + e.getMessage());
+            throw new RuntimeException("Error while processing " + soln, e);
+        }
+        return triples;
+    }
+
+    /**
+     * @param keysetOffset
+     *         Deepest offset used for concurrent paging. Deeper pages are
+     *         fetched by keyset paging
+     */
+    public void setKeysetOffset(int keysetOffset) {
+        this.keysetOffset = keysetOffset;
+    }
+
     protected String generateQuery() {
         // write prefixes
         Iterator<String> iter = kb.getPrefixes().keySet().iterator();
@@ -0,0 +1,405 @@
+package org.aksw.limes.core.io.query;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.config.KBInfo;
+import org.aksw.limes.core.io.preprocessing.Preprocessor;
+import org.apache.jena.graph.Node;
+import org.apache.jena.graph.NodeFactory;
+import org.apache.jena.graph.Triple;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFLanguages;
+import org.apache.jena.riot.lang.LabelToNode;
+import org.apache.jena.riot.lang.LangNTriples;
+import org.apache.jena.riot.system.ErrorHandlerFactory;
+import org.apache.jena.riot.system.ParserProfile;
+import org.apache.jena.riot.system.RiotLib;
+import org.apache.jena.riot.system.StreamRDFBase;
+import org.apache.jena.riot.tokens.TokenizerFactory;
+import org.apache.jena.vocabulary.RDF;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the instances of a knowledge base from an RDF file into a cache without
+ * loading the file into a Jena model. The triples of the file are streamed
+ * into a sink, which keeps the values of the properties of the knowledge base
+ * and applies the preprocessing functions on the fly, so that the memory needed
+ * is close to the size of the cache.
+ * <p>
+ * Only knowledge bases whose restrictions are rdf:type restrictions of the
+ * instance variable and whose properties are IRIs can be streamed, see
+ * {@link #isStreamable(KBInfo)}. If the knowledge base has restrictions, the
+ * file is read twice: first to find the instances of the restricted classes,
+ * then to read their values. As in the SPARQL query of
+ * {@link SparqlQueryModule}, only instances with values for all properties
+ * are added to the cache. N-Triples files are split into chunks, which are
+ * parsed by {@link KBInfo#getParallelism()} threads.
+ *
+ * @version 1.0
+ */
+public class StreamingRDFReader {
+
+    private static Logger logger = LoggerFactory.getLogger(StreamingRDFReader.class.getName());
+
+    private static final Pattern TYPE_RESTRICTION = Pattern.compile("(\\S+)\\s+(\\S+)\\s+(\\S+)");
+
+    private final KBInfo kb;
+    private final Lang lang;
+    // classes of the rdf:type restrictions
+    private final List<Node> classes = new ArrayList<>();
+    // properties mapped to their index, required properties come first
+    private final Map<Node, Integer> properties = new HashMap<>();
+    private final List<String> labels = new ArrayList<>();
+    private int requiredCount;
+
+    /**
+     * Result of the sink for one instance.
+     */
+    private static class Entry {
+        Instance instance;
+        // bit i is set if the instance has a value for the i-th required property
+        long mask;
+    }
+
+    /**
+     * Constructor
+     *
+     * @param kbinfo
+     *         knowledge base, see {@link #isStreamable(KBInfo)}
+     */
+    public StreamingRDFReader(KBInfo kbinfo) {
+        kb = kbinfo;
+        lang = RDFLanguages.nameToLang(kb.getType());
+        if (lang == null) {
+            throw new RuntimeException("Unknown RDF language " + kb.getType());
+        }
+        for (String restriction : kb.getRestrictions()) {
+            if (restriction.trim().length() <= 3) {
+                continue;
+            }
+            Node c = parseTypeRestriction(kb, restriction);
+            if (c == null) {
+                throw new RuntimeException("Restriction " + restriction + " is not an rdf:type restriction");
+            }
+            classes.add(c);
+        }
+        addProperties(kb.getProperties());
+        requiredCount = labels.size();
+        addProperties(kb.getOptionalProperties());
+        if (requiredCount > 64) {
+            throw new RuntimeException("At most 64 properties can be streamed");
+        }
+    }
+
+    private void addProperties(List<String> names) {
+        if (names == null) {
+            return;
+        }
+        for (String name : names) {
+            Node p = expand(kb, name);
+            if (p == null) {
+                throw new RuntimeException("Property " + name + " is not an IRI");
+            }
+            if (!properties.containsKey(p)) {
+                properties.put(p, labels.size());
+                labels.add(name);
+            }
+        }
+    }
+
+    /**
+     * Checks whether a knowledge base can be read by a streaming reader, i.e.,
+     * its type is an RDF language known to Jena, its endpoint is a file, it
+     * has properties, all properties are IRIs or prefixed names (no property
+     * paths or inverse properties) and all restrictions are of the form
+     * "?x rdf:type class" or "?x a class", where ?x is the variable of the
+     * knowledge base.
+     *
+     * @param kbinfo
+     *         knowledge base
+     * @return true if the knowledge base can be streamed
+     */
+    public static boolean isStreamable(KBInfo kbinfo) {
+        if (kbinfo.getType() == null || RDFLanguages.nameToLang(kbinfo.getType()) == null
+                || kbinfo.getEndpoint() == null || !new File(kbinfo.getEndpoint()).isFile()
+                || kbinfo.getProperties() == null || kbinfo.getProperties().isEmpty()
+                || kbinfo.getProperties().size() > 64
+                || (kbinfo.getRestrictions() != null && kbinfo.getRestrictions().size() > 64)) {
+            return false;
+        }
+        for (String property : kbinfo.getProperties()) {
+            if (expand(kbinfo, property) == null) {
+                return false;
+            }
+        }
+        if (kbinfo.getOptionalProperties() != null) {
+            for (String property : kbinfo.getOptionalProperties()) {
+                if (expand(kbinfo, property) == null) {
+                    return false;
+                }
+            }
+        }
+        if (kbinfo.getRestrictions() != null) {
+            for (String restriction : kbinfo.getRestrictions()) {
+                if (restriction.trim().length() > 3 && parseTypeRestriction(kbinfo, restriction) == null) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the class of an rdf:type restriction or null if the restriction
+     * is not an rdf:type restriction of the variable of the knowledge base
+     */
+    private static Node parseTypeRestriction(KBInfo kbinfo, String restriction) {
+        String r = restriction.trim();
+        if (r.endsWith(".")) {
+            r = r.substring(0, r.length() - 1).trim();
+        }
+        Matcher m = TYPE_RESTRICTION.matcher(r);
+        if (!m.matches() || !m.group(1).equals(kbinfo.getVar())) {
+            return null;
+        }
+        Node predicate = m.group(2).equals("a") ? RDF.type.asNode() : expand(kbinfo, m.group(2));
+        if (predicate == null || !predicate.equals(RDF.type.asNode())) {
+            return null;
+        }
+        return expand(kbinfo, m.group(3));
+    }
+
+    /**
+     * @return the IRI of a prefixed name or an IRI in angle brackets or null
+     * if the name is neither
+     */
+    private static Node expand(KBInfo kbinfo, String name) {
+        String n = name.trim();
+        if (n.startsWith("<") && n.endsWith(">") && n.indexOf('>') == n.length() - 1) {
+            return NodeFactory.createURI(n.substring(1, n.length() - 1));
+        }
+        int colon = n.indexOf(':');
+        if (colon < 0 || n.contains("/") || n.contains("^") || n.contains(" ") || kbinfo.getPrefixes() == null) {
+            return null;
+        }
+        String namespace = kbinfo.getPrefixes().get(n.substring(0, colon));
+        if (namespace == null) {
+            return null;
+        }
+        return NodeFactory.createURI(namespace + n.substring(colon + 1));
+    }
+
+    /**
+     * Converts a node into the string that the SPARQL results of a Jena model
+     * contain for it.
+     */
+    private static String toString(Node node) {
+        if (node.isLiteral()) {
+            return node.getLiteral().toString();
+        } else if (node.isBlank()) {
+            return node.getBlankNodeLabel();
+        }
+        return node.getURI();
+    }
+
+    /**
+     * Reads the file of the knowledge base and writes its instances in a cache
+     *
+     * @param cache
+     *         Cache to be filled
+     */
+    public void fillCache(ACache cache) {
+        long startTime = System.currentTimeMillis();
+        // 1. find the instances of all restricted classes
+        Map<Node, Long> typed = null;
+        long allClasses = classes.size() == 64 ? -1L : (1L << classes.size()) - 1;
+        if (!classes.isEmpty()) {
+            ConcurrentHashMap<Node, Long> types = new ConcurrentHashMap<>();
+            Node type = RDF.type.asNode();
+            parse(t -> {
+                if (t.getPredicate().equals(type)) {
+                    int i = classes.indexOf(t.getObject());
+                    if (i >= 0) {
+                        types.merge(t.getSubject(), 1L << i, (a, b) -> a | b);
+                    }
+                }
+            });
+            types.values().removeIf(mask -> mask != allClasses);
+            typed = types;
+            logger.info("Found " + typed.size() + " instances of " + classes);
+        }
+        // 2. read the values of the instances
+        Map<Node, Long> instances = typed;
+        ConcurrentHashMap<Node, Entry> entries = new ConcurrentHashMap<>();
+        parse(t -> {
+            Integer i = properties.get(t.getPredicate());
+            if (i == null || (instances != null && !instances.containsKey(t.getSubject()))) {
+                return;
+            }
+            Entry entry = entries.computeIfAbsent(t.getSubject(), s -> {
+                Entry e = new Entry();
+                e.instance = new Instance(StreamingRDFReader.toString(s));
+                return e;
+            });
+            String label = labels.get(i);
+            String rawValue = StreamingRDFReader.toString(t.getObject());
+            synchronized (entry) {
+                for (Map.Entry<String, String> function : kb.getFunctions().get(label).entrySet()) {
+                    entry.instance.addProperty(function.getKey(), Preprocessor.process(rawValue, function.getValue()));
+                }
+                if (i < requiredCount) {
+                    entry.mask |= 1L << i;
+                }
+            }
+        });
+        long allProperties = requiredCount == 64 ? -1L : (1L << requiredCount) - 1;
+        for (Entry entry : entries.values()) {
+            if (entry.mask == allProperties) {
+                cache.addInstance(entry.instance);
+            }
+        }
+        logger.info("Retrieved " + cache.size() + " entities from " + kb.getEndpoint() + " in "
+                + (System.currentTimeMillis() - startTime) / 1000.0 + " seconds.");
+    }
+
+    /**
+     * Streams all triples of the file into a consumer. N-Triples files are
+     * split into chunks at line breaks, which are parsed concurrently. The
+     * chunks share the scope of blank node labels, hence a blank node gets
+     * the same node in all chunks.
+     */
+    private void parse(Consumer<Triple> consumer) {
+        StreamRDFBase sink = new StreamRDFBase() {
+            @Override
+            public void triple(Triple triple) {
+                consumer.accept(triple);
+            }
+        };
+        File file = new File(kb.getEndpoint());
+        int parallelism = Math.max(1, kb.getParallelism());
+        boolean nTriples = lang.equals(Lang.NTRIPLES) || file.getName().toLowerCase().endsWith(".nt");
+        if (!nTriples || parallelism == 1) {
+            try (InputStream in = new FileInputStream(file)) {
+                RDFDataMgr.parse(sink, in, lang);
+            } catch (IOException e) {
+                throw new RuntimeException("Error reading " + file, e);
+            }
+            return;
+        }
+        UUID scope = UUID.randomUUID();
+        long[] bounds = chunks(file, parallelism);
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            List<Future<?>> tasks = new ArrayList<>();
+            for (int c = 0; c + 1 < bounds.length; c++) {
+                long start = bounds[c], end = bounds[c + 1];
+                if (start == end) {
+                    continue;
+                }
+                tasks.add(executor.submit(() -> {
+                    try (InputStream in = new RangeInputStream(file, start, end)) {
+                        ParserProfile profile = RiotLib.profile(Lang.NTRIPLES, null, ErrorHandlerFactory.errorHandlerStd);
+                        profile.setFactoryRDF(RiotLib.factoryRDF(LabelToNode.createScopeByDocumentHash(scope)));
+                        new LangNTriples(TokenizerFactory.makeTokenizerUTF8(in), profile, sink).parse();
+                    }
+                    return null;
+                }));
+            }
+            for (Future<?> task : tasks) {
+                task.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Error reading " + file, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Splits a file into chunks that start after a line break.
+     *
+     * @return the offsets of the chunks followed by the length of the file
+     */
+    private static long[] chunks(File file, int count) {
+        long length = file.length();
+        long[] bounds = new long[count + 1];
+        bounds[count] = length;
+        try (RandomAccessFile raf = new RandomAccessFile(file, "r")) {
+            for (int c = 1; c < count; c++) {
+                long position = Math.max(bounds[c - 1], length / count * c);
+                raf.seek(position);
+                int b;
+                while (position < length && (b = raf.read()) != '\n' && b != -1) {
+                    position++;
+                }
+                bounds[c] = Math.min(length, position + 1);
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading " + file, e);
+        }
+        return bounds;
+    }
+
+    /**
+     * Stream of the bytes of a file between two offsets.
+     */
+    private static class RangeInputStream extends FilterInputStream {
+
+        private long remaining;
+
+        RangeInputStream(File file, long start, long end) throws IOException {
+            super(new FileInputStream(file));
+            long skipped = 0;
+            while (skipped < start) {
+                skipped += in.skip(start - skipped);
+            }
+            remaining = end - start;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            remaining--;
+            return in.read();
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int n = in.read(b, off, (int) Math.min(len, remaining));
+            if (n > 0) {
+                remaining -= n;
+            }
+            return n;
+        }
+    }
+}
@@ -2,10 +2,13 @@ package org.aksw.limes.core.measures.mapper;
 
 import java.util.HashMap;
 import java.util.HashSet;
-import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
 
+import org.aksw.limes.core.exceptions.MappingSizeExceededException;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
@@ -20,7 +23,115 @@ import org.aksw.limes.core.io.mapping.MappingFactory;
 public abstract class AMapper implements IMapper {
 
     /**
-     * Helper method, re-factored from common setup code of Mappers.
+     * Artifacts shared with the other mappers of a plan, null if the mapper
+     * builds its artifacts itself.
+     */
+    protected MapperArtifacts artifacts = null;
+
+    public MapperArtifacts getArtifacts() {
+        return artifacts;
+    }
+
+    /**
+     * Sets the store of the artifacts the mapper derives from the property
+     * values, which is shared with the other mappers executing a plan.
+     *
+     * @param artifacts
+     *            the store or null to build the artifacts for every call
+     */
+    public void setArtifacts(MapperArtifacts artifacts) {
+        this.artifacts = artifacts;
+    }
+
+    /**
+     * Sets the number of threads the mapper may use. Mappers without a
+     * parallel mode ignore it.
+     *
+     * @param parallelism
+     *            number of threads, values below 2 select the serial mode
+     */
+    public void setParallelism(int parallelism) {
+    }
+
+    /**
+     * Maximal number of links of the mappings the mapper builds.
+     */
+    protected long maxMappingSize = Long.MAX_VALUE;
+
+    public long getMaxMappingSize() {
+        return maxMappingSize;
+    }
+
+    /**
+     * Sets the maximal number of links of the mappings the mapper builds, see
+     * {@link #createMapping()}.
+     *
+     * @param maxMappingSize
+     *            maximal number of links, Long.MAX_VALUE for none
+     */
+    public void setMaxMappingSize(long maxMappingSize) {
+        this.maxMappingSize = maxMappingSize;
+    }
+
+    /**
+     * Creates a mapping for the links of the mapper. The mapping throws a
+     * {@link MappingSizeExceededException} as soon as it exceeds the maximal
+     * mapping size, which aborts the mapper.
+     *
+     * @return an empty mapping
+     */
+    protected AMapping createMapping() {
+        return MappingFactory.createBoundedMapping(maxMappingSize);
+    }
+
+    /**
+     * Converts the failure of a worker of a parallel mapper into the
+     * exception thrown by the mapper. A {@link MappingSizeExceededException}
+     * is passed on as it is.
+     *
+     * @param message
+     *            message of the exception
+     * @param e
+     *            failure of the worker
+     * @return the exception to throw
+     */
+    protected static RuntimeException failure(String message, ExecutionException e) {
+        if (e.getCause() instanceof MappingSizeExceededException) {
+            return (MappingSizeExceededException) e.getCause();
+        }
+        return new RuntimeException(message, e.getCause());
+    }
+
+    /**
+     * Returns an artifact derived from the values of a property, from the
+     * shared store if the mapper has one.
+     *
+     * @param cache,
+     *            Input cache
+     * @param property,
+     *            Input linking property
+     * @param preprocessing,
+     *            name of the preprocessing applied by the builder
+     * @param tokenizer,
+     *            name of the tokenizer applied by the builder
+     * @param builder,
+     *            builds the artifact
+     * @param weigher,
+     *            estimates the size of the artifact in bytes
+     * @return the artifact, which must not be modified
+     */
+    protected <T> T getArtifact(ACache cache, String property, String preprocessing, String tokenizer,
+            Supplier<T> builder, ToLongFunction<? super T> weigher) {
+        if (artifacts == null) {
+            return builder.get();
+        }
+        return artifacts.get(cache, property, preprocessing, tokenizer, builder, weigher);
+    }
+
+    /**
+     * Helper method, re-factored from common setup code of Mappers. The map
+     * is shared with the other mappers of a plan, hence it must not be
+     * modified.
      *
      * @param cache,
      *            Input cache
@@ -30,20 +141,30 @@ public abstract class AMapper implements IMapper {
      *         property
      */
     protected Map<String, Set<String>> getValueToUriMap(ACache cache, String property) {
+        return getArtifact(cache, property, "", "", () -> createValueToUriMap(cache, property),
+                AMapper::weigh);
+    }
+
+    private static Map<String, Set<String>> createValueToUriMap(ACache cache, String property) {
         Map<String, Set<String>> result = new HashMap<>();
-        List<String> uris = cache.getAllUris();
-        for (String uri : uris) {
-            Set<String> values = cache.getInstance(uri).getProperty(property);
-            for (String value : values) {
-                if (!result.containsKey(value)) {
-                    result.put(value, new HashSet<>());
-                }
-                result.get(value).add(uri);
+        cache.forEachValue(property, (uri, value) -> {
+            if (!result.containsKey(value)) {
+                result.put(value, new HashSet<>());
             }
-        }
+            result.get(value).add(uri);
+        });
         return result;
     }
 
+    private static long weigh(Map<String, Set<String>> valueToUriMap) {
+        long weight = 0;
+        for (Map.Entry<String, Set<String>> e : valueToUriMap.entrySet()) {
+            // entries of the map and the set, the URIs belong to the cache
+            weight += MapperArtifacts.weigh(e.getKey()) + 64 + 48 * e.getValue().size();
+        }
+        return weight;
+    }
+
     /**
      * Helper method, re-factored from common return code blocks.
      *
@@ -60,7 +181,7 @@ public abstract class AMapper implements IMapper {
     protected AMapping getUriToUriMapping(Map<String, Map<String, Double>> valueMap,
             Map<String, Set<String>> sourceValueToUriMap, Map<String, Set<String>> targetValueToUriMap,
             boolean swapped) {
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = createMapping();
         for (String s : valueMap.keySet()) {
             for (String t : valueMap.get(s).keySet()) {
                 if (sourceValueToUriMap.get(swapped ? t : s) != null)
@@ -0,0 +1,173 @@
+package org.aksw.limes.core.measures.mapper;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import org.aksw.limes.core.datastrutures.WeightedLruMap;
+import org.aksw.limes.core.io.cache.ACache;
+
+/**
+ * Artifacts that mappers derive from the values of a property, e.g., maps
+ * from values to URIs, token arrays or inverted indexes. An artifact is keyed
+ * by the cache it is derived from, the property, the preprocessing applied by
+ * the mapper and the tokenizer, so that all mappers executing the atomic
+ * specifications of a plan build it once. Caches are compared by identity,
+ * hence the preprocessing applied when a cache is filled is implied by the
+ * cache. The artifacts are held in a {@link WeightedLruMap} weighted by their
+ * estimated size in bytes. Artifacts must not be modified by the mappers
+ * which get them. The store is thread-safe and every artifact
+ * is built once, even if several threads request it concurrently.
+ *
+ * @version 1.0
+ * @see AMapper#setArtifacts(MapperArtifacts)
+ */
+public class MapperArtifacts {
+
+    /**
+     * Default capacity in bytes, a quarter of the maximal heap size.
+     */
+    public static final long DEFAULT_CAPACITY = Runtime.getRuntime().maxMemory() / 4;
+
+    private final WeightedLruMap<Key, Holder> entries;
+    private final AtomicLong builds = new AtomicLong();
+
+    private static final class Key {
+        private final ACache cache;
+        private final String property;
+        private final String preprocessing;
+        private final String tokenizer;
+
+        private Key(ACache cache, String property, String preprocessing, String tokenizer) {
+            this.cache = cache;
+            this.property = property;
+            this.preprocessing = preprocessing;
+            this.tokenizer = tokenizer;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return cache == other.cache && Objects.equals(property, other.property)
+                    && Objects.equals(preprocessing, other.preprocessing)
+                    && Objects.equals(tokenizer, other.tokenizer);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * (31 * System.identityHashCode(cache) + Objects.hashCode(property))
+                    + Objects.hashCode(preprocessing)) + Objects.hashCode(tokenizer);
+        }
+    }
+
+    /**
+     * Artifact which is built by the first thread requesting it.
+     */
+    private static final class Holder {
+        private Object value;
+    }
+
+    /**
+     * Creates a store with the {@link #DEFAULT_CAPACITY}.
+     */
+    public MapperArtifacts() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity
+     *            maximal estimated size of the artifacts in bytes
+     */
+    public MapperArtifacts(long capacity) {
+        entries = new WeightedLruMap<>(capacity);
+    }
+
+    /**
+     * Returns an artifact, which is built if it is not in the store.
+     * Artifacts whose size exceeds the capacity are returned but not kept.
+     *
+     * @param cache
+     *            cache the artifact is derived from
+     * @param property
+     *            property whose values are used
+     * @param preprocessing
+     *            name of the preprocessing the mapper applies to the values,
+     *            empty if none
+     * @param tokenizer
+     *            name of the tokenizer and its parameters, empty if none
+     * @param builder
+     *            builds the artifact
+     * @param weigher
+     *            estimates the size of the artifact in bytes
+     * @param <T>
+     *            type of the artifact
+     * @return the artifact
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(ACache cache, String property, String preprocessing, String tokenizer, Supplier<T> builder,
+            ToLongFunction<? super T> weigher) {
+        Key key = new Key(cache, property, preprocessing, tokenizer);
+        // artifacts which are being built have no weight yet and are kept
+        Holder holder = new Holder();
+        Holder present = entries.putIfAbsent(key, holder, 0);
+        if (present != null) {
+            holder = present;
+        }
+        synchronized (holder) {
+            if (holder.value == null) {
+                T value = builder.get();
+                holder.value = value;
+                builds.incrementAndGet();
+                entries.setWeight(key, holder, Math.max(1, weigher.applyAsLong(value)));
+            }
+            return (T) holder.value;
+        }
+    }
+
+    /**
+     * @return the number of artifacts in the store
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated size of the artifacts in the store in bytes
+     */
+    public long getWeight() {
+        return entries.getWeight();
+    }
+
+    /**
+     * @return the number of artifacts built since the store was created
+     */
+    public long getBuilds() {
+        return builds.get();
+    }
+
+    public long getCapacity() {
+        return entries.getCapacity();
+    }
+
+    /**
+     * Removes all artifacts, e.g., after a link specification was executed.
+     */
+    public void clear() {
+        entries.clear();
+    }
+
+    /**
+     * Estimates the size of a string in bytes.
+     *
+     * @param s
+     *            a string
+     * @return the estimated size
+     */
+    public static long weigh(String s) {
+        return 40 + 2L * s.length();
+    }
+}
@@ -178,4 +178,21 @@ public class MapperFactory {
 
     }
 
+    /**
+     * Factory function for retrieving the desired mapper instance given an
+     * input measure name and the number of threads it may use.
+     *
+     * @param type,
+     *            type of the measure
+     * @param parallelism,
+     *            number of threads of mappers with a parallel mode
+     *
+     * @return a specific mapper instance
+     */
+    public static AMapper createMapper(MeasureType type, int parallelism) {
+        AMapper mapper = createMapper(type);
+        mapper.setParallelism(parallelism);
+        return mapper;
+    }
+
 }
@@ -1,15 +1,43 @@
 package org.aksw.limes.core.measures.mapper;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.mapping.MemoryMapping;
+import org.aksw.limes.core.io.mapping.PrimitiveMapping;
 /**
- * Implements the mapping operations abstract class.
+ * Implements the mapping operations abstract class. Mappings whose URIs are
+ * interned with the same dictionaries are combined by merging their links
+ * sorted by source and target ID, see {@link PrimitiveMapping}. Other
+ * mappings are combined on their nested maps, whose entries are read once
+ * and whose inner maps are copied instead of adding every link. The source
+ * URIs can be partitioned by their hash, each partition is then combined by
+ * a separate task. As before, unions keep the maximal and intersections the
+ * minimal similarity of links in both mappings.
  *
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  * @version 1.0
  */
 public class MappingOperations {
 
+    /**
+     * Minimal number of links of the inputs for which the partitions are
+     * combined in parallel.
+     */
+    public static final int PARALLEL_THRESHOLD = 1 << 15;
+
+    private enum Operation {
+        UNION, INTERSECTION, DIFFERENCE
+    }
+
     /**
      * Computes the difference of two mappings.
      *
@@ -20,25 +48,26 @@ public class MappingOperations {
      * @return map1 \ map2
      */
     public static AMapping difference(AMapping map1, AMapping map2) {
-        AMapping map = MappingFactory.createDefaultMapping();
-        
-        // go through all the keys in map1
-        for (String key : map1.getMap().keySet()) {
-            // if the first term (key) can also be found in map2
-            if (map2.getMap().containsKey(key)) {
-                // then go through the second terms and checks whether they can
-                // be found in map2 as well
-                for (String value : map1.getMap().get(key).keySet()) {
-                    // if no, save the link
-                    if (!map2.getMap().get(key).containsKey(value)) {
-                        map.add(key, value, map1.getMap().get(key).get(value));
-                    }
-                }
-            } else {
-                map.add(key, map1.getMap().get(key));
-            }
+        return difference(map1, map2, 1);
+    }
+
+    /**
+     * Computes the difference of two mappings with the given number of
+     * threads.
+     *
+     * @param map1
+     *            First mapping
+     * @param map2
+     *            Second mapping
+     * @param parallelism
+     *            number of threads
+     * @return map1 \ map2
+     */
+    public static AMapping difference(AMapping map1, AMapping map2, int parallelism) {
+        if (isInterned(map1, map2)) {
+            return ((PrimitiveMapping) map1).difference((PrimitiveMapping) map2);
         }
-        return map;
+        return apply(Operation.DIFFERENCE, map1.getMap(), map2.getMap(), parallelism);
     }
 
     /**
@@ -52,30 +81,35 @@ public class MappingOperations {
      * @return Intersection of map1 and map2
      */
     public static AMapping intersection(AMapping map1, AMapping map2) {
-        AMapping map = MappingFactory.createDefaultMapping();
+        return intersection(map1, map2, 1);
+    }
+
+    /**
+     * Computes the intersection of two mappings with the given number of
+     * threads. In case an entry exists in both mappings the minimal
+     * similarity is taken.
+     *
+     * @param map1
+     *            First mapping
+     * @param map2
+     *            Second mapping
+     * @param parallelism
+     *            number of threads
+     * @return Intersection of map1 and map2
+     */
+    public static AMapping intersection(AMapping map1, AMapping map2, int parallelism) {
         // takes care of not running the filter if some set is empty
         if (map1.size() == 0 || map2.size() == 0) {
             return MappingFactory.createDefaultMapping();
         }
-        // go through all the keys in map1
-        for (String key : map1.getMap().keySet()) {
-            // if the first term (key) can also be found in map2
-            if (map2.getMap().containsKey(key)) {
-                // then go through the second terms and checks whether they can
-                // be found in map2 as well
-                for (String value : map1.getMap().get(key).keySet()) {
-                    // if yes, take the highest similarity
-                    if (map2.getMap().get(key).containsKey(value)) {
-                        if (map1.getMap().get(key).get(value) <= map2.getMap().get(key).get(value)) {
-                            map.add(key, value, map1.getMap().get(key).get(value));
-                        } else {
-                            map.add(key, value, map2.getMap().get(key).get(value));
-                        }
-                    }
-                }
-            }
+        if (isInterned(map1, map2)) {
+            return ((PrimitiveMapping) map1).intersection((PrimitiveMapping) map2);
+        }
+        // probe the mapping with fewer sources
+        if (map2.getMap().size() < map1.getMap().size()) {
+            return apply(Operation.INTERSECTION, map2.getMap(), map1.getMap(), parallelism);
         }
-        return map;
+        return apply(Operation.INTERSECTION, map1.getMap(), map2.getMap(), parallelism);
     }
 
     /**
@@ -89,20 +123,292 @@ public class MappingOperations {
      * @return Union of map1 and map2
      */
     public static AMapping union(AMapping map1, AMapping map2) {
-        AMapping map = MappingFactory.createDefaultMapping();
-        // go through all the keys in map1
-        for (String key : map1.getMap().keySet()) {
-            for (String value : map1.getMap().get(key).keySet()) {
-                map.add(key, value, map1.getMap().get(key).get(value));
+        return union(map1, map2, 1);
+    }
+
+    /**
+     * Computes the union of two mappings with the given number of threads. In
+     * case an entry exists in both mappings the maximal similarity is taken.
+     *
+     * @param map1
+     *            First mapping
+     * @param map2
+     *            Second mapping
+     * @param parallelism
+     *            number of threads
+     * @return Union of map1 and map2
+     */
+    public static AMapping union(AMapping map1, AMapping map2, int parallelism) {
+        if (isInterned(map1, map2)) {
+            return ((PrimitiveMapping) map1).union((PrimitiveMapping) map2);
+        }
+        // copy the larger mapping and add the links of the smaller one
+        if (map2.size() > map1.size()) {
+            return apply(Operation.UNION, map2.getMap(), map1.getMap(), parallelism);
+        }
+        return apply(Operation.UNION, map1.getMap(), map2.getMap(), parallelism);
+    }
+
+    /**
+     * Computes the union of two mappings which are owned by the caller, i.e.,
+     * which are not used by anyone else afterwards. The links of the smaller
+     * mapping are added to the larger one, whose inner maps are adopted
+     * rather than copied. In case an entry exists in both mappings the
+     * maximal similarity is taken.
+     *
+     * @param map1
+     *            First mapping, which may be modified
+     * @param map2
+     *            Second mapping, which may be modified
+     * @return Union of map1 and map2, which is one of the inputs if possible
+     */
+    public static AMapping unionInPlace(AMapping map1, AMapping map2) {
+        if (map2.size() > map1.size()) {
+            AMapping swap = map1;
+            map1 = map2;
+            map2 = swap;
+        }
+        if (map1 instanceof PrimitiveMapping && map2 instanceof PrimitiveMapping) {
+            ((PrimitiveMapping) map1).addAll((PrimitiveMapping) map2);
+            return map1;
+        }
+        if (!(map1 instanceof MemoryMapping)) {
+            return union(map1, map2);
+        }
+        HashMap<String, HashMap<String, Double>> result = map1.getMap();
+        int added = 0;
+        for (Entry<String, HashMap<String, Double>> e : map2.getMap().entrySet()) {
+            if (e.getValue().isEmpty()) {
+                continue;
             }
+            HashMap<String, Double> links = result.get(e.getKey());
+            if (links == null) {
+                // the smaller mapping is owned as well
+                result.put(e.getKey(), map2 instanceof MemoryMapping ? e.getValue() : new HashMap<>(e.getValue()));
+                added += e.getValue().size();
+            } else {
+                added += addMax(links, e.getValue());
+            }
+        }
+        map1.setSize(map1.size() + added);
+        // the similarities have changed
+        if (map1.getReversedMap() != null) {
+            map1.getReversedMap().clear();
+        }
+        return map1;
+    }
+
+    private static boolean isInterned(AMapping map1, AMapping map2) {
+        return map1 instanceof PrimitiveMapping && map2 instanceof PrimitiveMapping
+                && ((PrimitiveMapping) map1).sharesDictionaries((PrimitiveMapping) map2);
+    }
+
+    /**
+     * Adds links to a map, keeping the maximal similarity.
+     *
+     * @return the number of links which were not in the map
+     */
+    private static int addMax(HashMap<String, Double> links, HashMap<String, Double> other) {
+        int added = 0;
+        for (Entry<String, Double> e : other.entrySet()) {
+            Double similarity = links.putIfAbsent(e.getKey(), e.getValue());
+            if (similarity == null) {
+                added++;
+            } else if (e.getValue() > similarity) {
+                links.put(e.getKey(), e.getValue());
+            }
+        }
+        return added;
+    }
+
+    /**
+     * Applies an operation to the nested maps of two mappings. For unions,
+     * the first map should be the larger one, for intersections the one with
+     * fewer sources.
+     */
+    private static AMapping apply(Operation operation, HashMap<String, HashMap<String, Double>> map1,
+            HashMap<String, HashMap<String, Double>> map2, int parallelism) {
+        HashMap<String, HashMap<String, Double>> result;
+        int size;
+        long links = 0;
+        if (parallelism > 1) {
+            for (HashMap<String, Double> m : map1.values()) {
+                links += m.size();
+            }
+        }
+        if (parallelism <= 1 || links < PARALLEL_THRESHOLD) {
+            result = new HashMap<>(capacity(operation, map1, map2));
+            size = apply(operation, map1.entrySet(), map2, map2.entrySet(), result);
+        } else {
+            result = new HashMap<>(capacity(operation, map1, map2));
+            size = applyPartitioned(operation, map1, map2, parallelism, result);
+        }
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        mapping.setMap(result);
+        mapping.setSize(size);
+        return mapping;
+    }
+
+    private static int capacity(Operation operation, Map<String, ?> map1, Map<String, ?> map2) {
+        int sources = operation == Operation.UNION ? map1.size() + map2.size() : map1.size();
+        return (int) Math.min(Integer.MAX_VALUE / 2, sources * 4L / 3 + 1);
+    }
+
+    /**
+     * Applies an operation to entries of the first map.
+     *
+     * @param entries1
+     *            entries of the first map to process
+     * @param map2
+     *            second map
+     * @param entries2
+     *            entries of the second map to process, used by unions only
+     * @param result
+     *            map the resulting links are written to
+     * @return the number of resulting links
+     */
+    private static int apply(Operation operation, Iterable<Entry<String, HashMap<String, Double>>> entries1,
+            HashMap<String, HashMap<String, Double>> map2, Iterable<Entry<String, HashMap<String, Double>>> entries2,
+            HashMap<String, HashMap<String, Double>> result) {
+        int size = 0;
+        switch (operation) {
+        case UNION:
+            for (Entry<String, HashMap<String, Double>> e : entries1) {
+                if (!e.getValue().isEmpty()) {
+                    result.put(e.getKey(), new HashMap<>(e.getValue()));
+                    size += e.getValue().size();
+                }
+            }
+            for (Entry<String, HashMap<String, Double>> e : entries2) {
+                if (e.getValue().isEmpty()) {
+                    continue;
+                }
+                HashMap<String, Double> links = result.get(e.getKey());
+                if (links == null) {
+                    result.put(e.getKey(), new HashMap<>(e.getValue()));
+                    size += e.getValue().size();
+                } else {
+                    size += addMax(links, e.getValue());
+                }
+            }
+            break;
+        case INTERSECTION:
+            for (Entry<String, HashMap<String, Double>> e : entries1) {
+                HashMap<String, Double> links2 = map2.get(e.getKey());
+                if (links2 == null) {
+                    continue;
+                }
+                HashMap<String, Double> links1 = e.getValue();
+                // iterate over the smaller map of targets
+                boolean swapped = links2.size() < links1.size();
+                HashMap<String, Double> probe = swapped ? links2 : links1;
+                HashMap<String, Double> other = swapped ? links1 : links2;
+                HashMap<String, Double> links = null;
+                for (Entry<String, Double> link : probe.entrySet()) {
+                    Double similarity = other.get(link.getKey());
+                    if (similarity != null) {
+                        if (links == null) {
+                            links = new HashMap<>();
+                        }
+                        links.put(link.getKey(), similarity < link.getValue() ? similarity : link.getValue());
+                    }
+                }
+                if (links != null) {
+                    result.put(e.getKey(), links);
+                    size += links.size();
+                }
+            }
+            break;
+        case DIFFERENCE:
+            for (Entry<String, HashMap<String, Double>> e : entries1) {
+                HashMap<String, Double> links2 = map2.get(e.getKey());
+                if (links2 == null) {
+                    result.put(e.getKey(), new HashMap<>(e.getValue()));
+                    size += e.getValue().size();
+                    continue;
+                }
+                HashMap<String, Double> links = null;
+                for (Entry<String, Double> link : e.getValue().entrySet()) {
+                    if (!links2.containsKey(link.getKey())) {
+                        if (links == null) {
+                            links = new HashMap<>();
+                        }
+                        links.put(link.getKey(), link.getValue());
+                    }
+                }
+                if (links != null) {
+                    result.put(e.getKey(), links);
+                    size += links.size();
+                }
+            }
+            break;
+        }
+        return size;
+    }
+
+    /**
+     * Partitions the sources by their hash and applies the operation to each
+     * partition in a separate fork-join task. Since the partitions have no
+     * source in common, their results are simply put into the result map. If
+     * the caller is a fork-join task itself, e.g. of the
+     * {@link org.aksw.limes.core.execution.engine.ParallelExecutionEngine},
+     * the partitions are combined by the workers of its pool rather than by
+     * additional threads.
+     */
+    private static int applyPartitioned(Operation operation, HashMap<String, HashMap<String, Double>> map1,
+            HashMap<String, HashMap<String, Double>> map2, int parallelism,
+            HashMap<String, HashMap<String, Double>> result) {
+        int partitions = parallelism * 4;
+        List<List<Entry<String, HashMap<String, Double>>>> entries1 = partition(map1, partitions);
+        List<List<Entry<String, HashMap<String, Double>>>> entries2 = operation == Operation.UNION
+                ? partition(map2, partitions) : null;
+        List<ForkJoinTask<HashMap<String, HashMap<String, Double>>>> tasks = new ArrayList<>();
+        int[] sizes = new int[partitions];
+        for (int p = 0; p < partitions; p++) {
+            final int partition = p;
+            tasks.add(ForkJoinTask.adapt(() -> {
+                List<Entry<String, HashMap<String, Double>>> part1 = entries1.get(partition);
+                HashMap<String, HashMap<String, Double>> local = new HashMap<>(part1.size() * 2 + 1);
+                sizes[partition] = apply(operation, part1, map2,
+                        entries2 == null ? new ArrayList<>() : entries2.get(partition), local);
+                return local;
+            }));
         }
-        for (String key : map2.getMap().keySet()) {
-            // if the first term (key) can also be found in map2
-            for (String value : map2.getMap().get(key).keySet()) {
-                map.add(key, value, map2.getMap().get(key).get(value));
+        if (ForkJoinTask.inForkJoinPool()) {
+            ForkJoinTask.invokeAll(tasks);
+        } else {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.submit(() -> ForkJoinTask.invokeAll(tasks)).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while combining mappings", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("Combining mappings failed", e.getCause());
+            } finally {
+                pool.shutdownNow();
             }
         }
-        return map;
+        for (ForkJoinTask<HashMap<String, HashMap<String, Double>>> task : tasks) {
+            result.putAll(task.join());
+        }
+        int size = 0;
+        for (int s : sizes) {
+            size += s;
+        }
+        return size;
+    }
+
+    private static List<List<Entry<String, HashMap<String, Double>>>> partition(
+            HashMap<String, HashMap<String, Double>> map, int partitions) {
+        List<List<Entry<String, HashMap<String, Double>>>> result = new ArrayList<>(partitions);
+        for (int p = 0; p < partitions; p++) {
+            result.add(new ArrayList<>(map.size() / partitions + 1));
+        }
+        for (Entry<String, HashMap<String, Double>> e : map.entrySet()) {
+            result.get((e.getKey().hashCode() & Integer.MAX_VALUE) % partitions).add(e);
+        }
+        return result;
     }
 
 }
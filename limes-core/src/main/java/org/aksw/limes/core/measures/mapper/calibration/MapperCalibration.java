@@ -0,0 +1,226 @@
+package org.aksw.limes.core.measures.mapper.calibration;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.Set;
+
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fitted runtime curves of the mappers. The runtime of the mapper of a
+ * measure type is modelled as a linear function of the features returned by
+ * {@link #getFeatures(double, double, double)}, i.e. of the source size, the
+ * target size, their product and the threshold. The coefficients are fitted
+ * by {@link MapperCalibrator} and stored in a properties file with one entry
+ * per measure type.
+ *
+ * @version 1.0
+ */
+public class MapperCalibration {
+
+    static Logger logger = LoggerFactory.getLogger(MapperCalibration.class);
+
+    /**
+     * System property pointing to the calibration file.
+     */
+    public static final String FILE_PROPERTY = "limes.calibration";
+    /**
+     * Calibration file used if the system property is not set.
+     */
+    public static final String DEFAULT_FILE = "cache/calibration.properties";
+    /**
+     * Number of features of the runtime model.
+     */
+    public static final int FEATURES = 5;
+
+    private static final String RUNTIME_SUFFIX = ".runtime";
+
+    // calibration of the default file and the file it was loaded from
+    private static MapperCalibration defaultCalibration;
+    private static File defaultCalibrationFile;
+    private static long defaultCalibrationModified;
+
+    private Map<MeasureType, double[]> runtimes = new EnumMap<MeasureType, double[]>(MeasureType.class);
+
+    /**
+     * @param sourceSize
+     *            number of source instances
+     * @param targetSize
+     *            number of target instances
+     * @param threshold
+     *            threshold of the atomic specification
+     * @return the features of the runtime model
+     */
+    public static double[] getFeatures(double sourceSize, double targetSize, double threshold) {
+        return new double[] { 1d, sourceSize, targetSize, sourceSize * targetSize, threshold };
+    }
+
+    /**
+     * @param type
+     *            measure type
+     * @return true if a runtime curve was fitted for the mapper of the type
+     */
+    public boolean isCalibrated(MeasureType type) {
+        return runtimes.containsKey(type);
+    }
+
+    /**
+     * @return the measure types whose mappers are calibrated
+     */
+    public Set<MeasureType> getCalibratedTypes() {
+        return Collections.unmodifiableSet(runtimes.keySet());
+    }
+
+    /**
+     * @param type
+     *            measure type
+     * @return the coefficients of the runtime curve or null
+     */
+    public double[] getCoefficients(MeasureType type) {
+        return runtimes.get(type);
+    }
+
+    /**
+     * @param type
+     *            measure type
+     * @param coefficients
+     *            the coefficients of the runtime curve, one per feature
+     */
+    public void setCoefficients(MeasureType type, double[] coefficients) {
+        if (coefficients.length != FEATURES) {
+            throw new IllegalArgumentException(
+                    "Expected " + FEATURES + " coefficients but got " + coefficients.length);
+        }
+        runtimes.put(type, coefficients.clone());
+    }
+
+    /**
+     * Estimates the runtime of a mapper.
+     *
+     * @param type
+     *            measure type of the mapper
+     * @param sourceSize
+     *            number of source instances
+     * @param targetSize
+     *            number of target instances
+     * @param threshold
+     *            threshold of the atomic specification
+     * @return the estimated runtime in milliseconds or NaN if the mapper is not
+     *         calibrated
+     */
+    public double getRuntime(MeasureType type, int sourceSize, int targetSize, double threshold) {
+        double[] coefficients = runtimes.get(type);
+        if (coefficients == null) {
+            return Double.NaN;
+        }
+        double[] features = getFeatures(sourceSize, targetSize, threshold);
+        double runtime = 0;
+        for (int i = 0; i < FEATURES; i++) {
+            runtime += coefficients[i] * features[i];
+        }
+        return Math.max(runtime, 0d);
+    }
+
+    /**
+     * Writes the coefficients to a properties file.
+     *
+     * @param file
+     *            target file
+     * @throws IOException
+     *             if the file cannot be written
+     */
+    public void save(File file) throws IOException {
+        Properties properties = new Properties();
+        for (Map.Entry<MeasureType, double[]> e : runtimes.entrySet()) {
+            StringBuilder value = new StringBuilder();
+            for (double c : e.getValue()) {
+                if (value.length() > 0) {
+                    value.append(',');
+                }
+                value.append(c);
+            }
+            properties.setProperty(e.getKey().name() + RUNTIME_SUFFIX, value.toString());
+        }
+        if (file.getAbsoluteFile().getParentFile() != null) {
+            file.getAbsoluteFile().getParentFile().mkdirs();
+        }
+        try (OutputStream out = new FileOutputStream(file)) {
+            properties.store(out, "LIMES mapper calibration");
+        }
+    }
+
+    /**
+     * Reads the coefficients from a properties file. Unknown measure types and
+     * malformed entries are skipped.
+     *
+     * @param file
+     *            calibration file
+     * @return the calibration, which is empty if the file does not exist or
+     *         cannot be read
+     */
+    public static MapperCalibration load(File file) {
+        MapperCalibration calibration = new MapperCalibration();
+        if (!file.isFile()) {
+            return calibration;
+        }
+        Properties properties = new Properties();
+        try (InputStream in = new FileInputStream(file)) {
+            properties.load(in);
+        } catch (IOException e) {
+            logger.warn("Cannot read calibration file " + file + ": " + e.getMessage());
+            return calibration;
+        }
+        for (String key : properties.stringPropertyNames()) {
+            if (!key.endsWith(RUNTIME_SUFFIX)) {
+                continue;
+            }
+            try {
+                MeasureType type = MeasureType.valueOf(key.substring(0, key.length() - RUNTIME_SUFFIX.length()));
+                String[] values = properties.getProperty(key).split(",");
+                double[] coefficients = new double[values.length];
+                for (int i = 0; i < values.length; i++) {
+                    coefficients[i] = Double.parseDouble(values[i].trim());
+                }
+                calibration.setCoefficients(type, coefficients);
+            } catch (IllegalArgumentException e) {
+                logger.warn("Skipping calibration entry " + key + ": " + e.getMessage());
+            }
+        }
+        return calibration;
+    }
+
+    /**
+     * @return the calibration file given by the system property
+     *         {@value #FILE_PROPERTY} or {@value #DEFAULT_FILE}
+     */
+    public static File getDefaultFile() {
+        return new File(System.getProperty(FILE_PROPERTY, DEFAULT_FILE));
+    }
+
+    /**
+     * @return the calibration stored in the default file. It is shared by all
+     *         callers and must not be modified, the file is only loaded again
+     *         if it was changed or the system property points to another file
+     */
+    public static synchronized MapperCalibration getDefault() {
+        File file = getDefaultFile();
+        long modified = file.lastModified();
+        if (defaultCalibration == null || !file.equals(defaultCalibrationFile)
+                || modified != defaultCalibrationModified) {
+            defaultCalibration = load(file);
+            defaultCalibrationFile = file;
+            defaultCalibrationModified = modified;
+        }
+        return defaultCalibration;
+    }
+}
@@ -0,0 +1,213 @@
+package org.aksw.limes.core.measures.mapper.calibration;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomStringGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Fits the runtime curves of mappers by running them on synthetic data. For
+ * every combination of source size, target size and threshold of the grid,
+ * the mapper of a measure type is run on data produced by a
+ * {@link DataGenerator} and the least squares fit of the measured runtimes is
+ * stored in a {@link MapperCalibration}.
+ *
+ * @version 1.0
+ */
+public class MapperCalibrator {
+
+    static Logger logger = LoggerFactory.getLogger(MapperCalibrator.class);
+
+    /**
+     * Measure types whose mappers work on the string values produced by
+     * {@link RandomStringGenerator}.
+     */
+    public static final List<MeasureType> STRING_MEASURES = Arrays.asList(MeasureType.COSINE,
+            MeasureType.EXACTMATCH, MeasureType.JACCARD, MeasureType.JARO, MeasureType.JAROWINKLER,
+            MeasureType.LEVENSHTEIN, MeasureType.MONGEELKAN, MeasureType.OVERLAP, MeasureType.QGRAMS,
+            MeasureType.RATCLIFF, MeasureType.SOUNDEX, MeasureType.TRIGRAM);
+
+    private static final int[] DEFAULT_SIZES = { 250, 500, 1000, 2000 };
+    private static final double[] DEFAULT_THRESHOLDS = { 0.5, 0.7, 0.9 };
+    /**
+     * Regularization of the normal equations, keeps the fit defined if the
+     * grid does not determine all coefficients.
+     */
+    private static final double RIDGE = 1e-9;
+
+    private DataGenerator generator;
+    private int[] sizes;
+    private double[] thresholds;
+
+    /**
+     * Creates a calibrator with the default grid.
+     *
+     * @param generator
+     *            generator of the synthetic data
+     */
+    public MapperCalibrator(DataGenerator generator) {
+        this(generator, DEFAULT_SIZES, DEFAULT_THRESHOLDS);
+    }
+
+    /**
+     * @param generator
+     *            generator of the synthetic data
+     * @param sizes
+     *            source and target sizes of the grid
+     * @param thresholds
+     *            thresholds of the grid
+     */
+    public MapperCalibrator(DataGenerator generator, int[] sizes, double[] thresholds) {
+        this.generator = generator;
+        this.sizes = sizes.clone();
+        this.thresholds = thresholds.clone();
+    }
+
+    /**
+     * Fits the runtime curves of the mappers of the given measure types and
+     * stores them in the calibration. Mappers that fail on the synthetic data
+     * are skipped.
+     *
+     * @param types
+     *            measure types to calibrate
+     * @param calibration
+     *            calibration to update
+     * @return the updated calibration
+     */
+    public MapperCalibration calibrate(List<MeasureType> types, MapperCalibration calibration) {
+        ACache[] data = new ACache[sizes.length];
+        ACache[] otherData = new ACache[sizes.length];
+        for (int i = 0; i < sizes.length; i++) {
+            data[i] = generator.generateData(sizes[i]);
+            otherData[i] = generator.generateData(sizes[i]);
+        }
+        for (MeasureType type : types) {
+            try {
+                calibration.setCoefficients(type, calibrate(type, data, otherData));
+            } catch (RuntimeException e) {
+                logger.warn("Cannot calibrate the mapper of " + type + ": " + e.getMessage());
+            }
+        }
+        return calibration;
+    }
+
+    private double[] calibrate(MeasureType type, ACache[] source, ACache[] target) {
+        AMapper mapper = MapperFactory.createMapper(type);
+        String expression = type.name().toLowerCase() + "(x." + DataGenerator.LABEL + ",y." + DataGenerator.LABEL
+                + ")";
+        // warm up
+        mapper.getMapping(source[0], target[0], "?x", "?y", expression, thresholds[0]);
+        List<double[]> features = new ArrayList<double[]>();
+        List<Double> runtimes = new ArrayList<Double>();
+        for (int i = 0; i < source.length; i++) {
+            for (int j = 0; j < target.length; j++) {
+                for (double threshold : thresholds) {
+                    long begin = System.nanoTime();
+                    mapper.getMapping(source[i], target[j], "?x", "?y", expression, threshold);
+                    runtimes.add((System.nanoTime() - begin) / 1e6);
+                    features.add(MapperCalibration.getFeatures(source[i].size(), target[j].size(), threshold));
+                }
+            }
+        }
+        double[] coefficients = fit(features, runtimes);
+        logger.info("Calibrated " + type + ": " + Arrays.toString(coefficients));
+        return coefficients;
+    }
+
+    /**
+     * Least squares fit of a linear model. The features are scaled to unit
+     * maximum before solving the normal equations.
+     *
+     * @param features
+     *            feature vectors of the observations
+     * @param values
+     *            observed values
+     * @return the coefficients of the model
+     */
+    public static double[] fit(List<double[]> features, List<Double> values) {
+        int n = features.get(0).length;
+        double[] scale = new double[n];
+        for (double[] x : features) {
+            for (int k = 0; k < n; k++) {
+                scale[k] = Math.max(scale[k], Math.abs(x[k]));
+            }
+        }
+        for (int k = 0; k < n; k++) {
+            if (scale[k] == 0) {
+                scale[k] = 1;
+            }
+        }
+        // normal equations (X^T X + ridge I) b = X^T y on the scaled features
+        double[][] a = new double[n][n + 1];
+        for (int r = 0; r < features.size(); r++) {
+            double[] x = features.get(r);
+            for (int i = 0; i < n; i++) {
+                for (int j = 0; j < n; j++) {
+                    a[i][j] += x[i] / scale[i] * x[j] / scale[j];
+                }
+                a[i][n] += x[i] / scale[i] * values.get(r);
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            a[i][i] += RIDGE * features.size();
+        }
+        // Gaussian elimination with partial pivoting
+        for (int c = 0; c < n; c++) {
+            int pivot = c;
+            for (int r = c + 1; r < n; r++) {
+                if (Math.abs(a[r][c]) > Math.abs(a[pivot][c])) {
+                    pivot = r;
+                }
+            }
+            double[] swap = a[c];
+            a[c] = a[pivot];
+            a[pivot] = swap;
+            for (int r = c + 1; r < n; r++) {
+                double f = a[r][c] / a[c][c];
+                for (int k = c; k <= n; k++) {
+                    a[r][k] -= f * a[c][k];
+                }
+            }
+        }
+        double[] b = new double[n];
+        for (int i = n - 1; i >= 0; i--) {
+            double sum = a[i][n];
+            for (int k = i + 1; k < n; k++) {
+                sum -= a[i][k] * b[k];
+            }
+            b[i] = sum / a[i][i];
+        }
+        for (int k = 0; k < n; k++) {
+            b[k] /= scale[k];
+        }
+        return b;
+    }
+
+    /**
+     * Calibrates the string mappers on random strings and writes the result
+     * to the calibration file given as argument or to
+     * {@link MapperCalibration#getDefaultFile()}.
+     *
+     * @param args
+     *            optional path of the calibration file
+     * @throws IOException
+     *             if the calibration file cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        File file = args.length > 0 ? new File(args[0]) : MapperCalibration.getDefaultFile();
+        MapperCalibration calibration = MapperCalibration.load(file);
+        new MapperCalibrator(new RandomStringGenerator(5, 20)).calibrate(STRING_MEASURES, calibration);
+        calibration.save(file);
+        logger.info("Calibration written to " + file.getAbsolutePath());
+    }
+}
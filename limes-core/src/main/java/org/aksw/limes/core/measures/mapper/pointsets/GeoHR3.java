@@ -4,12 +4,18 @@
  */
 package org.aksw.limes.core.measures.mapper.pointsets;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.aksw.limes.core.datastrutures.Point;
 import org.aksw.limes.core.io.mapping.AMapping;
@@ -44,6 +50,7 @@ public class GeoHR3 {
     protected float angularThreshold;
     protected float distanceThreshold;
     int latMax, latMin, longMax, longMin;
+    protected int parallelism = 1;
 
     public GeoHR3(float distanceThreshold, int granularity, MeasureType hd) {
         this.angularThreshold = (float) ((distanceThreshold * 180) / (Math.PI * OrthodromicDistance.R));
@@ -61,6 +68,37 @@ public class GeoHR3 {
 
     }
 
+    /**
+     * @param distanceThreshold,
+     *            Distance threshold
+     * @param granularity,
+     *            Granularity of the index
+     * @param hd,
+     *            Type of the point set measure
+     * @param parallelism,
+     *            Number of threads used by run
+     */
+    public GeoHR3(float distanceThreshold, int granularity, MeasureType hd, int parallelism) {
+        this(distanceThreshold, granularity, hd);
+        setParallelism(parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads used by run. Values below 2 select the
+     * serial mode. The parallel mode returns the same mapping as the serial
+     * one.
+     *
+     * @param parallelism,
+     *            Number of threads
+     */
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
     /**
      * Computes the geo squares for each polygon
      *
@@ -236,7 +274,6 @@ public class GeoHR3 {
         GeoIndex source = assignSquares(sourceData);
         GeoIndex target = assignSquares(targetData);
         long end = System.currentTimeMillis();
-        Map<String, Set<String>> computed = new HashMap<String, Set<String>>();
         indexingTime = end - begin;
         if (verbose) {
             System.out.println("Geo-Indexing took: " + indexingTime + " ms");
@@ -248,7 +285,6 @@ public class GeoHR3 {
         }
         AMapping m = MappingFactory.createDefaultMapping();
 
-        double d;
         if (setMeasure instanceof CentroidIndexedHausdorffMeasure) {
             ((CentroidIndexedHausdorffMeasure) setMeasure).computeIndexes(sourceData, targetData);
         } else if (setMeasure instanceof IndexedHausdorffMeasure) {
@@ -256,31 +292,108 @@ public class GeoHR3 {
             targetIndex.index(targetData);
             ((IndexedHausdorffMeasure) setMeasure).targetIndex = targetIndex;
         }
+        List<List<Integer>> sourceSquares = new ArrayList<List<Integer>>();
         for (Integer latIndex : source.squares.keySet()) {
             for (Integer longIndex : source.squares.get(latIndex).keySet()) {
-                GeoSquare g1 = source.getSquare(latIndex, longIndex);
-                Set<List<Integer>> squares = getSquaresToCompare(latIndex, longIndex, target);
-                for (List<Integer> squareIndex : squares) {
-                    GeoSquare g2 = target.getSquare(squareIndex.get(0), squareIndex.get(1));
-                    // only run if the hypercube actually exists
-                    for (Polygon a : g1.elements) {
-                        for (Polygon b : g2.elements) {
-                            if (!computed.containsKey(a.uri)) {
-                                computed.put(a.uri, new HashSet<String>());
-                            }
-                            if (!computed.get(a.uri).contains(b.uri)) {
-                                // add subset condition
-                                d = setMeasure.computeDistance(a, b, distanceThreshold);
-                                if (d <= distanceThreshold) {
-                                    m.add(a.uri, b.uri, 1 / (1 + d));
-                                }
+                sourceSquares.add(Arrays.asList(new Integer[] { latIndex, longIndex }));
+            }
+        }
+        if (parallelism > 1 && sourceSquares.size() > 1) {
+            return runParallel(source, target, sourceSquares);
+        }
+        compare(source, target, sourceSquares, m);
+        return m;
+    }
+
+    /**
+     * Compares the polygons of the source squares with the polygons of the
+     * target squares in parallel. The source squares are split into chunks,
+     * each chunk is compared with the shared target index by one task and
+     * the mappings of the tasks are merged.
+     *
+     * @param source,
+     *            Index of the source polygons
+     * @param target,
+     *            Index of the target polygons
+     * @param sourceSquares,
+     *            Indexes of the source squares
+     * @return Mapping of polygons
+     */
+    protected AMapping runParallel(GeoIndex source, GeoIndex target, List<List<Integer>> sourceSquares) {
+        // small chunks, as the number of polygons per square varies a lot
+        int chunkSize = Math.max(1, sourceSquares.size() / (parallelism * 8));
+        List<Callable<AMapping>> tasks = new ArrayList<Callable<AMapping>>();
+        for (int from = 0; from < sourceSquares.size(); from += chunkSize) {
+            final List<List<Integer>> chunk = sourceSquares.subList(from,
+                    Math.min(sourceSquares.size(), from + chunkSize));
+            tasks.add(() -> {
+                AMapping local = MappingFactory.createDefaultMapping();
+                compare(source, target, chunk, local);
+                return local;
+            });
+        }
+        AMapping m = MappingFactory.createDefaultMapping();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            for (Future<AMapping> future : executor.invokeAll(tasks)) {
+                AMapping local = future.get();
+                for (String key : local.getMap().keySet()) {
+                    for (Map.Entry<String, Double> e : local.getMap().get(key).entrySet()) {
+                        m.add(key, e.getKey(), e.getValue());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running GeoHR3", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("GeoHR3 failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return m;
+    }
+
+    /**
+     * Compares the polygons of the given source squares with the polygons of
+     * the target squares around them.
+     *
+     * @param source,
+     *            Index of the source polygons
+     * @param target,
+     *            Index of the target polygons
+     * @param sourceSquares,
+     *            Indexes of the source squares to compare
+     * @param m,
+     *            Mapping the links are added to
+     */
+    protected void compare(GeoIndex source, GeoIndex target, List<List<Integer>> sourceSquares, AMapping m) {
+        Map<String, Set<String>> computed = new HashMap<String, Set<String>>();
+        double d;
+        for (List<Integer> sourceSquare : sourceSquares) {
+            int latIndex = sourceSquare.get(0);
+            int longIndex = sourceSquare.get(1);
+            GeoSquare g1 = source.getSquare(latIndex, longIndex);
+            Set<List<Integer>> squares = getSquaresToCompare(latIndex, longIndex, target);
+            for (List<Integer> squareIndex : squares) {
+                GeoSquare g2 = target.getSquare(squareIndex.get(0), squareIndex.get(1));
+                // only run if the hypercube actually exists
+                for (Polygon a : g1.elements) {
+                    for (Polygon b : g2.elements) {
+                        if (!computed.containsKey(a.uri)) {
+                            computed.put(a.uri, new HashSet<String>());
+                        }
+                        if (!computed.get(a.uri).contains(b.uri)) {
+                            // add subset condition
+                            d = setMeasure.computeDistance(a, b, distanceThreshold);
+                            if (d <= distanceThreshold) {
+                                m.add(a.uri, b.uri, 1 / (1 + d));
                             }
-                            computed.get(a.uri).add(b.uri);
                         }
+                        computed.get(a.uri).add(b.uri);
                     }
                 }
             }
         }
-        return m;
     }
 }
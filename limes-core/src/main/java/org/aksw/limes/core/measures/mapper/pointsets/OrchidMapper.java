@@ -26,6 +26,34 @@ import org.aksw.limes.core.measures.measure.pointsets.IPointsetsMeasure;
 public class OrchidMapper extends AMapper {
 
     IPointsetsMeasure m = null;
+    int parallelism = 1;
+
+    public OrchidMapper() {
+    }
+
+    /**
+     * @param parallelism
+     *            Number of threads used to compare the polygons
+     */
+    public OrchidMapper(int parallelism) {
+        setParallelism(parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads used to compare the polygons. Values below 2
+     * select the serial mode.
+     *
+     * @param parallelism
+     *            Number of threads
+     */
+    @Override
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
 
     public static List<Point> getPoints(String rawValue) {
         if (!(rawValue.contains("(") && rawValue.contains(")"))) {
@@ -104,7 +132,7 @@ public class OrchidMapper extends AMapper {
         float theta = (1 / (float) threshold) - 1;
         MeasureType type = null;
         type = MeasureFactory.getMeasureType(expression);
-        GeoHR3 orchid = new GeoHR3(theta, GeoHR3.DEFAULT_GRANULARITY, type);
+        GeoHR3 orchid = new GeoHR3(theta, GeoHR3.DEFAULT_GRANULARITY, type, parallelism);
         return orchid.run(sourcePolygons, targetPolygons);
     }
 
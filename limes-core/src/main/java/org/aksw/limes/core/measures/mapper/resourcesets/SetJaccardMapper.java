@@ -8,7 +8,6 @@ import java.util.Set;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 
@@ -179,7 +178,7 @@ public class SetJaccardMapper extends AMapper {
             small = sourceIndex;
         }
         List<List<Set<String>>> possibleMatches = getPossibleMatches(small, big, threshold);
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = createMapping();
         for (int i = 0; i < possibleMatches.size(); i+=2) {
             List<Set<String>> s = possibleMatches.get(i);
             List<Set<String>> t = possibleMatches.get(i+1);
@@ -5,15 +5,23 @@
 package org.aksw.limes.core.measures.mapper.space;
 
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.TreeSet;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 // * Previously call ToralOrderBlockingMapper
 
+import org.aksw.limes.core.datastrutures.LongIntHashMap;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.space.blocking.BlockKeys;
 import org.aksw.limes.core.measures.mapper.space.blocking.BlockingFactory;
 import org.aksw.limes.core.measures.mapper.space.blocking.IBlockingModule;
 import org.aksw.limes.core.measures.measure.space.ISpaceMeasure;
@@ -27,6 +35,12 @@ import org.aksw.limes.core.measures.measure.space.SpaceMeasureFactory;
 public class HR3Mapper extends AMapper {
 
     public int granularity = 4;
+    /**
+     * Number of sources compared by a worker at once in the parallel mode.
+     */
+    private static final int CHUNK_SIZE = 1024;
+
+    private int parallelism = 1;
 
     // this might only work for substraction. Need to create something that
     // transforms
@@ -34,6 +48,40 @@ public class HR3Mapper extends AMapper {
     // Then it will work
     // perfectly
 
+    /**
+     * Creates a mapper that compares the instances on the calling thread.
+     */
+    public HR3Mapper() {
+    }
+
+    /**
+     * Creates a mapper that compares the instances with the given number of
+     * threads.
+     *
+     * @param parallelism
+     *            number of threads used for the comparisons
+     */
+    public HR3Mapper(int parallelism) {
+        setParallelism(parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads used for the comparisons. Values below 2
+     * select the serial mode. The parallel mode returns the same mapping as
+     * the serial one.
+     *
+     * @param parallelism
+     *            number of threads
+     */
+    @Override
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
     public String getName() {
         return "TotalOrderBlockingMapper";
     }
@@ -61,12 +109,6 @@ public class HR3Mapper extends AMapper {
 
         
         
-        AMapping mapping = MappingFactory.createDefaultMapping();
-
-        // maps each block id to a set of instances. Actually one should
-        // integrate LIMES here
-        HashMap<ArrayList<Integer>, TreeSet<String>> targetBlocks = new HashMap<ArrayList<Integer>, TreeSet<String>>();
-
         // 0. get properties
         String property1, property2;
         // get property labels
@@ -105,62 +147,177 @@ public class HR3Mapper extends AMapper {
         IBlockingModule generator = BlockingFactory.getBlockingModule(property2, p.getOperator(), threshold,
                 granularity);
 
-        // initialize the measure for similarity computation
+        // initialize the measure, which transforms the similarity threshold
+        // into a distance threshold
         ISpaceMeasure measure = SpaceMeasureFactory.getMeasure(p.getOperator(), dimensions);
 
+        // extract the coordinates once, the distances are computed on the
+        // primitive arrays instead of parsing the values of each pair
+        SpaceCoordinates sourceCoordinates = new SpaceCoordinates(source, property1.split("\\|"));
+        SpaceCoordinates targetCoordinates = new SpaceCoordinates(target, property2.split("\\|"));
+        if (sourceCoordinates.getDimension() != dimensions) {
+            throw new RuntimeException("The properties " + property1 + " and " + property2
+                    + " have different dimensions.");
+        }
+
         // compute blockid for each of the elements of the target
         // implement our simple yet efficient blocking approach
-        ArrayList<ArrayList<Integer>> blockIds;
-        for (String key : target.getAllUris()) {
-            blockIds = generator.getAllBlockIds(target.getInstance(key));
-            for (int ids = 0; ids < blockIds.size(); ids++) {
-                if (!targetBlocks.containsKey(blockIds.get(ids))) {
-                    targetBlocks.put(blockIds.get(ids), new TreeSet<String>());
+        TargetIndex index = new TargetIndex(targetCoordinates, generator);
+        // the blocking modules compute the offsets lazily, hence they are
+        // computed before the workers start
+        int[][] offsets = generator.getBlockOffsets();
+
+        // comparison. Pairs whose distance exceeds the distance threshold
+        // are discarded as soon as the partial distance exceeds it
+        double maxDistance = threshold > 0 ? measure.getThreshold(0, threshold) : Double.POSITIVE_INFINITY;
+        double maxSquaredDistance = maxDistance * maxDistance * (1 + 1e-9);
+        if (parallelism > 1 && sourceCoordinates.size() > CHUNK_SIZE) {
+            return getMappingParallel(sourceCoordinates, index, generator, offsets, threshold, maxSquaredDistance);
+        }
+        AMapping mapping = createMapping();
+        probe(sourceCoordinates, 0, sourceCoordinates.size(), index, generator, offsets, threshold,
+                maxSquaredDistance, index.createStamps(), mapping);
+        return mapping;
+    }
+
+    /**
+     * Parallel comparison. The workers take chunks of consecutive sources
+     * and compare them with the shared target index. Each worker fills its
+     * own mapping and the mappings are merged on the calling thread.
+     */
+    private AMapping getMappingParallel(SpaceCoordinates sources, TargetIndex index, IBlockingModule generator,
+            int[][] offsets, double threshold, double maxSquaredDistance) {
+        AtomicInteger next = new AtomicInteger();
+        List<Callable<AMapping>> tasks = new ArrayList<Callable<AMapping>>();
+        for (int worker = 0; worker < parallelism; worker++) {
+            tasks.add(() -> {
+                AMapping local = createMapping();
+                int[] lastSource = index.createStamps();
+                for (int from = next.getAndAdd(CHUNK_SIZE); from < sources.size(); from = next
+                        .getAndAdd(CHUNK_SIZE)) {
+                    probe(sources, from, Math.min(sources.size(), from + CHUNK_SIZE), index, generator, offsets,
+                            threshold, maxSquaredDistance, lastSource, local);
+                }
+                return local;
+            });
+        }
+        AMapping mapping = createMapping();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            for (Future<AMapping> future : executor.invokeAll(tasks)) {
+                AMapping local = future.get();
+                for (String key : local.getMap().keySet()) {
+                    for (Map.Entry<String, Double> e : local.getMap().get(key).entrySet()) {
+                        mapping.add(key, e.getKey(), e.getValue());
+                    }
                 }
-                targetBlocks.get(blockIds.get(ids)).add(key);
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running HR3", e);
+        } catch (ExecutionException e) {
+            throw failure("HR3 failed", e);
+        } finally {
+            executor.shutdownNow();
         }
+        return mapping;
+    }
 
-        ArrayList<ArrayList<Integer>> blocksToCompare;
-        // comparison
-        TreeSet<String> uris;
-        double sim;
-        int counter = 0;
-        source.getAllUris().size();
-        for (String sourceInstanceUri : source.getAllUris()) {
-            counter++;
-            if (counter % 1000 == 0) {
-                // logger.info("Processed " + (counter * 100 / size) + "% of the
-                // links");
-                // get key
-
-            }
-            // logger.info("Getting "+property1+" from "+sourceInstanceUri);
-            blockIds = generator.getAllSourceIds(source.getInstance(sourceInstanceUri), property1);
-            // logger.info("BlockId for "+sourceInstanceUri+" is "+blockId);
-            // for all blocks in [-1, +1] in each dimension compute similarities
-            // and store them
-            for (int ids = 0; ids < blockIds.size(); ids++) {
-                blocksToCompare = generator.getBlocksToCompare(blockIds.get(ids));
-
-                // logger.info(sourceInstanceUri+" is to compare with blocks
-                // "+blocksToCompare);
-                for (int index = 0; index < blocksToCompare.size(); index++) {
-                    if (targetBlocks.containsKey(blocksToCompare.get(index))) {
-                        uris = targetBlocks.get(blocksToCompare.get(index));
-                        for (String targetInstanceUri : uris) {
-                            sim = measure.getSimilarity(source.getInstance(sourceInstanceUri),
-                                    target.getInstance(targetInstanceUri), property1, property2);
+    /**
+     * Compares the sources with ids from start to end - 1 with the targets of
+     * the blocks around them.
+     *
+     * @param offsets
+     *            offsets of the blocks around a block, see
+     *            {@link IBlockingModule#getBlockOffsets()}
+     * @param lastSource
+     *            last source each target was compared with, as targets can
+     *            be found in several blocks
+     */
+    private void probe(SpaceCoordinates sources, int start, int end, TargetIndex index, IBlockingModule generator,
+            int[][] offsets, double threshold, double maxSquaredDistance, int[] lastSource, AMapping mapping) {
+        double[] point = new double[sources.getDimension()];
+        double distance, sim;
+        for (int s = start; s < end; s++) {
+            int points = sources.getPointCount(s);
+            for (int k = 0; k < points; k++) {
+                sources.getPoint(s, k, point);
+                int[] blockId = generator.getBlockId(point);
+                // for all blocks in [-1, +1] in each dimension compute
+                // similarities and store them
+                for (int[] offset : offsets) {
+                    int block = index.blocks.get(BlockKeys.pack(blockId, offset), -1);
+                    if (block < 0) {
+                        continue;
+                    }
+                    for (int i = index.blockStart[block]; i < index.blockStart[block + 1]; i++) {
+                        int t = index.blockTargets[i];
+                        if (lastSource[t] == s) {
+                            continue;
+                        }
+                        lastSource[t] = s;
+                        distance = sources.getSquaredDistance(s, index.targets, t, maxSquaredDistance);
+                        if (distance <= maxSquaredDistance) {
+                            sim = 1.0 / (1 + Math.sqrt(distance));
                             if (sim >= threshold) {
-                                mapping.add(sourceInstanceUri, targetInstanceUri, sim);
+                                mapping.add(sources.getUri(s), index.targets.getUri(t), sim);
                             }
                         }
                     }
                 }
             }
         }
-        // logger.info("Cmin = "+necessaryComparisons+"; C = "+comparisons);
-        return mapping;
+    }
+
+    /**
+     * Immutable index of the targets. The block ids are packed into long
+     * keys that point to the range of the block in blockTargets.
+     */
+    private static class TargetIndex {
+        final SpaceCoordinates targets;
+        final LongIntHashMap blocks;
+        final int[] blockStart;
+        final int[] blockTargets;
+
+        TargetIndex(SpaceCoordinates targets, IBlockingModule generator) {
+            this.targets = targets;
+            blocks = new LongIntHashMap(targets.size());
+            int[] entryBlocks = new int[targets.size()];
+            int[] entryTargets = new int[targets.size()];
+            int entries = 0;
+            double[] point = new double[targets.getDimension()];
+            for (int t = 0; t < targets.size(); t++) {
+                int points = targets.getPointCount(t);
+                for (int k = 0; k < points; k++) {
+                    targets.getPoint(t, k, point);
+                    long key = BlockKeys.pack(generator.getBlockId(point));
+                    if (entries == entryBlocks.length) {
+                        entryBlocks = Arrays.copyOf(entryBlocks, entries * 2);
+                        entryTargets = Arrays.copyOf(entryTargets, entries * 2);
+                    }
+                    entryBlocks[entries] = blocks.putIfAbsent(key, blocks.size());
+                    entryTargets[entries++] = t;
+                }
+            }
+            blockStart = new int[blocks.size() + 1];
+            for (int e = 0; e < entries; e++) {
+                blockStart[entryBlocks[e] + 1]++;
+            }
+            for (int block = 0; block < blocks.size(); block++) {
+                blockStart[block + 1] += blockStart[block];
+            }
+            int[] next = Arrays.copyOf(blockStart, blocks.size());
+            blockTargets = new int[entries];
+            for (int e = 0; e < entries; e++) {
+                blockTargets[next[entryBlocks[e]]++] = entryTargets[e];
+            }
+        }
+
+        int[] createStamps() {
+            int[] stamps = new int[targets.size()];
+            Arrays.fill(stamps, -1);
+            return stamps;
+        }
     }
 
     // need to change this
@@ -0,0 +1,181 @@
+package org.aksw.limes.core.measures.mapper.space;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Coordinates of the instances of a cache, parsed once into primitive arrays
+ * that are indexed by instance id. Since properties can have several values,
+ * the values of dimension d of instance i are stored in
+ * values[d][offsets[d][i]] to values[d][offsets[d][i + 1] - 1]. Values that
+ * are not numbers are ignored, just as in
+ * {@link org.aksw.limes.core.measures.measure.space.EuclideanMeasure}.
+ * Instances without a number in one of the dimensions are skipped, as their
+ * similarity to any other instance is close to 0.
+ *
+ * @version 1.0
+ */
+public class SpaceCoordinates {
+
+    static Logger logger = LoggerFactory.getLogger(SpaceCoordinates.class);
+
+    private int dim;
+    private int size;
+    private String[] uris;
+    private double[][] values;
+    private int[][] offsets;
+
+    /**
+     * @param cache,
+     *            the cache whose instances are extracted
+     * @param properties,
+     *            the properties that make up the dimensions
+     */
+    public SpaceCoordinates(ACache cache, String[] properties) {
+        dim = properties.length;
+        ArrayList<Instance> instances = cache.getAllInstances();
+        uris = new String[instances.size()];
+        values = new double[dim][instances.size()];
+        offsets = new int[dim][instances.size() + 1];
+        int[] counts = new int[dim];
+        int skipped = 0;
+        for (Instance instance : instances) {
+            boolean complete = true;
+            for (int d = 0; d < dim; d++) {
+                offsets[d][size] = counts[d];
+                for (String value : instance.getProperty(properties[d])) {
+                    try {
+                        double v = Double.parseDouble(value);
+                        if (counts[d] == values[d].length) {
+                            values[d] = Arrays.copyOf(values[d], values[d].length * 2 + 1);
+                        }
+                        values[d][counts[d]++] = v;
+                    } catch (NumberFormatException e) {
+                        // ignored as in the measure
+                    }
+                }
+                complete = complete && counts[d] > offsets[d][size];
+            }
+            if (complete) {
+                uris[size++] = instance.getUri();
+            } else {
+                // drop the values of the incomplete instance
+                for (int d = 0; d < dim; d++) {
+                    counts[d] = offsets[d][size];
+                }
+                skipped++;
+            }
+        }
+        for (int d = 0; d < dim; d++) {
+            offsets[d][size] = counts[d];
+        }
+        if (skipped > 0) {
+            logger.debug("Skipped " + skipped + " instances without coordinates.");
+        }
+    }
+
+    /**
+     * @return the number of instances with coordinates
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return the number of dimensions
+     */
+    public int getDimension() {
+        return dim;
+    }
+
+    /**
+     * @param id,
+     *            id of an instance
+     * @return the URI of the instance
+     */
+    public String getUri(int id) {
+        return uris[id];
+    }
+
+    /**
+     * @param id,
+     *            id of an instance
+     * @return the number of points of the instance, i.e., the number of
+     *         combinations of its values
+     */
+    public int getPointCount(int id) {
+        int count = 1;
+        for (int d = 0; d < dim; d++) {
+            count *= offsets[d][id + 1] - offsets[d][id];
+        }
+        return count;
+    }
+
+    /**
+     * Writes a point of an instance, i.e., a combination of its values, into
+     * an array.
+     *
+     * @param id,
+     *            id of an instance
+     * @param index,
+     *            index of the point, between 0 and getPointCount(id) - 1
+     * @param point,
+     *            array of length getDimension() the point is written to
+     */
+    public void getPoint(int id, int index, double[] point) {
+        for (int d = 0; d < dim; d++) {
+            int count = offsets[d][id + 1] - offsets[d][id];
+            point[d] = values[d][offsets[d][id] + index % count];
+            index = index / count;
+        }
+    }
+
+    /**
+     * Computes the squared Euclidean distance between an instance and an
+     * instance of other coordinates. For instances with several values, the
+     * closest values are used in each dimension. The computation stops as soon
+     * as the distance exceeds the given bound.
+     *
+     * @param id,
+     *            id of an instance
+     * @param other,
+     *            coordinates of the other instance
+     * @param otherId,
+     *            id of the other instance
+     * @param maxSquaredDistance,
+     *            bound of the squared distance
+     * @return the squared distance or a value larger than maxSquaredDistance
+     */
+    public double getSquaredDistance(int id, SpaceCoordinates other, int otherId, double maxSquaredDistance) {
+        double sum = 0;
+        double min;
+        double entry;
+        for (int d = 0; d < dim; d++) {
+            double[] v1 = values[d];
+            double[] v2 = other.values[d];
+            int end1 = offsets[d][id + 1];
+            int begin2 = other.offsets[d][otherId];
+            int end2 = other.offsets[d][otherId + 1];
+            min = Integer.MAX_VALUE;
+            for (int i = offsets[d][id]; i < end1; i++) {
+                for (int j = begin2; j < end2; j++) {
+                    entry = v1[i] - v2[j];
+                    entry = entry * entry;
+                    if (min > entry) {
+                        min = entry;
+                    }
+                }
+            }
+            sum = sum + min;
+            if (sum > maxSquaredDistance) {
+                return sum;
+            }
+        }
+        return sum;
+    }
+}
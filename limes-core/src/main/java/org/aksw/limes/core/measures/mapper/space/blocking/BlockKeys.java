@@ -0,0 +1,90 @@
+package org.aksw.limes.core.measures.mapper.space.blocking;
+
+import java.util.ArrayList;
+
+import org.aksw.limes.core.datastrutures.LongIntHashMap;
+
+/**
+ * Packs block ids into long keys, so that blocks can be stored in primitive
+ * hash maps such as {@link LongIntHashMap}. Block ids with up to two
+ * dimensions are packed without loss. Higher dimensional block ids are
+ * hashed, hence distinct blocks might share a key. This only adds candidates
+ * to the comparisons, as the distances of the candidates are computed anyway.
+ *
+ * @version 1.0
+ */
+public class BlockKeys {
+
+    private static final long MULTIPLIER = 0x9E3779B97F4A7C15L;
+
+    private BlockKeys() {
+    }
+
+    /**
+     * @param blockId
+     *         Block id, one entry per dimension
+     * @return The key of the block
+     */
+    public static long pack(int[] blockId) {
+        return pack(blockId, null);
+    }
+
+    /**
+     * Computes the key of the block blockId + offset without creating the
+     * block id.
+     *
+     * @param blockId
+     *         Block id, one entry per dimension
+     * @param offset
+     *         Offset of the block, one entry per dimension, or null
+     * @return The key of the block
+     */
+    public static long pack(int[] blockId, int[] offset) {
+        long key;
+        if (blockId.length <= 2) {
+            key = 0;
+            for (int i = 0; i < blockId.length; i++) {
+                key = (key << 32) | ((blockId[i] + (offset == null ? 0 : offset[i])) & 0xffffffffL);
+            }
+        } else {
+            key = 1;
+            for (int i = 0; i < blockId.length; i++) {
+                key = key * MULTIPLIER + blockId[i] + (offset == null ? 0 : offset[i]);
+            }
+        }
+        // the free key of the hash map is shared with a neighbouring key
+        return key == LongIntHashMap.FREE_KEY ? key + 1 : key;
+    }
+
+    /**
+     * Converts the blocks to compare with the zero block into offsets.
+     *
+     * @param blocks
+     *         The blocks to compare with the zero block
+     * @return The offsets of the blocks to compare
+     */
+    public static int[][] toOffsets(ArrayList<ArrayList<Integer>> blocks) {
+        int[][] offsets = new int[blocks.size()][];
+        for (int i = 0; i < offsets.length; i++) {
+            ArrayList<Integer> block = blocks.get(i);
+            offsets[i] = new int[block.size()];
+            for (int j = 0; j < offsets[i].length; j++) {
+                offsets[i][j] = block.get(j);
+            }
+        }
+        return offsets;
+    }
+
+    /**
+     * @param dim
+     *         Number of dimensions
+     * @return The zero block id
+     */
+    public static ArrayList<Integer> zero(int dim) {
+        ArrayList<Integer> zero = new ArrayList<Integer>();
+        for (int i = 0; i < dim; i++) {
+            zero.add(0);
+        }
+        return zero;
+    }
+}
@@ -21,6 +21,7 @@ public class EuclideanBlockingModule implements IBlockingModule {
     ArrayList<String> properties;
     ISpaceMeasure measure;
     Instance zero;
+    int[][] offsets;
 
     /**
      * Initializes the generator. The basic idea here is the following: First,
@@ -200,4 +201,19 @@ public class EuclideanBlockingModule implements IBlockingModule {
         }
         return blockIds;
     }
+
+    public int[] getBlockId(double[] coordinates) {
+        int[] blockId = new int[dim];
+        for (int i = 0; i < dim; i++) {
+            blockId[i] = (int) java.lang.Math.floor(coordinates[i] / thresholds.get(i));
+        }
+        return blockId;
+    }
+
+    public int[][] getBlockOffsets() {
+        if (offsets == null) {
+            offsets = BlockKeys.toOffsets(getBlocksToCompare(BlockKeys.zero(dim)));
+        }
+        return offsets;
+    }
 }
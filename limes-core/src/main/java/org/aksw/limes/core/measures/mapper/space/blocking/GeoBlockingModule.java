@@ -28,6 +28,7 @@ public class GeoBlockingModule implements IBlockingModule {
     ISpaceMeasure measure;
     Instance zero;
     int latLimit, longLimit;
+    int[][] offsets;
 
     public GeoBlockingModule(String props, String measureName, double threshold) {
         thresholds = new ArrayList<Double>();
@@ -199,4 +200,49 @@ public class GeoBlockingModule implements IBlockingModule {
 
         return list;
     }
+
+    public int[] getBlockId(double[] coordinates) {
+        int[] blockId = new int[dim];
+        double value;
+        for (int i = 0; i < dim; i++) {
+            value = coordinates[i];
+            if (properties.get(i).startsWith("la")) {
+                if (value > latLimit) {
+                    value = value - 2 * latLimit;
+                } else if (value < latLimit) {
+                    value = value + 2 * latLimit;
+                }
+            }
+            if (properties.get(i).startsWith("lo")) {
+                if (value > longLimit) {
+                    value = value - 2 * longLimit;
+                } else if (value < longLimit) {
+                    value = value + 2 * longLimit;
+                }
+            }
+            blockId[i] = (int) java.lang.Math.floor(value / thresholds.get(i));
+        }
+        return blockId;
+    }
+
+    /**
+     * The values are already normalized by getBlockId, hence the offsets are
+     * the direct neighbours of a block in each dimension.
+     *
+     * @return Offsets of the blocks to compare
+     */
+    public int[][] getBlockOffsets() {
+        if (offsets == null) {
+            int count = (int) Math.pow(3, dim);
+            offsets = new int[count][dim];
+            for (int i = 0; i < count; i++) {
+                int index = i;
+                for (int j = 0; j < dim; j++) {
+                    offsets[i][j] = index % 3 - 1;
+                    index = index / 3;
+                }
+            }
+        }
+        return offsets;
+    }
 }
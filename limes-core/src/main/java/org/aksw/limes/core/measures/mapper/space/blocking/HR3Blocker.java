@@ -29,6 +29,7 @@ public class HR3Blocker implements IBlockingModule {
     ISpaceMeasure measure;
     Instance zero;
     int granularity;
+    int[][] offsets;
     HashMap<ArrayList<Integer>, ArrayList<ArrayList<Integer>>> cache;
 
     public HR3Blocker(String props, String measureName, double threshold) {
@@ -111,6 +112,7 @@ public class HR3Blocker implements IBlockingModule {
 
     public void setGranularity(int n) {
         granularity = n;
+        offsets = null;
     }
 
     /**
@@ -262,4 +264,19 @@ public class HR3Blocker implements IBlockingModule {
         }
         return blockIds;
     }
+
+    public int[] getBlockId(double[] coordinates) {
+        int[] blockId = new int[dim];
+        for (int i = 0; i < dim; i++) {
+            blockId[i] = (int) java.lang.Math.floor((granularity * coordinates[i]) / thresholds.get(i));
+        }
+        return blockId;
+    }
+
+    public int[][] getBlockOffsets() {
+        if (offsets == null) {
+            offsets = BlockKeys.toOffsets(getBlocksToCompare(BlockKeys.zero(dim)));
+        }
+        return offsets;
+    }
 }
@@ -20,4 +20,23 @@ public interface IBlockingModule {
     public ArrayList<ArrayList<Integer>> getAllBlockIds(Instance a);
 
     public ArrayList<ArrayList<Integer>> getAllSourceIds(Instance a, String properties);
+
+    /**
+     * Computes the block id of a point whose coordinates were extracted
+     * beforehand.
+     *
+     * @param coordinates
+     *         Coordinates of the point, one per dimension
+     * @return The block id of the point, one entry per dimension
+     */
+    public int[] getBlockId(double[] coordinates);
+
+    /**
+     * Returns the blocks to compare with a block relative to the block itself.
+     * The block ids returned by getBlocksToCompare are exactly the sums of the
+     * block id and these offsets.
+     *
+     * @return Offsets of the blocks to compare, one entry per dimension
+     */
+    public int[][] getBlockOffsets();
 }
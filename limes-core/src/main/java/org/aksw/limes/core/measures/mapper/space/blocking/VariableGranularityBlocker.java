@@ -25,6 +25,7 @@ public class VariableGranularityBlocker implements IBlockingModule {
     ISpaceMeasure measure;
     Instance zero;
     int granularity;
+    int[][] offsets;
 
     public VariableGranularityBlocker(String props, String measureName, double threshold) {
         thresholds = new ArrayList<Double>();
@@ -97,6 +98,7 @@ public class VariableGranularityBlocker implements IBlockingModule {
 
     public void setGranularity(int n) {
         granularity = n;
+        offsets = null;
     }
 
     /**
@@ -219,4 +221,19 @@ public class VariableGranularityBlocker implements IBlockingModule {
         }
         return blockIds;
     }
+
+    public int[] getBlockId(double[] coordinates) {
+        int[] blockId = new int[dim];
+        for (int i = 0; i < dim; i++) {
+            blockId[i] = (int) java.lang.Math.floor((granularity * coordinates[i]) / thresholds.get(i));
+        }
+        return blockId;
+    }
+
+    public int[][] getBlockOffsets() {
+        if (offsets == null) {
+            offsets = BlockKeys.toOffsets(getBlocksToCompare(BlockKeys.zero(dim)));
+        }
+        return offsets;
+    }
 }
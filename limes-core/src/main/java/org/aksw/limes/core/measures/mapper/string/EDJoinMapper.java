@@ -2,139 +2,182 @@ package org.aksw.limes.core.measures.mapper.string;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.Iterator;
-import java.util.LinkedList;
+import java.util.Comparator;
 import java.util.List;
-
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aksw.limes.core.datastrutures.LongIntHashMap;
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
+import org.aksw.limes.core.measures.measure.string.BitParallelLevenshtein;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
 
-import algorithms.StoppUhr;
-import algorithms.Token;
-import algorithms.edjoin.MismatchingQGram;
-import algorithms.edjoin.QGram;
-import algorithms.edjoin.Record;
-
 /**
+ * Computes Levenshtein links with the q-gram filters of Ed-Join (Xiao, Wang
+ * and Lin, VLDB 2008). Values with too few q-grams for the filters are
+ * compared with all values of similar length instead. All state of a join
+ * is local to the call of
+ * {@link #getMapping(ACache, ACache, String, String, String, double)}, hence
+ * a mapper can be used by several threads concurrently. The q-grams are
+ * encoded as ints, i.e., by the rank of their token in the global order of
+ * the tokens.
+ *
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  */
 public class EDJoinMapper extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(EDJoinMapper.class);
-    private static int Q = -1;
-    private static AMapping mapping = null;
-    private static HashMap<Integer, String> sourceMap;
-    private static HashMap<Integer, String> targetMap;
-    @SuppressWarnings("unused")
-    private int comparisons = 0;
-
-    private static Record[] qTokenizer(String[] objects, int q) {
-        StoppUhr s = new StoppUhr();
-        s.Starten();
-        HashMap<String, Token> allTokens = new HashMap<String, Token>();
-        Record[] records = new Record[objects.length];
-
-        for (int i = 0; i < objects.length; i++) {
-
-            int qGramsNumber = objects[i].length() - q + 1;
-            Record record = new Record(i, Math.max(0, qGramsNumber), objects[i]);
-
-            for (int j = 0; j < qGramsNumber; j++) {
-                String token = objects[i].substring(j, j + q);
-                if (allTokens.containsKey(token)) {
-                    Token t = allTokens.get(token);
-                    t.df++;
-                    record.qGrams[j] = new QGram(t, j);
-                } else {
-                    Token t = new Token(allTokens.size(), 1);
-                    allTokens.put(token, t);
-                    record.qGrams[j] = new QGram(t, j);
-                }
-            }
-            records[i] = record;
-        }
+    private static final int Q = 3;
+    /**
+     * Largest distance threshold. Larger thresholds do not filter any pair
+     * but would overflow the bounds of the filters.
+     */
+    private static final int MAX_TAU = Integer.MAX_VALUE / (4 * Q);
+    /**
+     * Number of records probed by a worker at once in the parallel mode. Records are
+     * sorted by length, hence the chunks are kept small for load balancing.
+     */
+    private static final int CHUNK_SIZE = 512;
 
-        for (int i = 0; i < records.length; i++) {
-            Arrays.sort(records[i].qGrams);
+    private int parallelism = 1;
+
+    /**
+     * A value split into q-grams. The q-grams are stored as the rank of their
+     * token and their location, sorted by rank and location.
+     */
+    private static final class QGramRecord {
+        final int id;
+        final String s;
+        int[] tokens;
+        int[] locs;
+        int prefixLength;
+
+        QGramRecord(int id, String s) {
+            this.id = id;
+            this.s = s;
         }
-        Arrays.sort(records);
-        s.Stoppen();
-        return records;
     }
 
-    private static int verification(Record currentRec, HashMap<Integer, Record> candidates, ArrayList<String> objects,
-            int q, int threshold) {
-        int count = 0;
-        String id1, id2;
-        Iterator<Record> iter = candidates.values().iterator();
-        while (iter.hasNext()) {
-            Record y = iter.next();
-            compareQGramsResult compResult = compareQGrams(currentRec, y, threshold);
+    /**
+     * Creates a mapper that probes the records on the calling thread.
+     */
+    public EDJoinMapper() {
+    }
 
-            /*
-             * count filtering
-             */
-            if (compResult.e1 <= q * threshold) {
-                int e2 = minEditErrors(compResult.Q, q);
-                /*
-                 * location-based mismatch filtering
-                 */
-                if (e2 <= threshold) {
-                    int e3 = contentFilter(objects.get(currentRec.id), objects.get(y.id), compResult.Q, threshold, q);
-                    if (e3 <= 2 * threshold) {
-                        int ed = editDistance(objects.get(currentRec.id), objects.get(y.id));
-                        if (ed <= threshold) {
-                            if ((sourceMap.containsKey(currentRec.id) && targetMap.containsKey(y.id))) {
-                                id1 = sourceMap.get(currentRec.id);
-                                id2 = targetMap.get(y.id);
-                                // CORRECT
-                                mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                            } else if (targetMap.containsKey(currentRec.id) && sourceMap.containsKey(y.id)) {
-                                // get uris for ids
-                                {
-                                    id1 = sourceMap.get(y.id);
-                                    id2 = targetMap.get(currentRec.id);
-                                    // CORRECT
-                                    mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                }
-                                count++;
-                            }
-                        }
-                    }
+    /**
+     * Creates a mapper that probes and verifies the records with the given
+     * number of threads.
+     *
+     * @param parallelism
+     *            number of threads used for the probe and verification phase
+     */
+    public EDJoinMapper(int parallelism) {
+        setParallelism(parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads used for the probe and verification phase.
+     * Values below 2 select the serial algorithm. The parallel mode returns
+     * the same mapping as the serial one.
+     *
+     * @param parallelism
+     *            number of threads
+     */
+    @Override
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Splits the values into q-grams. Tokens are ranked by their frequency,
+     * rare tokens first, and the records are sorted by the length of their
+     * value.
+     */
+    private static QGramRecord[] qTokenizer(List<String> values, int q) {
+        LongIntHashMap ids = new LongIntHashMap();
+        int[] df = new int[16];
+        QGramRecord[] records = new QGramRecord[values.size()];
+        for (int i = 0; i < records.length; i++) {
+            String s = values.get(i);
+            QGramRecord record = new QGramRecord(i, s);
+            record.tokens = new int[Math.max(0, s.length() - q + 1)];
+            for (int j = 0; j < record.tokens.length; j++) {
+                long code = 0;
+                for (int k = j; k < j + q; k++) {
+                    code = (code << 16) | s.charAt(k);
                 }
+                int id = ids.putIfAbsent(code, ids.size());
+                if (id == df.length) {
+                    df = Arrays.copyOf(df, df.length * 2);
+                }
+                df[id]++;
+                record.tokens[j] = id;
             }
+            records[i] = record;
         }
-        return count;
+        // rank the tokens by their frequency, ties by their id
+        long[] order = new long[ids.size()];
+        for (int id = 0; id < order.length; id++) {
+            order[id] = ((long) df[id] << 32) | id;
+        }
+        Arrays.sort(order);
+        int[] rank = new int[order.length];
+        for (int r = 0; r < order.length; r++) {
+            rank[(int) order[r]] = r;
+        }
+        long[] grams = new long[0];
+        for (QGramRecord record : records) {
+            int n = record.tokens.length;
+            if (grams.length < n) {
+                grams = new long[n];
+            }
+            for (int j = 0; j < n; j++) {
+                grams[j] = ((long) rank[record.tokens[j]] << 32) | j;
+            }
+            Arrays.sort(grams, 0, n);
+            record.locs = new int[n];
+            for (int j = 0; j < n; j++) {
+                record.tokens[j] = (int) (grams[j] >>> 32);
+                record.locs[j] = (int) grams[j];
+            }
+        }
+        Arrays.sort(records, Comparator.comparingInt(r -> r.s.length()));
+        return records;
     }
 
-    private static int calcPrefixLen(Record x, int tau, int q) {
-        if (x.qGrams.length <= tau + 1) {
-            return x.qGrams.length;
+    private static int calcPrefixLen(QGramRecord x, int tau, int q, int[] buffer) {
+        int n = x.tokens.length;
+        if (n <= tau + 1) {
+            return n;
         }
         int left = tau + 1;
         int right;
-        if (x.qGrams.length < q * tau + 1) {
-            right = x.qGrams.length;
+        if (n < q * tau + 1) {
+            right = n;
         } else {
             right = q * tau + 1;
         }
         int mid;
         while (left < right) {
             mid = (left + right) / 2;
-            MismatchingQGram[] temp = new MismatchingQGram[mid];
-            for (int i = 0; i < mid; i++) {
-                temp[i] = new MismatchingQGram(x.qGrams[i]);
-            }
-            int err = minEditErrors(temp, q);
+            System.arraycopy(x.locs, 0, buffer, 0, mid);
+            Arrays.sort(buffer, 0, mid);
+            int err = minEditErrors(buffer, mid, q);
             if (err <= tau) {
                 left = mid + 1;
             } else {
@@ -144,144 +187,311 @@ public class EDJoinMapper extends AMapper {
         return left;
     }
 
-    private static compareQGramsResult compareQGrams(Record x, Record y, int tau) {
-        LinkedList<MismatchingQGram> mismatchingQgrams = new LinkedList<MismatchingQGram>();
-        QGram[] xQGrams = x.qGrams;
-        QGram[] yQGrams = y.qGrams;
-        int i = 0;
-        int j = 0;
-        int epsilon = 0;
-        while (i < xQGrams.length && j < yQGrams.length) {
-            if (xQGrams[i].token.id == yQGrams[j].token.id) {
-                if (Math.abs(xQGrams[i].loc - yQGrams[j].loc) <= tau) {
-                    i++;
-                    j++;
-                } else {
-                    if (xQGrams[i].loc < yQGrams[j].loc) {
-                        if (i == 0 || xQGrams[i].token.id != xQGrams[i - 1].token.id || j == 0
-                                || xQGrams[i].token.id != yQGrams[j - 1].token.id
-                                || Math.abs(xQGrams[i].loc - yQGrams[j - 1].loc) > tau) {
-                            mismatchingQgrams.add(new MismatchingQGram(xQGrams[i]));
+    /**
+     * @param locs
+     *            locations of mismatching q-grams in ascending order
+     * @param n
+     *            number of locations
+     * @return lower bound of the edit operations that destroy the q-grams
+     */
+    private static int minEditErrors(int[] locs, int n, int q) {
+        int cnt = 0;
+        int loc = 0;
+        for (int i = 0; i < n; i++) {
+            if (locs[i] > loc) {
+                cnt++;
+                loc = locs[i] + q - 1;
+            }
+        }
+        return cnt;
+    }
+
+    /**
+     * Prefix index of the records. The postings of a token are pairs of the
+     * position of a record in the sorted records and the location of the
+     * q-gram, in ascending order of the positions. The index is read-only
+     * after its creation.
+     */
+    private static int[][] index(QGramRecord[] records, int tokens, int tau) {
+        int[] counts = new int[tokens];
+        int[] buffer = new int[16];
+        for (QGramRecord record : records) {
+            if (buffer.length < record.tokens.length) {
+                buffer = new int[record.tokens.length];
+            }
+            record.prefixLength = calcPrefixLen(record, tau, Q, buffer);
+            for (int j = 0; j < record.prefixLength; j++) {
+                counts[record.tokens[j]]++;
+            }
+        }
+        int[][] postings = new int[tokens][];
+        for (int t = 0; t < tokens; t++) {
+            postings[t] = new int[2 * counts[t]];
+        }
+        Arrays.fill(counts, 0);
+        for (int i = 0; i < records.length; i++) {
+            QGramRecord record = records[i];
+            for (int j = 0; j < record.prefixLength; j++) {
+                int[] l = postings[record.tokens[j]];
+                int k = counts[record.tokens[j]]++;
+                l[2 * k] = i;
+                l[2 * k + 1] = record.locs[j];
+            }
+        }
+        return postings;
+    }
+
+    /**
+     * Probes the index and verifies the candidates of records. Probers only
+     * read the records and the index and keep their scratch buffers to
+     * themselves, hence every thread uses its own prober.
+     */
+    private static final class Prober {
+        private final QGramRecord[] records;
+        private final int[][] postings;
+        private final List<String> uris;
+        private final int sourceCount;
+        private final int tau;
+        private final int shortRecords;
+
+        private final int[] stamps;
+        private int stamp = 0;
+        private final int[] candidates;
+        private int[] mismatches = new int[16];
+        private int mismatchCount;
+        private int[] suffixLocs = new int[16];
+        private int[] suffixErrors = new int[16];
+        private int suffixNext;
+        private final int[] frequencies = new int[Character.MAX_VALUE + 1];
+
+        Prober(QGramRecord[] records, int[][] postings, List<String> uris, int sourceCount, int tau) {
+            this.records = records;
+            this.postings = postings;
+            this.uris = uris;
+            this.sourceCount = sourceCount;
+            this.tau = tau;
+            int n = 0;
+            while (n < records.length && isShort(records[n])) {
+                n++;
+            }
+            shortRecords = n;
+            stamps = new int[records.length];
+            candidates = new int[records.length];
+        }
+
+        private boolean isSource(QGramRecord record) {
+            return record.id < sourceCount;
+        }
+
+        /**
+         * @return true if the record has too few q-grams to share one with
+         *         every record within the threshold, i.e., if an edit
+         *         operation on every q*tau-th character destroys all of them
+         */
+        private boolean isShort(QGramRecord record) {
+            return record.tokens.length <= Q * tau;
+        }
+
+        /**
+         * Finds the links of the record at the given position with the records
+         * before it.
+         */
+        void probe(int i, AMapping mapping) {
+            QGramRecord x = records[i];
+            stamp++;
+            int count = 0;
+            if (!isShort(x)) {
+                for (int j = 0; j < x.prefixLength; j++) {
+                    int[] l = postings[x.tokens[j]];
+                    int loc = x.locs[j];
+                    for (int k = 0; k < l.length && l[k] < i; k += 2) {
+                        int r = l[k];
+                        if (stamps[r] != stamp && records[r].tokens.length >= x.tokens.length - tau
+                                && Math.abs(loc - l[k + 1]) <= tau) {
+                            stamps[r] = stamp;
+                            candidates[count++] = r;
                         }
-                        epsilon++;
-                        i++;
-                    } else {
-                        j++;
                     }
                 }
-            } else {
-                if (xQGrams[i].compareTo(yQGrams[j]) < 0) { // <-- Fehler in
-                    // Pseudocode
-                    if (i == 0 || xQGrams[i].token.id != xQGrams[i - 1].token.id || j == 0
-                            || xQGrams[i].token.id != yQGrams[j - 1].token.id
-                            || Math.abs(xQGrams[i].loc - yQGrams[j - 1].loc) > tau) {
-                        mismatchingQgrams.add(new MismatchingQGram(xQGrams[i]));
+            }
+            /*
+             * pairs with a short record cannot be found with the q-gram
+             * filters, hence they are compared directly. Records are sorted
+             * by length, so the short records come first.
+             */
+            for (int j = (isShort(x) ? i : Math.min(i, shortRecords)) - 1; j >= 0
+                    && x.s.length() - records[j].s.length() <= tau; j--) {
+                QGramRecord y = records[j];
+                if (stamps[j] != stamp && isSource(x) != isSource(y)) {
+                    int ed = editDistance(x.s, y.s);
+                    if (ed <= tau) {
+                        add(x, y, ed, mapping);
                     }
-                    epsilon++;
-                    i++;
-                } else {
-                    j++;
                 }
             }
-        }
-        while (i < xQGrams.length) {
-            if (i == 0 || xQGrams[i].token.id != xQGrams[i - 1].token.id || j == 0
-                    || xQGrams[i].token.id != yQGrams[j - 1].token.id
-                    || Math.abs(xQGrams[i].loc - yQGrams[j - 1].loc) > tau) {
-                mismatchingQgrams.add(new MismatchingQGram(xQGrams[i]));
+            for (int c = 0; c < count; c++) {
+                verify(x, records[candidates[c]], mapping);
             }
-            epsilon++;
-            i++;
         }
-        return new compareQGramsResult(mismatchingQgrams.toArray(new MismatchingQGram[mismatchingQgrams.size()]),
-                epsilon);
-    }
 
-    private static int minEditErrors(MismatchingQGram[] Q, int q) {
-        Arrays.sort(Q);
-        int cnt = 0;
-        int loc = 0;
-        for (int i = 0; i < Q.length; i++) {
-            if (Q[i].loc > loc) {
-                cnt++;
-                loc = Q[i].loc + q - 1;
+        private void verify(QGramRecord x, QGramRecord y, AMapping mapping) {
+            if (isSource(x) == isSource(y)) {
+                return;
+            }
+            /*
+             * count filtering
+             */
+            if (compareQGrams(x, y) <= Q * tau) {
+                Arrays.sort(mismatches, 0, mismatchCount);
+                /*
+                 * location-based mismatch filtering
+                 */
+                if (minEditErrors(mismatches, mismatchCount, Q) <= tau) {
+                    if (contentFilter(x.s, y.s) <= 2 * tau) {
+                        int ed = editDistance(x.s, y.s);
+                        if (ed <= tau) {
+                            add(x, y, ed, mapping);
+                        }
+                    }
+                }
             }
         }
-        return cnt;
-    }
 
-    private static int contentFilter(String x, String y, MismatchingQGram[] Q, int tau, int q) {
-        if (Q.length == 0) {
-            return 0;
-        }
-        // Build a condensed suffix sum list for Q;
-        LinkedList<SuffixSumListEntry> condensedSuffixSumList = new LinkedList<SuffixSumListEntry>();
-        int cnt = 1;
-        int loc = Q[Q.length - 1].loc + 1;
-        for (int i = Q.length - 1; i >= 0; i--) {
-            if (Q[i].loc <= loc) {
-                condensedSuffixSumList.addFirst(new SuffixSumListEntry(Q[i].loc, cnt++));
-                loc = Q[i].loc - q;
+        private void add(QGramRecord x, QGramRecord y, int ed, AMapping mapping) {
+            if (isSource(x)) {
+                mapping.add(uris.get(x.id), uris.get(y.id), 1.0 / (1 + (double) ed));
+            } else {
+                mapping.add(uris.get(y.id), uris.get(x.id), 1.0 / (1 + (double) ed));
             }
         }
 
-        Iterator<SuffixSumListEntry> iter = condensedSuffixSumList.iterator();
-        int j = 0;
-        int i = 1;
-        int epsilon;
-        while (i < Q.length) {
-            if (Q[i].loc - Q[i - 1].loc > 1) {
-                epsilon = L1Distance(x, y, Q[j].loc, Q[i - 1].loc + q - 1) + sumRightErrs(Q[i - 1].loc + q, iter);
-                if (epsilon > 2 * tau) {
-                    return 2 * tau + 1;
+        /**
+         * Collects the locations of the q-grams of x that are not matched by
+         * the q-grams of y.
+         *
+         * @return the number of mismatching q-grams
+         */
+        private int compareQGrams(QGramRecord x, QGramRecord y) {
+            int[] xTokens = x.tokens;
+            int[] xLocs = x.locs;
+            int[] yTokens = y.tokens;
+            int[] yLocs = y.locs;
+            if (mismatches.length < xTokens.length) {
+                mismatches = new int[xTokens.length];
+            }
+            mismatchCount = 0;
+            int i = 0;
+            int j = 0;
+            int epsilon = 0;
+            while (i < xTokens.length && j < yTokens.length) {
+                boolean mismatch;
+                if (xTokens[i] == yTokens[j]) {
+                    if (Math.abs(xLocs[i] - yLocs[j]) <= tau) {
+                        i++;
+                        j++;
+                        continue;
+                    }
+                    mismatch = xLocs[i] < yLocs[j];
+                } else {
+                    mismatch = xTokens[i] < yTokens[j];
                 }
-                j = i;
+                if (mismatch) {
+                    addMismatch(x, y, i, j);
+                    epsilon++;
+                    i++;
+                } else {
+                    j++;
+                }
+            }
+            while (i < xTokens.length) {
+                addMismatch(x, y, i, j);
+                epsilon++;
+                i++;
             }
-            i++;
+            return epsilon;
         }
-        return L1Distance(x, y, Q[j].loc, Q[i - 1].loc + q - 1) + sumRightErrs(Q[i - 1].loc + q, iter);
-    }
 
-    private static int L1Distance(String x, String y, int lo, int hi) {
-        HashMap<Character, Frequency> frequencyTable = new HashMap<Character, Frequency>();
-        char c;
-        Frequency f;
-        int i;
-        for (i = lo; i <= hi; i++) {
-            c = x.charAt(i);
-            if ((f = frequencyTable.get(c)) != null) {
-                f.value++;
-            } else {
-                frequencyTable.put(c, new Frequency(1));
+        private void addMismatch(QGramRecord x, QGramRecord y, int i, int j) {
+            if (i == 0 || x.tokens[i] != x.tokens[i - 1] || j == 0 || x.tokens[i] != y.tokens[j - 1]
+                    || Math.abs(x.locs[i] - y.locs[j - 1]) > tau) {
+                mismatches[mismatchCount++] = x.locs[i];
             }
         }
 
-        for (i = lo; i < y.length() && i <= hi; i++) {
-            c = y.charAt(i);
-            if ((f = frequencyTable.get(c)) != null) {
-                f.value--;
-            } else {
-                frequencyTable.put(c, new Frequency(-1));
+        private int contentFilter(String x, String y) {
+            int[] locs = mismatches;
+            int n = mismatchCount;
+            if (n == 0) {
+                return 0;
             }
+            // Build a condensed suffix sum list for the mismatches, stored
+            // in descending order of the locations
+            if (suffixLocs.length < n) {
+                suffixLocs = new int[n];
+                suffixErrors = new int[n];
+            }
+            int size = 0;
+            int cnt = 1;
+            int loc = locs[n - 1] + 1;
+            for (int i = n - 1; i >= 0; i--) {
+                if (locs[i] <= loc) {
+                    suffixLocs[size] = locs[i];
+                    suffixErrors[size++] = cnt++;
+                    loc = locs[i] - Q;
+                }
+            }
+            suffixNext = size - 1;
+
+            int j = 0;
+            int i = 1;
+            int epsilon;
+            while (i < n) {
+                if (locs[i] - locs[i - 1] > 1) {
+                    epsilon = l1Distance(x, y, locs[j], locs[i - 1] + Q - 1) + sumRightErrs(locs[i - 1] + Q);
+                    if (epsilon > 2 * tau) {
+                        return 2 * tau + 1;
+                    }
+                    j = i;
+                }
+                i++;
+            }
+            return l1Distance(x, y, locs[j], locs[i - 1] + Q - 1) + sumRightErrs(locs[i - 1] + Q);
         }
 
-        Iterator<Frequency> iter = frequencyTable.values().iterator();
-        int L1 = 0;
-        while (iter.hasNext()) {
-            L1 += Math.abs(iter.next().value);
+        private int l1Distance(String x, String y, int lo, int hi) {
+            int i;
+            for (i = lo; i <= hi; i++) {
+                frequencies[x.charAt(i)]++;
+            }
+            for (i = lo; i < y.length() && i <= hi; i++) {
+                frequencies[y.charAt(i)]--;
+            }
+            // sum up and reset the frequencies
+            int l1 = 0;
+            for (i = lo; i <= hi; i++) {
+                l1 += Math.abs(frequencies[x.charAt(i)]);
+                frequencies[x.charAt(i)] = 0;
+            }
+            for (i = lo; i < y.length() && i <= hi; i++) {
+                l1 += Math.abs(frequencies[y.charAt(i)]);
+                frequencies[y.charAt(i)] = 0;
+            }
+            return l1;
         }
-        return L1;
-    }
 
-    private static int sumRightErrs(int loc, Iterator<SuffixSumListEntry> iter) {
-        SuffixSumListEntry entry;
-        while (iter.hasNext()) {
-            entry = iter.next();
-            if (entry.loc >= loc) {
-                return entry.errors;
+        private int sumRightErrs(int loc) {
+            while (suffixNext >= 0) {
+                int k = suffixNext--;
+                if (suffixLocs[k] >= loc) {
+                    return suffixErrors[k];
+                }
             }
+            return 0;
+        }
+
+        private int editDistance(String x, String y) {
+            return BitParallelLevenshtein.distance(x, y, tau);
         }
-        return 0;
     }
 
     /**
@@ -294,53 +504,7 @@ public class EDJoinMapper extends AMapper {
      * @return Edit-Distanz
      */
     public static int editDistance(String x, String y) {
-        int d[][];
-        int n, m, i, j, cost;
-
-        n = x.length();
-        m = y.length();
-        if (n == 0) {
-            return m;
-        }
-
-        if (m == 0) {
-            return n;
-        }
-
-        d = new int[n + 1][m + 1];
-
-        for (i = 0; i <= n; i++) {
-            d[i][0] = i;
-        }
-
-        for (j = 0; j <= m; j++) {
-            d[0][j] = j;
-        }
-
-        for (i = 1; i <= n; i++) {
-            for (j = 1; j <= m; j++) {
-                if (x.charAt(i - 1) == y.charAt(j - 1)) {
-                    cost = 0;
-                } else {
-                    cost = 1;
-                }
-
-                d[i][j] = min(d[i - 1][j] + 1, d[i][j - 1] + 1, d[i - 1][j - 1] + cost);
-            }
-        }
-        return d[n][m];
-    }
-
-    private static int min(int a, int b, int c) {
-        int min;
-        min = a;
-        if (b < min) {
-            min = b;
-        }
-        if (c < min) {
-            min = c;
-        }
-        return min;
+        return BitParallelLevenshtein.distance(x, y);
     }
 
     public String getName() {
@@ -369,14 +533,10 @@ public class EDJoinMapper extends AMapper {
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
 
-        if (Q <= 1) {
-            Q = 3;
-        }
         // convert similarity in distance threshold
         threshold = (1 - threshold) / threshold;
 
-        this.comparisons = 0;
-        mapping = MappingFactory.createDefaultMapping();
+        AMapping mapping = createMapping();
         if (threshold < 0) {
             logger.info("Wrong threshold setting. Returning empty mapping.");
             return mapping;
@@ -401,136 +561,84 @@ public class EDJoinMapper extends AMapper {
                     "Expression " + expression + " was given to a mapper to process");
         }
 
-        // 3.1 fill objects from source in entry. This is for indexing and
-        // sorting
-        // later on
-        // logger.info("Filling objects from source knowledge base.");
-        sourceMap = new HashMap<Integer, String>();
-        ArrayList<String> uris = source.getAllUris();
-        ArrayList<String> entries = new ArrayList<String>();
-        Instance instance;
-        int counter = 0;
-        for (int i = 0; i < uris.size(); i++) {
-            instance = source.getInstance(uris.get(i));
-            for (String s : instance.getProperty(properties.get(0))) {
-                sourceMap.put(counter, uris.get(i));
-                entries.add(s);
-                counter++;
-            }
-        }
+        // fill the values of the source and then of the target, the uris
+        // are stored at the same positions
+        List<String> uris = new ArrayList<String>();
+        List<String> values = new ArrayList<String>();
+        source.forEachValue(properties.get(0), (uri, s) -> {
+            uris.add(uri);
+            values.add(s);
+        });
+        int sourceCount = values.size();
+        target.forEachValue(properties.get(1), (uri, s) -> {
+            uris.add(uri);
+            values.add(s);
+        });
 
-        // 3.2 fill objects from target in entries
-        // logger.info("Filling objects from target knowledge base.");
-        targetMap = new HashMap<Integer, String>();
-        uris = target.getAllUris();
-        for (int i = 0; i < uris.size(); i++) {
-            instance = target.getInstance(uris.get(i));
-            for (String s : instance.getProperty(properties.get(1))) {
-                targetMap.put(counter, uris.get(i));
-                entries.add(s);
-                counter++;
+        // Begin EdJoin. First run the tokenization
+        int tau = (int) Math.min(threshold, MAX_TAU);
+        QGramRecord[] records = qTokenizer(values, Q);
+        int tokens = 0;
+        for (QGramRecord record : records) {
+            for (int token : record.tokens) {
+                tokens = Math.max(tokens, token + 1);
             }
         }
-
-        // transform entries into array so that tokenizer will work
-        // we will use entries later on as they do not lead to RAM errors
-        String[] entryArray = new String[entries.size()];
-        for (int i = 0; i < entries.size(); i++) {
-            entryArray[i] = entries.get(i);
+        int[][] postings = index(records, tokens, tau);
+        if (parallelism > 1 && records.length > CHUNK_SIZE) {
+            return getMappingParallel(records, postings, uris, sourceCount, tau);
         }
-
-        // Begin EdJoin. First run the tokenization
-        Record[] records = qTokenizer(entryArray, Q);
-        HashMap<Integer, LinkedList<EdPosition>> index = new HashMap<Integer, LinkedList<EdPosition>>(); // I
-        int count = 0;
-        // run the core of EdJoin
-        String id1, id2;
+        Prober prober = new Prober(records, postings, uris, sourceCount, tau);
         for (int i = 0; i < records.length; i++) {
-            /*
-             * if the length of a record is smaller than q, then we cannot use
-             * the q-gram approach and have to go for comparison without q-gram
-             * filtering
-             */
-            if (records[i].qGrams.length == 0 && records[i].s.length() > 0) {
-                String x = records[i].s;
-                for (int j = i + 1; j < records.length; j++) {
-                    if ((sourceMap.containsKey(records[i].id) && targetMap.containsKey(records[j].id))
-                            || (targetMap.containsKey(records[i].id) && sourceMap.containsKey(records[j].id))) {
-                        String y = records[j].s;
-
-                        // length filtering
-                        if (Math.abs(x.length() - y.length()) <= threshold) {
-                            int ed = editDistance(x, y);
-                            if (ed <= threshold) {
-                                if ((sourceMap.containsKey(records[i].id) && targetMap.containsKey(records[j].id))) {
-                                    id1 = sourceMap.get(records[i].id);
-                                    id2 = targetMap.get(records[j].id);
-                                    // CORRECT
-                                    // if ((1.0 / (1 + (double) ed)) >=
-                                    // threshold)
-                                    mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                } else // should not be necessary
-                                {
-                                    // get uris for ids
-                                    {
-                                        id1 = sourceMap.get(records[j].id);
-                                        id2 = targetMap.get(records[i].id);
-
-                                        // CORRECT
-                                        // if ((1.0 / (1 + (double) ed)) >=
-                                        // threshold)
-                                        mapping.add(id1, id2, 1.0 / (1 + (double) ed));
-                                        // mapping.add(id2, id1, similarity);
-                                    }
-                                }
-                                count++;
-                            }
-                        } else {
-                            break;
-                        }
+            prober.probe(i, mapping);
+        }
+        return mapping;
+    }
+
+    /**
+     * Parallel probe and verification phase. Every record is probed against
+     * the postings of the records before it in the read-only index, which
+     * are the postings the serial Ed-Join finds in its incrementally built
+     * index. Each worker takes chunks of records until none are left and
+     * uses one prober and mapping for all of them, the mappings are merged by
+     * the calling thread.
+     */
+    private AMapping getMappingParallel(QGramRecord[] records, int[][] postings, List<String> uris,
+            int sourceCount, int tau) {
+        AtomicInteger next = new AtomicInteger();
+        List<Callable<AMapping>> tasks = new ArrayList<Callable<AMapping>>();
+        for (int worker = 0; worker < parallelism; worker++) {
+            tasks.add(() -> {
+                AMapping local = createMapping();
+                Prober prober = new Prober(records, postings, uris, sourceCount, tau);
+                for (int from = next.getAndAdd(CHUNK_SIZE); from < records.length; from = next
+                        .getAndAdd(CHUNK_SIZE)) {
+                    for (int i = from; i < Math.min(records.length, from + CHUNK_SIZE); i++) {
+                        prober.probe(i, local);
                     }
                 }
-            } else {
-                HashMap<Integer, Record> candidates = new HashMap<Integer, Record>(); // A
-                Record currentRec = records[i]; // record x
-                int prefixLength = calcPrefixLen(currentRec, (int) threshold, Q);
-                for (int j = 0; j < prefixLength; j++) {
-                    Integer tokenID = currentRec.qGrams[j].token.id; // w
-                    Integer loc = currentRec.qGrams[j].loc; // locx
-                    LinkedList<EdPosition> l = index.get(tokenID);
-                    if (l != null) {
-                        Iterator<EdPosition> iter = l.iterator();
-                        while (iter.hasNext()) {
-                            EdPosition pos = iter.next();
-                            if (pos.record.qGrams.length >= currentRec.qGrams.length - threshold
-                                    && candidates.get(pos.record.id) == null) {
-                                if (Math.abs(loc - pos.EdPosition) <= threshold) {
-                                    candidates.put(pos.record.id, pos.record);
-                                }
-                            }
-                        }
-                        l.add(new EdPosition(currentRec, loc)); // index the
-                        // current
-                        // prefix
-                    } else {
-                        l = new LinkedList<EdPosition>();
-                        l.add(new EdPosition(currentRec, loc));
-                        index.put(tokenID, l);
+                return local;
+            });
+        }
+        AMapping mapping = createMapping();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            for (Future<AMapping> future : executor.invokeAll(tasks)) {
+                AMapping local = future.get();
+                for (String key : local.getMap().keySet()) {
+                    for (Map.Entry<String, Double> e : local.getMap().get(key).entrySet()) {
+                        mapping.add(key, e.getKey(), e.getValue());
                     }
                 }
-                if (candidates.size() > 0) {
-                    count = count + verification(currentRec, candidates, entries, Q, (int) threshold);
-                }
             }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running EDJoinMapper", e);
+        } catch (ExecutionException e) {
+            throw failure("EDJoinMapper failed", e);
+        } finally {
+            executor.shutdownNow();
         }
-        /*
-         * AMapping tempMapping = MappingFactory.createDefaultMapping(); for
-         * (String key : mapping.getMap().keySet()) { for (String value :
-         * mapping.getMap().get(key).keySet()) { double confidence =
-         * mapping.getConfidence(key, value); if (confidence < threshold) {
-         * tempMapping.add(key, value, confidence); } } } mapping = tempMapping;
-         */
-
         return mapping;
     }
 
@@ -561,45 +669,3 @@ public class EDJoinMapper extends AMapper {
                 / (double) (sourceSize * targetSize);
     }
 }
-
-class compareQGramsResult {
-
-    MismatchingQGram[] Q = null;
-    int e1 = 0;
-
-    compareQGramsResult(MismatchingQGram[] qGrams, int e) {
-        this.Q = qGrams;
-        this.e1 = e;
-    }
-}
-
-class SuffixSumListEntry {
-
-    int loc = -1;
-    int errors = -1;
-
-    public SuffixSumListEntry(int l, int e) {
-        loc = l;
-        errors = e;
-    }
-}
-
-class Frequency {
-
-    int value = 0;
-
-    public Frequency(int freq) {
-        value = freq;
-    }
-}
-
-class EdPosition {
-
-    Record record = null;
-    int EdPosition = -1;
-
-    public EdPosition(Record record, int EdPosition) {
-        this.record = record;
-        this.EdPosition = EdPosition;
-    }
-}
@@ -10,7 +10,6 @@ import java.util.TreeSet;
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.slf4j.Logger;
@@ -56,7 +55,7 @@ public class ExactMatchMapper extends AMapper {
         }
         Map<String, Set<String>> sourceIndex = getValueToUriMap(source, properties.get(0));
         Map<String, Set<String>> targetIndex = getValueToUriMap(target, properties.get(1));
-        AMapping m = MappingFactory.createDefaultMapping();
+        AMapping m = createMapping();
         boolean swapped = sourceIndex.keySet().size() > targetIndex.keySet().size();
         (swapped ? sourceIndex : targetIndex).keySet().stream().filter(targetIndex::containsKey).forEach(value -> {
             for (String sourceUri : (swapped ? sourceIndex : targetIndex).get(value)) {
@@ -1,10 +1,18 @@
 package org.aksw.limes.core.measures.mapper.string;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
@@ -17,11 +25,60 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
+ * Mapper for Jaro similarities. The values are partitioned by their length
+ * and only the partitions which pass the length-aware filter are compared.
+ * The characters two values have in common are determined on char arrays with
+ * bitmaps of longs. For values of up to 64 characters, the positions of each
+ * character are encoded in a long, so that the common characters are found
+ * with a few bit operations per character. Chunks of the source values can
+ * be matched in parallel.
+ *
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  */
 public class JaroMapper extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(JaroMapper.class);
+    /**
+     * Number of source values matched by one task in the parallel mode.
+     */
+    private static final int CHUNK_SIZE = 256;
+
+    private int parallelism = 1;
+
+    /**
+     * Creates a mapper that matches the values on the calling thread, like
+     * the other mappers. The execution engine sets the parallelism.
+     */
+    public JaroMapper() {
+    }
+
+    /**
+     * Creates a mapper that matches the values with the given number of
+     * threads.
+     *
+     * @param parallelism
+     *            number of threads
+     */
+    public JaroMapper(int parallelism) {
+        setParallelism(parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads used for matching. Values below 2 select the
+     * serial algorithm. The parallel mode returns the same mapping as the
+     * serial one.
+     *
+     * @param parallelism
+     *            number of threads
+     */
+    @Override
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
 
     /**
      * Computes a mapping between a source and a target.
@@ -60,7 +117,9 @@ public class JaroMapper extends AMapper {
 
     @Override
     public double getRuntimeApproximation(int sourceSize, int targetSize, double theta, Language language) {
-        return 1000d;
+        // fitted on one thread with random strings of up to 20 characters,
+        // the length-aware filter prunes more pairs for higher thresholds
+        return 1 + 1e-3 * sourceSize * (double) targetSize * (1.1 - theta) / parallelism;
     }
 
     @Override
@@ -68,7 +127,7 @@ public class JaroMapper extends AMapper {
         return 1000d;
     }
 
-    private double getMaxComparisonLength(double length, double threshold, double maxLength) {
+    private static double getMaxComparisonLength(double length, double threshold, double maxLength) {
         double l = maxLength * length / (((3 * threshold - 1)) * length - maxLength);
         if (l < 0) {
             return Double.MAX_VALUE;
@@ -83,7 +142,7 @@ public class JaroMapper extends AMapper {
         Set<String> target = targetMap.keySet();
         Map<Integer, Set<String>> sourceLengthIndex = getLengthIndex(source);
         Map<Integer, Set<String>> targetLengthIndex = getLengthIndex(target);
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = createMapping();
         double maxSourceLength, maxTargetLength;
 
         for (Integer sourceLength : sourceLengthIndex.keySet()) {
@@ -113,143 +172,410 @@ public class JaroMapper extends AMapper {
         return result;
     }
 
+    /**
+     * Runs the length-partitioned matching with prefix filtering, i.e.,
+     * pairs whose prefixes do not share a character are skipped.
+     *
+     * @param sourceMap
+     *            Map from source values to URIs
+     * @param targetMap
+     *            Map from target values to URIs
+     * @param threshold
+     *            Similarity threshold
+     * @return A mapping between the source and the target URIs
+     */
     public AMapping run(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap, double threshold) {
-        Set<String> source = sourceMap.keySet();
-        Set<String> target = targetMap.keySet();
-        Map<Integer, Set<String>> sourceLengthIndex = getLengthIndex(source);
-        Map<Integer, Set<String>> targetLengthIndex = getLengthIndex(target);
-
-        AMapping result = MappingFactory.createDefaultMapping();
-        double maxSourceLength, maxTargetLength, similarity, theta;
-        List<Character> sourceMappingCharacters, targetMappingCharacters;
-        Set<Character> sourcePrefix, targetPrefix;
-        boolean passed;
-        int halfLength, transpositions;
-        int sourcePrefixLength, targetPrefixLength;
-        // length-aware filter
-        for (Integer sourceLength : sourceLengthIndex.keySet()) {
-            for (Integer targetLength : targetLengthIndex.keySet()) {
-                maxTargetLength = getMaxComparisonLength((double) sourceLength, threshold,
-                        Math.min(sourceLength, targetLength));
-                maxSourceLength = getMaxComparisonLength((double) targetLength, threshold,
-                        Math.min(sourceLength, targetLength));
+        return run(sourceMap, targetMap, threshold, true);
+    }
 
-                if (sourceLength <= maxSourceLength && targetLength <= maxTargetLength) {
-                    theta = (3 * threshold - 1) * sourceLength * targetLength / (2 * (sourceLength + targetLength));
-                    halfLength = ((int) (Math.min(sourceLength, targetLength))) / 2;
-                    sourcePrefixLength = sourceLength - (int) theta;
-                    targetPrefixLength = targetLength - (int) theta;
-                    for (String s : sourceLengthIndex.get(sourceLength)) {
-                        sourcePrefix = getCharSet(s, sourcePrefixLength);
-                        for (String t : targetLengthIndex.get(targetLength)) {
-                            passed = false;
-                            // prefix filtering
-                            targetPrefix = getCharSet(t, targetPrefixLength);
-                            if (sourcePrefix.isEmpty() || targetPrefix.isEmpty()) {
-                                passed = true;
-                            } else {
-                                passed = contains(sourcePrefix, targetPrefix);
-                            }
+    /**
+     * Runs the length-partitioned matching, which returns the same links as a
+     * comparison of all pairs.
+     *
+     * @param sourceMap
+     *            Map from source values to URIs
+     * @param targetMap
+     *            Map from target values to URIs
+     * @param threshold
+     *            Similarity threshold
+     * @return A mapping between the source and the target URIs
+     */
+    public AMapping runWithoutPrefixFilter(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap,
+            double threshold) {
+        return run(sourceMap, targetMap, threshold, false);
+    }
 
-                            // character-based filtering
-                            if (passed) {
-                                sourceMappingCharacters = JaroMeasure.getCommonCharacters(s, t, halfLength);
-                                if (sourceMappingCharacters.size() >= theta) {
-                                    // if everything maps
-                                    targetMappingCharacters = JaroMeasure.getCommonCharacters(t, s, halfLength);// targetCharacterMap.get(t);
-                                    transpositions = JaroMeasure.getTranspositions(sourceMappingCharacters,
-                                            targetMappingCharacters);
-                                    if (transpositions >= 0) {
-                                        similarity = ((sourceMappingCharacters.size() / (float) sourceLength)
-                                                + (targetMappingCharacters.size() / (float) targetLength)
-                                                + ((sourceMappingCharacters.size() - transpositions)
-                                                        / (float) sourceMappingCharacters.size()))
-                                                / 3.0;
-                                        if (similarity >= threshold) {
-                                            for (String sourceUri : sourceMap.get(s)) {
-                                                for (String targetUri : targetMap.get(t)) {
-                                                    result.add(sourceUri, targetUri, similarity);
-                                                }
-                                            }
-                                        }
-                                    }
-                                }
-                            }
+    /**
+     * The values are sorted by length, the target values of one length form a
+     * partition. Every source value is compared with the partitions which
+     * pass the length-aware filter. In the parallel mode, each worker takes
+     * chunks of the source values and matches them with its own matcher and
+     * mapping, the mappings are merged by the calling thread.
+     */
+    private AMapping run(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap, double threshold,
+            boolean prefixFilter) {
+        String[] sourceValues = sortByLength(sourceMap.keySet());
+        String[] targetValues = sortByLength(targetMap.keySet());
+        if (sourceValues.length == 0 || targetValues.length == 0) {
+            return MappingFactory.createDefaultMapping();
+        }
+        // partitionStart[l] is the index of the first target value of length l
+        int maxLength = targetValues[targetValues.length - 1].length();
+        int[] partitionStart = new int[maxLength + 2];
+        for (String t : targetValues) {
+            partitionStart[t.length() + 1]++;
+        }
+        for (int l = 1; l < partitionStart.length; l++) {
+            partitionStart[l] += partitionStart[l - 1];
+        }
+        char[][] source = toCharArrays(sourceValues);
+        char[][] target = toCharArrays(targetValues);
+        int bitmapLength = Math.max(sourceValues[sourceValues.length - 1].length(), maxLength);
+        if (parallelism > 1 && source.length > CHUNK_SIZE) {
+            AtomicInteger next = new AtomicInteger();
+            List<Callable<AMapping>> tasks = new ArrayList<Callable<AMapping>>();
+            for (int worker = 0; worker < parallelism; worker++) {
+                tasks.add(() -> {
+                    AMapping local = createMapping();
+                    Matcher matcher = new Matcher(target, targetValues, partitionStart, bitmapLength, prefixFilter);
+                    for (int from = next.getAndAdd(CHUNK_SIZE); from < source.length; from = next
+                            .getAndAdd(CHUNK_SIZE)) {
+                        for (int i = from; i < Math.min(source.length, from + CHUNK_SIZE); i++) {
+                            matcher.match(source[i], sourceMap.get(sourceValues[i]), targetMap, threshold, local);
                         }
                     }
-                }
+                    return local;
+                });
             }
+            return merge(tasks);
+        }
+        AMapping result = createMapping();
+        Matcher matcher = new Matcher(target, targetValues, partitionStart, bitmapLength, prefixFilter);
+        for (int i = 0; i < source.length; i++) {
+            matcher.match(source[i], sourceMap.get(sourceValues[i]), targetMap, threshold, result);
         }
         return result;
     }
 
-    public AMapping runWithoutPrefixFilter(Map<String, Set<String>> sourceMap, Map<String, Set<String>> targetMap,
-            double threshold) {
-        Set<String> source = sourceMap.keySet();
-        Set<String> target = targetMap.keySet();
-        Map<Integer, Set<String>> sourceLengthIndex = getLengthIndex(source);
-        Map<Integer, Set<String>> targetLengthIndex = getLengthIndex(target);
+    private AMapping merge(List<Callable<AMapping>> tasks) {
+        AMapping mapping = createMapping();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            for (Future<AMapping> future : executor.invokeAll(tasks)) {
+                AMapping local = future.get();
+                for (String key : local.getMap().keySet()) {
+                    for (Map.Entry<String, Double> e : local.getMap().get(key).entrySet()) {
+                        mapping.add(key, e.getKey(), e.getValue());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running JaroMapper", e);
+        } catch (ExecutionException e) {
+            throw failure("JaroMapper failed", e);
+        } finally {
+            executor.shutdownNow();
+        }
+        return mapping;
+    }
 
-        AMapping result = MappingFactory.createDefaultMapping();
-        double maxSourceLength, maxTargetLength, similarity, theta;
-        List<Character> sourceMappingCharacters, targetMappingCharacters;
-        int halfLength, transpositions;
+    /**
+     * Bitmaps of the positions of the characters of the current source and
+     * target value, indexed by character and cleared after use.
+     */
+    private static final ThreadLocal<long[][]> positions = ThreadLocal
+            .withInitial(() -> new long[2][Character.MAX_VALUE + 1]);
 
-        // length-aware filter
-        for (Integer sourceLength : sourceLengthIndex.keySet()) {
-            for (Integer targetLength : targetLengthIndex.keySet()) {
-                theta = (3 * threshold - 1) * sourceLength * targetLength / (2 * (sourceLength + targetLength));
-                halfLength = ((int) (Math.min(sourceLength, targetLength))) / 2;
-                maxTargetLength = getMaxComparisonLength((double) sourceLength, threshold,
+    /**
+     * Compares source values with the partitions of the target values. The
+     * characters of a pair which are matched in the other value are marked in
+     * bitmaps of longs that are cleared after the pair, hence a matcher does
+     * not allocate and must not be shared by several threads.
+     */
+    private static class Matcher {
+        private final long[] sourcePositions;
+        private final long[] targetPositions;
+        private final char[][] target;
+        private final String[] targetValues;
+        private final int[] partitionStart;
+        private final boolean prefixFilter;
+        private final long[] usedSource;
+        private final long[] usedTarget;
+        private final long[] matchedSource;
+        private final long[] matchedTarget;
+        /**
+         * stamps[c] equals stamp iff c is in the prefix of the current source
+         * value
+         */
+        private final int[] stamps;
+        private int stamp = 0;
+
+        Matcher(char[][] target, String[] targetValues, int[] partitionStart, int maxLength, boolean prefixFilter) {
+            this.target = target;
+            this.targetValues = targetValues;
+            this.partitionStart = partitionStart;
+            this.prefixFilter = prefixFilter;
+            int words = (maxLength + 63) >>> 6;
+            usedSource = new long[words];
+            usedTarget = new long[words];
+            matchedSource = new long[words];
+            matchedTarget = new long[words];
+            stamps = prefixFilter ? new int[Character.MAX_VALUE + 1] : null;
+            long[][] p = positions.get();
+            sourcePositions = p[0];
+            targetPositions = p[1];
+        }
+
+        void match(char[] s, Set<String> sourceUris, Map<String, Set<String>> targetMap, double threshold,
+                AMapping mapping) {
+            int sourceLength = s.length;
+            boolean packed = sourceLength <= Long.SIZE;
+            if (packed) {
+                setPositions(s, sourcePositions);
+            }
+            for (int targetLength = 1; targetLength < partitionStart.length - 1; targetLength++) {
+                int begin = partitionStart[targetLength];
+                int end = partitionStart[targetLength + 1];
+                if (begin == end) {
+                    continue;
+                }
+                // length-aware filter
+                double maxTargetLength = getMaxComparisonLength((double) sourceLength, threshold,
                         Math.min(sourceLength, targetLength));
-                maxSourceLength = getMaxComparisonLength((double) targetLength, threshold,
+                double maxSourceLength = getMaxComparisonLength((double) targetLength, threshold,
                         Math.min(sourceLength, targetLength));
-                if (sourceLength <= maxSourceLength && targetLength <= maxTargetLength) {
-                    for (String s : sourceLengthIndex.get(sourceLength)) {
-                        for (String t : targetLengthIndex.get(targetLength)) {
-                            sourceMappingCharacters = JaroMeasure.getCommonCharacters(s, t, halfLength);
-                            if (sourceMappingCharacters.size() >= theta) {
-                                targetMappingCharacters = JaroMeasure.getCommonCharacters(t, s, halfLength);
-                                transpositions = JaroMeasure.getTranspositions(sourceMappingCharacters,
-                                        targetMappingCharacters);
-                                if (transpositions != -1) {
-                                    similarity = ((sourceMappingCharacters.size() / (float) sourceLength)
-                                            + (targetMappingCharacters.size() / (float) targetLength)
-                                            + (sourceMappingCharacters.size() - transpositions)
-                                                    / (float) sourceMappingCharacters.size())
-                                            / 3.0;
-                                    if (similarity >= threshold) {
-                                        for (String sourceUri : sourceMap.get(s)) {
-                                            for (String targetUri : targetMap.get(t)) {
-                                                result.add(sourceUri, targetUri, similarity);
-                                            }
-                                        }
-                                    }
-                                }
+                if (!(sourceLength <= maxSourceLength && targetLength <= maxTargetLength)) {
+                    continue;
+                }
+                double theta = (3 * threshold - 1) * sourceLength * targetLength / (2 * (sourceLength + targetLength));
+                int halfLength = Math.min(sourceLength, targetLength) / 2;
+                int targetPrefixLength = targetLength - (int) theta;
+                boolean sourcePrefixEmpty = prefixFilter && markPrefix(s, sourceLength - (int) theta);
+                for (int j = begin; j < end; j++) {
+                    char[] t = target[j];
+                    // prefix filtering
+                    if (prefixFilter && !sourcePrefixEmpty && !sharesPrefix(t, targetPrefixLength)) {
+                        continue;
+                    }
+                    double similarity;
+                    if (packed && targetLength <= Long.SIZE) {
+                        similarity = getPackedSimilarity(s, t, halfLength, theta);
+                    } else {
+                        similarity = getSimilarity(s, t, halfLength, theta);
+                    }
+                    if (similarity >= threshold) {
+                        for (String sourceUri : sourceUris) {
+                            for (String targetUri : targetMap.get(targetValues[j])) {
+                                mapping.add(sourceUri, targetUri, similarity);
                             }
                         }
                     }
                 }
             }
+            if (packed) {
+                clearPositions(s, sourcePositions);
+            }
         }
-        /*
-         * System.out.println(lengthFilterCount + " = " + ((double)
-         * lengthFilterCount) / (source.size() * target.size()));
-         * 
-         * System.out.println( characterFilterCount + " = " + ((double)
-         * characterFilterCount) / (source.size() * target.size()));
+
+        private static void setPositions(char[] s, long[] positions) {
+            for (int i = 0; i < s.length; i++) {
+                positions[s[i]] |= 1L << i;
+            }
+        }
+
+        private static void clearPositions(char[] s, long[] positions) {
+            for (int i = 0; i < s.length; i++) {
+                positions[s[i]] = 0L;
+            }
+        }
+
+        /**
+         * Computes the Jaro similarity of values of up to 64 characters. The
+         * common characters of x are the characters whose position bitmap in
+         * y has an unused bit within the window of the character, of which
+         * the lowest is used.
+         *
+         * @return the similarity or -1 if less than theta characters of the
+         *         source value are common to both values
+         */
+        private double getPackedSimilarity(char[] s, char[] t, int halfLength, double theta) {
+            setPositions(t, targetPositions);
+            long matchedS = 0L, usedT = 0L;
+            int common = 0;
+            for (int i = 0; i < s.length; i++) {
+                long candidates = targetPositions[s[i]] & ~usedT & window(i, halfLength, t.length);
+                if (candidates != 0) {
+                    usedT |= candidates & -candidates;
+                    matchedS |= 1L << i;
+                    common++;
+                } else if (common + s.length - i - 1 < theta) {
+                    // the remaining characters cannot pass the filter
+                    break;
+                }
+            }
+            clearPositions(t, targetPositions);
+            if (common < theta || common == 0) {
+                return -1;
+            }
+            long matchedT = 0L, usedS = 0L;
+            int targetCommon = 0;
+            for (int j = 0; j < t.length; j++) {
+                long candidates = sourcePositions[t[j]] & ~usedS & window(j, halfLength, s.length);
+                if (candidates != 0) {
+                    usedS |= candidates & -candidates;
+                    matchedT |= 1L << j;
+                    targetCommon++;
+                }
+            }
+            if (common != targetCommon) {
+                return -1;
+            }
+            int transpositions = 0;
+            while (matchedS != 0) {
+                if (s[Long.numberOfTrailingZeros(matchedS)] != t[Long.numberOfTrailingZeros(matchedT)]) {
+                    transpositions++;
+                }
+                matchedS &= matchedS - 1;
+                matchedT &= matchedT - 1;
+            }
+            transpositions /= 2;
+            return ((common / (float) s.length) + (targetCommon / (float) t.length)
+                    + ((common - transpositions) / (float) common)) / 3.0;
+        }
+
+        /**
+         * @return the bitmap of the positions from i - distance inclusive to
+         *         i + distance exclusive within a value of the given length
          */
+        private static long window(int i, int distance, int length) {
+            int from = Math.max(0, i - distance);
+            int to = Math.min(i + distance, length);
+            if (from >= to) {
+                return 0L;
+            }
+            long upper = to == Long.SIZE ? -1L : (1L << to) - 1;
+            return upper & (-1L << from);
+        }
 
-        return result;
-    }
+        /**
+         * Marks the characters of a prefix of the source value.
+         *
+         * @return true iff the prefix is empty
+         */
+        private boolean markPrefix(char[] s, int length) {
+            stamp++;
+            int n = Math.min(s.length, length);
+            for (int i = 0; i < n; i++) {
+                stamps[s[i]] = stamp;
+            }
+            return n <= 0;
+        }
 
-    private boolean contains(Set<Character> source, Set<Character> target) {
-        for (Character s : source) {
-            if (target.contains(s)) {
+        /**
+         * @return true iff the prefix of the target value is empty or shares a
+         *         character with the marked prefix of the source value
+         */
+        private boolean sharesPrefix(char[] t, int length) {
+            int n = Math.min(t.length, length);
+            if (n <= 0) {
                 return true;
             }
+            for (int i = 0; i < n; i++) {
+                if (stamps[t[i]] == stamp) {
+                    return true;
+                }
+            }
+            return false;
         }
-        return false;
+
+        /**
+         * Computes the Jaro similarity as {@link JaroMeasure} does.
+         *
+         * @return the similarity or -1 if less than theta characters of the
+         *         source value are common to both values
+         */
+        private double getSimilarity(char[] s, char[] t, int halfLength, double theta) {
+            int sourceWords = (s.length + 63) >>> 6;
+            int targetWords = (t.length + 63) >>> 6;
+            int common = commonCharacters(s, t, halfLength, usedTarget, matchedSource);
+            int targetCommon = -1;
+            if (common >= theta && common > 0) {
+                targetCommon = commonCharacters(t, s, halfLength, usedSource, matchedTarget);
+            }
+            int transpositions = -1;
+            if (common == targetCommon) {
+                // compare the common characters in the order of their
+                // positions
+                transpositions = 0;
+                int w1 = 0, w2 = 0;
+                long b1 = matchedSource[0], b2 = matchedTarget[0];
+                for (int k = 0; k < common; k++) {
+                    while (b1 == 0) {
+                        b1 = matchedSource[++w1];
+                    }
+                    while (b2 == 0) {
+                        b2 = matchedTarget[++w2];
+                    }
+                    if (s[(w1 << 6) + Long.numberOfTrailingZeros(b1)] != t[(w2 << 6)
+                            + Long.numberOfTrailingZeros(b2)]) {
+                        transpositions++;
+                    }
+                    b1 &= b1 - 1;
+                    b2 &= b2 - 1;
+                }
+                transpositions /= 2;
+            }
+            Arrays.fill(usedTarget, 0, targetWords, 0L);
+            Arrays.fill(matchedSource, 0, sourceWords, 0L);
+            if (targetCommon >= 0) {
+                Arrays.fill(usedSource, 0, sourceWords, 0L);
+                Arrays.fill(matchedTarget, 0, targetWords, 0L);
+            }
+            if (transpositions < 0) {
+                return -1;
+            }
+            return ((common / (float) s.length) + (targetCommon / (float) t.length)
+                    + ((common - transpositions) / (float) common)) / 3.0;
+        }
+
+        /**
+         * Matches each character of x with the first unused equal character
+         * of y within the given distance, as
+         * {@link JaroMeasure#getCommonCharacters(String, String, int)} does.
+         *
+         * @return the number of matched characters
+         */
+        private static int commonCharacters(char[] x, char[] y, int distance, long[] usedY, long[] matchedX) {
+            int count = 0;
+            for (int i = 0; i < x.length; i++) {
+                char c = x[i];
+                int end = Math.min(i + distance, y.length);
+                for (int j = Math.max(0, i - distance); j < end; j++) {
+                    if (y[j] == c && (usedY[j >>> 6] & (1L << j)) == 0) {
+                        usedY[j >>> 6] |= 1L << j;
+                        matchedX[i >>> 6] |= 1L << i;
+                        count++;
+                        break;
+                    }
+                }
+            }
+            return count;
+        }
+    }
+
+    private static String[] sortByLength(Set<String> values) {
+        String[] result = values.toArray(new String[values.size()]);
+        Arrays.sort(result, (a, b) -> Integer.compare(a.length(), b.length()));
+        return result;
+    }
+
+    private static char[][] toCharArrays(String[] values) {
+        char[][] result = new char[values.length][];
+        for (int i = 0; i < values.length; i++) {
+            result[i] = values[i].toCharArray();
+        }
+        return result;
     }
 
     private Map<Integer, Set<String>> getLengthIndex(Set<String> strings) {
@@ -264,20 +590,4 @@ public class JaroMapper extends AMapper {
         return result;
     }
 
-    /**
-     * Returns the set of characters contained in a string
-     *
-     * @param s
-     *            Input String
-     * @return Set of characters contained in it
-     */
-    private Set<Character> getCharSet(String s, int length) {
-        Set<Character> result = new HashSet<Character>();
-        char[] characters = s.toCharArray();
-        for (int i = 0; (i < characters.length) && (i < length); i++) {
-            result.add(characters[i]);
-        }
-        return result;
-    }
-
 }
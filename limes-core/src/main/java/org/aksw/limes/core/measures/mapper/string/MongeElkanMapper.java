@@ -9,7 +9,6 @@ import java.util.Set;
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.aksw.limes.core.measures.measure.string.TrigramMeasure;
@@ -61,7 +60,7 @@ public class MongeElkanMapper extends AMapper {
             similarityBook.put(sourceString, resultB);
         }
 
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = createMapping();
         for (String s : similarityBook.keySet()) {
             for (String t : similarityBook.get(s).keySet()) {
                 for (String sourceUri : sourceMap.get(s)) {
@@ -9,16 +9,22 @@ import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
 import java.util.StringTokenizer;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
-import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.MapperArtifacts;
 import org.aksw.limes.core.measures.measure.MeasureFactory;
 import org.aksw.limes.core.measures.measure.MeasureType;
 import org.aksw.limes.core.measures.measure.string.IStringMeasure;
@@ -38,11 +44,25 @@ class Position {
 
     Record record = null;
     int position = -1;
+    int rank = -1;
 
     public Position(Record record, int position) {
         this.record = record;
         this.position = position;
     }
+
+    /**
+     * @param record
+     *            indexed record
+     * @param position
+     *            position of the token in the record
+     * @param rank
+     *            position of the record in the size-ordered record array
+     */
+    public Position(Record record, int position, int rank) {
+        this(record, position);
+        this.rank = rank;
+    }
 }
 
 class CandidateInfo {
@@ -107,6 +127,48 @@ public class PPJoinPlusPlus extends AMapper {
 
     static Logger logger = LoggerFactory.getLogger(PPJoinPlusPlus.class);
     private static final int MAX_DEPTH = 2;
+    /**
+     * Number of records probed by one task in the parallel mode. Records are
+     * sorted by size, hence the chunks are kept small for load balancing.
+     */
+    private static final int CHUNK_SIZE = 512;
+    private static final String DELIMITERS = " .,?!\t";
+
+    private int parallelism = 1;
+
+    /**
+     * Creates a mapper that probes the records on the calling thread.
+     */
+    public PPJoinPlusPlus() {
+    }
+
+    /**
+     * Creates a mapper that probes the records with the given number of
+     * threads.
+     *
+     * @param parallelism
+     *            number of threads used for the probe and verification phase
+     */
+    public PPJoinPlusPlus(int parallelism) {
+        setParallelism(parallelism);
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    /**
+     * Sets the number of threads used for the probe and verification phase.
+     * Values below 2 select the serial algorithm. The parallel mode returns
+     * the same mapping as the serial one.
+     *
+     * @param parallelism
+     *            number of threads
+     */
+    @Override
+    public void setParallelism(int parallelism) {
+        this.parallelism = Math.max(1, parallelism);
+    }
 
     /**
      * Berechnet die Überlappung zwischen zwei Datensätzen mithilfe ihrer Tokens
@@ -254,7 +316,43 @@ public class PPJoinPlusPlus extends AMapper {
         }
     }
 
-    private static Record[] tokenizer(String[] objects) {
+    /**
+     * Words of the values of a property and the URIs of the instances which
+     * have the values. The words are shared by the mappers of a plan.
+     */
+    private static final class Words {
+        private final String[] uris;
+        private final String[][] words;
+
+        private Words(ACache cache, String property) {
+            ArrayList<String> u = new ArrayList<>();
+            ArrayList<String[]> w = new ArrayList<>();
+            cache.forEachValue(property, (uri, s) -> {
+                StringTokenizer st = new StringTokenizer(s, DELIMITERS);
+                String[] tokens = new String[st.countTokens()];
+                for (int j = 0; j < tokens.length; j++) {
+                    tokens[j] = st.nextToken();
+                }
+                u.add(uri);
+                w.add(tokens);
+            });
+            uris = u.toArray(new String[u.size()]);
+            words = w.toArray(new String[w.size()][]);
+        }
+
+        private long getWeight() {
+            long weight = 0;
+            for (String[] tokens : words) {
+                weight += 24 + 8L * tokens.length;
+                for (String token : tokens) {
+                    weight += MapperArtifacts.weigh(token);
+                }
+            }
+            return weight + 8L * uris.length;
+        }
+    }
+
+    private static Record[] tokenizer(String[][] objects) {
         StoppUhr s = new StoppUhr();
         s.Starten();
         HashMap<String, Token> allTokens = new HashMap<String, Token>();
@@ -262,15 +360,14 @@ public class PPJoinPlusPlus extends AMapper {
 
         for (int i = 0; i < objects.length; i++) {
 
-            StringTokenizer st = new StringTokenizer(objects[i], " .,?!\t");
-            int tokensNumber = st.countTokens();
+            int tokensNumber = objects[i].length;
             Record record = new Record(i, tokensNumber);
             // HasTable of tokens in the record <Sting> and their record
             // frequency <Integer>
             HashMap<String, Integer> recordTokens = new HashMap<String, Integer>();
 
             for (int j = 0; j < tokensNumber; j++) {
-                String token = st.nextToken();
+                String token = objects[i][j];
                 if (recordTokens.containsKey(token)) {
                     Integer token_freq = recordTokens.get(token).intValue() + 1;
                     recordTokens.put(token, token_freq);
@@ -340,13 +437,11 @@ public class PPJoinPlusPlus extends AMapper {
             double threshold) {
 
         AMapping mapping;
-        HashMap<Integer, String> sourceMap;
-        HashMap<Integer, String> targetMap;
         IStringMeasure measure = null;
         if (threshold <= 0) {
             throw new InvalidThresholdException(threshold);
         }
-        mapping = MappingFactory.createDefaultMapping();
+        mapping = createMapping();
         // logger.info("Starting PPJoinPlus");
 
         String property1 = null, property2 = null;
@@ -412,46 +507,27 @@ public class PPJoinPlusPlus extends AMapper {
                     "Expression " + expression + " was given to a mapper to process");
         }
 
-        // 3.1 fill objects from source in entry
-        // logger.info("Filling objects from source knowledge base.");
-        sourceMap = new HashMap<>();
-        ArrayList<String> uris = source.getAllUris();
-        ArrayList<String> entries = new ArrayList<>();
-        Instance instance;
-        int counter = 0;
-        for (int i = 0; i < uris.size(); i++) {
-            instance = source.getInstance(uris.get(i));
-            for (String s : instance.getProperty(property1)) {
-                sourceMap.put(counter, uris.get(i));
-                entries.add(s);
-                counter++;
-            }
+        // 3.1 fill objects from source and target in entries, the words of
+        // the values are shared by the mappers of a plan
+        final String sourceProperty = property1, targetProperty = property2;
+        Words sourceWords = getArtifact(source, property1, "", "words:" + DELIMITERS,
+                () -> new Words(source, sourceProperty), Words::getWeight);
+        Words targetWords = getArtifact(target, property2, "", "words:" + DELIMITERS,
+                () -> new Words(target, targetProperty), Words::getWeight);
+        HashMap<Integer, String> sourceMap = new HashMap<>();
+        HashMap<Integer, String> targetMap = new HashMap<Integer, String>();
+        String[][] entryArray = new String[sourceWords.uris.length + targetWords.uris.length][];
+        for (int i = 0; i < sourceWords.uris.length; i++) {
+            sourceMap.put(i, sourceWords.uris[i]);
+            entryArray[i] = sourceWords.words[i];
         }
-
-        // 3.2 fill objects from target in entries
-        // logger.info("Filling objects from target knowledge base.");
-        targetMap = new HashMap<Integer, String>();
-        uris = target.getAllUris();
-        for (int i = 0; i < uris.size(); i++) {
-            instance = target.getInstance(uris.get(i));
-            for (String s : instance.getProperty(property2)) {
-                targetMap.put(counter, uris.get(i));
-                entries.add(s);
-                counter++;
-            }
-        }
-
-        String[] entryArray = new String[entries.size()];
-        for (int i = 0; i < entries.size(); i++) {
-            entryArray[i] = entries.get(i);
+        for (int i = 0, offset = sourceWords.uris.length; i < targetWords.uris.length; i++) {
+            targetMap.put(offset + i, targetWords.uris[i]);
+            entryArray[offset + i] = targetWords.words[i];
         }
 
+        // records are modified while probing, hence they are not shared
         Record[] records = tokenizer(entryArray);
-        HashMap<Integer, LinkedList<Position>> index = new HashMap<Integer, LinkedList<Position>>(); // I
-
-        if (threshold == 0) {
-        } else {
-        }
 
         MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
         measure = (IStringMeasure) MeasureFactory.createMeasure(type);
@@ -462,6 +538,34 @@ public class PPJoinPlusPlus extends AMapper {
             logger.error(MarkerFactory.getMarker("FATAL"), "Metric is null. Exiting.");
             throw new RuntimeException();
         }
+        if (parallelism > 1 && records.length > CHUNK_SIZE) {
+            mapping = getMappingParallel(records, sourceMap, targetMap, measure, threshold);
+        } else {
+            probe(records, mapping, sourceMap, targetMap, measure, threshold);
+        }
+        // logger.info("Mapping carried out using " + comparisons + "
+        // comparisons.");
+        AMapping tempMapping = MappingFactory.createDefaultMapping();
+        for (String key : mapping.getMap().keySet()) {
+            for (String value : mapping.getMap().get(key).keySet()) {
+                double confidence = mapping.getConfidence(key, value);
+                if (confidence >= threshold) {
+                    tempMapping.add(key, value, confidence);
+                }
+            }
+        }
+        mapping = tempMapping;
+        return mapping;
+    }
+
+    /**
+     * Probe and verification phase of PPJoin+. The records are processed in
+     * the order of their size and are indexed while probing, hence every pair
+     * is verified once.
+     */
+    private void probe(Record[] records, AMapping mapping, HashMap<Integer, String> sourceMap,
+            HashMap<Integer, String> targetMap, IStringMeasure measure, double threshold) {
+        HashMap<Integer, LinkedList<Position>> index = new HashMap<Integer, LinkedList<Position>>(); // I
         for (int i = 0; i < records.length; i++) {
             HashMap<Record, CandidateInfo> candidates = new HashMap<Record, CandidateInfo>(); // A
             Record currentRec = records[i]; // record x
@@ -537,21 +641,143 @@ public class PPJoinPlusPlus extends AMapper {
             }
             verification(currentRec, candidates, mapping, sourceMap, targetMap, measure);
         }
-        // logger.info("Mapping carried out using " + comparisons + "
-        // comparisons.");
-        AMapping tempMapping = MappingFactory.createDefaultMapping();
-        for (String key : mapping.getMap().keySet()) {
-            for (String value : mapping.getMap().get(key).keySet()) {
-                double confidence = mapping.getConfidence(key, value);
-                if (confidence >= threshold) {
-                    tempMapping.add(key, value, confidence);
+    }
+
+    /**
+     * Parallel probe and verification phase. The prefix index of all records
+     * is built once and only read afterwards. Each task probes a chunk of the
+     * size-ordered records against the postings of the records ranked before
+     * them, which are exactly the postings the serial algorithm would find in
+     * its incrementally built index. Since the size filtering threshold grows
+     * with the size of the probing record, the postings removed by the serial
+     * algorithm are skipped by a binary search instead. The tasks collect
+     * their links in local mappings which are merged by the calling thread.
+     */
+    private AMapping getMappingParallel(Record[] records, HashMap<Integer, String> sourceMap,
+            HashMap<Integer, String> targetMap, IStringMeasure measure, double threshold) {
+        HashMap<Integer, ArrayList<Position>> postings = new HashMap<Integer, ArrayList<Position>>();
+        for (int i = 0; i < records.length; i++) {
+            Record record = records[i];
+            int tokensNumber = record.tokens.length;
+            record.prefixLength = measure.getPrefixLength(tokensNumber, threshold);
+            record.midPrefix = measure.getMidLength(tokensNumber, threshold);
+            for (int j = 0; j < tokensNumber && j < record.prefixLength && j < record.midPrefix; j++) {
+                ArrayList<Position> l = postings.get(record.tokens[j].id);
+                if (l == null) {
+                    l = new ArrayList<Position>();
+                    postings.put(record.tokens[j].id, l);
                 }
+                l.add(new Position(record, j, i));
             }
         }
-        mapping = tempMapping;
+        HashMap<Integer, Position[]> index = new HashMap<Integer, Position[]>(postings.size() * 2);
+        for (Map.Entry<Integer, ArrayList<Position>> e : postings.entrySet()) {
+            index.put(e.getKey(), e.getValue().toArray(new Position[e.getValue().size()]));
+        }
+        postings = null;
+
+        List<Callable<AMapping>> tasks = new ArrayList<Callable<AMapping>>();
+        for (int from = 0; from < records.length; from += CHUNK_SIZE) {
+            final int start = from;
+            final int end = Math.min(records.length, from + CHUNK_SIZE);
+            tasks.add(() -> {
+                AMapping local = createMapping();
+                for (int i = start; i < end; i++) {
+                    probe(records, i, index, local, sourceMap, targetMap, measure, threshold);
+                }
+                return local;
+            });
+        }
+        AMapping mapping = createMapping();
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            for (Future<AMapping> future : executor.invokeAll(tasks)) {
+                AMapping local = future.get();
+                for (String key : local.getMap().keySet()) {
+                    for (Map.Entry<String, Double> e : local.getMap().get(key).entrySet()) {
+                        mapping.add(key, e.getKey(), e.getValue());
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while running PPJoinPlusPlus", e);
+        } catch (ExecutionException e) {
+            throw failure("PPJoinPlusPlus failed", e);
+        } finally {
+            executor.shutdownNow();
+        }
         return mapping;
     }
 
+    /**
+     * Probes the read-only index with the record of the given rank.
+     */
+    private void probe(Record[] records, int rank, HashMap<Integer, Position[]> index, AMapping mapping,
+            HashMap<Integer, String> sourceMap, HashMap<Integer, String> targetMap, IStringMeasure measure,
+            double threshold) {
+        HashMap<Record, CandidateInfo> candidates = new HashMap<Record, CandidateInfo>(); // A
+        Record currentRec = records[rank]; // record x
+        int tokensNumber = currentRec.tokens.length; // |x|
+        double sizeFilteringThreshold = measure.getSizeFilteringThreshold(tokensNumber, threshold);
+
+        for (int j = 0; j < tokensNumber && j < currentRec.prefixLength; j++) {
+            Position[] l = index.get(currentRec.tokens[j].id);
+            if (l == null) {
+                continue;
+            }
+            // postings are ordered by size, skip the ones failing the size
+            // filter
+            int lo = 0, hi = l.length;
+            while (lo < hi) {
+                int mid = (lo + hi) >>> 1;
+                if (l[mid].record.tokens.length < sizeFilteringThreshold) {
+                    lo = mid + 1;
+                } else {
+                    hi = mid;
+                }
+            }
+            for (int k = lo; k < l.length && l[k].rank < rank; k++) {
+                Position pos = l[k];
+                int tokensNumber2 = pos.record.tokens.length; // |y|
+                int alpha = measure.getAlpha(tokensNumber, tokensNumber2, threshold);
+                int ubound = 1 + Math.min(tokensNumber - j - 1, tokensNumber2 - pos.position - 1);
+
+                CandidateInfo cf = candidates.get(pos.record);
+                if (cf == null) {
+                    if (ubound >= alpha) {
+                        int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - pos.position;
+                        int H = suffixFilter(currentRec, j + 1, tokensNumber - 1, pos.record, pos.position + 1,
+                                tokensNumber2 - 1, H_max, 1);
+                        if (H <= H_max) {
+                            candidates.put(pos.record, new CandidateInfo(1, alpha));
+                        } else {
+                            candidates.put(pos.record, new CandidateInfo(Integer.MIN_VALUE, alpha));
+                        }
+                    }
+                } else {
+                    if (cf.currentOverlap + ubound >= alpha) {
+                        if (cf.currentOverlap == 0) {
+                            int H_max = tokensNumber + tokensNumber2 - 2 * alpha - j - pos.position;
+                            int H = suffixFilter(currentRec, j + 1, tokensNumber - 1, pos.record, pos.position + 1,
+                                    tokensNumber2 - 1, H_max, 1);
+                            if (H <= H_max) {
+                                cf.currentOverlap++;
+                            } else {
+                                cf.currentOverlap = Integer.MIN_VALUE;
+                            }
+                        } else {
+                            cf.currentOverlap++;
+                        }
+                    } else {
+                        cf.currentOverlap = 0; // prune candidate
+                    }
+                }
+            }
+        }
+        verification(currentRec, candidates, mapping, sourceMap, targetMap, measure);
+    }
+
     private int verification(Record currentRec, HashMap<Record, CandidateInfo> candidates, AMapping mapping,
             HashMap<Integer, String> sourceMap, HashMap<Integer, String> targetMap, IStringMeasure measure) {
         int count = 0;
@@ -12,7 +12,6 @@ import java.util.Set;
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.AMapper;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.aksw.limes.core.measures.measure.string.SoundexMeasure;
@@ -85,7 +84,7 @@ public class SoundexMapper extends AMapper {
                 }
             }
         }
-        AMapping result = MappingFactory.createDefaultMapping();
+        AMapping result = createMapping();
         while (!similarityBook.isEmpty()) {
             Triple<Integer, List<Integer>, List<Integer>> t = similarityBook.pop();
             for (Integer i : t.getMiddle()) {
@@ -5,12 +5,8 @@
 
 package org.aksw.limes.core.measures.mapper.string.fastngram;
 
-import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
-import java.util.TreeSet;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
@@ -18,7 +14,6 @@ import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.AMapper;
-import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.slf4j.MarkerFactory;
@@ -31,68 +26,99 @@ public class FastNGramMapper extends AMapper {
     static Logger logger = LoggerFactory.getLogger(FastNGramMapper.class);
     static int q = 3;
 
+    /**
+     * Computes the q-gram similarity of the source and target strings that
+     * are at least as similar as the threshold. The target strings are
+     * indexed by size, every source string increments primitive counters of
+     * the targets in the admissible size range that share a q-gram with it.
+     * As q-grams are sets, the counters hold the exact overlap of the
+     * strings, from which the similarity follows.
+     *
+     * @param source
+     *            Source strings
+     * @param target
+     *            Target strings
+     * @param q
+     *            value of n for n-grams
+     * @param threshold
+     *            Similarity threshold
+     * @return A mapping between source and target strings
+     */
     public static AMapping compute(Set<String> source, Set<String> target, int q, double threshold) {
-        Index index = new Index(q);
+        return compute(source, new Index(q, target), threshold);
+    }
+
+    /**
+     * Computes the q-gram similarity of the source strings and the strings of
+     * an index that are at least as similar as the threshold.
+     *
+     * @param source
+     *            Source strings
+     * @param index
+     *            Index of the target strings, which must not be probed by
+     *            another thread
+     * @param threshold
+     *            Similarity threshold
+     * @return A mapping between source and target strings
+     */
+    public static AMapping compute(Set<String> source, Index index, double threshold) {
         double kappa = (1 + threshold) / threshold;
-        QGramSimilarityMeasure sim = new QGramSimilarityMeasure(q);
-        ITokenizer tokenizer = new NGramTokenizer();
-        Map<String, Set<String>> targetTokens = new HashMap<String, Set<String>>();
         AMapping result = MappingFactory.createDefaultMapping();
-        // index target
-        for (String t : target) {
-            targetTokens.put(t, index.addString(t));
-        }
-        // run similarity computation
-
+        int[] counts = new int[index.size()];
+        int[] candidates = new int[index.size()];
         for (String s : source) {
-            Set<Integer> allSizes = index.getAllSizes();
-            Set<String> sourceTokens = tokenizer.tokenize(s, q);
-            double sourceSize = (double) sourceTokens.size();
-            for (int size = (int) Math.ceil(sourceSize * threshold); size <= (int) Math
-                    .floor(sourceSize / threshold); size++) {
-                if (allSizes.contains(size)) {
-                    // maps tokens to strings
-                    Map<String, Set<String>> stringsOfSize = index.getStrings(size);
-                    Map<String, Integer> countMap = new HashMap<String, Integer>();
-                    for (String token : sourceTokens) {
-                        if (stringsOfSize.containsKey(token)) {
-                            // take each string and add it to the count map
-                            Set<String> candidates = stringsOfSize.get(token);
-                            for (String candidate : candidates) {
-                                if (!countMap.containsKey(candidate)) {
-                                    countMap.put(candidate, 0);
-                                }
-                                countMap.put(candidate, countMap.get(candidate) + 1);
-                            }
-                        }
-                    }
-                    // now apply filtering |X \cap Y| \geq \kappa(|X| + |Y|)
-                    for (String candidate : countMap.keySet()) {
-                        double count = (double) countMap.get(candidate);
-                        if (kappa * count >= (sourceSize + size)) {
-                            double similarity = sim.getSimilarity(targetTokens.get(candidate), sourceTokens);
-                            if (similarity >= threshold) {
-                                result.add(s, candidate, similarity);
-                            }
-                        }
+            int tokens = index.tokenize(s);
+            double sourceSize = (double) tokens;
+            int from = index.getFirstId((int) Math.ceil(sourceSize * threshold));
+            int to = index.getFirstId((int) Math.min(Math.floor(sourceSize / threshold) + 1, Integer.MAX_VALUE));
+            if (from >= to) {
+                continue;
+            }
+            int candidateCount = 0;
+            for (int i = 0; i < tokens; i++) {
+                int[] posting = index.getPostings(index.getGramId(i));
+                int k = lowerBound(posting, from);
+                for (; k < posting.length && posting[k] < to; k++) {
+                    int id = posting[k];
+                    if (counts[id]++ == 0) {
+                        candidates[candidateCount++] = id;
                     }
                 }
             }
-
-        }
-        AMapping tempMapping = MappingFactory.createDefaultMapping();
-        for (String key : result.getMap().keySet()) {
-            for (String value : result.getMap().get(key).keySet()) {
-                double confidence = result.getConfidence(key, value);
-                if (confidence >= threshold) {
-                    tempMapping.add(key, value, confidence);
+            // now apply filtering |X \cap Y| \geq \kappa(|X| + |Y|)
+            for (int i = 0; i < candidateCount; i++) {
+                int id = candidates[i];
+                double count = (double) counts[id];
+                counts[id] = 0;
+                double size = (double) index.getSize(id);
+                if (kappa * count >= (sourceSize + size)) {
+                    double similarity = count / (sourceSize + size - count);
+                    if (similarity >= threshold) {
+                        result.add(s, index.getString(id), similarity);
+                    }
                 }
             }
         }
-        result = tempMapping;
         return result;
     }
 
+    /**
+     * @return the position of the first element of the sorted array which is
+     *         not smaller than the key
+     */
+    private static int lowerBound(int[] sorted, int key) {
+        int low = 0, high = sorted.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (sorted[mid] < key) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
     public String getName() {
         return "FastNGram";
     }
@@ -187,38 +213,16 @@ public class FastNGramMapper extends AMapper {
         }
 
         /////////////////// This actually runs the algorithm
-        Map<String, Set<String>> sourceMap = new HashMap<String, Set<String>>();
-        ArrayList<String> sourceUris = source.getAllUris();
-        Map<String, Set<String>> targetMap = new HashMap<String, Set<String>>();
-        ArrayList<String> targetUris = target.getAllUris();
-
-        // index source values
-        for (String s : sourceUris) {
-            TreeSet<String> values = source.getInstance(s).getProperty(property1);
-            for (String v : values) {
-                if (!sourceMap.containsKey(v)) {
-                    sourceMap.put(v, new HashSet<String>());
-                }
-                sourceMap.get(v).add(s);
-            }
-        }
-
-        // index target values
-        // logger.info("Indexing target values");
-        for (String t : targetUris) {
-            TreeSet<String> values = target.getInstance(t).getProperty(property2);
-            for (String v : values) {
-                if (!targetMap.containsKey(v)) {
-                    targetMap.put(v, new HashSet<String>());
-                }
-                targetMap.get(v).add(t);
-            }
-        }
+        Map<String, Set<String>> sourceMap = getValueToUriMap(source, property1);
+        Map<String, Set<String>> targetMap = getValueToUriMap(target, property2);
 
         // run the algorithm
         // logger.info("Computing mappings");
-        AMapping m = FastNGramMapper.compute(sourceMap.keySet(), targetMap.keySet(), q, threshold);
-        AMapping result = MappingFactory.createDefaultMapping();
+        // the index of the target values is shared by the mappers of a plan
+        Index index = getArtifact(target, property2, "trim", "qgrams:" + q,
+                () -> new Index(q, targetMap.keySet()), Index::getWeight).copy();
+        AMapping m = FastNGramMapper.compute(sourceMap.keySet(), index, threshold);
+        AMapping result = createMapping();
         for (String s : m.getMap().keySet()) {
             for (String t : m.getMap().get(s).keySet()) {
                 for (String sourceUri : sourceMap.get(s)) {
@@ -4,23 +4,53 @@
  */
 package org.aksw.limes.core.measures.mapper.string.fastngram;
 
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
+import java.util.Arrays;
+import java.util.Collection;
+
+import org.aksw.limes.core.datastrutures.LongIntHashMap;
+import org.aksw.limes.core.datastrutures.StringDictionary;
 
 /**
+ * Inverted index of the q-grams of a set of strings, partitioned by the
+ * number of distinct q-grams of the strings. The q-grams are tokenized as by
+ * {@link NGramTokenizer}, encoded as longs and mapped to dense int ids. The
+ * indexed strings get ids in the order of their size, hence the strings of
+ * one size occupy a contiguous id range and each posting list, which is
+ * sorted by string id, is partitioned by size as well. Tokenizing strings
+ * reuses internal buffers, so an index must not be probed by several threads.
+ * Threads probing the same index use copies created by {@link #copy()}, which
+ * share the postings.
+ *
  * @author Axel-C. Ngonga Ngomo (ngonga@informatik.uni-leipzig.de)
  */
 public class Index {
 
-    private Map<Integer, Map<String, Set<String>>> sizeTokenIndex;
-    private ITokenizer tokenizer;
+    /**
+     * Largest q for which a q-gram is packed into a long. Longer q-grams are
+     * encoded by their id in a dictionary.
+     */
+    private static final int MAX_PACKED_Q = 3;
+    private static final int[] EMPTY = new int[0];
+
     private int q = 3;
+    private LongIntHashMap gramIds = new LongIntHashMap();
+    private StringDictionary grams;
+    private String[] strings;
+    private int[] sizes;
+    private int[] sizeStart;
+    private int[][] postings;
+    /**
+     * Ids of the q-grams of probed strings which are not in the dictionary of
+     * the indexed q-grams, their codes are negative.
+     */
+    private StringDictionary unseen;
+    private boolean built = false;
+
+    private char[] chars = new char[64];
+    private long[] codes = new long[64];
 
-    public Index() {
-        sizeTokenIndex = new HashMap<Integer, Map<String, Set<String>>>();
-        tokenizer = new NGramTokenizer();
+    public Index(Collection<String> strings) {
+        this(3, strings);
     }
 
     /**
@@ -28,74 +58,237 @@ public class Index {
      *
      * @param _q
      *            value of n for n-grams
+     * @param input
+     *            strings to index
      */
-    public Index(int _q) {
-        sizeTokenIndex = new HashMap<Integer, Map<String, Set<String>>>();
-        tokenizer = new NGramTokenizer();
+    public Index(int _q, Collection<String> input) {
         q = _q;
+        if (q > MAX_PACKED_Q) {
+            grams = new StringDictionary();
+        }
+        int n = input.size();
+        String[] values = input.toArray(new String[n]);
+        int[][] tokens = new int[n][];
+        int maxSize = 0;
+        for (int i = 0; i < n; i++) {
+            int size = tokenize(values[i]);
+            tokens[i] = new int[size];
+            for (int j = 0; j < size; j++) {
+                tokens[i][j] = gramIds.putIfAbsent(codes[j], gramIds.size());
+            }
+            maxSize = Math.max(maxSize, size);
+        }
+        // strings are numbered by size, sizeStart[s] is the first id of size s
+        sizeStart = new int[maxSize + 2];
+        for (int i = 0; i < n; i++) {
+            sizeStart[tokens[i].length + 1]++;
+        }
+        for (int s = 1; s < sizeStart.length; s++) {
+            sizeStart[s] += sizeStart[s - 1];
+        }
+        int[] next = Arrays.copyOf(sizeStart, sizeStart.length);
+        int[] df = new int[gramIds.size()];
+        strings = new String[n];
+        sizes = new int[n];
+        int[][] sorted = new int[n][];
+        for (int i = 0; i < n; i++) {
+            int id = next[tokens[i].length]++;
+            strings[id] = values[i];
+            sizes[id] = tokens[i].length;
+            sorted[id] = tokens[i];
+            for (int gram : tokens[i]) {
+                df[gram]++;
+            }
+        }
+        postings = new int[df.length][];
+        for (int g = 0; g < df.length; g++) {
+            postings[g] = new int[df[g]];
+            df[g] = 0;
+        }
+        for (int id = 0; id < n; id++) {
+            for (int gram : sorted[id]) {
+                postings[gram][df[gram]++] = id;
+            }
+        }
+        built = true;
+    }
+
+    private Index(Index index) {
+        q = index.q;
+        gramIds = index.gramIds;
+        grams = index.grams;
+        strings = index.strings;
+        sizes = index.sizes;
+        sizeStart = index.sizeStart;
+        postings = index.postings;
+        built = true;
     }
 
     /**
-     * Tokenizes a string and adds it to the index
+     * @return an index with its own buffers that shares the postings of this
+     *         index, hence it can be probed while this index is probed by
+     *         another thread
+     */
+    public Index copy() {
+        return new Index(this);
+    }
+
+    /**
+     * @return the estimated size of the index in bytes
+     */
+    public long getWeight() {
+        long weight = 24L * gramIds.size() + 8L * sizeStart.length;
+        for (int i = 0; i < strings.length; i++) {
+            weight += 44 + 2L * strings[i].length();
+        }
+        for (int[] posting : postings) {
+            weight += 16 + 4L * posting.length;
+        }
+        if (grams != null) {
+            weight += 60L * grams.size();
+        }
+        return weight;
+    }
+
+    /**
+     * Computes the distinct q-grams of a string. Their codes are kept in an
+     * internal buffer and can be resolved with {@link #getGramId(int)} until
+     * the next call.
      *
      * @param s
-     *            String to index
-     * @return The number of tokens generated for s
+     *            String to tokenize
+     * @return The number of distinct q-grams of s
      */
-    public Set<String> addString(String s) {
-        // update token index
-        Set<String> tokens = tokenizer.tokenize(s, q);
-        int size = tokens.size();
-        if (!sizeTokenIndex.containsKey(size)) {
-            sizeTokenIndex.put(size, new HashMap<String, Set<String>>());
-        }
-        Map<String, Set<String>> tokenIndex = sizeTokenIndex.get(size);
-        for (String token : tokens) {
-            if (!tokenIndex.containsKey(token)) {
-                tokenIndex.put(token, new HashSet<String>());
+    public int tokenize(String s) {
+        int length = normalize(s);
+        int count = length - q + 1;
+        if (codes.length < count) {
+            codes = new long[Math.max(count, codes.length * 2)];
+        }
+        for (int i = 0; i < count; i++) {
+            codes[i] = encode(i);
+        }
+        Arrays.sort(codes, 0, count);
+        int distinct = 0;
+        for (int i = 0; i < count; i++) {
+            if (i == 0 || codes[i] != codes[i - 1]) {
+                codes[distinct++] = codes[i];
             }
-            tokenIndex.get(token).add(s);
         }
-        return tokens;
+        return distinct;
     }
 
     /**
-     * Returns all strings to a given token
-     *
-     * @param size,
-     *            Size of token
-     * @param token
-     *            Input token
-     * @return All strings that contain this token
+     * @param i,
+     *            position of a q-gram of the last tokenized string
+     * @return the id of the q-gram or -1 if no indexed string contains it
      */
-    public Set<String> getStrings(int size, String token) {
-        if (sizeTokenIndex.containsKey(size)) {
-            if (sizeTokenIndex.get(size).containsKey(token)) {
-                return sizeTokenIndex.get(size).get(token);
-            } else {
-                return new HashSet<String>();
+    public int getGramId(int i) {
+        return gramIds.get(codes[i], -1);
+    }
+
+    /**
+     * Copies the string to the character buffer, removes double blanks,
+     * trims it and pads it with underscores to the length q.
+     */
+    private int normalize(String s) {
+        if (s == null) {
+            s = "";
+        }
+        if (chars.length < Math.max(s.length(), q)) {
+            chars = new char[Math.max(Math.max(s.length(), q), chars.length * 2)];
+        }
+        int length = 0;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            if (c != ' ' || length == 0 || chars[length - 1] != ' ') {
+                chars[length++] = c;
             }
-        } else {
-            return new HashSet<String>();
         }
+        int begin = 0;
+        while (begin < length && chars[begin] <= ' ') {
+            begin++;
+        }
+        while (length > begin && chars[length - 1] <= ' ') {
+            length--;
+        }
+        if (begin > 0) {
+            System.arraycopy(chars, begin, chars, 0, length - begin);
+            length -= begin;
+        }
+        while (length < q) {
+            chars[length++] = '_';
+        }
+        return length;
+    }
+
+    private long encode(int position) {
+        if (grams != null) {
+            String gram = new String(chars, position, q);
+            if (!built) {
+                return grams.intern(gram);
+            }
+            // the dictionary of the indexed q-grams is shared by the copies
+            int id = grams.getId(gram);
+            if (id >= 0) {
+                return id;
+            }
+            if (unseen == null) {
+                unseen = new StringDictionary();
+            }
+            return -1L - unseen.intern(gram);
+        }
+        long code = 0;
+        for (int i = position; i < position + q; i++) {
+            code = (code << 16) | chars[i];
+        }
+        return code;
     }
 
     /**
-     * Returns all strings of size size
-     *
-     * @param size
-     *            Size requirement
-     * @return All strings which consist of "size" different tokens
+     * @param gramId,
+     *            id of a q-gram
+     * @return the ids of the strings which contain the q-gram, in ascending
+     *         order
+     */
+    public int[] getPostings(int gramId) {
+        return gramId < 0 || gramId >= postings.length ? EMPTY : postings[gramId];
+    }
+
+    /**
+     * @param size,
+     *            number of distinct q-grams
+     * @return the id of the first string of at least this size
      */
-    public Map<String, Set<String>> getStrings(int size) {
-        if (sizeTokenIndex.containsKey(size)) {
-            return sizeTokenIndex.get(size);
-        } else {
-            return new HashMap<String, Set<String>>();
+    public int getFirstId(int size) {
+        if (size <= 0) {
+            return 0;
         }
+        return size < sizeStart.length ? sizeStart[size] : strings.length;
+    }
+
+    /**
+     * @param id,
+     *            id of an indexed string
+     * @return the number of distinct q-grams of the string
+     */
+    public int getSize(int id) {
+        return sizes[id];
+    }
+
+    /**
+     * @param id,
+     *            id of an indexed string
+     * @return the string
+     */
+    public String getString(int id) {
+        return strings[id];
     }
 
-    public Set<Integer> getAllSizes() {
-        return sizeTokenIndex.keySet();
+    /**
+     * @return the number of indexed strings
+     */
+    public int size() {
+        return strings.length;
     }
 }
@@ -8,7 +8,6 @@ import java.util.TreeSet;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.BeginEnd;
 
@@ -56,7 +55,7 @@ public class AfterMapper extends AllenAlgebraMapper {
      */
     @Override
     public AMapping getMapping(ArrayList<TreeMap<String, Set<String>>> maps) {
-        AMapping m = MappingFactory.createDefaultMapping();
+        AMapping m = createMapping();
         TreeMap<String, Set<String>> mapBE0 = maps.get(0);
         TreeMap<String, Set<String>> mapBE1 = maps.get(1);
 
@@ -7,7 +7,6 @@ import java.util.TreeMap;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.EndBegin;
 
@@ -45,7 +44,7 @@ public class BeforeMapper extends AllenAlgebraMapper {
      */
     @Override
     public AMapping getMapping(ArrayList<TreeMap<String, Set<String>>> maps) {
-        AMapping m = MappingFactory.createDefaultMapping();
+        AMapping m = createMapping();
 
         TreeMap<String, Set<String>> mapEB1 = maps.get(0);
 
@@ -7,7 +7,6 @@ import java.util.TreeMap;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.AllenAlgebraMapper;
 import org.aksw.limes.core.measures.mapper.temporal.allenAlgebra.atomic.BeginEnd;
 
@@ -46,7 +45,7 @@ public class IsMetByMapper extends AllenAlgebraMapper {
      */
     @Override
     public AMapping getMapping(ArrayList<TreeMap<String, Set<String>>> maps) {
-        AMapping m = MappingFactory.createDefaultMapping();
+        AMapping m = createMapping();
         TreeMap<String, Set<String>> mapBE0 = maps.get(0);
         for (Map.Entry<String, Set<String>> entryBE0 : mapBE0.entrySet()) {
             String instancBE0 = entryBE0.getKey();
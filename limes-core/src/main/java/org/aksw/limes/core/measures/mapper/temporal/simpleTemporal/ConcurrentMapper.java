@@ -7,7 +7,6 @@ import java.util.TreeMap;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.io.parser.Parser;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -33,7 +32,7 @@ public class ConcurrentMapper extends SimpleTemporalMapper {
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        AMapping m = MappingFactory.createDefaultMapping();
+        AMapping m = createMapping();
         Parser p = new Parser(expression, threshold);
 
         TreeMap<String, Set<Instance>> sources = this.orderByBeginDate(source, expression, "source");
@@ -7,7 +7,6 @@ import java.util.TreeMap;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.mapping.AMapping;
-import org.aksw.limes.core.io.mapping.MappingFactory;
 
 /**
  * Implements the predecessor mapper class.
@@ -28,7 +27,7 @@ public class PredecessorMapper extends SimpleTemporalMapper {
     @Override
     public AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar, String expression,
             double threshold) {
-        AMapping m = MappingFactory.createDefaultMapping();
+        AMapping m = createMapping();
 
         TreeMap<String, Set<Instance>> sources = this.orderByBeginDate(source, expression, "source");
         TreeMap<String, Set<Instance>> targets = this.orderByBeginDate(target, expression, "target");
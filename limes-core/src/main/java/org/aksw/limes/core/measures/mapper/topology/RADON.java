@@ -4,20 +4,24 @@ import java.text.DecimalFormat;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.Set;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
 
 import org.aksw.limes.core.exceptions.InvalidThresholdException;
 import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.GeometryStore;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
 import org.aksw.limes.core.measures.mapper.pointsets.PropertyFetcher;
 import org.slf4j.Logger;
@@ -25,8 +29,10 @@ import org.slf4j.LoggerFactory;
 
 import com.vividsolutions.jts.geom.Envelope;
 import com.vividsolutions.jts.geom.Geometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometry;
+import com.vividsolutions.jts.geom.prep.PreparedGeometryFactory;
+import com.vividsolutions.jts.index.strtree.STRtree;
 import com.vividsolutions.jts.io.ParseException;
-import com.vividsolutions.jts.io.WKTReader;
 
 /**
  *
@@ -40,9 +46,21 @@ public class RADON {
         public final static String MIN = "min";
         public final static String MAX = "max";
         public final static String MED = "median";
-        public static boolean swap = false;
 
-        public static double[] decideForTheta(GridSizeHeuristics s, GridSizeHeuristics t, String measure) {
+        /**
+         * Decides the size of the grid cells and whether source and target
+         * are swapped. The decision is returned rather than kept in a shared
+         * field, as RADON may run concurrently.
+         *
+         * @param s
+         *            Heuristics of the source geometries
+         * @param t
+         *            Heuristics of the target geometries
+         * @param measure
+         *            Statistic the cell size is derived from
+         * @return the grid parameters
+         */
+        public static Theta decideForTheta(GridSizeHeuristics s, GridSizeHeuristics t, String measure) {
             double[] stats;
             switch (measure) {
             case MAX:
@@ -62,8 +80,8 @@ public class RADON {
             double estAreaT = stats[2] * stats[3] * t.size;
             // we want to swap towards the smallest area coverage to optimizethe
             // number of comparisons
-            swap = estAreaS > estAreaT;
-            return new double[] { (2.0d) / (stats[0] + stats[2]), (2.0d) / (stats[1] + stats[3]) };
+            boolean swap = estAreaS > estAreaT;
+            return new Theta((2.0d) / (stats[0] + stats[2]), (2.0d) / (stats[1] + stats[3]), swap);
         }
 
         private double size;
@@ -144,6 +162,27 @@ public class RADON {
 
     }
 
+    /**
+     * Grid parameters decided by
+     * {@link GridSizeHeuristics#decideForTheta(GridSizeHeuristics, GridSizeHeuristics, String)}.
+     */
+    public static class Theta {
+
+        public final double thetaX;
+        public final double thetaY;
+        /**
+         * True if the target geometries are indexed as source, i.e., the
+         * relation is inverted and the links are reversed.
+         */
+        public final boolean swap;
+
+        public Theta(double thetaX, double thetaY, boolean swap) {
+            this.thetaX = thetaX;
+            this.thetaY = thetaY;
+            this.swap = swap;
+        }
+    }
+
     public static class MBBIndex {
 
         public int lat1, lat2, lon1, lon2;
@@ -227,44 +266,187 @@ public class RADON {
         }
     }
 
-    public static class Matcher implements Runnable {
+    /**
+     * Cell of the grid with the source and target geometries whose minimum
+     * bounding boxes overlap it.
+     */
+    private static class Cell {
+        final int lat, lon;
+        final List<MBBIndex> source, target;
+
+        Cell(int lat, int lon, List<MBBIndex> source, List<MBBIndex> target) {
+            this.lat = lat;
+            this.lon = lon;
+            this.source = source;
+            this.target = target;
+        }
+    }
+
+    /**
+     * Fork-join task that matches a range of units of work, i.e., grid cells
+     * or source geometries. Ranges larger than the grain are split in halves.
+     * The links are added to the mapping of the worker thread, so that the
+     * workers do not share any mutable state.
+     */
+    public static class Matcher extends RecursiveAction {
+
+        private static final long serialVersionUID = 3518305214780457629L;
 
-        public static int maxSize = 1000;
-        private String relation;
-        private final List<Map<String, Set<String>>> result;
-        private List<MBBIndex> scheduled;
+        private final int from, to, grain;
+        private final ObjIntConsumer<AMapping> work;
+        private final ThreadLocal<AMapping> results;
 
-        public Matcher(String relation, List<Map<String, Set<String>>> result) {
-            this.relation = relation;
-            this.result = result;
-            this.scheduled = new ArrayList<>();
+        private Matcher(int from, int to, int grain, ObjIntConsumer<AMapping> work, ThreadLocal<AMapping> results) {
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+            this.work = work;
+            this.results = results;
         }
 
         @Override
-        public void run() {
-            Map<String, Set<String>> temp = new HashMap<>();
-            for (int i = 0; i < scheduled.size(); i += 2) {
-                MBBIndex s = scheduled.get(i);
-                MBBIndex t = scheduled.get(i + 1);
-                if (relate(s.polygon, t.polygon, relation)) {
-                    if (!temp.containsKey(s.origin_uri)) {
-                        temp.put(s.origin_uri, new HashSet<>());
+        protected void compute() {
+            if (to - from > grain) {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Matcher(from, mid, grain, work, results), new Matcher(mid, to, grain, work, results));
+            } else {
+                AMapping m = results.get();
+                for (int i = from; i < to; i++) {
+                    work.accept(m, i);
+                }
+            }
+        }
+
+        /**
+         * Runs the units of work 0 to size - 1 and adds their links to m.
+         *
+         * @param size
+         *            Number of units of work
+         * @param parallelism
+         *            Number of threads, 1 runs the work on the calling thread
+         * @param work
+         *            Adds the links of a unit of work to a mapping
+         * @param m
+         *            Mapping the links are added to
+         */
+        private static void run(int size, int parallelism, ObjIntConsumer<AMapping> work, AMapping m) {
+            if (parallelism <= 1) {
+                for (int i = 0; i < size; i++) {
+                    work.accept(m, i);
+                }
+                return;
+            }
+            // every worker collects its links in its own mapping, the
+            // mappings are merged once all units are matched
+            Queue<AMapping> results = new ConcurrentLinkedQueue<>();
+            ThreadLocal<AMapping> local = ThreadLocal.withInitial(() -> {
+                AMapping result = MappingFactory.createDefaultMapping();
+                results.add(result);
+                return result;
+            });
+            int grain = Math.max(1, size / (parallelism * 16));
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                pool.submit(new Matcher(0, size, grain, work, local)).get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("Interrupted while running RADON", e);
+            } catch (ExecutionException e) {
+                throw new RuntimeException("RADON failed", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+            for (AMapping result : results) {
+                for (String s : result.getMap().keySet()) {
+                    for (String t : result.getMap().get(s).keySet()) {
+                        m.add(s, t, 1.0d);
                     }
-                    temp.get(s.origin_uri).add(t.origin_uri);
                 }
             }
-            synchronized (result) {
-                result.add(temp);
+        }
+
+        /**
+         * Matches the geometries of a cell. A pair of geometries is only
+         * compared in the first cell shared by their bounding boxes, i.e., the
+         * cell at the lower corner of the intersection of the boxes, so that
+         * no pair is compared twice. If prepared geometries are available,
+         * the geometries of the source side are compared through them.
+         */
+        private static void match(Cell cell, String relation, boolean swapped,
+                Function<String, PreparedGeometry> prepared, AMapping m) {
+            for (MBBIndex a : cell.source) {
+                for (MBBIndex b : cell.target) {
+                    if (Math.max(a.lat1, b.lat1) != cell.lat || Math.max(a.lon1, b.lon1) != cell.lon) {
+                        continue;
+                    }
+                    boolean compute = (relation.equals(COVERS) && a.covers(b))
+                            || (relation.equals(COVEREDBY) && b.covers(a))
+                            || (relation.equals(CONTAINS) && a.contains(b))
+                            || (relation.equals(WITHIN) && b.contains(a)) || (relation.equals(EQUALS) && a.equals(b))
+                            || relation.equals(INTERSECTS) || relation.equals(CROSSES) || relation.equals(TOUCHES)
+                            || relation.equals(OVERLAPS);
+                    if (compute && (prepared == null ? relate(a.polygon, b.polygon, relation)
+                            : relate(prepared.apply(a.origin_uri), b.polygon, relation))) {
+                        if (swapped)
+                            m.add(b.origin_uri, a.origin_uri, 1.0);
+                        else
+                            m.add(a.origin_uri, b.origin_uri, 1.0);
+                    }
+                }
             }
         }
 
-        public void schedule(MBBIndex s, MBBIndex t) {
-            scheduled.add(s);
-            scheduled.add(t);
+        /**
+         * Matches a source geometry with the targets of an STR tree whose
+         * bounding boxes intersect its bounding box. The source geometry is
+         * prepared on the first candidate unless its prepared geometry is
+         * available.
+         */
+        @SuppressWarnings("unchecked")
+        private static void probe(STRtree tree, Map.Entry<String, Geometry> source, String relation,
+                Function<String, PreparedGeometry> preparedSources, AMapping m) {
+            Envelope a = source.getValue().getEnvelopeInternal();
+            PreparedGeometry prepared = null;
+            for (Object item : tree.query(a)) {
+                Map.Entry<String, Geometry> target = (Map.Entry<String, Geometry>) item;
+                Envelope b = target.getValue().getEnvelopeInternal();
+                boolean compute = ((relation.equals(COVERS) || relation.equals(CONTAINS)) && a.contains(b))
+                        || ((relation.equals(COVEREDBY) || relation.equals(WITHIN)) && b.contains(a))
+                        || (relation.equals(EQUALS) && a.equals(b)) || relation.equals(INTERSECTS)
+                        || relation.equals(CROSSES) || relation.equals(TOUCHES) || relation.equals(OVERLAPS);
+                if (compute) {
+                    if (prepared == null) {
+                        prepared = preparedSources == null ? PreparedGeometryFactory.prepare(source.getValue())
+                                : preparedSources.apply(source.getKey());
+                    }
+                    if (relate(prepared, target.getValue(), relation)) {
+                        m.add(source.getKey(), target.getKey(), 1.0);
+                    }
+                }
+            }
         }
 
-        public int size() {
-            return scheduled.size();
+        private static boolean relate(PreparedGeometry geometry1, Geometry geometry2, String relation) {
+            switch (relation) {
+            case INTERSECTS:
+                return geometry1.intersects(geometry2);
+            case TOUCHES:
+                return geometry1.touches(geometry2);
+            case CROSSES:
+                return geometry1.crosses(geometry2);
+            case WITHIN:
+                return geometry1.within(geometry2);
+            case CONTAINS:
+                return geometry1.contains(geometry2);
+            case COVERS:
+                return geometry1.covers(geometry2);
+            case COVEREDBY:
+                return geometry1.coveredBy(geometry2);
+            case OVERLAPS:
+                return geometry1.overlaps(geometry2);
+            default:
+                return relate(geometry1.getGeometry(), geometry2, relation);
+            }
         }
 
         private static Boolean relate(Geometry geometry1, Geometry geometry2, String relation) {
@@ -295,38 +477,23 @@ public class RADON {
         }
     }
 
-    public static class Merger implements Runnable {
-
-        private AMapping m;
-        private List<Map<String, Set<String>>> localResults = new ArrayList<>();
-
-        public Merger(List<Map<String, Set<String>>> results, AMapping m) {
-            this.m = m;
-            // copy over entries to local list
-            synchronized (results) {
-                for (Iterator<Map<String, Set<String>>> iterator = results.listIterator(); iterator.hasNext();) {
-                    localResults.add(iterator.next());
-                    iterator.remove();
-                }
-            }
-        }
-
-        @Override
-        public void run() {
-            // merge back to m
-            for (Map<String, Set<String>> result : localResults) {
-                for (String s : result.keySet()) {
-                    for (String t : result.get(s)) {
-                        if (GridSizeHeuristics.swap)
-                            m.add(t, s, 1.0d);
-                        else
-                            m.add(s, t, 1.0d);
-                    }
-                }
-            }
-        }
+    /**
+     * Index used to find the candidate pairs. The grid assigns every geometry
+     * to all squares overlapped by its bounding box, which is fast for
+     * geometries of similar size. The STR tree is bulk loaded with the
+     * target geometries and scales with skewed geometry sizes, e.g., country
+     * borders next to building footprints.
+     */
+    public enum IndexType {
+        GRID, RTREE
     }
 
+    /**
+     * Suffix of the measure names that select the STR tree, e.g.
+     * top_within_rtree.
+     */
+    public static final String RTREE_SUFFIX = "_rtree";
+
     public static final String EQUALS = "equals";
     public static final String DISJOINT = "disjoint";
     public static final String INTERSECTS = "intersects";
@@ -338,36 +505,77 @@ public class RADON {
     public static final String COVERS = "covers";
     public static final String COVEREDBY = "coveredby";
     // best measure according to our evaluation in the RADON paper
-    public static String heuristicStatMeasure = "avg";
+    public static final String DEFAULT_HEURISTIC_STAT_MEASURE = GridSizeHeuristics.AVG;
 
     private static final Logger logger = LoggerFactory.getLogger(RADON.class);
 
+    /**
+     * Reads the geometries of a property through the geometry store of the
+     * cache, hence the values are parsed once for all mappers that read the
+     * property.
+     */
     public static Map<String, Geometry> getGeometryMapFromCache(ACache c, String property) {
-        WKTReader wktReader = new WKTReader();
+        return getGeometries(getGeometryEntriesFromCache(c, property));
+    }
+
+    private static Map<String, Geometry> getGeometries(Map<String, GeometryStore.Entry> entries) {
         Map<String, Geometry> gMap = new HashMap<>();
+        for (Map.Entry<String, GeometryStore.Entry> e : entries.entrySet()) {
+            gMap.put(e.getKey(), e.getValue().getGeometry());
+        }
+        return gMap;
+    }
+
+    /**
+     * Reads the entries of the geometry store of the cache for a property,
+     * i.e., the geometries together with their prepared geometries, which
+     * are created once for all mappers that read the property.
+     */
+    public static Map<String, GeometryStore.Entry> getGeometryEntriesFromCache(ACache c, String property) {
+        GeometryStore store = c.getGeometryStore(property);
+        Map<String, GeometryStore.Entry> eMap = new HashMap<>();
         for (String uri : c.getAllUris()) {
             Set<String> values = c.getInstance(uri).getProperty(property);
             if (values.size() > 0) {
-                String wkt = values.iterator().next();
-                try {
-                    gMap.put(uri, wktReader.read(wkt));
-                } catch (ParseException e) {
+                GeometryStore.Entry entry = store.get(values.iterator().next());
+                if (entry != null) {
+                    eMap.put(uri, entry);
+                } else {
                     logger.warn("Skipping malformed geometry at " + uri + "...");
                 }
             }
         }
-        return gMap;
+        return eMap;
     }
 
+    /**
+     * Computes the links of an atomic topological specification. The index
+     * is selected by the measure of the expression: measures ending with
+     * {@value #RTREE_SUFFIX}, e.g. top_contains_rtree, use an STR tree, all
+     * other measures use the grid.
+     */
     public static AMapping getMapping(ACache source, ACache target, String sourceVar, String targetVar,
             String expression, double threshold, String relation) {
         if (threshold <= 0) {
             throw new InvalidThresholdException(threshold);
         }
         List<String> properties = PropertyFetcher.getProperties(expression, threshold);
-        Map<String, Geometry> sourceMap = getGeometryMapFromCache(source, properties.get(0));
-        Map<String, Geometry> targetMap = getGeometryMapFromCache(target, properties.get(1));
-        return getMapping(sourceMap, targetMap, relation);
+        Map<String, GeometryStore.Entry> sourceEntries = getGeometryEntriesFromCache(source, properties.get(0));
+        Map<String, GeometryStore.Entry> targetEntries = getGeometryEntriesFromCache(target, properties.get(1));
+        // the prepared geometries are taken from the stores of the caches
+        return getMapping(getGeometries(sourceEntries), getGeometries(targetEntries), relation,
+                Runtime.getRuntime().availableProcessors(),
+                getIndexType(new Parser(expression, threshold).getOperator()), DEFAULT_HEURISTIC_STAT_MEASURE,
+                uri -> sourceEntries.get(uri).getPrepared(), uri -> targetEntries.get(uri).getPrepared());
+    }
+
+    /**
+     * @param measure
+     *            Name of a topological measure
+     * @return the index selected by the name of the measure
+     */
+    public static IndexType getIndexType(String measure) {
+        return measure.toLowerCase().endsWith(RTREE_SUFFIX) ? IndexType.RTREE : IndexType.GRID;
     }
 
     public static AMapping getMapping(Set<Polygon> sourceData, Set<Polygon> targetData, String relation) {
@@ -393,8 +601,56 @@ public class RADON {
 
     public static AMapping getMapping(Map<String, Geometry> sourceData, Map<String, Geometry> targetData,
             String relation) {
-        double thetaX, thetaY;
-        int numThreads = new Double(Math.ceil((double) Runtime.getRuntime().availableProcessors() / 2.0d)).intValue();
+        return getMapping(sourceData, targetData, relation, Runtime.getRuntime().availableProcessors());
+    }
+
+    public static AMapping getMapping(Map<String, Geometry> sourceData, Map<String, Geometry> targetData,
+            String relation, int parallelism) {
+        return getMapping(sourceData, targetData, relation, parallelism, IndexType.GRID);
+    }
+
+    /**
+     * Computes the pairs of geometries that are in the given relation, with
+     * the grid cell size derived from {@link #DEFAULT_HEURISTIC_STAT_MEASURE}.
+     */
+    public static AMapping getMapping(Map<String, Geometry> sourceData, Map<String, Geometry> targetData,
+            String relation, int parallelism, IndexType indexType) {
+        return getMapping(sourceData, targetData, relation, parallelism, indexType, DEFAULT_HEURISTIC_STAT_MEASURE);
+    }
+
+    /**
+     * Computes the pairs of geometries that are in the given relation.
+     *
+     * @param sourceData
+     *            Source geometries
+     * @param targetData
+     *            Target geometries
+     * @param relation
+     *            Topological relation
+     * @param parallelism
+     *            Number of threads that match the geometries, 1 matches them
+     *            on the calling thread
+     * @param indexType
+     *            Index used to find the candidate pairs
+     * @param heuristicStatMeasure
+     *            Statistic of the geometry sizes the grid cell size is derived
+     *            from, see {@link GridSizeHeuristics}
+     * @return Mapping of the pairs in the relation
+     */
+    public static AMapping getMapping(Map<String, Geometry> sourceData, Map<String, Geometry> targetData,
+            String relation, int parallelism, IndexType indexType, String heuristicStatMeasure) {
+        return getMapping(sourceData, targetData, relation, parallelism, indexType, heuristicStatMeasure, null, null);
+    }
+
+    /**
+     * Computes the pairs of geometries that are in the given relation,
+     * comparing them through the given prepared geometries. Without prepared
+     * geometries, the grid compares the plain geometries and the STR tree
+     * prepares each source geometry per call.
+     */
+    private static AMapping getMapping(Map<String, Geometry> sourceData, Map<String, Geometry> targetData,
+            String relation, int parallelism, IndexType indexType, String heuristicStatMeasure,
+            Function<String, PreparedGeometry> sourcePrepared, Function<String, PreparedGeometry> targetPrepared) {
         // Relation thats actually used for computation.
         // Might differ from input relation when swapping occurs or the input
         // relation is 'disjoint'.
@@ -407,15 +663,42 @@ public class RADON {
         if (disjointStrategy)
             rel = INTERSECTS;
 
+        AMapping m;
+        if (indexType == IndexType.RTREE) {
+            m = getTreeMapping(sourceData, targetData, rel, parallelism, sourcePrepared);
+        } else {
+            m = getGridMapping(sourceData, targetData, rel, parallelism, heuristicStatMeasure, sourcePrepared,
+                    targetPrepared);
+        }
+
+        // Compute M = (S x T) \ M' for disjoint relation
+        if (disjointStrategy) {
+            AMapping disjoint = MappingFactory.createDefaultMapping();
+            for (String s : sourceData.keySet()) {
+                for (String t : targetData.keySet()) {
+                    if (!m.contains(s, t)) {
+                        disjoint.add(s, t, 1.0d);
+                    }
+                }
+            }
+            m = disjoint;
+        }
+        return m;
+    }
+
+    private static AMapping getGridMapping(Map<String, Geometry> sourceData, Map<String, Geometry> targetData,
+            String rel, int parallelism, String heuristicStatMeasure, Function<String, PreparedGeometry> sourcePrepared,
+            Function<String, PreparedGeometry> targetPrepared) {
+        double thetaX, thetaY;
         GridSizeHeuristics heuristicsS = new GridSizeHeuristics(sourceData.values());
         GridSizeHeuristics heuristicsT = new GridSizeHeuristics(targetData.values());
-        double[] theta = GridSizeHeuristics.decideForTheta(heuristicsS, heuristicsT, heuristicStatMeasure);
-        thetaX = theta[0];
-        thetaY = theta[1];
+        Theta theta = GridSizeHeuristics.decideForTheta(heuristicsS, heuristicsT, heuristicStatMeasure);
+        thetaX = theta.thetaX;
+        thetaY = theta.thetaY;
         // swap smaller dataset to source
         // if swap is necessary is decided in Stats.decideForTheta([...])!
         Map<String, Geometry> swap;
-        boolean swapped = GridSizeHeuristics.swap;
+        boolean swapped = theta.swap;
         if (swapped) {
             swap = sourceData;
             sourceData = targetData;
@@ -440,102 +723,44 @@ public class RADON {
         SquareIndex sourceIndex = index(sourceData, null, thetaX, thetaY);
         SquareIndex targetIndex = index(targetData, sourceIndex, thetaX, thetaY);
 
-        // execute matching
-        ExecutorService matchExec = Executors.newFixedThreadPool(numThreads);
-        ExecutorService mergerExec = Executors.newFixedThreadPool(1);
-        AMapping m = MappingFactory.createDefaultMapping();
-        List<Map<String, Set<String>>> results = Collections.synchronizedList(new ArrayList<>());
-        Map<String, Set<String>> computed = new HashMap<>();
-        Matcher matcher = new Matcher(rel, results);
-
+        // collect the cells shared by the indexes
+        List<Cell> cells = new ArrayList<>();
         for (Integer lat : sourceIndex.map.keySet()) {
             for (Integer lon : sourceIndex.map.get(lat).keySet()) {
-                List<MBBIndex> source = sourceIndex.getSquare(lat, lon);
                 List<MBBIndex> target = targetIndex.getSquare(lat, lon);
                 if (target != null && target.size() > 0) {
-                    for (MBBIndex a : source) {
-                        if (!computed.containsKey(a.uri))
-                            computed.put(a.uri, new HashSet<>());
-                        for (MBBIndex b : target) {
-                            if (!computed.get(a.uri).contains(b.uri)) {
-                                computed.get(a.uri).add(b.uri);
-                                boolean compute = (rel.equals(COVERS) && a.covers(b))
-                                        || (rel.equals(COVEREDBY) && b.covers(a))
-                                        || (rel.equals(CONTAINS) && a.contains(b))
-                                        || (rel.equals(WITHIN) && b.contains(a)) || (rel.equals(EQUALS) && a.equals(b))
-                                        || rel.equals(INTERSECTS) || rel.equals(CROSSES) || rel.equals(TOUCHES)
-                                        || rel.equals(OVERLAPS);
-                                if (compute) {
-                                    if (numThreads == 1) {
-                                        if (Matcher.relate(a.polygon, b.polygon, rel)) {
-                                            if (swapped)
-                                                m.add(b.origin_uri, a.origin_uri, 1.0);
-                                            else
-                                                m.add(a.origin_uri, b.origin_uri, 1.0);
-                                        }
-                                    } else {
-                                        matcher.schedule(a, b);
-                                        if (matcher.size() == Matcher.maxSize) {
-                                            matchExec.execute(matcher);
-                                            matcher = new Matcher(rel, results);
-                                            if (results.size() > 0) {
-                                                mergerExec.execute(new Merger(results, m));
-                                            }
-                                        }
-                                    }
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        if (numThreads > 1) {
-            if (matcher.size() > 0) {
-                matchExec.execute(matcher);
-            }
-            matchExec.shutdown();
-            while (!matchExec.isTerminated()) {
-                try {
-                    if (results.size() > 0) {
-                        mergerExec.execute(new Merger(results, m));
-                    }
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
-                }
-            }
-            if (results.size() > 0) {
-                mergerExec.execute(new Merger(results, m));
-            }
-            mergerExec.shutdown();
-            while (!mergerExec.isTerminated()) {
-                try {
-                    Thread.sleep(100);
-                } catch (InterruptedException e) {
-                    e.printStackTrace();
+                    cells.add(new Cell(lat, lon, sourceIndex.getSquare(lat, lon), target));
                 }
             }
         }
 
-        // Compute M = (S x T) \ M' for disjoint relation
-        if (disjointStrategy) {
-            AMapping disjoint = MappingFactory.createDefaultMapping();
-            for (String s : sourceData.keySet()) {
-                for (String t : targetData.keySet()) {
-                    if (swapped) {
-                        if (!m.contains(t, s)) {
-                            disjoint.add(t, s, 1.0d);
-                        }
-                    } else {
-                        if (!m.contains(s, t)) {
-                            disjoint.add(s, t, 1.0d);
-                        }
-                    }
-                }
-            }
-            m = disjoint;
-        }
+        // execute matching
+        AMapping m = MappingFactory.createDefaultMapping();
+        String matchRelation = rel;
+        Function<String, PreparedGeometry> prepared = swapped ? targetPrepared : sourcePrepared;
+        Matcher.run(cells.size(), parallelism,
+                (result, i) -> Matcher.match(cells.get(i), matchRelation, swapped, prepared, result), m);
+        return m;
+    }
+
+    /**
+     * Matches the geometries with an STR tree that is bulk loaded with the
+     * target geometries. Each source geometry is prepared once, or taken from
+     * the given prepared geometries, and compared with the targets whose
+     * bounding boxes pass the filter of the relation.
+     */
+    private static AMapping getTreeMapping(Map<String, Geometry> sourceData, Map<String, Geometry> targetData,
+            String rel, int parallelism, Function<String, PreparedGeometry> sourcePrepared) {
+        STRtree tree = new STRtree();
+        for (Map.Entry<String, Geometry> target : targetData.entrySet()) {
+            tree.insert(target.getValue().getEnvelopeInternal(), target);
+        }
+        // build before the tree is queried concurrently
+        tree.build();
+        List<Map.Entry<String, Geometry>> sources = new ArrayList<>(sourceData.entrySet());
+        AMapping m = MappingFactory.createDefaultMapping();
+        Matcher.run(sources.size(), parallelism,
+                (result, i) -> Matcher.probe(tree, sources.get(i), rel, sourcePrepared, result), m);
         return m;
     }
 
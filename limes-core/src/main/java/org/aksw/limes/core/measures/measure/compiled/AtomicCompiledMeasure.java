@@ -0,0 +1,99 @@
+package org.aksw.limes.core.measures.measure.compiled;
+
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.measures.measure.AMeasure;
+
+/**
+ * Implements the atomic compiled measure abstract class. An atomic compiled
+ * measure holds the measure instance and the source and target properties of
+ * an atomic metric expression, e.g. trigrams(x.name,y.name), which are
+ * resolved once at compile time.
+ *
+ * @version 1.0
+ */
+public abstract class AtomicCompiledMeasure implements ICompiledMeasure {
+
+    /**
+     * Measure of the atomic expression.
+     */
+    protected AMeasure measure;
+    /**
+     * Source property.
+     */
+    protected String sourceProperty;
+    /**
+     * Target property.
+     */
+    protected String targetProperty;
+    /**
+     * Threshold of the atomic expression.
+     */
+    protected double threshold;
+
+    /**
+     * Constructor for an atomic compiled measure.
+     *
+     * @param measure,
+     *            the measure of the atomic expression
+     * @param sourceProperty,
+     *            the source property
+     * @param targetProperty,
+     *            the target property
+     * @param threshold,
+     *            the threshold of the atomic expression
+     */
+    public AtomicCompiledMeasure(AMeasure measure, String sourceProperty, String targetProperty, double threshold) {
+        this.measure = measure;
+        this.sourceProperty = sourceProperty;
+        this.targetProperty = targetProperty;
+        this.threshold = threshold;
+    }
+
+    /**
+     * Computes the raw similarity of two instances, i.e. without applying the
+     * threshold.
+     *
+     * @param sourceInstance,
+     *            the source instance
+     * @param targetInstance,
+     *            the target instance
+     * @return the similarity of sourceInstance and targetInstance
+     */
+    protected abstract double computeSimilarity(Instance sourceInstance, Instance targetInstance);
+
+    @Override
+    public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+        // mappers do not accept non-positive thresholds, hence no link can be
+        // produced for such an atomic expression
+        if (threshold <= 0) {
+            return 0d;
+        }
+        double similarity = computeSimilarity(sourceInstance, targetInstance);
+        if (similarity >= threshold)
+            return similarity;
+        else
+            return 0d;
+    }
+
+    @Override
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public AMeasure getMeasure() {
+        return measure;
+    }
+
+    public String getSourceProperty() {
+        return sourceProperty;
+    }
+
+    public String getTargetProperty() {
+        return targetProperty;
+    }
+
+    @Override
+    public String toString() {
+        return measure.getName() + "(" + sourceProperty + "," + targetProperty + ")|" + threshold;
+    }
+}
@@ -0,0 +1,176 @@
+package org.aksw.limes.core.measures.measure.compiled;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.aksw.limes.core.io.parser.Parser;
+import org.aksw.limes.core.measures.measure.AMeasure;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MarkerFactory;
+
+/**
+ * Implements the compiled measure factory class. The factory parses a metric
+ * expression once into a tree of compiled measures. For each atomic
+ * expression, it chooses the evaluator whose similarity agrees with the
+ * similarity the corresponding mapper (see
+ * {@link org.aksw.limes.core.measures.mapper.MapperFactory}) assigns to a
+ * link, so that filtering a mapping with a compiled measure yields the same
+ * links as running the expression.
+ *
+ * @version 1.0
+ */
+public class CompiledMeasureFactory {
+
+    static Logger logger = LoggerFactory.getLogger(CompiledMeasureFactory.class);
+
+    /**
+     * Maximal number of compiled expressions kept for reuse.
+     */
+    private static final int MAX_CACHED_MEASURES = 10000;
+
+    private static ConcurrentHashMap<String, ICompiledMeasure> compiledMeasures = new ConcurrentHashMap<String, ICompiledMeasure>();
+
+    /**
+     * Returns the compiled measure of a metric expression. Compiled measures
+     * are stateless, hence they are cached and shared across calls.
+     *
+     * @param expression,
+     *            the metric expression
+     * @param threshold,
+     *            the threshold of the expression
+     * @param sourceVar,
+     *            the source variable
+     * @param targetVar,
+     *            the target variable
+     * @return the compiled measure of the expression
+     */
+    public static ICompiledMeasure getCompiledMeasure(String expression, double threshold, String sourceVar,
+            String targetVar) {
+        String key = expression + "|" + threshold + "|" + sourceVar + "|" + targetVar;
+        ICompiledMeasure measure = compiledMeasures.get(key);
+        if (measure == null) {
+            measure = compile(expression, threshold, sourceVar, targetVar);
+            if (compiledMeasures.size() >= MAX_CACHED_MEASURES) {
+                compiledMeasures.clear();
+            }
+            compiledMeasures.put(key, measure);
+        }
+        return measure;
+    }
+
+    /**
+     * Parses a metric expression into a tree of compiled measures.
+     *
+     * @param expression,
+     *            the metric expression
+     * @param threshold,
+     *            the threshold of the expression
+     * @param sourceVar,
+     *            the source variable
+     * @param targetVar,
+     *            the target variable
+     * @return the compiled measure of the expression
+     */
+    public static ICompiledMeasure compile(String expression, double threshold, String sourceVar, String targetVar) {
+        Parser p = new Parser(expression, threshold);
+        if (p.isAtomic()) {
+            MeasureType type = MeasureFactory.getMeasureType(p.getOperator());
+            String[] properties = getProperties(p, sourceVar);
+            if (properties[0] == null || properties[1] == null) {
+                logger.error(MarkerFactory.getMarker("FATAL"), "Property values could not be read. Exiting");
+                throw new RuntimeException();
+            }
+            if (threshold <= 0) {
+                logger.warn("Atomic expression " + expression + " has non-positive threshold " + threshold
+                        + ". It will not produce any links.");
+            }
+            return createAtomicMeasure(type, properties[0], properties[1], threshold);
+        }
+        ICompiledMeasure left = compile(p.getLeftTerm(), p.getThreshold1(), sourceVar, targetVar);
+        ICompiledMeasure right = compile(p.getRightTerm(), p.getThreshold2(), sourceVar, targetVar);
+        return new ComplexCompiledMeasure(p.getOperator(), left, right, p.getLeftCoefficient(),
+                p.getRightCoefficient(), p.getThreshold(), p.getThreshold1(), p.getThreshold2());
+    }
+
+    /**
+     * Factory function for the atomic compiled measure of a measure type.
+     *
+     * @param type,
+     *            Type of the measure
+     * @param sourceProperty,
+     *            the source property
+     * @param targetProperty,
+     *            the target property
+     * @param threshold,
+     *            the threshold of the atomic expression
+     * @return a specific atomic compiled measure
+     */
+    public static AtomicCompiledMeasure createAtomicMeasure(MeasureType type, String sourceProperty,
+            String targetProperty, double threshold) {
+        AMeasure measure = MeasureFactory.createMeasure(type);
+        switch (type) {
+        // mapped by PPJoinPlusPlus
+        case COSINE:
+        case OVERLAP:
+        case TRIGRAM:
+        case JACCARD:
+            return new TokenOverlapCompiledMeasure(measure, sourceProperty, targetProperty, threshold);
+        // mapped by EDJoin
+        case LEVENSHTEIN:
+            return new EditDistanceCompiledMeasure(measure, sourceProperty, targetProperty, threshold);
+        case JAROWINKLER:
+        case JARO:
+        case QGRAMS:
+        case EXACTMATCH:
+        case SOUNDEX:
+        case MONGEELKAN:
+        case RATCLIFF:
+        case TOP_CONTAINS:
+        case TOP_COVERED_BY:
+        case TOP_COVERS:
+        case TOP_CROSSES:
+        case TOP_DISJOINT:
+        case TOP_EQUALS:
+        case TOP_INTERSECTS:
+        case TOP_OVERLAPS:
+        case TOP_TOUCHES:
+        case TOP_WITHIN:
+            return new ValueCompiledMeasure(measure, sourceProperty, targetProperty, threshold);
+        default:
+            return new InstanceCompiledMeasure(measure, sourceProperty, targetProperty, threshold);
+        }
+    }
+
+    /**
+     * Returns the source and target property of an atomic expression.
+     *
+     * @param p,
+     *            the parser of the atomic expression
+     * @param sourceVar,
+     *            the source variable
+     * @return an array holding the source and the target property
+     */
+    private static String[] getProperties(Parser p, String sourceVar) {
+        String[] properties = new String[2];
+        String[] terms = { "?" + p.getLeftTerm(), "?" + p.getRightTerm() };
+        for (int i = 0; i < terms.length; i++) {
+            if (terms[i].contains(".")) {
+                String split[] = terms[i].split("\\.");
+                String property = split[1];
+                for (int j = 2; j < split.length; j++) {
+                    property = property + "." + split[j];
+                }
+                if (split[0].equals(sourceVar)) {
+                    properties[0] = property;
+                } else {
+                    properties[1] = property;
+                }
+            } else {
+                properties[i] = terms[i];
+            }
+        }
+        return properties;
+    }
+}
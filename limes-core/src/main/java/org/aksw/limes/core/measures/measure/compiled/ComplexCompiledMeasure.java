@@ -0,0 +1,137 @@
+package org.aksw.limes.core.measures.measure.compiled;
+
+import org.aksw.limes.core.io.cache.Instance;
+
+/**
+ * Implements the complex compiled measure class. A complex compiled measure
+ * combines the similarities of its two compiled children using the operator of
+ * a complex metric expression, e.g. AND(trigrams(x.name,y.name)|0.8,
+ * jaro(x.label,y.label)|0.5). The right child is only evaluated if its result
+ * can still change the outcome.
+ *
+ * @version 1.0
+ */
+public class ComplexCompiledMeasure implements ICompiledMeasure {
+
+    private static final String ADD = "ADD";
+    private static final String XOR = "XOR";
+    private static final String MAX = "MAX";
+    private static final String MIN = "MIN";
+    private static final String AND = "AND";
+    private static final String OR = "OR";
+
+    protected String operator;
+    protected ICompiledMeasure left;
+    protected ICompiledMeasure right;
+    protected double leftCoefficient;
+    protected double rightCoefficient;
+    protected double threshold;
+    protected double leftThreshold;
+    protected double rightThreshold;
+
+    /**
+     * Constructor for a complex compiled measure.
+     *
+     * @param operator,
+     *            the operator of the expression
+     * @param left,
+     *            the compiled left child
+     * @param right,
+     *            the compiled right child
+     * @param leftCoefficient,
+     *            the coefficient of the left child (only used by ADD)
+     * @param rightCoefficient,
+     *            the coefficient of the right child (only used by ADD)
+     * @param threshold,
+     *            the threshold of the expression
+     * @param leftThreshold,
+     *            the threshold of the left child
+     * @param rightThreshold,
+     *            the threshold of the right child
+     */
+    public ComplexCompiledMeasure(String operator, ICompiledMeasure left, ICompiledMeasure right,
+            double leftCoefficient, double rightCoefficient, double threshold, double leftThreshold,
+            double rightThreshold) {
+        this.operator = operator;
+        this.left = left;
+        this.right = right;
+        this.leftCoefficient = leftCoefficient;
+        this.rightCoefficient = rightCoefficient;
+        this.threshold = threshold;
+        this.leftThreshold = leftThreshold;
+        this.rightThreshold = rightThreshold;
+    }
+
+    @Override
+    public double getSimilarity(Instance sourceInstance, Instance targetInstance) {
+        if (operator.equalsIgnoreCase(MAX) || operator.equalsIgnoreCase(OR) || operator.equalsIgnoreCase(XOR)) {
+            double firstChild = left.getSimilarity(sourceInstance, targetInstance);
+            double secondChild = right.getSimilarity(sourceInstance, targetInstance);
+            // (s,t) are not part of the union
+            if (firstChild < leftThreshold && secondChild < rightThreshold)
+                return 0;
+            double maxSimilarity = Math.max(firstChild, secondChild);
+            if (maxSimilarity >= threshold)
+                return maxSimilarity;
+            else
+                return 0;
+        }
+        if (operator.equalsIgnoreCase(MIN) || operator.equalsIgnoreCase(AND)) {
+            double firstChild = left.getSimilarity(sourceInstance, targetInstance);
+            // the minimum can not exceed the first child
+            if (firstChild <= 0 || firstChild < threshold)
+                return 0;
+            double secondChild = right.getSimilarity(sourceInstance, targetInstance);
+            // (s,t) are not part of the intersection
+            if (firstChild < leftThreshold && secondChild < rightThreshold)
+                return 0;
+            double minSimilarity = Math.min(firstChild, secondChild);
+            if (minSimilarity >= threshold)
+                return minSimilarity;
+            else
+                return 0;
+        }
+        if (operator.equalsIgnoreCase(ADD)) {
+            double firstChild = leftCoefficient * left.getSimilarity(sourceInstance, targetInstance);
+            double secondChild = rightCoefficient * right.getSimilarity(sourceInstance, targetInstance);
+            if (firstChild < leftThreshold && secondChild < rightThreshold)
+                return 0;
+            if (firstChild + secondChild >= threshold)
+                return firstChild + secondChild;
+            else
+                return 0;
+        }
+        // difference: the first similarity must pass both thresholds and the
+        // second similarity must be 0 in order for (s,t) to be included
+        double firstChild = left.getSimilarity(sourceInstance, targetInstance);
+        if (firstChild < leftThreshold || firstChild < threshold)
+            return 0;
+        double secondChild = right.getSimilarity(sourceInstance, targetInstance);
+        if (secondChild == 0)
+            return firstChild;
+        else
+            return 0;
+    }
+
+    @Override
+    public double getThreshold() {
+        return threshold;
+    }
+
+    public String getOperator() {
+        return operator;
+    }
+
+    public ICompiledMeasure getLeft() {
+        return left;
+    }
+
+    public ICompiledMeasure getRight() {
+        return right;
+    }
+
+    @Override
+    public String toString() {
+        return operator + "(" + left + "," + right + ")|" + threshold;
+    }
+}
@@ -0,0 +1,28 @@
+package org.aksw.limes.core.measures.measure.compiled;
+
+import org.aksw.limes.core.measures.mapper.string.EDJoinMapper;
+import org.aksw.limes.core.measures.measure.AMeasure;
+
+/**
+ * Implements the edit distance compiled measure class. Computes the similarity
+ * of two values as 1/(1 + ed), where ed is their edit distance, which is the
+ * similarity {@link EDJoinMapper} assigns to Levenshtein links.
+ *
+ * @version 1.0
+ */
+public class EditDistanceCompiledMeasure extends ValueCompiledMeasure {
+
+    public EditDistanceCompiledMeasure(AMeasure measure, String sourceProperty, String targetProperty,
+            double threshold) {
+        super(measure, sourceProperty, targetProperty, threshold);
+    }
+
+    @Override
+    protected double getValueSimilarity(String sourceValue, String targetValue) {
+        // EDJoin never links empty values
+        if (sourceValue.isEmpty() || targetValue.isEmpty()) {
+            return 0d;
+        }
+        return 1.0 / (1 + (double) EDJoinMapper.editDistance(sourceValue, targetValue));
+    }
+}
@@ -0,0 +1,33 @@
+package org.aksw.limes.core.measures.measure.compiled;
+
+import org.aksw.limes.core.io.cache.Instance;
+
+/**
+ * Implements the compiled measure interface. A compiled measure is a metric
+ * expression that has been parsed once into an evaluator tree, so that the
+ * similarity of a pair of instances can be computed directly without
+ * re-parsing the expression or building temporary caches and mappings.
+ *
+ * @version 1.0
+ */
+public interface ICompiledMeasure {
+
+    /**
+     * Returns the similarity between two instances. Similarities below the
+     * threshold the measure was compiled with are returned as 0.
+     *
+     * @param sourceInstance,
+     *            the source instance
+     * @param targetInstance,
+     *            the target instance
+     * @return the similarity of sourceInstance and targetInstance
+     */
+    public double getSimilarity(Instance sourceInstance, Instance targetInstance);
+
+    /**
+     * Returns the threshold the measure was compiled with.
+     *
+     * @return the threshold of the compiled measure
+     */
+    public double getThreshold();
+}
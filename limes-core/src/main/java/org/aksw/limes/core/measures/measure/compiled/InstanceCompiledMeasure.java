@@ -0,0 +1,25 @@
+package org.aksw.limes.core.measures.measure.compiled;
+
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.measures.measure.AMeasure;
+
+/**
+ * Implements the instance compiled measure class. The similarity of two
+ * instances is delegated to the instance-level similarity of the measure. Used
+ * for measures that combine several properties or values of an instance, e.g.
+ * the space, point-set and temporal measures.
+ *
+ * @version 1.0
+ */
+public class InstanceCompiledMeasure extends AtomicCompiledMeasure {
+
+    public InstanceCompiledMeasure(AMeasure measure, String sourceProperty, String targetProperty,
+            double threshold) {
+        super(measure, sourceProperty, targetProperty, threshold);
+    }
+
+    @Override
+    protected double computeSimilarity(Instance sourceInstance, Instance targetInstance) {
+        return measure.getSimilarity(sourceInstance, targetInstance, sourceProperty, targetProperty);
+    }
+}
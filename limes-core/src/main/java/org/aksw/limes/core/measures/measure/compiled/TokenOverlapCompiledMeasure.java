@@ -0,0 +1,73 @@
+package org.aksw.limes.core.measures.measure.compiled;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.StringTokenizer;
+
+import org.aksw.limes.core.measures.measure.AMeasure;
+import org.aksw.limes.core.measures.measure.string.IStringMeasure;
+
+/**
+ * Implements the token overlap compiled measure class. Computes the similarity
+ * of two values from the overlap of their token sets, using the same
+ * tokenization as {@link org.aksw.limes.core.measures.mapper.string.PPJoinPlusPlus},
+ * i.e. the n-th repetition of a token within a value is counted as a token of
+ * its own. Used for the cosine, jaccard, overlap and trigram measures.
+ *
+ * @version 1.0
+ */
+public class TokenOverlapCompiledMeasure extends ValueCompiledMeasure {
+
+    private static final String DELIMITERS = " .,?!\t";
+
+    public TokenOverlapCompiledMeasure(AMeasure measure, String sourceProperty, String targetProperty,
+            double threshold) {
+        super(measure, sourceProperty, targetProperty, threshold);
+    }
+
+    /**
+     * Splits a value into its tokens. Repeated tokens are made unique by
+     * appending their record frequency, e.g. "a b a" is split into {a, b, a.2}.
+     *
+     * @param value,
+     *            the input value
+     * @return the set of tokens of value
+     */
+    public static Set<String> tokenize(String value) {
+        StringTokenizer st = new StringTokenizer(value, DELIMITERS);
+        Set<String> tokens = new HashSet<String>();
+        HashMap<String, Integer> frequencies = new HashMap<String, Integer>();
+        while (st.hasMoreTokens()) {
+            String token = st.nextToken();
+            Integer frequency = frequencies.get(token);
+            if (frequency == null) {
+                frequencies.put(token, 1);
+                tokens.add(token);
+            } else {
+                frequencies.put(token, frequency + 1);
+                tokens.add(token + "." + (frequency + 1));
+            }
+        }
+        return tokens;
+    }
+
+    @Override
+    protected double getValueSimilarity(String sourceValue, String targetValue) {
+        Set<String> sourceTokens = tokenize(sourceValue);
+        Set<String> targetTokens = tokenize(targetValue);
+        if (sourceTokens.isEmpty() || targetTokens.isEmpty()) {
+            return 0d;
+        }
+        int overlap = 0;
+        for (String token : sourceTokens) {
+            if (targetTokens.contains(token)) {
+                overlap++;
+            }
+        }
+        if (overlap == 0) {
+            return 0d;
+        }
+        return ((IStringMeasure) measure).getSimilarity(overlap, sourceTokens.size(), targetTokens.size());
+    }
+}
@@ -0,0 +1,53 @@
+package org.aksw.limes.core.measures.measure.compiled;
+
+import java.util.TreeSet;
+
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.measures.measure.AMeasure;
+
+/**
+ * Implements the value compiled measure class. The similarity of two instances
+ * is the maximal similarity over all pairs of their property values, which is
+ * the similarity a mapper assigns to the link between the two instances.
+ *
+ * @version 1.0
+ */
+public class ValueCompiledMeasure extends AtomicCompiledMeasure {
+
+    public ValueCompiledMeasure(AMeasure measure, String sourceProperty, String targetProperty, double threshold) {
+        super(measure, sourceProperty, targetProperty, threshold);
+    }
+
+    /**
+     * Returns the similarity of two property values.
+     *
+     * @param sourceValue,
+     *            the source value
+     * @param targetValue,
+     *            the target value
+     * @return the similarity of sourceValue and targetValue
+     */
+    protected double getValueSimilarity(String sourceValue, String targetValue) {
+        return measure.getSimilarity(sourceValue, targetValue);
+    }
+
+    @Override
+    protected double computeSimilarity(Instance sourceInstance, Instance targetInstance) {
+        TreeSet<String> sourceValues = sourceInstance.getProperty(sourceProperty);
+        TreeSet<String> targetValues = targetInstance.getProperty(targetProperty);
+        double max = 0d;
+        for (String sourceValue : sourceValues) {
+            for (String targetValue : targetValues) {
+                double similarity = getValueSimilarity(sourceValue, targetValue);
+                if (similarity > max) {
+                    max = similarity;
+                    // no value pair can do better
+                    if (max >= 1d) {
+                        return max;
+                    }
+                }
+            }
+        }
+        return max;
+    }
+}
@@ -0,0 +1,164 @@
+package org.aksw.limes.core.measures.measure.string;
+
+/**
+ * Levenshtein distance with the bit-vector algorithm of Myers (J. ACM 1999)
+ * in the formulation of Hyyrö (2001). The columns of the dynamic program are
+ * encoded by their vertical deltas in a single long, hence the shorter string
+ * must not be longer than 64 characters. Longer strings fall back to a
+ * dynamic program on two rows restricted to a band around the diagonal. Both
+ * stop as soon as the distance is known to exceed a given bound and work on
+ * per-thread buffers, i.e., they do not allocate.
+ *
+ * @version 1.0
+ */
+public final class BitParallelLevenshtein {
+
+    /**
+     * Length of the longest string handled by the bit-vector algorithm.
+     */
+    public static final int WORD_SIZE = 64;
+
+    private static final ThreadLocal<Scratch> scratch = ThreadLocal.withInitial(Scratch::new);
+
+    private static final class Scratch {
+        /**
+         * Match vectors of the characters of the pattern, reset after use.
+         */
+        final long[] peq = new long[Character.MAX_VALUE + 1];
+        int[] previous = new int[WORD_SIZE + 2];
+        int[] current = new int[WORD_SIZE + 2];
+    }
+
+    private BitParallelLevenshtein() {
+    }
+
+    /**
+     * @param x
+     *            first string
+     * @param y
+     *            second string
+     * @return the Levenshtein distance of the strings
+     */
+    public static int distance(String x, String y) {
+        return distance(x, y, Math.max(x.length(), y.length()));
+    }
+
+    /**
+     * Computes the Levenshtein distance of two strings if it does not exceed
+     * a bound.
+     *
+     * @param x
+     *            first string
+     * @param y
+     *            second string
+     * @param max
+     *            bound of the distance
+     * @return the distance or max + 1 if the distance exceeds max
+     */
+    public static int distance(String x, String y, int max) {
+        // the pattern is the shorter string
+        if (x.length() > y.length()) {
+            String swap = x;
+            x = y;
+            y = swap;
+        }
+        int m = x.length();
+        int n = y.length();
+        if (n - m > max) {
+            return max + 1;
+        }
+        // the distance does not exceed the length of the longer string
+        max = Math.min(max, n);
+        if (m == 0) {
+            return n;
+        }
+        if (m <= WORD_SIZE) {
+            return myers(x, y, max);
+        }
+        return banded(x, y, max);
+    }
+
+    private static int myers(String pattern, String text, int max) {
+        int m = pattern.length();
+        int n = text.length();
+        long[] peq = scratch.get().peq;
+        for (int i = 0; i < m; i++) {
+            peq[pattern.charAt(i)] |= 1L << i;
+        }
+        long last = 1L << (m - 1);
+        long pv = -1L;
+        long mv = 0L;
+        int score = m;
+        int result = -1;
+        for (int j = 0; j < n; j++) {
+            long eq = peq[text.charAt(j)];
+            long xv = eq | mv;
+            long xh = (((eq & pv) + pv) ^ pv) | eq;
+            long ph = mv | ~(xh | pv);
+            long mh = pv & xh;
+            if ((ph & last) != 0) {
+                score++;
+            } else if ((mh & last) != 0) {
+                score--;
+            }
+            // the remaining characters lower the distance by at most one
+            // each
+            if (score - (n - j - 1) > max) {
+                result = max + 1;
+                break;
+            }
+            // row 0 of the dynamic program grows by one in every column
+            ph = (ph << 1) | 1L;
+            mh = mh << 1;
+            pv = mh | ~(xv | ph);
+            mv = ph & xv;
+        }
+        for (int i = 0; i < m; i++) {
+            peq[pattern.charAt(i)] = 0L;
+        }
+        if (result >= 0) {
+            return result;
+        }
+        return score <= max ? score : max + 1;
+    }
+
+    /**
+     * Dynamic program on the cells within max of the diagonal, for strings
+     * too long for the bit-vector algorithm.
+     */
+    private static int banded(String x, String y, int max) {
+        int m = y.length();
+        int out = max + 1;
+        Scratch s = scratch.get();
+        if (s.previous.length < m + 2) {
+            s.previous = new int[m + 2];
+            s.current = new int[m + 2];
+        }
+        int[] previous = s.previous;
+        int[] current = s.current;
+        for (int j = 0; j <= m; j++) {
+            previous[j] = Math.min(j, out);
+        }
+        for (int i = 1; i <= x.length(); i++) {
+            int from = Math.max(1, i - max);
+            int to = Math.min(m, i + max);
+            current[from - 1] = from == 1 ? Math.min(i, out) : out;
+            int rowMin = current[from - 1];
+            char c = x.charAt(i - 1);
+            for (int j = from; j <= to; j++) {
+                int d = previous[j - 1] + (c == y.charAt(j - 1) ? 0 : 1);
+                d = Math.min(d, Math.min(previous[j], current[j - 1]) + 1);
+                current[j] = Math.min(d, out);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            current[to + 1] = out;
+            if (rowMin > max) {
+                return out;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[m];
+    }
+}
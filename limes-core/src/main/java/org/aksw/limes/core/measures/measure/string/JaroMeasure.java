@@ -98,7 +98,7 @@ public class JaroMeasure extends StringMeasure {
     }
 
     public double getSimilarity(Object object1, Object object2) {
-        throw new UnsupportedOperationException("Not supported yet.");
+        return getSimilarity(object1 + "", object2 + "");
     }
 
     public String getType() {
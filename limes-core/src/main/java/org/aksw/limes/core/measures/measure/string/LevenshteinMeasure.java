@@ -32,9 +32,18 @@ public class LevenshteinMeasure extends StringMeasure {
         throw new UnsupportedOperationException("Not supported yet.");
     }
 
+    /**
+     * Computes 1 - d / l, where d is the Levenshtein distance and l the
+     * length of the longer string, in float precision as SimMetrics does.
+     */
     public double getSimilarity(Object object1, Object object2) {
-        return (new uk.ac.shef.wit.simmetrics.similaritymetrics.Levenshtein()).getSimilarity(object1 + "",
-                object2 + "");
+        String s1 = object1 + "";
+        String s2 = object2 + "";
+        float maxLength = Math.max(s1.length(), s2.length());
+        if (maxLength == 0) {
+            return 1f;
+        }
+        return 1f - (BitParallelLevenshtein.distance(s1, s2) / maxLength);
     }
 
     public String getType() {
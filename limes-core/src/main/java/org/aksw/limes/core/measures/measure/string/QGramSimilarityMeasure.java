@@ -71,7 +71,7 @@ public class QGramSimilarityMeasure extends StringMeasure {
     }
 
     public double getSimilarity(Object object1, Object object2) {
-        throw new UnsupportedOperationException("Not supported yet.");
+        return getSimilarity(object1 + "", object2 + "");
     }
 
     public String getType() {
@@ -0,0 +1,64 @@
+package org.aksw.limes.core.measures.measure.topology;
+
+import org.aksw.limes.core.io.cache.GeometryStore;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.measures.measure.AMeasure;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Base class of the measures that check for a topological relation. The WKT
+ * values are read through the shared {@link GeometryStore}, hence each value
+ * is parsed and prepared once.
+ *
+ * @version 1.0
+ */
+public abstract class ATopologicalMeasure extends AMeasure {
+
+    @Override
+    public double getSimilarity(Object object1, Object object2) {
+        // expects WKT Strings
+        GeometryStore store = GeometryStore.getShared();
+        GeometryStore.Entry source = store.get(object1.toString());
+        Geometry target = store.getGeometry(object2.toString());
+        if (source == null || target == null) {
+            return 0d;
+        }
+        return relate(source, target) ? 1d : 0d;
+    }
+
+    @Override
+    public double getSimilarity(Instance instance1, Instance instance2, String property1, String property2) {
+        double value = 0;
+        double sim = 0;
+        for (String source : instance1.getProperty(property1)) {
+            for (String target : instance2.getProperty(property2)) {
+                sim = getSimilarity(source, target);
+                if (sim > value) {
+                    value = sim;
+                }
+            }
+        }
+        return value;
+    }
+
+    /**
+     * @param source
+     *            stored source geometry
+     * @param target
+     *            target geometry
+     * @return true if the source and the target are in the relation of the
+     *         measure
+     */
+    protected abstract boolean relate(GeometryStore.Entry source, Geometry target);
+
+    @Override
+    public double getRuntimeApproximation(double mappingSize) {
+        return mappingSize / 1000d;
+    }
+
+    @Override
+    public String getType() {
+        return "topology";
+    }
+}
@@ -70,6 +70,8 @@ public class Eagle extends ACoreMLAlgorithm {
     public static final String REPRODUCTION_RATE = "reproduction_rate";
     public static final String CROSSOVER_RATE = "crossover_rate";
     public static final String PSEUDO_FMEASURE = "pseudo_fmeasure";
+    public static final String PARALLELISM = "parallelism";
+    public static final String MAX_MAPPING_SIZE = "max_mapping_size";
 
     public static final String MEASURE = "measure";
     public static final String PROPERTY_MAPPING = "property_mapping";
@@ -118,7 +120,7 @@ public class Eagle extends ACoreMLAlgorithm {
         Integer nGen = (Integer) getParameter(GENERATIONS);
         
         for (int gen = 1; gen <= nGen; gen++) {
-            gp.evolve();
+            evolve();
             bestSolutions.add(determineFittest(gp, gen));
         }
 
@@ -145,7 +147,7 @@ public class Eagle extends ACoreMLAlgorithm {
         specifications = new LinkedList<LinkSpecification>();
         logger.info("Start learning");
         for (int gen = 1; gen <= nGen; gen++) {
-            gp.evolve();
+            evolve();
             IGPProgram currentBest = determineFittestUnsup(gp, gen);
             LinkSpecification currentBestMetric = getLinkSpecification(currentBest);
             //TODO: save the best LS of each generation
@@ -211,6 +213,8 @@ public class Eagle extends ACoreMLAlgorithm {
     	learningParameters.add(new LearningParameter(MEASURE, new FMeasure(), IQualitativeMeasure.class, Double.NaN, Double.NaN, Double.NaN, MEASURE));
     	learningParameters.add(new LearningParameter(PSEUDO_FMEASURE, new PseudoFMeasure(), IQualitativeMeasure.class, Double.NaN, Double.NaN, Double.NaN, MEASURE));
     	learningParameters.add(new LearningParameter(PROPERTY_MAPPING, new PropertyMapping(), PropertyMapping.class, Double.NaN, Double.NaN, Double.NaN, PROPERTY_MAPPING));  	    
+    	learningParameters.add(new LearningParameter(PARALLELISM, 1, Integer.class, 1, Integer.MAX_VALUE, 1, PARALLELISM));
+    	learningParameters.add(new LearningParameter(MAX_MAPPING_SIZE, 10000000L, Long.class, 1, Long.MAX_VALUE, 1, MAX_MAPPING_SIZE));
     }
 
 
@@ -255,6 +259,8 @@ public class Eagle extends ACoreMLAlgorithm {
         	jgapConfig.setFitnessFunction(fitness);
         	
         }
+        fitness.setParallelism((Integer) getParameter(PARALLELISM));
+        fitness.setMaxMappingSize((Long) getParameter(MAX_MAPPING_SIZE));
         
 
         GPProblem gpP;
@@ -264,6 +270,17 @@ public class Eagle extends ACoreMLAlgorithm {
     }
 
 
+    /**
+     * Evolves the population by one generation. The fitness of the individuals
+     * is computed for the whole population at once before and after the
+     * evolution, so that JGAP only reads the values.
+     */
+    private void evolve() {
+        fitness.evaluatePopulation(gp.getGPPopulation());
+        gp.evolve();
+        fitness.evaluatePopulation(gp.getGPPopulation());
+    }
+
     /**
      * Returns only positive matches, that are those with a confidence higher then 0.
      *
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 import org.aksw.limes.core.datastrutures.Tree;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
@@ -74,7 +75,7 @@ public class WombatComplete extends AWombat {
      */
     private MLResults learn() {
         if (bestSolutionNode == null) { // not to do learning twice
-            bestSolutionNode = findBestSolution();
+            bestSolutionNode = withEvaluationPool(this::findBestSolution);
         }
         String bestMetricExpr = bestSolutionNode.getMetricExpression();
         double threshold = Double.parseDouble(bestMetricExpr.substring(bestMetricExpr.lastIndexOf("|") + 1, bestMetricExpr.length()));
@@ -184,15 +185,21 @@ public class WombatComplete extends AWombat {
      */
     private Map<String, AMapping> computeClassifiersDiffPermutations(List<ExtendedClassifier> c) {
         Map<String, AMapping> diffs = new HashMap<>();
+        List<String> expressions = new ArrayList<>();
+        List<Callable<AMapping>> tasks = new ArrayList<>();
         for (int i = 0; i < c.size(); i++) {
             for (int j = 0; j < c.size(); j++) {
                 if (i != j) {
-                    AMapping m = MappingOperations.difference(c.get(i).getMapping(), c.get(j).getMapping());
-                    String e = "MINUS(" + c.get(i).getMetricExpression() + "," + c.get(j).getMetricExpression() + ")|0.0";
-                    diffs.put(e, m);
+                    ExtendedClassifier ci = c.get(i), cj = c.get(j);
+                    expressions.add("MINUS(" + ci.getMetricExpression() + "," + cj.getMetricExpression() + ")|0.0");
+                    tasks.add(() -> MappingOperations.difference(ci.getMapping(), cj.getMapping()));
                 }
             }
         }
+        List<AMapping> mappings = evaluate(tasks);
+        for (int i = 0; i < mappings.size(); i++) {
+            diffs.put(expressions.get(i), mappings.get(i));
+        }
         return diffs;
     }
     
@@ -318,11 +325,7 @@ public class WombatComplete extends AWombat {
         String nodeMetricExpr = node.getValue().getMetricExpression();
         // is it the root of the tree?
         if (node.getParent() == null) {
-            for (String diffExpr : diffs.keySet()) {
-                AMapping diffMapping = diffs.get(diffExpr);
-                result.add(createNode(diffMapping, diffExpr));
-            }
-            return result;
+            return createDiffNodes();
         } else if (isAtomic(nodeMetricExpr)) {
             return createDisjunctionsWithDiffNodes(node);
         } else if (isDifference(nodeMetricExpr)) {
@@ -388,20 +391,38 @@ public class WombatComplete extends AWombat {
      * @return list of nodes L \cup A_i \ A_j | A_i \in P, A_j \in P, where P is the set if initial classifiers
      */
     private List<RefinementNode> createDisjunctionsWithDiffNodes(Tree<RefinementNode> node) {
-        List<RefinementNode> result = new ArrayList<>();
+        List<Callable<RefinementNode>> tasks = new ArrayList<>();
+        AMapping nodeMaping = getNodeMapping(node);
         for (String diffExpr : diffs.keySet()) {
             AMapping diffMapping = diffs.get(diffExpr);
             String childMetricExpr = "OR(" + node.getValue().getMetricExpression() + "," + diffExpr + ")|0.0";
-            AMapping nodeMaping = MappingFactory.createDefaultMapping();
-            if (RefinementNode.isSaveMapping()) {
-                nodeMaping = node.getValue().getMapping();
-            } else {
-                nodeMaping = getMapingOfMetricExpression(node.getValue().getMetricExpression());
-            }
-            AMapping childMap = MappingOperations.union(nodeMaping, diffMapping);
-            result.add(createNode(childMap, childMetricExpr));
+            tasks.add(() -> createNode(MappingOperations.union(nodeMaping, diffMapping), childMetricExpr));
         }
-        return result;
+        return evaluate(tasks);
+    }
+
+    /**
+     * @return one node for each of the diffs, evaluated concurrently
+     */
+    private List<RefinementNode> createDiffNodes() {
+        List<Callable<RefinementNode>> tasks = new ArrayList<>();
+        for (String diffExpr : diffs.keySet()) {
+            AMapping diffMapping = diffs.get(diffExpr);
+            tasks.add(() -> createNode(diffMapping, diffExpr));
+        }
+        return evaluate(tasks);
+    }
+
+    /**
+     * @param node
+     * @return the saved mapping of the node, or the recomputed one if the
+     * mappings are not saved
+     */
+    private AMapping getNodeMapping(Tree<RefinementNode> node) {
+        if (RefinementNode.isSaveMapping()) {
+            return node.getValue().getMapping();
+        }
+        return getMapingOfMetricExpression(node.getValue().getMetricExpression());
     }
 
    
@@ -436,20 +457,14 @@ public class WombatComplete extends AWombat {
      * @return list of nodes L \cup A_i \ A_j | A_i \in P, A_j \in P, where P is the set if initial classifiers
      */
     private List<RefinementNode> createConjunctionsWithDiffNodes(Tree<RefinementNode> node) {
-        List<RefinementNode> result = new ArrayList<>();
+        List<Callable<RefinementNode>> tasks = new ArrayList<>();
+        AMapping nodeMaping = getNodeMapping(node);
         for (String diffExpr : diffs.keySet()) {
             AMapping diffMapping = diffs.get(diffExpr);
-            AMapping nodeMaping = MappingFactory.createDefaultMapping();
-            if (RefinementNode.isSaveMapping()) {
-                nodeMaping = node.getValue().getMapping();
-            } else {
-                nodeMaping = getMapingOfMetricExpression(node.getValue().getMetricExpression());
-            }
             String childMetricExpr = "AND(" + node.getValue().getMetricExpression() + "," + diffExpr + ")|0.0";
-            AMapping childMap = MappingOperations.intersection(nodeMaping, diffMapping);
-            result.add(createNode(childMap, childMetricExpr));
+            tasks.add(() -> createNode(MappingOperations.intersection(nodeMaping, diffMapping), childMetricExpr));
         }
-        return result;
+        return evaluate(tasks);
     }
     
     /**
@@ -501,9 +516,7 @@ public class WombatComplete extends AWombat {
     private void createRefinementTreeRoot() {
         RefinementNode initialNode = new RefinementNode(-Double.MAX_VALUE, MappingFactory.createDefaultMapping(), "");
         refinementTreeRoot = new Tree<RefinementNode>(null, initialNode, null);
-        for (String diffExpr : diffs.keySet()) {
-            AMapping diffMapping = diffs.get(diffExpr);
-            RefinementNode n = createNode(diffMapping, diffExpr);
+        for (RefinementNode n : createDiffNodes()) {
             refinementTreeRoot.addChild(new Tree<RefinementNode>(refinementTreeRoot, n, null));
         }
         if (isVerbose()) {
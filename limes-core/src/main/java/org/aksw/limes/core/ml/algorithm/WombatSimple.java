@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.Iterator;
 import java.util.List;
 import java.util.TreeSet;
+import java.util.concurrent.Callable;
 
 import org.aksw.limes.core.datastrutures.LogicOperator;
 import org.aksw.limes.core.datastrutures.Tree;
@@ -75,7 +76,7 @@ public class WombatSimple extends AWombat {
      */
     private MLResults learn() {
         if (bestSolutionNode == null) { // not to do learning twice
-            bestSolutionNode = findBestSolution();
+            bestSolutionNode = withEvaluationPool(this::findBestSolution);
         }
         String bestMetricExpr = bestSolutionNode.getMetricExpression();
         if(!bestMetricExpr.equals("")){
@@ -166,7 +167,7 @@ public class WombatSimple extends AWombat {
         this.isUnsupervised = false;
         trainingData = MappingOperations.union(trainingData, oracleMapping);
         updateScores(refinementTreeRoot);
-        bestSolutionNode = findBestSolution();
+        bestSolutionNode = withEvaluationPool(this::findBestSolution);
         String bestMetricExpr = bestSolutionNode.getMetricExpression();
         double threshold = Double.parseDouble(bestMetricExpr.substring(bestMetricExpr.lastIndexOf("|") + 1, bestMetricExpr.length()));
         AMapping bestMapping = bestSolutionNode.getMapping();
@@ -274,7 +275,9 @@ public class WombatSimple extends AWombat {
     /**
      * Expand an input refinement node by applying
      * all available operators to the input refinement
-     * node's mapping with all other classifiers' mappings
+     * node's mapping with all other classifiers' mappings.
+     * The children are evaluated concurrently if the parallelism
+     * is greater than one and added in the order of the classifiers
      *
      * @param node
      *         Refinement node to be expanded
@@ -282,23 +285,28 @@ public class WombatSimple extends AWombat {
      * @author sherif
      */
     private Tree<RefinementNode> expandNode(Tree<RefinementNode> node) {
-        AMapping map = MappingFactory.createDefaultMapping();
+        List<Callable<RefinementNode>> tasks = new ArrayList<>();
         for (ExtendedClassifier c : classifiers) {
             for (LogicOperator op : LogicOperator.values()) {
                 if (node.getValue().getMetricExpression() != c.getMetricExpression()) { // do not create the same metricExpression again
-                    if (op.equals(LogicOperator.AND)) {
-                        map = MappingOperations.intersection(node.getValue().getMapping(), c.getMapping());
-                    } else if (op.equals(LogicOperator.OR)) {
-                        map = MappingOperations.union(node.getValue().getMapping(), c.getMapping());
-                    } else if (op.equals(LogicOperator.MINUS)) {
-                        map = MappingOperations.difference(node.getValue().getMapping(), c.getMapping());
-                    }
-                    String metricExpr = op + "(" + node.getValue().getMetricExpression() + "," + c.getMetricExpression() + ")|0";
-                    RefinementNode child = createNode(map, metricExpr);
-                    node.addChild(new Tree<RefinementNode>(child));
+                    tasks.add(() -> {
+                        AMapping map = MappingFactory.createDefaultMapping();
+                        if (op.equals(LogicOperator.AND)) {
+                            map = MappingOperations.intersection(node.getValue().getMapping(), c.getMapping());
+                        } else if (op.equals(LogicOperator.OR)) {
+                            map = MappingOperations.union(node.getValue().getMapping(), c.getMapping());
+                        } else if (op.equals(LogicOperator.MINUS)) {
+                            map = MappingOperations.difference(node.getValue().getMapping(), c.getMapping());
+                        }
+                        String metricExpr = op + "(" + node.getValue().getMetricExpression() + "," + c.getMetricExpression() + ")|0";
+                        return createNode(map, metricExpr);
+                    });
                 }
             }
         }
+        for (RefinementNode child : evaluate(tasks)) {
+            node.addChild(new Tree<RefinementNode>(child));
+        }
         if (isVerbose()) {
             refinementTreeRoot.print();
         }
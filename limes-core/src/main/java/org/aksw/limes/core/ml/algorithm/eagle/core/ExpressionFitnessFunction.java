@@ -6,6 +6,7 @@ import java.util.Map.Entry;
 
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.IQualitativeMeasure;
+import org.aksw.limes.core.exceptions.MappingSizeExceededException;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
@@ -111,26 +112,21 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
     }
 
     /**
-     * Calculates the fitness of the given GPProgram p. This is done as follows:
-     * 1.1 get the Metric Expression by executing (as object) the first chromosome.
-     * 1.2 get the mapping links with these settings
+     * Calculates the fitness of the given link specification of a GPProgram. This is done as follows:
+     * 1. get the mapping links with these settings
      * 2. Calculate either recall, precision or f-score and return 1 minus it.
      * The evolution could produce non wanted individuals especially those who compare properties which are
-     * not part of the PropertyMapping (set in the ExpressionConfiguration). In such cases setp 1.1 throws an
-     * IllegalStateException. As a result the fitness value would be set to rather bad one.
+     * not part of the PropertyMapping (set in the ExpressionConfiguration). In such cases the fitness value
+     * would be set to rather bad one. So is the fitness of specifications whose mappings exceed the maximal
+     * mapping size.
      *
-     * @param p
-     *         GPProgram fitness is calculated for.
+     * @param spec
+     *         link specification of the GPProgram fitness is calculated for.
      * @return Double value. The closer to 0 the better.
      */
-    public double calculateRawFitness(IGPProgram p) {
-        p.getGPConfiguration().clearStack();
-        p.getGPConfiguration().clearMemory();
-        // get actual Mapping
-        Object[] args = {};
-        ProgramChromosome pc = p.getChromosome(0);
+    @Override
+    protected double calculateRawFitness(LinkSpecification spec) {
         AMapping actualMapping = MappingFactory.createDefaultMapping();
-        LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
         String expr = spec.getFilterExpression();
         
         if(expr == null)
@@ -141,11 +137,11 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
         }
         try {
         	if(!useFullCaches)
-        		actualMapping = getMapping(trimmedSourceCache, trimmedTargetCache, spec);
+        		actualMapping = getMapping(trimmedSourceCache, trimmedTargetCache, spec, maxMappingSize);
         	else
-        		actualMapping = getMapping(sC, tC, spec);
-        } catch (java.lang.OutOfMemoryError e) {
-            e.printStackTrace();
+        		actualMapping = getMapping(sC, tC, spec, maxMappingSize);
+        } catch (MappingSizeExceededException e) {
+            logger.debug("Aborted expression " + spec + ": " + e.getMessage());
             return 8d;
         }
 
@@ -154,9 +150,6 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
         if (res > 1d) {
             logger.info("Error Measure > 1: " + res + ". May want to normalize it?");
         }
-        // get rid of Mapping
-        actualMapping.getMap().clear();
-        actualMapping = null;
         // this could happen
         if (Double.isNaN(res)) {//so we manually return a bad fitness value
             return 5d;
@@ -177,15 +170,10 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
         if (expr.indexOf("falseProp") > -1) {
             return 0d;
         }
-        try {
-        	if(!useFullCaches)
-        		actualMapping = getMapping(trimmedSourceCache, trimmedTargetCache, spec);
-        	else
-        		actualMapping = getMapping(sC, tC, spec);
-        } catch (java.lang.OutOfMemoryError e) {
-            e.printStackTrace();
-            return 0d;
-        }
+        if(!useFullCaches)
+        	actualMapping = getMapping(trimmedSourceCache, trimmedTargetCache, spec);
+        else
+        	actualMapping = getMapping(sC, tC, spec);
 
         // compare actualMap to optimalMap
         return getMeasure(actualMapping, reference, crossProduct);
@@ -232,22 +220,33 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
     @Override
     public AMapping getMapping(ACache sourceCache, ACache targetCache, LinkSpecification spec) {
         try {
-        	
-        	ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT,
-        			 sourceCache, targetCache,
-                     this.m_config.source.getVar(), this.m_config.target.getVar());
-        	IPlanner planner = ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.DEFAULT,
-                  sC, tC);
-        	return engine.execute(spec, planner);
+        	return getMapping(sourceCache, targetCache, spec, Long.MAX_VALUE);
         } catch (Exception e) {
             logger.error("Exception execution expression " + spec+" on Caches "+sourceCache.size()+", "+targetCache.size());
             return MappingFactory.createDefaultMapping();
-        } catch (java.lang.OutOfMemoryError e) {
-            logger.warn("Out of memory trying to get Map for expression\"" + spec + "\".");
-            return MappingFactory.createDefaultMapping();
         }
     }
 
+    /**
+     * Executes a link specification with its own engine, so that several
+     * specifications can be executed concurrently. Failures are passed on, so
+     * that no fitness is cached for them.
+     *
+     * @param maxMappingSize
+     *         maximal number of links of the intermediate mappings
+     * @throws MappingSizeExceededException
+     *         if a mapping exceeds the maximal size
+     */
+    private AMapping getMapping(ACache sourceCache, ACache targetCache, LinkSpecification spec, long maxMappingSize) {
+        ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT,
+                sourceCache, targetCache,
+                this.m_config.source.getVar(), this.m_config.target.getVar());
+        engine.setMaxMappingSize(maxMappingSize);
+        IPlanner planner = ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.DEFAULT,
+                sC, tC);
+        return engine.execute(spec, planner);
+    }
+
     /**
      * Method to scale down caches according to given training data.
      *
@@ -274,6 +273,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
         	logger.info("Scaling down target cache returned empty cache. Wrong training data was set. Using full Cache instead");
         logger.info("Trimming to " + trimmed[0].size() + " and " + trimmed[1].size() + " caches.");
         crossProduct = trimmedSourceCache.size() * trimmedTargetCache.size();
+        clearFitnessCache();
     }
 
     /**
@@ -283,6 +283,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
      */
     public void setUseFullCaches(boolean value) {
     	this.useFullCaches = value;
+    	clearFitnessCache();
     }
 
     public LinkSpecification getMetric(IGPProgram p) {
@@ -303,6 +304,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
      */
     public void setReferenceMapping(AMapping referenceData) {
         reference = referenceData;
+        clearFitnessCache();
     }
 
     /**
@@ -319,6 +321,7 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
             }
         }
         logger.info("Reference has now " + reference.size() + " Matches.");
+        clearFitnessCache();
     }
 
     public void fillCachesIncrementally(AMapping matches) {
@@ -339,10 +342,12 @@ public class ExpressionFitnessFunction extends IGPFitnessFunction {
 //                trimmedSourceCache, trimmedTargetCache,
 //                this.m_config.source.getVar(), this.m_config.target.getVar());
         crossProduct = trimmedSourceCache.size() * trimmedTargetCache.size();
+        clearFitnessCache();
     }
 
     public void setCaches(ACache sC, ACache tC) {
         this.sC = sC;
         this.tC = tC;
+        clearFitnessCache();
     }
 }
@@ -1,21 +1,250 @@
 package org.aksw.limes.core.ml.algorithm.eagle.core;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.jgap.gp.GPFitnessFunction;
+import org.jgap.gp.GPProgramBase;
+import org.jgap.gp.IGPProgram;
+import org.jgap.gp.impl.GPPopulation;
+import org.jgap.gp.impl.ProgramChromosome;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
+ * Base class of EAGLEs fitness functions. The fitness of an individual only
+ * depends on its link specification, so fitness values are cached by the
+ * normalized specification and the individuals of a generation can be
+ * evaluated concurrently, see {@link #evaluatePopulation(GPPopulation)}.
+ * Every execution of a specification is bounded by a maximal mapping size.
+ *
  * @author Tommaso Soru (tsoru@informatik.uni-leipzig.de)
  *
  */
 public abstract class IGPFitnessFunction extends GPFitnessFunction implements IFitnessFunction {
 
 	/**
-	 * 
+	 *
 	 */
 	private static final long serialVersionUID = -94163100342394354L;
-	
+
+	/**
+	 * Maximal number of cached fitness values.
+	 */
+	public static final int FITNESS_CACHE_SIZE = 10000;
+
+	/**
+	 * Fitness of individuals whose specification could not be executed.
+	 */
+	public static final double FAILED_FITNESS = 8d;
+
+	private static final Logger logger = LoggerFactory.getLogger(IGPFitnessFunction.class);
+
+	private final Map<String, Double> fitnessCache = new LinkedHashMap<String, Double>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<String, Double> eldest) {
+			return size() > FITNESS_CACHE_SIZE;
+		}
+	};
+
+	protected int parallelism = 1;
+
+	protected long maxMappingSize = Long.MAX_VALUE;
+
 	public abstract void addToReference(AMapping m);
-	
+
 	public abstract void fillCachesIncrementally(AMapping matches);
-	
+
+	/**
+	 * Computes the fitness of a link specification. Implementations are called
+	 * concurrently and must not modify the state of the fitness function.
+	 *
+	 * @param spec
+	 *            the link specification of an individual
+	 * @return the fitness, the closer to 0 the better
+	 */
+	protected abstract double calculateRawFitness(LinkSpecification spec);
+
+	public double calculateRawFitness(IGPProgram p) {
+		return getFitness(getLinkSpecification(p));
+	}
+
+	/**
+	 * Executes the first chromosome of an individual. As this uses the stack
+	 * and memory of the shared GP configuration, it must not be called
+	 * concurrently.
+	 *
+	 * @param p
+	 *            GP program
+	 * @return its link specification
+	 */
+	public static LinkSpecification getLinkSpecification(IGPProgram p) {
+		p.getGPConfiguration().clearStack();
+		p.getGPConfiguration().clearMemory();
+		Object[] args = {};
+		ProgramChromosome pc = p.getChromosome(0);
+		return (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
+	}
+
+	/**
+	 * Normalizes a link specification to the key of its fitness value. Equal
+	 * specifications of different individuals share the key.
+	 *
+	 * @param spec
+	 *            a link specification
+	 * @return its metric expression and threshold
+	 */
+	public static String getKey(LinkSpecification spec) {
+		String expression = spec.getFullExpression() != null ? spec.getFullExpression() : spec.toStringOneLine();
+		return expression.replaceAll("\\s+", "") + ">=" + spec.getThreshold();
+	}
+
+	/**
+	 * @param spec
+	 *            a link specification
+	 * @return its cached fitness or, if none, its computed fitness. If the
+	 *         computation fails, {@link #FAILED_FITNESS}, which is not cached.
+	 */
+	protected double getFitness(LinkSpecification spec) {
+		String key = getKey(spec);
+		synchronized (fitnessCache) {
+			Double fitness = fitnessCache.get(key);
+			if (fitness != null) {
+				return fitness;
+			}
+		}
+		double fitness;
+		try {
+			fitness = calculateRawFitness(spec);
+		} catch (RuntimeException e) {
+			logger.warn("Evaluating " + spec + " failed: " + e);
+			return FAILED_FITNESS;
+		}
+		synchronized (fitnessCache) {
+			fitnessCache.put(key, fitness);
+		}
+		return fitness;
+	}
+
+	/**
+	 * Sets the fitness value of all individuals of a population which were not
+	 * evaluated yet. Their link specifications are derived one after the
+	 * other, the distinct ones which have no cached fitness are executed
+	 * concurrently by up to {@link #getParallelism()} threads. The values are
+	 * the same as the ones computed by JGAP one individual at a time.
+	 *
+	 * @param population
+	 *            a GP population
+	 */
+	public void evaluatePopulation(GPPopulation population) {
+		List<IGPProgram> programs = new ArrayList<IGPProgram>();
+		List<String> keys = new ArrayList<String>();
+		Map<String, LinkSpecification> pending = new LinkedHashMap<String, LinkSpecification>();
+		for (IGPProgram p : population.getGPPrograms()) {
+			if (p == null || (p instanceof GPProgramBase && ((GPProgramBase) p).getFitnessValueDirectly() >= 0)) {
+				continue;
+			}
+			LinkSpecification spec = getLinkSpecification(p);
+			String key = getKey(spec);
+			programs.add(p);
+			keys.add(key);
+			synchronized (fitnessCache) {
+				if (!fitnessCache.containsKey(key)) {
+					pending.put(key, spec);
+				}
+			}
+		}
+		Map<String, Double> values = new LinkedHashMap<String, Double>();
+		int threads = Math.min(parallelism, pending.size());
+		if (threads <= 1) {
+			for (Map.Entry<String, LinkSpecification> e : pending.entrySet()) {
+				values.put(e.getKey(), getFitness(e.getValue()));
+			}
+		} else {
+			List<Callable<Double>> tasks = new ArrayList<Callable<Double>>();
+			for (final LinkSpecification spec : pending.values()) {
+				tasks.add(new Callable<Double>() {
+					@Override
+					public Double call() {
+						return getFitness(spec);
+					}
+				});
+			}
+			ExecutorService executor = Executors.newFixedThreadPool(threads);
+			try {
+				List<Future<Double>> futures = executor.invokeAll(tasks);
+				int i = 0;
+				for (String key : pending.keySet()) {
+					values.put(key, futures.get(i++).get());
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RuntimeException("Interrupted while evaluating the population", e);
+			} catch (ExecutionException e) {
+				throw new RuntimeException("Evaluating the population failed", e.getCause());
+			} finally {
+				executor.shutdownNow();
+			}
+		}
+		for (int i = 0; i < programs.size(); i++) {
+			Double fitness = values.get(keys.get(i));
+			if (fitness == null) {
+				synchronized (fitnessCache) {
+					fitness = fitnessCache.get(keys.get(i));
+				}
+			}
+			if (fitness == null) {
+				// evicted in the meantime
+				fitness = calculateRawFitness(programs.get(i));
+			}
+			programs.get(i).setFitnessValue(fitness);
+		}
+	}
+
+	/**
+	 * Removes all cached fitness values. Must be called whenever the fitness
+	 * of a specification changes, e.g., with the reference or the caches.
+	 */
+	public void clearFitnessCache() {
+		synchronized (fitnessCache) {
+			fitnessCache.clear();
+		}
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	/**
+	 * @param parallelism
+	 *            number of threads evaluating a population
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = Math.max(1, parallelism);
+	}
+
+	public long getMaxMappingSize() {
+		return maxMappingSize;
+	}
+
+	/**
+	 * @param maxMappingSize
+	 *            maximal number of links of the mappings computed to evaluate
+	 *            an individual. Individuals exceeding it get a bad fitness.
+	 */
+	public void setMaxMappingSize(long maxMappingSize) {
+		this.maxMappingSize = maxMappingSize;
+		clearFitnessCache();
+	}
 }
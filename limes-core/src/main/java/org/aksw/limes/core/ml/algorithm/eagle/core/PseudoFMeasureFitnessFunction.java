@@ -1,7 +1,8 @@
 package org.aksw.limes.core.ml.algorithm.eagle.core;
 
-import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoPRFAccumulator;
+import org.aksw.limes.core.exceptions.MappingSizeExceededException;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory.ExecutionEngineType;
@@ -13,7 +14,6 @@ import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.jgap.gp.IGPProgram;
-import org.jgap.gp.impl.ProgramChromosome;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -34,7 +34,6 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
     private static final long serialVersionUID = -7114137172832439294L;
     static Logger logger = LoggerFactory.getLogger("LIMES");
     private static PseudoFMeasureFitnessFunction instance = null;
-    public ExecutionEngine engine;
     ACache sourceCache, targetCache;
     LinkSpecGeneticLearnerConfig config;
     double beta = 1.0d;
@@ -46,7 +45,6 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
         sourceCache = c1;
         targetCache = c2;
         this.pfm = pfm;
-        engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, c1, c2, a_config.source.getVar(), a_config.target.getVar());
     }
 
     /**
@@ -72,18 +70,21 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
     }
 
     /**
-     * Determine fitness of the individual p;
+     * Determine fitness of the link specification of an individual;
      *
-     * @param p GP programs
-     * @return 1-PseudoFMeasure. Or if something wents wrong either 5d, iff p isn't fulfilling all constraints. 8d if executing p results in memory error.
+     * @param spec link specification of the GP program
+     * @return 1-PseudoFMeasure. Or if something wents wrong either 5d, iff p isn't fulfilling all constraints. 8d if the mapping of spec exceeds the maximal mapping size.
      */
-    public double calculateRawFitness(IGPProgram p) {
-        double pseudoFMeasure = calculatePseudoMeasure(p);
+    @Override
+    protected double calculateRawFitness(LinkSpecification spec) {
+        double pseudoFMeasure;
+        try {
+            pseudoFMeasure = calculatePseudoMeasure(getMapping(sourceCache, targetCache, spec, maxMappingSize));
+        } catch (MappingSizeExceededException e) {
+            logger.debug("Aborted LS " + spec + ": " + e.getMessage());
+            return 8d;
+        }
         if (!(pseudoFMeasure >= 0d && pseudoFMeasure <= 1d)) {
-            Object[] args = {};
-            ProgramChromosome pc = null;
-            pc = p.getChromosome(0);
-            LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
             logger.info("LS: " + spec);
             logger.error("Pseudo Measure was not in [0,1]");
             System.out.println("Pseudo Measure for (" + spec + ") was not in [0,1]");
@@ -98,20 +99,9 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
 
     public AMapping calculateMapping(IGPProgram p) {
         // execute individual
-        Object[] args = {};
-        ProgramChromosome pc = null;
-        pc = p.getChromosome(0);
-        AMapping actualMapping = MappingFactory.createDefaultMapping();
-        LinkSpecification spec = (LinkSpecification) pc.getNode(0).execute_object(pc, 0, args);
+        LinkSpecification spec = getLinkSpecification(p);
         // get Mapping
-        try {
-            actualMapping = getMapping(sourceCache, targetCache, spec);
-        } catch (java.lang.OutOfMemoryError e) {
-            e.printStackTrace(); // should not happen
-            
-            return MappingFactory.createDefaultMapping();
-        }
-        return actualMapping;
+        return getMapping(sourceCache, targetCache, spec);
     }
 
     /**
@@ -121,12 +111,14 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
     public Double calculatePseudoMeasure(IGPProgram p) {
         
     	// mapping
-        AMapping mapping = calculateMapping(p);
-        // gold standard is not needed by pseudoFM
-        GoldStandard gold = new GoldStandard(mapping, sourceCache, targetCache);
-        
-        return pfm.getPseudoFMeasure(mapping, gold, beta);
-        
+        return calculatePseudoMeasure(calculateMapping(p));
+    }
+
+    private double calculatePseudoMeasure(AMapping mapping) {
+        // gold standard is not needed by pseudoFM, only the numbers of URIs
+        PseudoPRFAccumulator accumulator = new PseudoPRFAccumulator(sourceCache.size(), targetCache.size(), pfm.isUse1To1Mapping());
+        accumulator.addAll(mapping);
+        return pfm.getPseudoFMeasure(accumulator, beta);
     }
 
     /**
@@ -137,9 +129,7 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
      */
     public AMapping getMapping(ACache sC, ACache tC, LinkSpecification spec) {
         try {
-            IPlanner planner = ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.DEFAULT,
-                    sC, tC);
-            return engine.execute(spec, planner);
+            return getMapping(sC, tC, spec, Long.MAX_VALUE);
         } catch (Exception e) {
             e.printStackTrace();
             String out = "Error getMapping() in PFM (" + config.source.getId() + " - " + config.target.getId() + ") with metric: " + spec + " \n" + e.getMessage();
@@ -147,7 +137,23 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
             logger.error(out);
             return MappingFactory.createDefaultMapping();
         }
+    }
 
+    /**
+     * Executes a link specification with its own engine, so that several
+     * specifications can be executed concurrently. Failures are passed on, so
+     * that no fitness is cached for them.
+     *
+     * @param maxMappingSize maximal number of links of the intermediate mappings
+     * @throws MappingSizeExceededException if a mapping exceeds the maximal size
+     */
+    private AMapping getMapping(ACache sC, ACache tC, LinkSpecification spec, long maxMappingSize) {
+        ExecutionEngine engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sC, tC,
+                config.source.getVar(), config.target.getVar());
+        engine.setMaxMappingSize(maxMappingSize);
+        IPlanner planner = ExecutionPlannerFactory.getPlanner(ExecutionPlannerType.DEFAULT,
+                sC, tC);
+        return engine.execute(spec, planner);
     }
 
     /**
@@ -163,6 +169,7 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
 
     public void setMeasure(PseudoFMeasure pfm) {
         this.pfm = pfm;
+        clearFitnessCache();
     }
 
     public double getBeta() {
@@ -171,6 +178,7 @@ public class PseudoFMeasureFitnessFunction extends IGPFitnessFunction {
 
     public void setBeta(double beta) {
         this.beta = beta;
+        clearFitnessCache();
     }
 
 
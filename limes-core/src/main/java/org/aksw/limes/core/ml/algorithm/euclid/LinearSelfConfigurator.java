@@ -12,6 +12,8 @@ import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.evaluator.EvaluatorFactory;
 import org.aksw.limes.core.evaluation.evaluator.EvaluatorType;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.IQualitativeMeasure;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoPRFAccumulator;
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.Instance;
 import org.aksw.limes.core.io.ls.LinkSpecification;
@@ -231,7 +233,7 @@ public class LinearSelfConfigurator implements ISelfConfigurator {
         List<SimpleClassifier> initialClassifiers = new ArrayList<SimpleClassifier>();
         for (String p : sourcePropertiesCoverageMap.keySet()) {
             for (String q : sourcePropertiesCoverageMap.keySet()) {
-                SimpleClassifier cp = getInitialClassifier(p, q, "jaccard");
+                SimpleClassifier cp = getInitialClassifier(p, q, "jaccard", -Double.MAX_VALUE);
                 initialClassifiers.add(cp);
             }
         }
@@ -267,7 +269,7 @@ public class LinearSelfConfigurator implements ISelfConfigurator {
 //            Map<String, SimpleClassifier> cp = new HashMap<>();
             for (String q : targetPropertiesCoverageMap.keySet()) {
                 for (String measure : measureList) {
-                    SimpleClassifier cps = getInitialClassifier(p, q, measure);
+                    SimpleClassifier cps = getInitialClassifier(p, q, measure, fMeasure);
                     if (cps.getfMeasure() > fMeasure) {
                         bestClassifier = cps.clone();
                         //bestProperty = q;
@@ -289,17 +291,33 @@ public class LinearSelfConfigurator implements ISelfConfigurator {
      * @param sourceProperty Source property
      * @param targetProperty Target property
      * @param measure Similarity measure to be used
+     * @param best F-Measure of the best classifier so far. With a pseudo
+     * F-Measure, the search stops as soon as the remaining thresholds cannot
+     * lead to a higher one.
      * @return Maximal threshold that leads to maximal f-Measure (bias towards
      * precision)
      */
-    private SimpleClassifier getInitialClassifier(String sourceProperty, String targetProperty, String measure) {
+    private SimpleClassifier getInitialClassifier(String sourceProperty, String targetProperty, String measure, double best) {
         double fMax = 0;
         double theta = 1.0;
+        GoldStandard goldStandard = new GoldStandard(reference, source.getAllUris(), target.getAllUris());
         for (double threshold = 1; threshold > MIN_THRESHOLD; threshold = threshold - learningRate) {
 //        	logger.info("execute("+sourceProperty+", "+targetProperty+ ", "+measure+", "+threshold+");");
             AMapping mapping = execute(sourceProperty, targetProperty, measure, threshold);
             //            double fMeasure = qMeasure.getPseudoFMeasure(source.getAllUris(), target.getAllUris(), mapping, beta);
-            double fMeasure = computeQuality(mapping);
+            double fMeasure;
+            if (qMeasure instanceof PseudoFMeasure) {
+                PseudoFMeasure pfm = (PseudoFMeasure) qMeasure;
+                PseudoPRFAccumulator accumulator = pfm.createAccumulator(goldStandard);
+                if (!pfm.accumulate(accumulator, mapping, 1, best)) {
+                    // the mappings of the lower thresholds contain this one,
+                    // hence none of them leads to a better classifier either
+                    break;
+                }
+                fMeasure = pfm.calculate(accumulator);
+            } else {
+                fMeasure = qMeasure.calculate(mapping, goldStandard);
+            }
             //            System.out.println("Source: " + sourceProperty + ""
             //                    + " Target: " + targetProperty + " Threshold " + threshold + " leads to F-Measure " + fMeasure);
 
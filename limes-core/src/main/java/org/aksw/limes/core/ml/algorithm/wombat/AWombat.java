@@ -10,12 +10,19 @@ import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
 
 import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.datastrutures.Tree;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.FMeasure;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.Precision;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
+import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoPRFAccumulator;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.Recall;
 import org.aksw.limes.core.execution.engine.ExecutionEngine;
 import org.aksw.limes.core.execution.engine.ExecutionEngineFactory;
@@ -34,6 +41,7 @@ import org.aksw.limes.core.io.cache.HybridCache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.parser.Parser;
 import org.aksw.limes.core.measures.measure.MeasureType;
 import org.aksw.limes.core.ml.algorithm.ACoreMLAlgorithm;
 import org.aksw.limes.core.ml.algorithm.LearningParameter;
@@ -47,6 +55,13 @@ import org.slf4j.LoggerFactory;
 /**
  * This class uses Least General Generalization (LGG) to learn Link Specifications (LS)
  *
+ * With a parallelism greater than one, the children of an expanded node and
+ * the initial classifiers are evaluated concurrently on a bounded pool. The
+ * tasks only read the refinement tree, which is changed by the learning
+ * thread once all of them finished, and the results are used in the order
+ * of the tasks. Hence, the learned specification does not depend on the
+ * parallelism.
+ *
  * @author Mohamed Sherif (sherif@informatik.uni-leipzig.de)
  * @version Jun 7, 2016
  */
@@ -68,6 +83,8 @@ public abstract class AWombat extends ACoreMLAlgorithm {
     public static final String PARAMETER_VERBOSE = "verbose";
     public static final String PARAMETER_ATOMIC_MEASURES = "atomic measures";
     public static final String PARAMETER_SAVE_MAPPING = "save mapping";
+    public static final String PARAMETER_MAPPING_STORE_CAPACITY = "mapping store capacity in MB";
+    public static final String PARAMETER_PARALLELISM = "parallelism";
 
     public static List<String> sourceUris;
     public static List<String> targetUris;
@@ -82,6 +99,9 @@ public abstract class AWombat extends ACoreMLAlgorithm {
     protected Tree<RefinementNode> refinementTreeRoot = null;
     protected ACache sourceSample = new HybridCache();
     protected ACache targetSample = new HybridCache();
+    protected MappingStore mappingStore = null;
+    // pool of the evaluation tasks of the current search
+    private ExecutorService executor = null;
 
 
     protected AWombat() {
@@ -90,18 +110,23 @@ public abstract class AWombat extends ACoreMLAlgorithm {
     }
 
     /**
-     * Create new RefinementNode using either real or pseudo-F-Measure
+     * Create new RefinementNode using either real or pseudo-F-Measure. The
+     * pseudo-F-Measure is computed before the mapping is dropped, so that
+     * without saving mappings the ones of the nodes which are never expanded
+     * are not kept.
      *
      * @param mapping of the node 
      * @param metricExpr learning specifications
      * @return new RefinementNode
      */
     protected RefinementNode createNode(AMapping mapping, String metricExpr) {
+        double pfm = isUnsupervised ? fMeasure(mapping) : 0;
         if(!saveMapping()){
             mapping = null;
+        } else {
+            getMappingStore().putMapping(metricExpr, mapping);
         }
         if (isUnsupervised) {
-            double pfm = pseudoFMeasure.calculate(mapping, new GoldStandard(null, sourceUris, targetUris));
             return new RefinementNode(pfm, mapping, metricExpr);
         }
         return new RefinementNode(mapping, metricExpr, trainingData);
@@ -115,7 +140,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
      */
     protected RefinementNode createNode(String metricExpr) {
         AMapping map = null;
-        if(saveMapping()){
+        if(saveMapping() || isUnsupervised){
             map = getMapingOfMetricExpression(metricExpr);
         }
         return createNode(map, metricExpr);
@@ -124,6 +149,9 @@ public abstract class AWombat extends ACoreMLAlgorithm {
 
 
     /**
+     * The mapping of an atomic measure is looked up in the mapping store,
+     * which executes each measure once at the lowest threshold requested.
+     *
      * @param sourceProperty URI
      * @param targetProperty URI
      * @param measure name
@@ -132,6 +160,11 @@ public abstract class AWombat extends ACoreMLAlgorithm {
      * the atomic mapper measure(sourceProperty, targetProperty)
      */
     public AMapping executeAtomicMeasure(String sourceProperty, String targetProperty, String measure, double threshold) {
+        return getMappingStore().getAtomicMapping(measure, sourceProperty, targetProperty, threshold,
+                t -> runAtomicMeasure(sourceProperty, targetProperty, measure, t));
+    }
+
+    private AMapping runAtomicMeasure(String sourceProperty, String targetProperty, String measure, double threshold) {
         String measureExpression = measure + "(x." + sourceProperty + ", y." + targetProperty + ")";
         Instruction inst = new Instruction(Instruction.Command.RUN, measureExpression, threshold + "", -1, -1, -1);
         ExecutionEngine ee = ExecutionEngineFactory.getEngine(ExecutionEngineType.DEFAULT, sourceCache, targetCache, "?x", "?y");
@@ -140,6 +173,67 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         return ((SimpleExecutionEngine) ee).executeInstructions(plan);
     }
 
+    /**
+     * Runs a search, e.g., findBestSolution(), with one pool of
+     * {@link #getParallelism()} threads for all its evaluation tasks, which is
+     * shut down afterwards.
+     *
+     * @param search to run
+     * @param <T> type of the result
+     * @return the result of the search
+     */
+    protected <T> T withEvaluationPool(Supplier<T> search) {
+        if (executor != null || getParallelism() <= 1) {
+            return search.get();
+        }
+        executor = Executors.newFixedThreadPool(getParallelism());
+        try {
+            return search.get();
+        } finally {
+            executor.shutdownNow();
+            executor = null;
+        }
+    }
+
+    /**
+     * Runs evaluation tasks, e.g., creating the children of a node, on the
+     * pool of the current search, see {@link #withEvaluationPool(Supplier)}.
+     *
+     * @param tasks to run
+     * @param <T> type of the results
+     * @return the results in the order of the tasks
+     */
+    protected <T> List<T> evaluate(List<Callable<T>> tasks) {
+        List<T> results = new ArrayList<>(tasks.size());
+        int parallelism = Math.min(getParallelism(), tasks.size());
+        if (parallelism <= 1) {
+            for (Callable<T> task : tasks) {
+                try {
+                    results.add(task.call());
+                } catch (RuntimeException e) {
+                    throw e;
+                } catch (Exception e) {
+                    throw new RuntimeException("Evaluation failed", e);
+                }
+            }
+            return results;
+        }
+        if (executor == null) {
+            return withEvaluationPool(() -> evaluate(tasks));
+        }
+        try {
+            for (Future<T> future : executor.invokeAll(tasks)) {
+                results.add(future.get());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException("Interrupted while evaluating refinement nodes", e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException("Evaluation failed", e.getCause());
+        }
+        return results;
+    }
+
     /**
      * calculate either a real or a pseudo-F-Measure
      *
@@ -148,8 +242,10 @@ public abstract class AWombat extends ACoreMLAlgorithm {
      */
     protected double fMeasure(AMapping predictions) {
         if (isUnsupervised) {
-            // compute pseudo-F-Measure
-            return pseudoFMeasure.calculate(predictions, new GoldStandard(null, sourceUris, targetUris));
+            // compute pseudo-F-Measure in one pass over the links
+            PseudoPRFAccumulator accumulator = pseudoFMeasure.createAccumulator(new GoldStandard(null, sourceUris, targetUris));
+            accumulator.addAll(predictions);
+            return pseudoFMeasure.calculate(accumulator);
         }
         // get real F-Measure based on training data 
         return new FMeasure().calculate(predictions, new GoldStandard(trainingData));
@@ -157,20 +253,26 @@ public abstract class AWombat extends ACoreMLAlgorithm {
 
 
     /**
-     * Looks first for the input metricExpression in the already constructed tree,
+     * Looks first for the input metricExpression in the mapping store, which
+     * holds the mappings of the nodes created so far,
      * if found the corresponding mapping is returned.
+     * Atomic expressions are answered by the mapping of their atomic measure.
      * Otherwise, the SetConstraintsMapper is generate the mapping from the metricExpression.
      *
      * @param metricExpression learning specifications
      * @return Mapping corresponding to the input metric expression
      */
     protected AMapping getMapingOfMetricExpression(String metricExpression) {
-        AMapping map = null;
-        if (RefinementNode.isSaveMapping()) {
-            map = getMapingOfMetricFromTree(metricExpression, refinementTreeRoot);
-        }
+        MappingStore store = getMappingStore();
+        AMapping map = store.getMapping(metricExpression);
         if (map == null) {
             Double threshold = Double.parseDouble(metricExpression.substring(metricExpression.lastIndexOf("|") + 1, metricExpression.length()));
+            Parser p = new Parser(metricExpression.substring(0, metricExpression.lastIndexOf("|")), threshold);
+            if (p.isAtomic()) {
+                String sourceProperty = p.getLeftTerm().substring(p.getLeftTerm().indexOf(".") + 1);
+                String targetProperty = p.getRightTerm().substring(p.getRightTerm().indexOf(".") + 1);
+                return executeAtomicMeasure(sourceProperty, targetProperty, p.getOperator(), threshold);
+            }
             Rewriter rw = RewriterFactory.getRewriter(RewriterType.DEFAULT);
             LinkSpecification ls = new LinkSpecification(metricExpression, threshold);
             LinkSpecification rwLs = rw.rewrite(ls);
@@ -180,33 +282,24 @@ public abstract class AWombat extends ACoreMLAlgorithm {
             assert engine != null;
             AMapping resultMap = engine.execute(rwLs, planner);
             map = resultMap.getSubMap(threshold);
+            if (saveMapping()) {
+                store.putMapping(metricExpression, map);
+            }
         }
         return map;
     }
 
     /**
-     * @param metricExpression learning specifications
-     * @param r refinement tree
-     * @return return mapping of the input metricExpression from the search tree
+     * @return the store of the mappings computed for the current caches
      */
-    protected AMapping getMapingOfMetricFromTree(String metricExpression, Tree<RefinementNode> r) {
-        if (r != null) {
-            if (r.getValue().getMetricExpression().equals(metricExpression)) {
-                return r.getValue().getMapping();
-            }
-            if (r.getchildren() != null && r.getchildren().size() > 0) {
-                for (Tree<RefinementNode> c : r.getchildren()) {
-                    AMapping map = getMapingOfMetricFromTree(metricExpression, c);
-                    if (map != null && map.size() != 0) {
-                        return map;
-                    }
-                }
-            }
+    protected synchronized MappingStore getMappingStore() {
+        if (mappingStore == null || !mappingStore.isFor(sourceCache, targetCache)) {
+            mappingStore = new MappingStore(sourceCache, targetCache,
+                    Math.min(getMappingStoreCapacity(), Long.MAX_VALUE >> 20) << 20);
         }
-        return null;
+        return mappingStore;
     }
 
-
     /**
      * get mapping from source cache to target cache using metricExpression
      *
@@ -243,6 +336,7 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         sourcePropertiesCoverageMap = LinearSelfConfigurator.getPropertyStats(sourceCache, getMinPropertyCoverage());
         targetPropertiesCoverageMap = LinearSelfConfigurator.getPropertyStats(targetCache, getMinPropertyCoverage());
         RefinementNode.setSaveMapping(saveMapping());
+        mappingStore = null;
     }
 
 
@@ -297,6 +391,13 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         double maxOverlap = 0;
         double theta = 1.0;
         AMapping bestMapping = MappingFactory.createDefaultMapping();
+        // execute the measure once with the lowest threshold, the mappings
+        // of the higher ones are filtered from its mapping
+        double lowestThreshold = 1d;
+        for (double threshold = 1d; threshold > 0.4d; threshold = threshold * getPropertyLearningRate()) {
+            lowestThreshold = threshold;
+        }
+        executeAtomicMeasure(sourceProperty, targetProperty, measure, lowestThreshold);
         for (double threshold = 1d; threshold > 0.4d; threshold = threshold * getPropertyLearningRate()) {
             AMapping mapping = executeAtomicMeasure(sourceProperty, targetProperty, measure, threshold);
             double overlap = fMeasure(mapping);
@@ -328,6 +429,8 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         double propertyLearningRate = 0.9;
         double overallPenaltyWeight = 0.5d;
         boolean verbose = false;
+        int parallelism = 1;
+        long mappingStoreCapacity = MappingStore.DEFAULT_CAPACITY >> 20;
         Set<String> measures = new HashSet<>(Arrays.asList("jaccard", "trigrams", "cosine", "qgrams"));
 
         learningParameters = new ArrayList<>();
@@ -344,6 +447,8 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         learningParameters.add(new LearningParameter(PARAMETER_VERBOSE, verbose, Boolean.class, 0, 1, 0, PARAMETER_VERBOSE));
         learningParameters.add(new LearningParameter(PARAMETER_ATOMIC_MEASURES, measures, MeasureType.class, 0, 0, 0, PARAMETER_ATOMIC_MEASURES));
         learningParameters.add(new LearningParameter(PARAMETER_SAVE_MAPPING, saveMapping, Boolean.class, 0, 1, 0, PARAMETER_SAVE_MAPPING));
+        learningParameters.add(new LearningParameter(PARAMETER_PARALLELISM, parallelism, Integer.class, 1d, Integer.MAX_VALUE, 1d, PARAMETER_PARALLELISM));
+        learningParameters.add(new LearningParameter(PARAMETER_MAPPING_STORE_CAPACITY, mappingStoreCapacity, Long.class, 0d, Long.MAX_VALUE, 1d, PARAMETER_MAPPING_STORE_CAPACITY));
     }
 
     protected boolean isVerbose() {
@@ -386,6 +491,14 @@ public abstract class AWombat extends ACoreMLAlgorithm {
         return Integer.parseInt(getParameter(PARAMETER_MAX_ITERATIONS_NUMBER).toString());
     }
 
+    protected int getParallelism() {
+        return Math.max(1, Integer.parseInt(getParameter(PARAMETER_PARALLELISM).toString()));
+    }
+
+    protected long getMappingStoreCapacity() {
+        return Long.parseLong(getParameter(PARAMETER_MAPPING_STORE_CAPACITY).toString());
+    }
+
     protected int getMaxRefinmentTreeSize() {
         return Integer.parseInt(getParameter(PARAMETER_MAX_REFINEMENT_TREE_SIZE).toString());
     }
@@ -454,16 +567,16 @@ public abstract class AWombat extends ACoreMLAlgorithm {
      */
     protected List<ExtendedClassifier> findInitialClassifiers() {
         logger.debug("Geting all initial classifiers ...");
-        List<ExtendedClassifier> initialClassifiers = new ArrayList<>();
+        List<Callable<ExtendedClassifier>> tasks = new ArrayList<>();
         for (String p : sourcePropertiesCoverageMap.keySet()) {
             for (String q : targetPropertiesCoverageMap.keySet()) {
                 for (String m : getAtomicMeasures()) {
-                    ExtendedClassifier cp = findInitialClassifier(p, q, m);
-                    // only add if classifier covers all entries
-                    initialClassifiers.add(cp);
+                    tasks.add(() -> findInitialClassifier(p, q, m));
                 }
             }
         }
+        // only add if classifier covers all entries
+        List<ExtendedClassifier> initialClassifiers = evaluate(tasks);
         logger.debug("Done computing all initial classifiers.");
         return initialClassifiers;
     }
@@ -0,0 +1,219 @@
+package org.aksw.limes.core.ml.algorithm.wombat;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.DoubleFunction;
+
+import org.aksw.limes.core.datastrutures.WeightedLruMap;
+import org.aksw.limes.core.execution.engine.filter.LinearFilter;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+
+/**
+ * Memoizes the mappings Wombat computes for a pair of caches during the
+ * search. Atomic measures are keyed by the measure and the source and target
+ * property. Each is executed once at the lowest threshold requested so far,
+ * and requests for higher thresholds are answered by filtering that mapping.
+ * The mappings of other metric expressions, e.g., of the refinement nodes,
+ * are looked up by their expression. All entries are held in a
+ * {@link WeightedLruMap} weighted by their estimated size in bytes. The
+ * returned mappings must not be modified. The store is thread-safe and
+ * every atomic measure is executed by one thread at a time.
+ *
+ * @version 1.0
+ */
+public class MappingStore {
+
+    /**
+     * Default capacity in bytes, a quarter of the maximal heap size.
+     */
+    public static final long DEFAULT_CAPACITY = Runtime.getRuntime().maxMemory() / 4;
+
+    /**
+     * Estimated size of a link of a mapping in bytes.
+     */
+    public static final long LINK_WEIGHT = 100;
+
+    private final ACache sourceCache;
+    private final ACache targetCache;
+    private final WeightedLruMap<Object, Entry> entries;
+    private final AtomicLong executions = new AtomicLong();
+
+    private static final class AtomicKey {
+        private final String measure;
+        private final String sourceProperty;
+        private final String targetProperty;
+
+        private AtomicKey(String measure, String sourceProperty, String targetProperty) {
+            this.measure = measure;
+            this.sourceProperty = sourceProperty;
+            this.targetProperty = targetProperty;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof AtomicKey)) {
+                return false;
+            }
+            AtomicKey other = (AtomicKey) o;
+            return measure.equals(other.measure) && sourceProperty.equals(other.sourceProperty)
+                    && targetProperty.equals(other.targetProperty);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(measure, sourceProperty, targetProperty);
+        }
+    }
+
+    /**
+     * Mapping of an entry and, for atomic measures, the threshold it was
+     * computed with.
+     */
+    private static final class Entry {
+        private AMapping mapping;
+        private double threshold;
+    }
+
+    /**
+     * @param sourceCache
+     *            source cache of the mappings
+     * @param targetCache
+     *            target cache of the mappings
+     * @param capacity
+     *            maximal estimated size of the mappings in bytes
+     */
+    public MappingStore(ACache sourceCache, ACache targetCache, long capacity) {
+        this.sourceCache = sourceCache;
+        this.targetCache = targetCache;
+        this.entries = new WeightedLruMap<>(capacity);
+    }
+
+    /**
+     * Returns the mapping of an atomic measure. If the measure was executed
+     * with a lower or equal threshold before, the links of that mapping whose
+     * similarity is at least the threshold are returned. Otherwise, the
+     * measure is executed and its mapping replaces the stored one.
+     *
+     * @param measure
+     *            name of the measure
+     * @param sourceProperty
+     *            source property
+     * @param targetProperty
+     *            target property
+     * @param threshold
+     *            threshold of the measure
+     * @param executor
+     *            executes the measure with a given threshold
+     * @return the mapping of the measure
+     */
+    public AMapping getAtomicMapping(String measure, String sourceProperty, String targetProperty,
+            double threshold, DoubleFunction<AMapping> executor) {
+        AtomicKey key = new AtomicKey(measure, sourceProperty, targetProperty);
+        // measures which are being executed have no weight yet and are kept
+        Entry entry = new Entry();
+        Entry present = entries.putIfAbsent(key, entry, 0);
+        if (present != null) {
+            entry = present;
+        }
+        AMapping mapping;
+        double computed;
+        synchronized (entry) {
+            if (entry.mapping == null || entry.threshold > threshold) {
+                AMapping m = executor.apply(threshold);
+                entry.mapping = m;
+                entry.threshold = threshold;
+                executions.incrementAndGet();
+                entries.setWeight(key, entry, weigh(m));
+            }
+            mapping = entry.mapping;
+            computed = entry.threshold;
+        }
+        if (computed == threshold) {
+            return mapping;
+        }
+        return new LinearFilter().filter(mapping, threshold);
+    }
+
+    /**
+     * @param metricExpression
+     *            a metric expression
+     * @return the stored mapping of the expression, null if none
+     */
+    public AMapping getMapping(String metricExpression) {
+        Entry entry = entries.get(metricExpression);
+        return entry == null ? null : entry.mapping;
+    }
+
+    /**
+     * Stores the mapping of a metric expression.
+     *
+     * @param metricExpression
+     *            a metric expression
+     * @param mapping
+     *            its mapping, which is not modified afterwards
+     */
+    public void putMapping(String metricExpression, AMapping mapping) {
+        if (mapping == null) {
+            return;
+        }
+        Entry entry = new Entry();
+        entry.mapping = mapping;
+        entries.put(metricExpression, entry, weigh(mapping));
+    }
+
+    /**
+     * Estimates the size of a mapping in bytes.
+     *
+     * @param mapping
+     *            a mapping
+     * @return the estimated size
+     */
+    public static long weigh(AMapping mapping) {
+        return LINK_WEIGHT * (mapping.size() + 1);
+    }
+
+    /**
+     * @param sourceCache
+     *            a source cache
+     * @param targetCache
+     *            a target cache
+     * @return true iff the mappings of the store link the given caches
+     */
+    public boolean isFor(ACache sourceCache, ACache targetCache) {
+        return this.sourceCache == sourceCache && this.targetCache == targetCache;
+    }
+
+    /**
+     * @return the number of stored mappings
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * @return the estimated size of the stored mappings in bytes
+     */
+    public long getWeight() {
+        return entries.getWeight();
+    }
+
+    /**
+     * @return the number of atomic measures executed since the store was
+     *         created
+     */
+    public long getExecutions() {
+        return executions.get();
+    }
+
+    public long getCapacity() {
+        return entries.getCapacity();
+    }
+
+    /**
+     * Removes all mappings.
+     */
+    public void clear() {
+        entries.clear();
+    }
+}
@@ -0,0 +1,93 @@
+package org.aksw.limes.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+
+/**
+ * Generates points that are uniformly distributed in a bounding box. Each
+ * point has a latitude, a longitude and a WKT representation of the point
+ * as label, so that both space and point set mappers can be run on the data.
+ *
+ * @version 1.0
+ */
+public class RandomPointGenerator implements DataGenerator {
+
+    public static final String LAT = "lat";
+    public static final String LONG = "long";
+
+    double minLat, maxLat, minLong, maxLong;
+    Random random;
+    double mean = 0d;
+    double stdDev = 0d;
+
+    public RandomPointGenerator(double minLat, double maxLat, double minLong, double maxLong) {
+        this(minLat, maxLat, minLong, maxLong, new Random());
+    }
+
+    /**
+     * @param minLat
+     *         Lower bound of the latitudes
+     * @param maxLat
+     *         Upper bound of the latitudes
+     * @param minLong
+     *         Lower bound of the longitudes
+     * @param maxLong
+     *         Upper bound of the longitudes
+     * @param random
+     *         Source of the coordinates, e.g. seeded to get reproducible data
+     */
+    public RandomPointGenerator(double minLat, double maxLat, double minLong, double maxLong, Random random) {
+        this.minLat = minLat;
+        this.maxLat = maxLat;
+        this.minLong = minLong;
+        this.maxLong = maxLong;
+        this.random = random;
+    }
+
+    /**
+     * Generates points with the properties {@link #LAT}, {@link #LONG} and
+     * {@link DataGenerator#LABEL}, which contains POINT(long lat)
+     *
+     * @param size
+     *         Number of points that are to be generated
+     * @return Cache of points
+     */
+    public ACache generateData(int size) {
+        ACache c = new MemoryCache();
+        List<Double> latitudes = new ArrayList<Double>();
+        for (int i = 0; i < size; i++) {
+            double lat = minLat + random.nextDouble() * (maxLat - minLat);
+            double lon = minLong + random.nextDouble() * (maxLong - minLong);
+            String uri = "point" + i;
+            c.addTriple(uri, LAT, "" + lat);
+            c.addTriple(uri, LONG, "" + lon);
+            c.addTriple(uri, DataGenerator.LABEL, "POINT(" + lon + " " + lat + ")");
+            latitudes.add(lat);
+        }
+        stdDev = Utils.getStandardDeviation(latitudes);
+        mean = Utils.getMean(latitudes);
+        return c;
+    }
+
+    public String getName() {
+        return "randomPoint";
+    }
+
+    /**
+     * @return the mean of the latitudes
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the standard deviation of the latitudes
+     */
+    public double getStandardDeviation() {
+        return stdDev;
+    }
+}
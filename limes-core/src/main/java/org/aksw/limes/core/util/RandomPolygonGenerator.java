@@ -0,0 +1,99 @@
+package org.aksw.limes.core.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+
+/**
+ * Generates rectangles whose corners lie on a regular grid in a bounding box.
+ * As the corners are snapped to the grid, the rectangles equal, touch, cover
+ * and overlap each other frequently, which makes the data suitable for
+ * topological mappers. The label of each instance is the WKT representation
+ * of its rectangle.
+ *
+ * @version 1.0
+ */
+public class RandomPolygonGenerator implements DataGenerator {
+
+    double minX, minY, extent, step;
+    int maxCells;
+    Random random;
+    double mean = 0d;
+    double stdDev = 0d;
+
+    public RandomPolygonGenerator(double minX, double minY, double extent, double step, int maxCells) {
+        this(minX, minY, extent, step, maxCells, new Random());
+    }
+
+    /**
+     * @param minX
+     *         Lower x coordinate of the bounding box
+     * @param minY
+     *         Lower y coordinate of the bounding box
+     * @param extent
+     *         Width and height of the bounding box
+     * @param step
+     *         Distance of the grid lines the corners are snapped to
+     * @param maxCells
+     *         Maximal width and height of a rectangle in grid cells
+     * @param random
+     *         Source of the coordinates, e.g. seeded to get reproducible data
+     */
+    public RandomPolygonGenerator(double minX, double minY, double extent, double step, int maxCells,
+                                  Random random) {
+        this.minX = minX;
+        this.minY = minY;
+        this.extent = extent;
+        this.step = step;
+        this.maxCells = maxCells;
+        this.random = random;
+    }
+
+    /**
+     * Generates rectangles stored as WKT in {@link DataGenerator#LABEL}
+     *
+     * @param size
+     *         Number of rectangles that are to be generated
+     * @return Cache of rectangles
+     */
+    public ACache generateData(int size) {
+        ACache c = new MemoryCache();
+        List<Double> areas = new ArrayList<Double>();
+        int cells = (int) (extent / step);
+        for (int i = 0; i < size; i++) {
+            int w = 1 + random.nextInt(maxCells);
+            int h = 1 + random.nextInt(maxCells);
+            double x1 = minX + random.nextInt(Math.max(1, cells - w)) * step;
+            double y1 = minY + random.nextInt(Math.max(1, cells - h)) * step;
+            double x2 = x1 + w * step;
+            double y2 = y1 + h * step;
+            c.addTriple("polygon" + i, DataGenerator.LABEL, "POLYGON ((" + x1 + " " + y1 + ", " + x2 + " " + y1 + ", "
+                    + x2 + " " + y2 + ", " + x1 + " " + y2 + ", " + x1 + " " + y1 + "))");
+            areas.add(w * h * step * step);
+        }
+        stdDev = Utils.getStandardDeviation(areas);
+        mean = Utils.getMean(areas);
+        return c;
+    }
+
+    public String getName() {
+        return "randomPolygon";
+    }
+
+    /**
+     * @return the mean area of the rectangles
+     */
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * @return the standard deviation of the areas of the rectangles
+     */
+    public double getStandardDeviation() {
+        return stdDev;
+    }
+}
@@ -0,0 +1,226 @@
+package org.aksw.limes.core.evaluation.qualititativeMeasures;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.datastrutures.GoldStandard;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.mapping.MappingFactory.MappingType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PseudoPRFAccumulatorTest {
+
+    private static final double[] CONFIDENCES = { -0.5, 0, 0.25, 0.5, 0.75, 1 };
+
+    private List<String> sourceUris;
+    private List<String> targetUris;
+    private GoldStandard goldStandard;
+    private AMapping mapping;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(7);
+        sourceUris = new ArrayList<>();
+        targetUris = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            sourceUris.add("S" + i);
+            targetUris.add("T" + i);
+        }
+        goldStandard = new GoldStandard(null, sourceUris, targetUris);
+        mapping = MappingFactory.createDefaultMapping();
+        for (int i = 0; i < 120; i++) {
+            mapping.add(sourceUris.get(random.nextInt(30)), targetUris.get(random.nextInt(35)),
+                    CONFIDENCES[random.nextInt(CONFIDENCES.length)]);
+        }
+        // sources without targets, e.g., left by a difference
+        mapping.add("S39", new HashMap<>());
+    }
+
+    private double legacyPrecision(AMapping predictions, boolean symmetric, boolean oneToOne) {
+        AMapping res = predictions;
+        AMapping rev = res.reverseSourceTarget();
+        if (oneToOne) {
+            res = predictions.getBestOneToNMapping();
+            rev = res.reverseSourceTarget().getBestOneToNMapping();
+        }
+        double p = res.getMap().keySet().size() + (symmetric ? rev.getMap().keySet().size() : 0);
+        double q = 0;
+        for (String s : predictions.getMap().keySet()) {
+            q += (symmetric ? 2 : 1) * predictions.getMap().get(s).size();
+        }
+        return p == 0 || q == 0 ? 0 : p / q;
+    }
+
+    private double legacyRecall(AMapping predictions, boolean oneToOne) {
+        AMapping res = oneToOne ? predictions.getBestOneToNMapping() : predictions;
+        Set<String> values = new HashSet<>();
+        for (String s : res.getMap().keySet()) {
+            values.addAll(res.getMap().get(s).keySet());
+        }
+        return (res.getMap().keySet().size() + values.size()) / (double) (sourceUris.size() + targetUris.size());
+    }
+
+    private AMapping toPrimitive(AMapping m) {
+        AMapping primitive = MappingFactory.createMapping(MappingType.PRIMITIVE_MAPPING);
+        for (Entry<String, HashMap<String, Double>> e : m.getMap().entrySet()) {
+            for (Entry<String, Double> t : e.getValue().entrySet()) {
+                primitive.add(e.getKey(), t.getKey(), t.getValue());
+            }
+        }
+        return primitive;
+    }
+
+    @Test
+    public void equalsMaterializedMeasures() {
+        for (boolean symmetric : new boolean[] { true, false }) {
+            for (boolean oneToOne : new boolean[] { false, true }) {
+                PseudoPrecision precision = new PseudoPrecision(symmetric);
+                precision.setUse1To1Mapping(oneToOne);
+                PseudoRecall recall = new PseudoRecall();
+                recall.setUse1To1Mapping(oneToOne);
+                assertEquals(legacyPrecision(mapping, symmetric, oneToOne), precision.calculate(mapping, goldStandard), 0d);
+                assertEquals(legacyRecall(mapping, oneToOne), recall.calculate(mapping, goldStandard), 0d);
+                // links of interned mappings are added without materializing nested maps
+                AMapping primitive = toPrimitive(mapping);
+                assertEquals(legacyPrecision(primitive, symmetric, oneToOne), precision.calculate(primitive, goldStandard), 0d);
+                assertEquals(legacyRecall(primitive, oneToOne), recall.calculate(primitive, goldStandard), 0d);
+                // the flags are passed on to the precision and recall
+                PseudoFMeasure pfm = new PseudoFMeasure(symmetric);
+                pfm.setUse1To1Mapping(oneToOne);
+                PseudoPRFAccumulator accumulator = pfm.createAccumulator(goldStandard);
+                accumulator.addAll(mapping);
+                double p = legacyPrecision(mapping, symmetric, oneToOne);
+                double r = legacyRecall(mapping, oneToOne);
+                assertEquals(2 * p * r / (p + r), pfm.calculate(mapping, goldStandard), 1e-12);
+                assertEquals(pfm.calculate(mapping, goldStandard), pfm.calculate(accumulator), 0d);
+            }
+        }
+        for (boolean oneToOne : new boolean[] { false, true }) {
+            PseudoRefPrecision refPrecision = new PseudoRefPrecision();
+            refPrecision.setUse1To1Mapping(oneToOne);
+            PseudoRefRecall refRecall = new PseudoRefRecall();
+            refRecall.setUse1To1Mapping(oneToOne);
+            PseudoPRFAccumulator accumulator = refPrecision.createAccumulator(goldStandard);
+            accumulator.addAll(mapping);
+            assertEquals(refPrecision.calculate(mapping, goldStandard), refPrecision.calculate(accumulator), 0d);
+            assertEquals(refRecall.calculate(mapping, goldStandard), refRecall.calculate(accumulator), 0d);
+            PseudoRefFMeasure refPfm = new PseudoRefFMeasure();
+            refPfm.setUse1To1Mapping(oneToOne);
+            assertEquals(refPfm.calculate(mapping, goldStandard), refPfm.calculate(accumulator), 0d);
+        }
+        // the best one-to-one links, ties included
+        PseudoPRFAccumulator best = new PseudoPRFAccumulator(goldStandard, true);
+        best.addAll(mapping);
+        AMapping oneToOne = mapping.getBestOneToOneMappings(mapping);
+        assertEquals(oneToOne.size(), best.getBestOneToOneLinks());
+        assertEquals(oneToOne.getMap().size(), best.getBestOneToOneSourceCount());
+        PseudoFMeasure pfm = new PseudoFMeasure();
+        PseudoPRFAccumulator accumulator = pfm.createAccumulator(goldStandard);
+        accumulator.addAll(mapping);
+        double p = legacyPrecision(mapping, true, false);
+        double r = legacyRecall(mapping, false);
+        assertEquals(2 * p * r / (p + r), pfm.calculate(accumulator), 1e-12);
+        assertEquals(pfm.calculate(mapping, goldStandard), pfm.calculate(accumulator), 0d);
+        PseudoRefFMeasure refPfm = new PseudoRefFMeasure();
+        assertEquals(refPfm.calculate(mapping, goldStandard), refPfm.calculate(accumulator), 0d);
+    }
+
+    @Test
+    public void mergesPartialAccumulators() {
+        for (boolean oneToN : new boolean[] { false, true }) {
+            PseudoPRFAccumulator whole = new PseudoPRFAccumulator(goldStandard, oneToN);
+            whole.addAll(mapping);
+            List<PseudoPRFAccumulator> parts = new ArrayList<>();
+            for (int i = 0; i < 3; i++) {
+                parts.add(new PseudoPRFAccumulator(goldStandard, oneToN));
+            }
+            int i = 0;
+            for (Entry<String, HashMap<String, Double>> e : mapping.getMap().entrySet()) {
+                parts.get(i++ % 3).addAll(e.getKey(), Collections.<String, Double>emptyMap());
+                for (Entry<String, Double> t : e.getValue().entrySet()) {
+                    parts.get(i++ % 3).add(e.getKey(), t.getKey(), t.getValue());
+                }
+            }
+            PseudoPRFAccumulator merged = parts.get(0);
+            merged.merge(parts.get(1));
+            merged.merge(parts.get(2));
+            assertEquals(whole.getLinks(), merged.getLinks());
+            assertEquals(whole.getSourceCount(), merged.getSourceCount());
+            assertEquals(whole.getTargetCount(), merged.getTargetCount());
+            if (oneToN) {
+                assertEquals(whole.getBestSourceCount(), merged.getBestSourceCount());
+                assertEquals(whole.getBestTargetCount(), merged.getBestTargetCount());
+            }
+        }
+    }
+
+    @Test
+    public void boundsPseudoFMeasure() {
+        for (boolean symmetric : new boolean[] { true, false }) {
+            for (boolean oneToOne : new boolean[] { false, true }) {
+                PseudoFMeasure pfm = new PseudoFMeasure(symmetric);
+                pfm.setUse1To1Mapping(oneToOne);
+                assertBounds(pfm);
+            }
+        }
+    }
+
+    private void assertBounds(PseudoFMeasure pfm) {
+        List<String[]> links = new ArrayList<>();
+        for (Entry<String, HashMap<String, Double>> e : mapping.getMap().entrySet()) {
+            for (String t : e.getValue().keySet()) {
+                links.add(new String[] { e.getKey(), t });
+            }
+        }
+        for (double beta : new double[] { 0.5, 1, 2 }) {
+            Collections.shuffle(links, new Random(11));
+            PseudoPRFAccumulator whole = pfm.createAccumulator(goldStandard);
+            for (String[] link : links) {
+                whole.add(link[0], link[1], mapping.getConfidence(link[0], link[1]));
+            }
+            double f = pfm.getPseudoFMeasure(whole, beta);
+            PseudoPRFAccumulator prefix = pfm.createAccumulator(goldStandard);
+            double bound = pfm.getPseudoFMeasureUpperBound(prefix, beta);
+            for (String[] link : links) {
+                prefix.add(link[0], link[1], mapping.getConfidence(link[0], link[1]));
+                double next = pfm.getPseudoFMeasureUpperBound(prefix, beta);
+                assertTrue(next <= bound + 1e-12);
+                assertTrue(f <= next + 1e-12);
+                bound = next;
+            }
+        }
+    }
+
+    @Test
+    public void terminatesLosingCandidates() {
+        PseudoFMeasure pfm = new PseudoFMeasure();
+        AMapping crossProduct = MappingFactory.createDefaultMapping();
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 10; j++) {
+                crossProduct.add(sourceUris.get(i), targetUris.get(j), 1d);
+            }
+        }
+        GoldStandard small = new GoldStandard(null, sourceUris.subList(0, 10), targetUris.subList(0, 10));
+        double f = pfm.calculate(crossProduct, small);
+        PseudoPRFAccumulator accumulator = pfm.createAccumulator(small);
+        assertTrue(pfm.accumulate(accumulator, crossProduct, 1, f - 1e-9));
+        assertEquals(f, pfm.calculate(accumulator), 0d);
+        accumulator = pfm.createAccumulator(small);
+        assertFalse(pfm.accumulate(accumulator, crossProduct, 1, 0.5));
+        assertTrue(accumulator.getLinks() < crossProduct.size());
+        // the reference F-Measure has no bound
+        assertTrue(new PseudoRefFMeasure().accumulate(new PseudoPRFAccumulator(small, false), crossProduct, 1, 0.5));
+    }
+}
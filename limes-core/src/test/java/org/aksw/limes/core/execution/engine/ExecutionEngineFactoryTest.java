@@ -31,5 +31,14 @@ public class ExecutionEngineFactoryTest {
         assertTrue(engine instanceof SimpleExecutionEngine);
     }
 
+    @Test
+    public void testEqualParallel() {
+        ExecutionEngine engine = ExecutionEngineFactory.getEngine(
+                ExecutionEngineFactory.getExecutionEngineType("parallel"), null, null, null, null);
+        assertTrue(engine instanceof ParallelExecutionEngine);
+        engine = ExecutionEngineFactory.getEngine(ExecutionEngineType.PARALLEL, null, null, null, null, 2);
+        assertTrue(((ParallelExecutionEngine) engine).getParallelism() == 2);
+    }
+
 
 }
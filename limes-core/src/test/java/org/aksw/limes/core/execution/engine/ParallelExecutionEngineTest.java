@@ -0,0 +1,142 @@
+package org.aksw.limes.core.execution.engine;
+
+import static org.junit.Assert.assertTrue;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.aksw.limes.core.execution.planning.planner.CanonicalPlanner;
+import org.aksw.limes.core.execution.planning.planner.DynamicPlanner;
+import org.aksw.limes.core.execution.planning.planner.HeliosPlanner;
+import org.aksw.limes.core.execution.planning.planner.IPlanner;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ParallelExecutionEngineTest {
+    public ACache source = new MemoryCache();
+    public ACache target = new MemoryCache();
+
+    private String[] specs = { "OR(trigrams(x.surname, y.surname)|0.5,soundex(x.name, y.name)|0.5)",
+            "AND(trigrams(x.surname, y.surname)|0.5,jaccard(x.name, y.name)|0.3)",
+            "MINUS(trigrams(x.surname, y.surname)|0.5,levenshtein(x.name, y.name)|0.5)",
+            "XOR(trigrams(x.surname, y.surname)|0.5,soundex(x.name, y.name)|0.5)",
+            "OR(OR(trigrams(x.surname, y.surname)|0.5,levenshtein(x.name, y.name)|0.4)|0.4,"
+                    + "AND(cosine(x.name, y.name)|0.3,MINUS(jaro(x.surname, y.surname)|0.6,"
+                    + "levenshtein(x.age, y.age)|0.5)|0.6)|0.3)",
+            "AND(OR(qgrams(x.surname, y.surname)|0.4,trigrams(x.name, y.name)|0.4)|0.4,"
+                    + "OR(jaccard(x.surname, y.surname)|0.2,soundex(x.name, y.name)|0.5)|0.2)" };
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        // create source cache
+        source.addTriple("S1", "surname", "georgala");
+        source.addTriple("S1", "name", "kleanthi");
+        source.addTriple("S1", "age", "26");
+
+        source.addTriple("S2", "surname", "sandra");
+        source.addTriple("S2", "name", "lukas");
+        source.addTriple("S2", "age", "13");
+
+        source.addTriple("S3", "surname", "depp");
+        source.addTriple("S3", "name", "johny");
+        source.addTriple("S3", "age", "52");
+
+        source.addTriple("S4", "surname", "swift");
+        source.addTriple("S4", "name", "taylor,maria");
+        source.addTriple("S4", "age", "25");
+
+        source.addTriple("S5", "surname", "paok");
+        source.addTriple("S5", "name", "ole");
+        source.addTriple("S5", "age", "56");
+
+        target.addTriple("T1", "surname", "georg");
+        target.addTriple("T1", "name", "klea");
+        target.addTriple("T1", "age", "26");
+
+        target.addTriple("T2", "surname", "sandra");
+        target.addTriple("T2", "name", "lukas");
+        target.addTriple("T2", "age", "13");
+
+        target.addTriple("T3", "surname", "derp");
+        target.addTriple("T3", "name", "johnny");
+        target.addTriple("T3", "age", "52");
+
+        target.addTriple("T4", "surname", "swift");
+        target.addTriple("T4", "name", "taylor");
+        target.addTriple("T4", "age", "25");
+
+        target.addTriple("T5", "surname", "paok");
+        target.addTriple("T5", "name", "oleole");
+        target.addTriple("T5", "age", "56");
+    }
+
+    @After
+    public void tearDown() {
+        source = null;
+        target = null;
+    }
+
+    private void compare(String planner) {
+        for (String spec : specs) {
+            LinkSpecification ls = new LinkSpecification(spec, 0.3);
+            SimpleExecutionEngine simple = new SimpleExecutionEngine(source, target, "?x", "?y");
+            ParallelExecutionEngine parallel = new ParallelExecutionEngine(source, target, "?x", "?y", 4);
+            AMapping expected = simple.execute(ls, getPlanner(planner));
+            AMapping m = parallel.execute(ls, getPlanner(planner));
+            assertTrue(planner + ": " + spec, expected.equals(m));
+        }
+    }
+
+    private IPlanner getPlanner(String planner) {
+        if (planner.equals("helios"))
+            return new HeliosPlanner(source, target);
+        if (planner.equals("dynamic"))
+            return new DynamicPlanner(source, target);
+        return new CanonicalPlanner();
+    }
+
+    @Test
+    public void testCanonical() {
+        compare("canonical");
+    }
+
+    @Test
+    public void testHelios() {
+        compare("helios");
+    }
+
+    @Test
+    public void testDynamic() {
+        compare("dynamic");
+    }
+
+    @Test
+    public void testParallelism() {
+        ParallelExecutionEngine parallel = new ParallelExecutionEngine(source, target, "?x", "?y", 3);
+        assertTrue(parallel.getParallelism() == 3);
+    }
+
+    @Test
+    public void testSharedPool() {
+        ParallelExecutionEngine first = new ParallelExecutionEngine(source, target, "?x", "?y", 3);
+        ParallelExecutionEngine second = new ParallelExecutionEngine(source, target, "?x", "?y", 3);
+        // engines do not create a pool of their own
+        assertTrue(first.getPool() == second.getPool());
+        assertTrue(first.getPool() != new ParallelExecutionEngine(source, target, "?x", "?y", 2).getPool());
+    }
+
+    @Test
+    public void testBoundedSharedPools() {
+        int max = ParallelExecutionEngine.MAX_SHARED_PARALLELISM;
+        ForkJoinPool pool = ParallelExecutionEngine.getSharedPool(max + 1);
+        assertTrue(pool == ParallelExecutionEngine.getSharedPool(max));
+        assertTrue(pool.getParallelism() == max);
+        assertTrue(pool.submit(() -> Thread.currentThread().isDaemon()).join());
+    }
+}
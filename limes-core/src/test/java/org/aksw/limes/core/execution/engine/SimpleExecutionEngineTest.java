@@ -1,7 +1,10 @@
 package org.aksw.limes.core.execution.engine;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
 
+import org.aksw.limes.core.exceptions.MappingSizeExceededException;
 import org.aksw.limes.core.execution.engine.filter.LinearFilter;
 import org.aksw.limes.core.execution.planning.plan.Instruction;
 import org.aksw.limes.core.execution.planning.plan.Instruction.Command;
@@ -15,6 +18,9 @@ import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.ls.LinkSpecification;
 import org.aksw.limes.core.io.mapping.AMapping;
 import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.mapper.string.EDJoinMapper;
+import org.aksw.limes.core.measures.measure.MeasureType;
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
@@ -698,4 +704,44 @@ public class SimpleExecutionEngineTest {
         System.out.println("---------------------------------");
 
     }
+
+    @Test
+    public void maxMappingSize() {
+        System.out.println("maxMappingSize");
+        LinkSpecification ls = new LinkSpecification("OR(qgrams(x.surname,y.surname)|0.4,trigrams(x.name,y.name)|0.4)",
+                0.4);
+        SimpleExecutionEngine ee = new SimpleExecutionEngine(source, target, "?x", "?y");
+        AMapping m = ee.execute(ls, new CanonicalPlanner());
+        assertTrue(m.size() > 1);
+
+        ee.setMaxMappingSize(m.size());
+        assertEquals(m.toString(), ee.execute(ls, new CanonicalPlanner()).toString());
+        ee.setMaxMappingSize(m.size() - 1);
+        try {
+            ee.execute(ls, new CanonicalPlanner());
+            fail();
+        } catch (MappingSizeExceededException e) {
+        }
+        try {
+            ee.execute(ls, new DynamicPlanner(source, target));
+            fail();
+        } catch (MappingSizeExceededException e) {
+        }
+        System.out.println("---------------------------------");
+    }
+
+    @Test
+    public void mapperParallelism() {
+        LinkSpecification ls = new LinkSpecification(
+                "OR(levenshtein(x.surname,y.surname)|0.4,jaccard(x.name,y.name)|0.4)", 0.4);
+        ExecutionEngine serial = ExecutionEngineFactory.getEngine(ExecutionEngineFactory.ExecutionEngineType.SIMPLE,
+                source, target, "?x", "?y");
+        ExecutionEngine parallel = ExecutionEngineFactory.getEngine(ExecutionEngineFactory.ExecutionEngineType.SIMPLE,
+                source, target, "?x", "?y", 4);
+        assertEquals(1, serial.getMapperParallelism());
+        assertEquals(4, parallel.getMapperParallelism());
+        assertEquals(serial.execute(ls, new CanonicalPlanner()).getMap(),
+                parallel.execute(ls, new CanonicalPlanner()).getMap());
+        assertEquals(4, ((EDJoinMapper) MapperFactory.createMapper(MeasureType.LEVENSHTEIN, 4)).getParallelism());
+    }
 }
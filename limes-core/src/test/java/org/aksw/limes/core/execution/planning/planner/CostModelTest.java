@@ -0,0 +1,95 @@
+package org.aksw.limes.core.execution.planning.planner;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.aksw.limes.core.execution.planning.plan.NestedPlan;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.measures.mapper.IMapper.Language;
+import org.aksw.limes.core.measures.mapper.calibration.MapperCalibration;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CostModelTest {
+
+    private ACache source;
+    private ACache target;
+    private MapperCalibration calibration;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < 20; i++) {
+            source.addTriple("S" + i, "name", "name" + i);
+            target.addTriple("T" + i, "name", "name" + (i % 10));
+        }
+        calibration = new MapperCalibration();
+        calibration.setCoefficients(MeasureType.JARO, new double[] { 1, 0, 0, 0.5, 0 });
+    }
+
+    @Test
+    public void calibratedRuntime() {
+        CostModel model = new CostModel(source, target, calibration, 0);
+        assertEquals(201d, model.getRuntimeCost("jaro", 0.9, Language.EN), 1e-9);
+        // not calibrated, hence the approximation of the mapper scaled like
+        // the one of the calibrated mapper
+        CostModel uncalibrated = new CostModel(source, target, new MapperCalibration(), 0);
+        double scale = 201d / uncalibrated.getRuntimeCost("jaro", 0.9, Language.EN);
+        assertEquals(scale * uncalibrated.getRuntimeCost("trigrams", 0.9, Language.EN),
+                model.getRuntimeCost("trigrams", 0.9, Language.EN), 1e-9);
+    }
+
+    @Test
+    public void sampledSelectivity() {
+        // the caches are smaller than the sample, hence the links are counted
+        // exactly: S0-T0, S0-T10, ..., S9-T9, S9-T19
+        CostModel model = new CostModel(source, target, calibration, 100);
+        double selectivity = model.getSelectivity("exactmatch(x.name,y.name)", 1.0);
+        assertEquals(20.5 / 401, selectivity, 1e-9);
+        assertEquals(20.5 / 401 * 400, model.getSampledMappingSize("exactmatch(x.name,y.name)", 1.0, Language.EN),
+                1e-9);
+
+        // samples of the caches
+        model = new CostModel(source, target, calibration, 10);
+        selectivity = model.getSelectivity("exactmatch(x.name,y.name)", 1.0);
+        assertTrue(selectivity > 0 && selectivity < 0.25);
+        // the samples are reproducible
+        assertEquals(selectivity, new CostModel(source, target, calibration, 10)
+                .getSelectivity("exactmatch(x.name,y.name)", 1.0), 0d);
+    }
+
+    @Test
+    public void samplesAreShared() {
+        CostModel model = new CostModel(source, target, calibration, 100);
+        assertEquals(20.5 / 401, model.getSelectivity("exactmatch(x.name,y.name)", 1.0), 1e-9);
+        // the selectivity of the first model is reused
+        source.addTriple("S0", "name", "name1");
+        assertEquals(20.5 / 401, new CostModel(source, target, calibration, 100)
+                .getSelectivity("exactmatch(x.name,y.name)", 1.0), 1e-9);
+        // the caches changed, hence they are sampled again
+        source.addTriple("S20", "name", "name0");
+        assertEquals(24.5 / 421, new CostModel(source, target, calibration, 100)
+                .getSelectivity("exactmatch(x.name,y.name)", 1.0), 1e-9);
+    }
+
+    @Test
+    public void plannersUseCostModel() {
+        LinkSpecification ls = new LinkSpecification("jaro(x.name,y.name)", 0.9);
+        HeliosPlanner helios = new HeliosPlanner(source, target);
+        helios.setCostModel(new CostModel(source, target, calibration, 100));
+        NestedPlan plan = helios.plan(ls);
+        assertEquals(201d, plan.getRuntimeCost(), 1e-9);
+        assertTrue(plan.getMappingSize() > 0);
+
+        DynamicPlanner dynamic = new DynamicPlanner(source, target);
+        dynamic.setCostModel(new CostModel(source, target, calibration, 100));
+        dynamic.init(ls);
+        plan = dynamic.plan(ls);
+        assertEquals(201d, plan.getRuntimeCost(), 1e-9);
+        assertEquals(plan.getMappingSize() / 400, plan.getSelectivity(), 1e-9);
+    }
+}
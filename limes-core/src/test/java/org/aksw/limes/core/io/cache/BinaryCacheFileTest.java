@@ -0,0 +1,146 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.TreeSet;
+
+import org.aksw.limes.core.io.config.KBInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class BinaryCacheFileTest {
+
+    private HybridCache cache;
+    private File folder;
+
+    @Before
+    public void setUp() throws IOException {
+        cache = new HybridCache();
+        cache.addTriple("S1", "name", "kleanthi");
+        cache.addTriple("S1", "surname", "georgala");
+        cache.addTriple("S2", "name", "axel");
+        cache.addTriple("S2", "name", "axel cyrille");
+        cache.addTriple("S2", "surname", "ngonga");
+        cache.addTriple("S3", "name", "mohamed");
+        cache.addTriple("S3", "label", "S1");
+        cache.addTriple("S4", "name", "ümlaut 中文");
+        folder = Files.createTempDirectory("limes").toFile();
+        new File(folder, "cache").mkdir();
+    }
+
+    @After
+    public void tearDown() {
+        for (File f : new File(folder, "cache").listFiles()) {
+            f.delete();
+        }
+        new File(folder, "cache").delete();
+        folder.delete();
+    }
+
+    private void assertSameContent(ACache expected, ACache actual) {
+        assertEquals(expected.size(), actual.size());
+        assertEquals(new HashSet<>(expected.getAllUris()), new HashSet<>(actual.getAllUris()));
+        assertEquals(expected.getAllProperties(), actual.getAllProperties());
+        for (String uri : expected.getAllUris()) {
+            assertTrue(actual.containsUri(uri));
+            Instance e = expected.getInstance(uri);
+            Instance a = actual.getInstance(uri);
+            assertEquals(e.getAllProperties(), a.getAllProperties());
+            for (String p : e.getAllProperties()) {
+                assertEquals(e.getProperty(p), a.getProperty(p));
+            }
+        }
+    }
+
+    @Test
+    public void roundTrip() throws IOException {
+        File file = HybridCache.getCacheFile(folder, "42");
+        cache.saveToFile(file);
+        assertTrue(BinaryCacheFile.isBinaryCacheFile(file));
+        HybridCache loaded = HybridCache.loadFromFile(file);
+        assertSameContent(cache, loaded);
+        assertFalse(loaded.containsUri("S5"));
+        assertNull(loaded.getInstance("S5"));
+
+        HashMap<String, TreeSet<String>> names = new HashMap<>();
+        loaded.forEachValue("name", (uri, value) -> {
+            names.computeIfAbsent(uri, k -> new TreeSet<>()).add(value);
+        });
+        assertEquals(4, names.size());
+        assertEquals(cache.getInstance("S2").getProperty("name"), names.get("S2"));
+
+        int count = 0;
+        while (loaded.getNextInstance() != null) {
+            count++;
+        }
+        assertEquals(cache.size(), count);
+    }
+
+    @Test
+    public void modifyLoadedCache() throws IOException {
+        File file = HybridCache.getCacheFile(folder, "42");
+        cache.saveToFile(file);
+        HybridCache loaded = HybridCache.loadFromFile(file);
+        loaded.addTriple("S5", "name", "tommaso");
+        loaded.addTriple("S1", "name", "k. georgala");
+        cache.addTriple("S5", "name", "tommaso");
+        cache.addTriple("S1", "name", "k. georgala");
+        assertSameContent(cache, loaded);
+
+        loaded.saveToFile(file);
+        assertSameContent(cache, HybridCache.loadFromFile(file));
+    }
+
+    @Test
+    public void instancesAreDecodedPerLookup() throws IOException {
+        File file = HybridCache.getCacheFile(folder, "42");
+        cache.saveToFile(file);
+        HybridCache loaded = HybridCache.loadFromFile(file);
+        Instance s2 = loaded.getInstance("S2");
+        assertEquals(s2.getUri(), loaded.getInstance("S2").getUri());
+        // changes to a looked-up instance do not change the cache
+        s2.addProperty("label", "S1");
+        assertFalse(loaded.getInstance("S2").getAllProperties().contains("label"));
+        loaded.addTriple("S5", "name", "tommaso");
+        assertFalse(loaded.getInstance("S2").getAllProperties().contains("label"));
+        loaded.addTriple("S2", "label", "S1");
+        assertEquals(new TreeSet<>(Arrays.asList("S1")), loaded.getInstance("S2").getProperty("label"));
+    }
+
+    @Test
+    public void migrateSerializedFile() throws IOException {
+        KBInfo kb = new KBInfo("?x");
+        kb.setId("source");
+        kb.setEndpoint("http://localhost/sparql");
+        File serFile = new File(new File(folder, "cache"), kb.hashCode() + ".ser");
+        cache.serializeToFile(serFile);
+        assertFalse(BinaryCacheFile.isBinaryCacheFile(serFile));
+
+        HybridCache migrated = HybridCache.getData(folder, kb);
+        assertSameContent(cache, migrated);
+        assertFalse(serFile.exists());
+        File binFile = HybridCache.getCacheFile(folder, CacheManifest.getKey(kb));
+        assertTrue(BinaryCacheFile.isBinaryCacheFile(binFile));
+        assertSameContent(cache, HybridCache.getData(folder, kb));
+    }
+
+    @Test(expected = IOException.class)
+    public void rejectUnknownVersion() throws IOException {
+        File file = HybridCache.getCacheFile(folder, "42");
+        cache.saveToFile(file);
+        byte[] bytes = Files.readAllBytes(file.toPath());
+        bytes[11] = (byte) (BinaryCacheFile.VERSION + 1);
+        Files.write(file.toPath(), bytes);
+        BinaryCacheFile.open(file);
+    }
+}
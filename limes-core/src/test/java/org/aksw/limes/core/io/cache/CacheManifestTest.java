@@ -0,0 +1,153 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.aksw.limes.core.io.config.KBInfo;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CacheManifestTest {
+
+    private File folder;
+    private File csv;
+
+    @Before
+    public void setUp() throws IOException {
+        folder = Files.createTempDirectory("limes").toFile();
+        new File(folder, "cache").mkdir();
+        csv = new File(folder, "source.csv");
+        write("id,name,age\nS1,Kleanthi,30\nS2,Axel,40\nS3,Mohamed,35\n");
+    }
+
+    @After
+    public void tearDown() {
+        for (File f : new File(folder, "cache").listFiles()) {
+            f.delete();
+        }
+        new File(folder, "cache").delete();
+        csv.delete();
+        folder.delete();
+    }
+
+    private void write(String content) throws IOException {
+        Files.write(csv.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private KBInfo getKBInfo(String... properties) {
+        KBInfo kb = new KBInfo("?x");
+        kb.setId("source");
+        kb.setEndpoint(csv.getAbsolutePath());
+        kb.setType("csv");
+        kb.setProperties(new ArrayList<String>(Arrays.asList(properties)));
+        Map<String, Map<String, String>> functions = new HashMap<String, Map<String, String>>();
+        for (String property : properties) {
+            Map<String, String> f = new HashMap<String, String>();
+            f.put(property, "");
+            functions.put(property, f);
+        }
+        kb.setFunctions(functions);
+        return kb;
+    }
+
+    @Test
+    public void keyIgnoresPropertiesAndPaging() {
+        KBInfo kb1 = getKBInfo("name");
+        KBInfo kb2 = getKBInfo("name", "age");
+        kb2.setPageSize(1000);
+        kb2.setId("other");
+        assertEquals(CacheManifest.getKey(kb1), CacheManifest.getKey(kb2));
+        kb2.setRestrictions(new ArrayList<String>(Arrays.asList("?x a ex:Person")));
+        assertFalse(CacheManifest.getKey(kb1).equals(CacheManifest.getKey(kb2)));
+    }
+
+    @Test
+    public void reuseUnchangedSource() throws IOException {
+        HybridCache cache = HybridCache.getData(folder, getKBInfo("name"));
+        assertEquals(3, cache.size());
+        assertTrue(cache.getInstance("S1").getProperty("name").contains("Kleanthi"));
+
+        // same size and modification time, hence the cached data is reused
+        long modified = csv.lastModified();
+        write("id,name,age\nS1,Kleanthx,30\nS2,Axel,40\nS3,Mohamed,35\n");
+        csv.setLastModified(modified);
+        cache = HybridCache.getData(folder, getKBInfo("name"));
+        assertTrue(cache.getInstance("S1").getProperty("name").contains("Kleanthi"));
+
+        // changed source, hence the data is fetched again
+        write("id,name,age\nS1,Kleanthi Georgala,30\nS2,Axel,40\nS3,Mohamed,35\nS4,Tommaso,25\n");
+        cache = HybridCache.getData(folder, getKBInfo("name"));
+        assertEquals(4, cache.size());
+        assertTrue(cache.getInstance("S1").getProperty("name").contains("Kleanthi Georgala"));
+    }
+
+    @Test
+    public void fetchAddedProperties() throws IOException {
+        KBInfo kb = getKBInfo("name");
+        HybridCache.getData(folder, kb);
+        File manifestFile = new File(new File(folder, "cache"), CacheManifest.getKey(kb) + CacheManifest.EXTENSION);
+        CacheManifest manifest = CacheManifest.read(manifestFile);
+        KBInfo extended = getKBInfo("name", "age");
+        assertTrue(manifest.matches(extended));
+        assertEquals(Arrays.asList("age"), manifest.getMissingProperties(extended));
+
+        HybridCache cache = HybridCache.getData(folder, extended);
+        assertEquals(3, cache.size());
+        assertTrue(cache.getInstance("S2").getProperty("name").contains("Axel"));
+        assertTrue(cache.getInstance("S2").getProperty("age").contains("40"));
+        assertTrue(CacheManifest.read(manifestFile).getMissingProperties(extended).isEmpty());
+
+        // the cached data has more properties than requested
+        assertTrue(CacheManifest.read(manifestFile).matches(kb));
+        assertTrue(CacheManifest.read(manifestFile).getMissingProperties(kb).isEmpty());
+        cache = HybridCache.getData(folder, kb);
+        assertTrue(cache.getInstance("S2").getProperty("age").contains("40"));
+    }
+
+    @Test
+    public void changedFunctionsAreRefetched() {
+        KBInfo kb = getKBInfo("name");
+        HybridCache.getData(folder, kb);
+        KBInfo lowerCase = getKBInfo("name");
+        lowerCase.getFunctions().get("name").put("name", "lowercase");
+        File manifestFile = new File(new File(folder, "cache"), CacheManifest.getKey(kb) + CacheManifest.EXTENSION);
+        assertFalse(CacheManifest.read(manifestFile).matches(lowerCase));
+        HybridCache cache = HybridCache.getData(folder, lowerCase);
+        assertTrue(cache.getInstance("S1").getProperty("name").contains("kleanthi"));
+    }
+
+    @Test
+    public void probesAfterInterval() throws IOException {
+        File file = new File(folder, "cache" + File.separatorChar + "endpoint" + CacheManifest.EXTENSION);
+        String manifest = "version=1\nsource=type\\=sparql\nprobe=count\\=3,latest\\=null\nprobed=";
+        Files.write(file.toPath(), (manifest + System.currentTimeMillis()).getBytes(StandardCharsets.UTF_8));
+        // by default, the endpoint is probed on every use
+        KBInfo kb = new KBInfo("?x");
+        assertTrue(CacheManifest.read(file).isProbeDue(kb));
+        kb.setProbeInterval(60 * 60 * 1000L);
+        assertFalse(CacheManifest.read(file).isProbeDue(kb));
+        Files.write(file.toPath(), (manifest + 0).getBytes(StandardCharsets.UTF_8));
+        assertTrue(CacheManifest.read(file).isProbeDue(kb));
+        // manifests without the time of the probe
+        Files.write(file.toPath(),
+                "version=1\nsource=type\\=sparql\nprobe=count\\=3".getBytes(StandardCharsets.UTF_8));
+        assertTrue(CacheManifest.read(file).isProbeDue(kb));
+    }
+
+    @Test
+    public void unknownManifest() {
+        assertNull(CacheManifest.read(new File(folder, "missing" + CacheManifest.EXTENSION)));
+    }
+}
@@ -0,0 +1,167 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.space.HR3Mapper;
+import org.aksw.limes.core.measures.mapper.string.EDJoinMapper;
+import org.aksw.limes.core.measures.mapper.string.PPJoinPlusPlus;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ColumnarCacheTest {
+
+    private ACache memory;
+    private ACache columnar;
+
+    private void addTriple(String s, String p, String o) {
+        memory.addTriple(s, p, o);
+        columnar.addTriple(s, p, o);
+    }
+
+    @Before
+    public void setUp() {
+        memory = new MemoryCache();
+        columnar = new ColumnarCache();
+        addTriple("S1", "name", "kleanthi");
+        addTriple("S1", "surname", "georgala");
+        addTriple("S1", "lat", "51.3");
+        addTriple("S1", "long", "12.3");
+        addTriple("S2", "name", "axel");
+        addTriple("S2", "name", "axel cyrille");
+        addTriple("S2", "surname", "ngonga");
+        addTriple("S2", "lat", "51.4");
+        addTriple("S2", "long", "12.4");
+        addTriple("S3", "name", "mohamed");
+        addTriple("S3", "surname", "sherif");
+        addTriple("S3", "lat", "48.1");
+        addTriple("S3", "long", "11.5");
+        // duplicate and out of order statements
+        addTriple("S1", "name", "kleanthi");
+        addTriple("S2", "name", "a. ngonga");
+    }
+
+    @Test
+    public void instancesAreEqual() {
+        assertEquals(memory.size(), columnar.size());
+        assertEquals(new HashSet<>(memory.getAllUris()), new HashSet<>(columnar.getAllUris()));
+        assertEquals(memory.getAllProperties(), columnar.getAllProperties());
+        for (String uri : memory.getAllUris()) {
+            Instance m = memory.getInstance(uri);
+            Instance c = columnar.getInstance(uri);
+            assertEquals(m.getAllProperties(), c.getAllProperties());
+            for (String p : m.getAllProperties()) {
+                assertEquals(m.getProperty(p), c.getProperty(p));
+            }
+        }
+        assertNull(columnar.getInstance("S4"));
+        assertTrue(columnar.containsUri("S3"));
+        assertFalse(columnar.containsUri("T1"));
+    }
+
+    @Test
+    public void forEachValue() {
+        List<String> values = new ArrayList<>();
+        columnar.forEachValue("name", (uri, value) -> values.add(uri + "=" + value));
+        List<String> expected = new ArrayList<>();
+        memory.forEachValue("name", (uri, value) -> expected.add(uri + "=" + value));
+        assertEquals(new TreeSet<>(expected), new TreeSet<>(values));
+        assertEquals(expected.size(), values.size());
+        columnar.forEachValue("age", (uri, value) -> values.add(value));
+        assertEquals(expected.size(), values.size());
+    }
+
+    @Test
+    public void replaceInstance() {
+        Instance i = new Instance("S2");
+        i.addProperty("name", "axel");
+        columnar.replaceInstance("S2", i);
+        assertEquals(1, columnar.getInstance("S2").getProperty("name").size());
+        assertTrue(columnar.getInstance("S2").getProperty("surname").isEmpty());
+        assertEquals("kleanthi", columnar.getInstance("S1").getProperty("name").first());
+        assertEquals("sherif", columnar.getInstance("S3").getProperty("surname").first());
+    }
+
+    @Test
+    public void concurrentReadersOfManyValues() throws Exception {
+        Random random = new Random(3);
+        for (int i = 0; i < 500; i++) {
+            addTriple("S" + random.nextInt(5), "tag", Integer.toString(random.nextInt(1000), 36));
+        }
+        List<Callable<Boolean>> readers = new ArrayList<>();
+        for (int r = 0; r < 8; r++) {
+            readers.add(() -> {
+                for (String uri : memory.getAllUris()) {
+                    Instance m = memory.getInstance(uri);
+                    Instance c = columnar.getInstance(uri);
+                    for (String p : m.getAllProperties()) {
+                        assertEquals(m.getProperty(p), c.getProperty(p));
+                    }
+                }
+                return true;
+            });
+        }
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (Future<Boolean> future : executor.invokeAll(readers)) {
+                assertTrue(future.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        List<String> tags = new ArrayList<>();
+        columnar.forEachValue("tag", (uri, value) -> {
+            if (uri.equals("S1")) {
+                tags.add(value);
+            }
+        });
+        assertEquals(new ArrayList<>(memory.getInstance("S1").getProperty("tag")), tags);
+    }
+
+    @Test
+    public void iterator() {
+        columnar.resetIterator();
+        int count = 0;
+        while (columnar.getNextInstance() != null) {
+            count++;
+        }
+        assertEquals(3, count);
+    }
+
+    @Test
+    public void mappersAgree() {
+        ACache memoryTarget = new MemoryCache();
+        ACache columnarTarget = new ColumnarCache();
+        for (Instance i : memory.getAllInstances()) {
+            memoryTarget.addInstance(i);
+            columnarTarget.addInstance(i);
+        }
+        memoryTarget.addTriple("T1", "name", "axel c.");
+        columnarTarget.addTriple("T1", "name", "axel c.");
+        compare(new PPJoinPlusPlus(), memoryTarget, columnarTarget, "jaccard(x.name,y.name)", 0.3);
+        compare(new EDJoinMapper(), memoryTarget, columnarTarget, "levenshtein(x.name,y.name)", 0.3);
+        compare(new HR3Mapper(), memoryTarget, columnarTarget, "euclidean(x.lat|long,y.lat|long)", 0.5);
+    }
+
+    private void compare(AMapper mapper, ACache memoryTarget, ACache columnarTarget, String expression,
+            double threshold) {
+        AMapping m1 = mapper.getMapping(memory, memoryTarget, "?x", "?y", expression, threshold);
+        AMapping m2 = mapper.getMapping(columnar, columnarTarget, "?x", "?y", expression, threshold);
+        assertTrue(m1.size() > 0);
+        assertEquals(m1.getMap(), m2.getMap());
+    }
+}
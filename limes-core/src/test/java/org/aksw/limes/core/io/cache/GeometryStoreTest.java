@@ -0,0 +1,60 @@
+package org.aksw.limes.core.io.cache;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+public class GeometryStoreTest {
+
+    private static final String SQUARE = "POLYGON ((0 0, 2 0, 2 2, 0 2, 0 0))";
+    private static final String INNER = "POLYGON ((0.5 0.5, 1 0.5, 1 1, 0.5 1, 0.5 0.5))";
+    private static final String OTHER = "POLYGON ((5 5, 6 5, 6 6, 5 6, 5 5))";
+
+    @Test
+    public void parseOnce() {
+        GeometryStore store = new GeometryStore();
+        GeometryStore.Entry entry = store.get(SQUARE);
+        assertSame(entry, store.get(SQUARE));
+        assertSame(entry.getGeometry(), store.getGeometry(SQUARE));
+        assertSame(entry.getPrepared(), store.getPrepared(SQUARE));
+        assertTrue(entry.getPrepared().contains(store.getGeometry(INNER)));
+        assertEquals(2, store.size());
+        assertEquals(10, store.getWeight());
+        assertNull(store.get("POLYGON ((0 0, 1"));
+        assertEquals(2, store.size());
+    }
+
+    @Test
+    public void evictLeastRecentlyUsed() {
+        GeometryStore store = new GeometryStore(10);
+        Geometry square = store.getGeometry(SQUARE);
+        store.getGeometry(INNER);
+        // the square is used last, hence the inner square is evicted
+        store.get(SQUARE);
+        store.getGeometry(OTHER);
+        assertEquals(2, store.size());
+        assertEquals(10, store.getWeight());
+        assertSame(square, store.getGeometry(SQUARE));
+        assertEquals(2, store.size());
+        assertNotNull(store.get(OTHER));
+        store.clear();
+        assertEquals(0, store.getWeight());
+    }
+
+    @Test
+    public void storePerProperty() {
+        ACache cache = new MemoryCache();
+        cache.addTriple("a", "geom", SQUARE);
+        cache.addTriple("a", "other", SQUARE);
+        GeometryStore store = cache.getGeometryStore("geom");
+        assertSame(store, cache.getGeometryStore("geom"));
+        assertNotSame(store, cache.getGeometryStore("other"));
+    }
+}
@@ -0,0 +1,82 @@
+package org.aksw.limes.core.io.mapping;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.mapping.MappingFactory.MappingType;
+import org.aksw.limes.core.measures.mapper.MappingOperations;
+import org.junit.Test;
+
+public class PrimitiveMappingTest {
+
+    @Test
+    public void addKeepsMaximum() {
+        AMapping m = MappingFactory.createMapping(MappingType.PRIMITIVE_MAPPING);
+        assertTrue(m instanceof PrimitiveMapping);
+        m.add("s1", "t1", 0.5);
+        m.add("s1", "t1", 0.25);
+        m.add("s1", "t2", 0.75);
+        m.add("s2", "t1", 1d);
+        m.add("s1", "t1", 0.625);
+        assertEquals(3, m.size());
+        assertEquals(3, m.getNumberofMappings());
+        assertEquals(0.625, m.getConfidence("s1", "t1"), 0d);
+        assertEquals(0d, m.getConfidence("s2", "t2"), 0d);
+        assertEquals(0d, m.getConfidence("s3", "t1"), 0d);
+        assertTrue(m.contains("s2", "t1"));
+        assertFalse(m.contains("t1", "s2"));
+    }
+
+    @Test
+    public void agreesWithMemoryMapping() {
+        Random random = new Random(42);
+        AMapping memory = MappingFactory.createMapping(MappingType.MEMORY_MAPPING);
+        AMapping primitive = MappingFactory.createMapping(MappingType.PRIMITIVE_MAPPING);
+        for (int i = 0; i < 20000; i++) {
+            String s = "s" + random.nextInt(500);
+            String t = "t" + random.nextInt(500);
+            // similarities that are exact in float precision
+            double sim = random.nextInt(64) / 64d;
+            memory.add(s, t, sim);
+            primitive.add(s, t, sim);
+        }
+        assertEquals(memory.size(), primitive.size());
+        assertEquals(memory.getMap(), primitive.getMap());
+        assertEquals(memory.getSubMap(0.5).getMap(), primitive.getSubMap(0.5).getMap());
+        assertEquals(memory.getBestOneToNMapping().getMap(), primitive.getBestOneToNMapping().getMap());
+        assertEquals(memory.reverseSourceTarget().getMap(), primitive.reverseSourceTarget().getMap());
+        assertEquals(MappingOperations.union(memory, memory.getSubMap(0.25)).getMap(),
+                MappingOperations.union(primitive, primitive.getSubMap(0.25)).getMap());
+    }
+
+    @Test
+    public void subMapUsesFloatPrecision() {
+        AMapping m = MappingFactory.createMapping(MappingType.PRIMITIVE_MAPPING);
+        m.add("s1", "t1", 0.7);
+        m.add("s2", "t2", 0.3);
+        AMapping sub = m.getSubMap(0.7);
+        assertEquals(1, sub.size());
+        assertTrue(sub.contains("s1", "t1"));
+    }
+
+    @Test
+    public void mapIsMaterializedAfterChanges() {
+        AMapping m = MappingFactory.createMapping(MappingType.PRIMITIVE_MAPPING);
+        m.add("s1", "t1", 0.5);
+        assertEquals(1, m.getMap().size());
+        m.add("s2", "t1", 0.5);
+        assertEquals(2, m.getMap().size());
+        AMapping copy = MappingFactory.createMapping(MappingType.PRIMITIVE_MAPPING);
+        copy.setMap(m.getMap());
+        assertEquals(m, copy);
+        // the nested maps are copies
+        m.getMap().clear();
+        m.getMap().get("s1").put("t2", 1d);
+        assertEquals(2, m.getMap().size());
+        assertEquals(1, m.getMap().get("s1").size());
+        assertEquals(2, m.size());
+    }
+}
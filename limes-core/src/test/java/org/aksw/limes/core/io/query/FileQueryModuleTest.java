@@ -1,14 +1,23 @@
 package org.aksw.limes.core.io.query;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintWriter;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
 import java.util.Map;
 
+import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.HybridCache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.config.KBInfo;
+import org.apache.jena.riot.RDFDataMgr;
 import org.junit.Test;
 
 public class FileQueryModuleTest {
@@ -46,4 +55,124 @@ public class FileQueryModuleTest {
         assertTrue(cache.size() > 0);
     }
 
+    private KBInfo getPersonKBInfo(String type) {
+        HashMap<String, String> prefixes = new HashMap<>();
+        prefixes.put("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#");
+        prefixes.put("okkam", "http://www.okkam.org/ontology_person1.owl#");
+
+        Map<String, Map<String, String>> functions = new HashMap<>();
+        HashMap<String, String> name = new HashMap<String, String>();
+        name.put("name", "lowercase");
+        name.put("rawName", null);
+        functions.put("okkam:given_name", name);
+        HashMap<String, String> surname = new HashMap<String, String>();
+        surname.put("surname", null);
+        functions.put("okkam:surname", surname);
+        HashMap<String, String> age = new HashMap<String, String>();
+        age.put("age", null);
+        functions.put("<http://www.okkam.org/ontology_person1.owl#age>", age);
+
+        KBInfo kbinfo = new KBInfo("persons",
+                Thread.currentThread().getContextClassLoader().getResource("datasets/Persons1/person11.nt").getPath(),
+                null, "?x", new ArrayList<String>(Arrays.asList("okkam:surname", "okkam:given_name")),
+                new ArrayList<String>(Arrays.asList("<http://www.okkam.org/ontology_person1.owl#age>")),
+                new ArrayList<String>(Arrays.asList("?x rdf:type okkam:Person")), functions, prefixes, 1000, type);
+        return kbinfo;
+    }
+
+    private void assertSameCache(ACache expected, ACache actual) {
+        assertEquals(expected.size(), actual.size());
+        for (Instance i : expected.getAllInstances()) {
+            Instance j = actual.getInstance(i.getUri());
+            assertEquals(i.getAllProperties(), j.getAllProperties());
+            for (String p : i.getAllProperties()) {
+                assertEquals(i.getProperty(p), j.getProperty(p));
+            }
+        }
+    }
+
+    @Test
+    public void streamingFillCacheTest() {
+        KBInfo kbinfo = getPersonKBInfo("N-TRIPLE");
+        assertTrue(StreamingRDFReader.isStreamable(kbinfo));
+        // reference: SPARQL query on the model with the optional property as
+        // a mandatory one, as the variables of optional properties clash with
+        // the ones of the properties. Every person has an age.
+        KBInfo reference = getPersonKBInfo("N-TRIPLE");
+        reference.getProperties().add("okkam:age");
+        reference.getFunctions().put("okkam:age",
+                reference.getFunctions().get("<http://www.okkam.org/ontology_person1.owl#age>"));
+        reference.setOptionalProperties(new ArrayList<String>());
+        ModelRegistry.register(reference.getEndpoint(), RDFDataMgr.loadModel(reference.getEndpoint()));
+        ACache expected = new MemoryCache();
+        new SparqlQueryModule(reference).fillCache(expected, false);
+        ModelRegistry.unregister(reference.getEndpoint());
+        assertTrue(expected.size() > 0);
+
+        ACache streamed = new MemoryCache();
+        new FileQueryModule(kbinfo).fillCache(streamed);
+        assertSameCache(expected, streamed);
+
+        // chunks of the file parsed in parallel
+        kbinfo.setParallelism(4);
+        ACache parallel = new MemoryCache();
+        new FileQueryModule(kbinfo).fillCache(parallel);
+        assertSameCache(streamed, parallel);
+
+        // turtle parser
+        ACache turtle = new MemoryCache();
+        new FileQueryModule(getPersonKBInfo("N3")).fillCache(turtle);
+        assertSameCache(streamed, turtle);
+    }
+
+    @Test
+    public void streamingTypedLiteralsTest() throws IOException {
+        File file = File.createTempFile("typed", ".nt");
+        file.deleteOnExit();
+        String ex = "http://example.org/";
+        String xsd = "http://www.w3.org/2001/XMLSchema#";
+        try (PrintWriter out = new PrintWriter(file, "UTF-8")) {
+            for (int i = 0; i < 20; i++) {
+                String s = "<" + ex + "p" + i + "> ";
+                out.println(s + "<http://www.w3.org/1999/02/22-rdf-syntax-ns#type> <" + ex + "Person> .");
+                out.println(s + "<" + ex + "age> \"" + (20 + i) + "\"^^<" + xsd + "integer> .");
+                out.println(s + "<" + ex + "height> \"1." + i + "E0\"^^<" + xsd + "double> .");
+                out.println(s + "<" + ex + "name> \"Person " + i + "\"" + (i % 2 == 0 ? "@en" : "") + " .");
+            }
+        }
+        HashMap<String, String> prefixes = new HashMap<>();
+        prefixes.put("rdf", "http://www.w3.org/1999/02/22-rdf-syntax-ns#");
+        prefixes.put("ex", ex);
+        Map<String, Map<String, String>> functions = new HashMap<>();
+        for (String p : Arrays.asList("age", "height", "name")) {
+            HashMap<String, String> f = new HashMap<String, String>();
+            f.put(p, null);
+            functions.put("ex:" + p, f);
+        }
+        KBInfo kbinfo = new KBInfo("typed", file.getPath(), null, "?x",
+                new ArrayList<String>(Arrays.asList("ex:age", "ex:height", "ex:name")), null,
+                new ArrayList<String>(Arrays.asList("?x rdf:type ex:Person")), functions, prefixes, 1000, "N-TRIPLE");
+        assertTrue(StreamingRDFReader.isStreamable(kbinfo));
+
+        ModelRegistry.register(kbinfo.getEndpoint(), RDFDataMgr.loadModel(kbinfo.getEndpoint()));
+        ACache expected = new MemoryCache();
+        new SparqlQueryModule(kbinfo).fillCache(expected, false);
+        ModelRegistry.unregister(kbinfo.getEndpoint());
+        assertEquals(20, expected.size());
+
+        ACache streamed = new MemoryCache();
+        new FileQueryModule(kbinfo).fillCache(streamed);
+        assertSameCache(expected, streamed);
+    }
+
+    @Test
+    public void notStreamableTest() {
+        KBInfo kbinfo = getPersonKBInfo("N-TRIPLE");
+        kbinfo.getRestrictions().add("?x okkam:age ?age");
+        assertFalse(StreamingRDFReader.isStreamable(kbinfo));
+        kbinfo = getPersonKBInfo("N-TRIPLE");
+        kbinfo.getProperties().add("okkam:has_address/okkam:street");
+        assertFalse(StreamingRDFReader.isStreamable(kbinfo));
+    }
+
 }
@@ -1,5 +1,6 @@
 package org.aksw.limes.core.io.query;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.util.ArrayList;
@@ -10,7 +11,14 @@ import java.util.Map;
 
 import org.aksw.limes.core.io.cache.ACache;
 import org.aksw.limes.core.io.cache.HybridCache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
 import org.aksw.limes.core.io.config.KBInfo;
+import org.apache.jena.rdf.model.Model;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Resource;
+import org.apache.jena.vocabulary.RDF;
+import org.apache.jena.vocabulary.RDFS;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -67,4 +75,104 @@ public class SparqlQueryModuleTest {
         assertTrue(cache.size() > 0);
     }
 
+    private KBInfo registerModel() {
+        Model model = ModelFactory.createDefaultModel();
+        Resource drug = model.createResource("http://dbpedia.org/ontology/Drug");
+        for (int i = 0; i < 100; i++) {
+            Resource r = model.createResource("http://example.org/drug" + i);
+            r.addProperty(RDF.type, drug);
+            r.addProperty(RDFS.label, "Drug " + i);
+            if (i % 3 == 0) {
+                r.addProperty(RDFS.label, "Medicine " + i);
+            }
+            if (i % 10 == 0) {
+                r.addProperty(RDFS.label, "Remedy " + i);
+            }
+        }
+        ModelRegistry.register("drugs", model);
+        kbInfo.setEndpoint("drugs");
+        kbInfo.setPageSize(7);
+        return kbInfo;
+    }
+
+    private void assertSameCache(ACache expected, ACache actual) {
+        assertEquals(expected.size(), actual.size());
+        for (Instance i : expected.getAllInstances()) {
+            assertEquals(i.getProperty("label"), actual.getInstance(i.getUri()).getProperty("label"));
+        }
+    }
+
+    @Test
+    public void fillCacheParallelTest() {
+        registerModel();
+        ACache serial = new MemoryCache();
+        new SparqlQueryModule(kbInfo).fillCache(serial, false);
+        assertEquals(100, serial.size());
+
+        kbInfo.setParallelism(4);
+        SparqlQueryModule sqm = new SparqlQueryModule(kbInfo);
+        // offset pages only
+        ACache parallel = new MemoryCache();
+        sqm.fillCache(parallel, false);
+        assertSameCache(serial, parallel);
+
+        // offset pages followed by keyset pages
+        sqm.setKeysetOffset(30);
+        parallel = new MemoryCache();
+        sqm.fillCache(parallel, false);
+        assertSameCache(serial, parallel);
+
+        // keyset pages only
+        sqm.setKeysetOffset(0);
+        parallel = new MemoryCache();
+        sqm.fillCache(parallel, false);
+        assertSameCache(serial, parallel);
+
+        // no paging
+        kbInfo.setPageSize(-1);
+        parallel = new MemoryCache();
+        sqm.fillCache(parallel, false);
+        assertSameCache(serial, parallel);
+        ModelRegistry.unregister("drugs");
+    }
+
+    @Test
+    public void interleavedKeysetPages() {
+        registerModel();
+        ACache serial = new MemoryCache();
+        new SparqlQueryModule(kbInfo).fillCache(serial, false);
+
+        kbInfo.setParallelism(4);
+        SparqlQueryModule sqm = new SparqlQueryModule(kbInfo) {
+            @Override
+            protected String generateKeysetQuery(String query, String after, boolean inclusive) {
+                // the labels of an instance are not adjacent in this order
+                return super.generateKeysetQuery(query, after, inclusive) + " ORDER BY DESC(?v0)";
+            }
+        };
+        sqm.setKeysetOffset(0);
+        ACache parallel = new MemoryCache();
+        sqm.fillCache(parallel, false);
+        assertSameCache(serial, parallel);
+        ModelRegistry.unregister("drugs");
+    }
+
+    @Test
+    public void failedSolutionsAreSkipped() {
+        registerModel();
+        // the solutions cannot be processed without functions
+        kbInfo.setFunctions(new HashMap<>());
+        ACache serial = new MemoryCache();
+        new SparqlQueryModule(kbInfo).fillCache(serial, false);
+        assertEquals(0, serial.size());
+
+        kbInfo.setParallelism(4);
+        SparqlQueryModule sqm = new SparqlQueryModule(kbInfo);
+        sqm.setKeysetOffset(30);
+        ACache parallel = new MemoryCache();
+        sqm.fillCache(parallel, false);
+        assertEquals(0, parallel.size());
+        ModelRegistry.unregister("drugs");
+    }
+
 }
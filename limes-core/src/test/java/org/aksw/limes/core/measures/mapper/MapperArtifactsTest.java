@@ -0,0 +1,120 @@
+package org.aksw.limes.core.measures.mapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.aksw.limes.core.execution.engine.ParallelExecutionEngine;
+import org.aksw.limes.core.execution.engine.SimpleExecutionEngine;
+import org.aksw.limes.core.execution.planning.planner.CanonicalPlanner;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.ls.LinkSpecification;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.string.JaroWinklerMapper;
+import org.aksw.limes.core.measures.mapper.string.PPJoinPlusPlus;
+import org.aksw.limes.core.measures.mapper.string.fastngram.FastNGramMapper;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MapperArtifactsTest {
+
+    private static final String SPEC = "OR(OR(trigram(x.label,y.label)|0.5,jaccard(x.label,y.label)|0.4)|0.4,"
+            + "OR(qgrams(x.label,y.label)|0.6,jarowinkler(x.label,y.label)|0.9)|0.6)";
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(7);
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < 300; i++) {
+            String label = randomLabel(random);
+            source.addTriple("S" + i, "label", label);
+            target.addTriple("T" + i, "label", random.nextBoolean() ? label : randomLabel(random));
+        }
+    }
+
+    private String randomLabel(Random random) {
+        return MapperFixtures.label(random, "abcde", 3, 2, 5);
+    }
+
+    @Test
+    public void buildsOnce() {
+        MapperArtifacts artifacts = new MapperArtifacts();
+        AtomicInteger builds = new AtomicInteger();
+        Object first = artifacts.get(source, "label", "", "test", () -> builds.incrementAndGet(), i -> 100);
+        Object second = artifacts.get(source, "label", "", "test", () -> builds.incrementAndGet(), i -> 100);
+        assertSame(first, second);
+        assertEquals(1, builds.get());
+        // every part of the key distinguishes artifacts
+        artifacts.get(target, "label", "", "test", () -> builds.incrementAndGet(), i -> 100);
+        artifacts.get(source, "name", "", "test", () -> builds.incrementAndGet(), i -> 100);
+        artifacts.get(source, "label", "lower", "test", () -> builds.incrementAndGet(), i -> 100);
+        artifacts.get(source, "label", "", "other", () -> builds.incrementAndGet(), i -> 100);
+        assertEquals(5, builds.get());
+        assertEquals(5, artifacts.size());
+        assertEquals(500, artifacts.getWeight());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        MapperArtifacts artifacts = new MapperArtifacts(250);
+        artifacts.get(source, "a", "", "", () -> "a", s -> 100);
+        artifacts.get(source, "b", "", "", () -> "b", s -> 100);
+        artifacts.get(source, "a", "", "", () -> "a", s -> 100);
+        artifacts.get(source, "c", "", "", () -> "c", s -> 100);
+        assertEquals(2, artifacts.size());
+        assertEquals(200, artifacts.getWeight());
+        AtomicInteger builds = new AtomicInteger();
+        artifacts.get(source, "a", "", "", () -> "a" + builds.incrementAndGet(), s -> 100);
+        artifacts.get(source, "b", "", "", () -> "b" + builds.incrementAndGet(), s -> 100);
+        assertEquals(1, builds.get());
+        // artifacts larger than the capacity are not kept
+        artifacts.get(source, "d", "", "", () -> "d", s -> 1000);
+        assertEquals(0, artifacts.size());
+        assertEquals(0, artifacts.getWeight());
+    }
+
+    @Test
+    public void mappersShareArtifacts() {
+        MapperArtifacts artifacts = new MapperArtifacts();
+        String[] expressions = { "jarowinkler(x.label,y.label)", "qgrams(x.label,y.label)",
+                "trigram(x.label,y.label)", "jaccard(x.label,y.label)" };
+        AMapper[] mappers = { new JaroWinklerMapper(), new FastNGramMapper(), new PPJoinPlusPlus(),
+                new PPJoinPlusPlus() };
+        for (int i = 0; i < mappers.length; i++) {
+            AMapping expected = mappers[i].getMapping(source, target, "?x", "?y", expressions[i], 0.5);
+            mappers[i].setArtifacts(artifacts);
+            for (int run = 0; run < 2; run++) {
+                assertEquals(expected, mappers[i].getMapping(source, target, "?x", "?y", expressions[i], 0.5));
+            }
+        }
+        // value maps, q-gram index and words
+        assertEquals(5, artifacts.getBuilds());
+    }
+
+    @Test
+    public void enginesShareArtifacts() {
+        LinkSpecification ls = new LinkSpecification(SPEC, 0.4);
+        SimpleExecutionEngine plain = new SimpleExecutionEngine(source, target, "?x", "?y");
+        plain.setArtifacts(null);
+        AMapping expected = plain.execute(ls, new CanonicalPlanner());
+        assertTrue(expected.size() > 0);
+
+        SimpleExecutionEngine simple = new SimpleExecutionEngine(source, target, "?x", "?y");
+        assertEquals(expected, simple.execute(ls, new CanonicalPlanner()));
+        assertEquals(5, simple.getArtifacts().getBuilds());
+        // the artifacts are dropped after the execution
+        assertEquals(0, simple.getArtifacts().size());
+
+        ParallelExecutionEngine parallel = new ParallelExecutionEngine(source, target, "?x", "?y", 4);
+        assertEquals(expected, parallel.execute(ls, new CanonicalPlanner()));
+        assertEquals(5, parallel.getArtifacts().getBuilds());
+    }
+}
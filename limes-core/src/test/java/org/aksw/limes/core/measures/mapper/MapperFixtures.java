@@ -0,0 +1,129 @@
+package org.aksw.limes.core.measures.mapper;
+
+import java.util.Collection;
+import java.util.Random;
+import java.util.function.ToDoubleBiFunction;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+
+/**
+ * Random labels and brute-force reference mappings for the tests of the
+ * mappers and measures. The labels are drawn from a seeded random generator,
+ * so that the tests are reproducible.
+ *
+ * @version 1.0
+ */
+public class MapperFixtures {
+
+    private MapperFixtures() {
+    }
+
+    /**
+     * @return a string of the given length over the characters of alphabet
+     */
+    public static String string(Random random, String alphabet, int length) {
+        StringBuilder s = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            s.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return s.toString();
+    }
+
+    /**
+     * @return a label of 1 to maxWords words separated by blanks, each word
+     *         has minLength to maxLength characters of alphabet
+     */
+    public static String label(Random random, String alphabet, int maxWords, int minLength, int maxLength) {
+        StringBuilder label = new StringBuilder();
+        for (int w = 1 + random.nextInt(maxWords); w > 0; w--) {
+            label.append(' ').append(string(random, alphabet, minLength + random.nextInt(maxLength - minLength + 1)));
+        }
+        return label.substring(1);
+    }
+
+    /**
+     * @return a label of 1 to maxWords words of the vocabulary separated by
+     *         blanks
+     */
+    public static String label(Random random, String[] vocabulary, int maxWords) {
+        StringBuilder label = new StringBuilder();
+        for (int w = 1 + random.nextInt(maxWords); w > 0; w--) {
+            label.append(' ').append(vocabulary[random.nextInt(vocabulary.length)]);
+        }
+        return label.substring(1);
+    }
+
+    /**
+     * @return s after up to maxEdits random insertions, deletions and
+     *         substitutions of characters of alphabet
+     */
+    public static String mutate(Random random, String s, String alphabet, int maxEdits) {
+        StringBuilder mutated = new StringBuilder(s);
+        for (int i = random.nextInt(maxEdits + 1); i > 0; i--) {
+            int position = random.nextInt(mutated.length() + 1);
+            switch (random.nextInt(3)) {
+            case 0:
+                mutated.insert(position, alphabet.charAt(random.nextInt(alphabet.length())));
+                break;
+            case 1:
+                if (position < mutated.length()) {
+                    mutated.deleteCharAt(position);
+                }
+                break;
+            default:
+                if (position < mutated.length()) {
+                    mutated.setCharAt(position, alphabet.charAt(random.nextInt(alphabet.length())));
+                }
+            }
+        }
+        return mutated.toString();
+    }
+
+    /**
+     * Compares all pairs of values of a property of the source and target
+     * instances. Instances with several values are linked with their maximal
+     * similarity.
+     *
+     * @return the links whose similarity is at least threshold
+     */
+    public static AMapping bruteForce(ACache source, ACache target, String property,
+            ToDoubleBiFunction<String, String> similarity, double threshold) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (Instance s : source.getAllInstances()) {
+            for (Instance t : target.getAllInstances()) {
+                for (String a : s.getProperty(property)) {
+                    for (String b : t.getProperty(property)) {
+                        double sim = similarity.applyAsDouble(a, b);
+                        if (sim >= threshold) {
+                            m.add(s.getUri(), t.getUri(), sim);
+                        }
+                    }
+                }
+            }
+        }
+        return m;
+    }
+
+    /**
+     * Compares all pairs of source and target strings, which are the URIs of
+     * the links.
+     *
+     * @return the links whose similarity is at least threshold
+     */
+    public static AMapping bruteForce(Collection<String> source, Collection<String> target,
+            ToDoubleBiFunction<String, String> similarity, double threshold) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : source) {
+            for (String t : target) {
+                double sim = similarity.applyAsDouble(s, t);
+                if (sim >= threshold) {
+                    m.add(s, t, sim);
+                }
+            }
+        }
+        return m;
+    }
+}
@@ -0,0 +1,219 @@
+package org.aksw.limes.core.measures.mapper;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.mapping.MappingFactory.MappingType;
+import org.aksw.limes.core.io.mapping.PrimitiveMapping;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the set operations of {@link MappingOperations} with the ones it
+ * used before, which add every link of the inputs to a new mapping. The
+ * mappings are memory mappings, primitive mappings with their own
+ * dictionaries or primitive mappings sharing their dictionaries, e.g., the
+ * sub-mappings of one mapping. The inputs of the in-place union are copied
+ * before every invocation, since it consumes them. Run with the main method
+ * or the JMH runner, e.g. -Dlinks=100000 selects the number of links per
+ * mapping.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class MappingOperationsBenchmark {
+
+    @Param({ "10000", "1000000" })
+    public int links;
+
+    /**
+     * Fraction of the links of the second mapping which are in the first one.
+     */
+    @Param({ "0.5" })
+    public double overlap;
+
+    @Param({ "memory", "primitive", "shared" })
+    public String kind;
+
+    @Param({ "4" })
+    public int parallelism;
+
+    private AMapping a;
+    private AMapping b;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(42);
+        a = create(null);
+        b = create(kind.equals("shared") ? (PrimitiveMapping) a : null);
+        int sources = Math.max(1, links / 10);
+        for (int i = 0; i < links; i++) {
+            String s = "http://example.org/source/" + random.nextInt(sources);
+            String t = "http://example.org/target/" + random.nextInt(links);
+            a.add(s, t, random.nextDouble());
+            if (random.nextDouble() < overlap) {
+                b.add(s, t, random.nextDouble());
+            } else {
+                b.add("http://example.org/source/" + random.nextInt(sources),
+                        "http://example.org/target/" + random.nextInt(links), random.nextDouble());
+            }
+        }
+    }
+
+    private AMapping create(PrimitiveMapping sibling) {
+        if (sibling != null) {
+            return sibling.createSibling();
+        }
+        return MappingFactory.createMapping(kind.equals("memory") ? MappingType.MEMORY_MAPPING
+                : MappingType.PRIMITIVE_MAPPING);
+    }
+
+    private static AMapping legacyUnion(AMapping map1, AMapping map2) {
+        AMapping map = MappingFactory.createDefaultMapping();
+        for (String key : map1.getMap().keySet()) {
+            for (String value : map1.getMap().get(key).keySet()) {
+                map.add(key, value, map1.getMap().get(key).get(value));
+            }
+        }
+        for (String key : map2.getMap().keySet()) {
+            for (String value : map2.getMap().get(key).keySet()) {
+                map.add(key, value, map2.getMap().get(key).get(value));
+            }
+        }
+        return map;
+    }
+
+    private static AMapping legacyIntersection(AMapping map1, AMapping map2) {
+        AMapping map = MappingFactory.createDefaultMapping();
+        if (map1.size() == 0 || map2.size() == 0) {
+            return map;
+        }
+        for (String key : map1.getMap().keySet()) {
+            if (map2.getMap().containsKey(key)) {
+                for (String value : map1.getMap().get(key).keySet()) {
+                    if (map2.getMap().get(key).containsKey(value)) {
+                        if (map1.getMap().get(key).get(value) <= map2.getMap().get(key).get(value)) {
+                            map.add(key, value, map1.getMap().get(key).get(value));
+                        } else {
+                            map.add(key, value, map2.getMap().get(key).get(value));
+                        }
+                    }
+                }
+            }
+        }
+        return map;
+    }
+
+    private static AMapping legacyDifference(AMapping map1, AMapping map2) {
+        AMapping map = MappingFactory.createDefaultMapping();
+        for (String key : map1.getMap().keySet()) {
+            if (map2.getMap().containsKey(key)) {
+                for (String value : map1.getMap().get(key).keySet()) {
+                    if (!map2.getMap().get(key).containsKey(value)) {
+                        map.add(key, value, map1.getMap().get(key).get(value));
+                    }
+                }
+            } else {
+                map.add(key, map1.getMap().get(key));
+            }
+        }
+        return map;
+    }
+
+    @Benchmark
+    public int legacyUnion() {
+        return legacyUnion(a, b).size();
+    }
+
+    @Benchmark
+    public int legacyIntersection() {
+        return legacyIntersection(a, b).size();
+    }
+
+    @Benchmark
+    public int legacyDifference() {
+        return legacyDifference(a, b).size();
+    }
+
+    @Benchmark
+    public int union() {
+        return MappingOperations.union(a, b).size();
+    }
+
+    @Benchmark
+    public int intersection() {
+        return MappingOperations.intersection(a, b).size();
+    }
+
+    @Benchmark
+    public int difference() {
+        return MappingOperations.difference(a, b).size();
+    }
+
+    @Benchmark
+    public int unionPartitioned() {
+        return MappingOperations.union(a, b, parallelism).size();
+    }
+
+    @Benchmark
+    public int intersectionPartitioned() {
+        return MappingOperations.intersection(a, b, parallelism).size();
+    }
+
+    /**
+     * Copies of the mappings for every invocation of the in-place union.
+     */
+    @State(Scope.Thread)
+    public static class Copies {
+        private AMapping a;
+        private AMapping b;
+
+        @Setup(Level.Invocation)
+        public void setUp(MappingOperationsBenchmark benchmark) {
+            a = copy(benchmark, benchmark.a);
+            b = copy(benchmark, benchmark.b);
+        }
+
+        private static AMapping copy(MappingOperationsBenchmark benchmark, AMapping m) {
+            if (m instanceof PrimitiveMapping) {
+                PrimitiveMapping copy = (PrimitiveMapping) benchmark
+                        .create(benchmark.kind.equals("shared") ? (PrimitiveMapping) benchmark.a : null);
+                copy.addAll((PrimitiveMapping) m);
+                return copy;
+            }
+            return legacyUnion(m, benchmark.create(null));
+        }
+    }
+
+    @Benchmark
+    public int unionInPlace(Copies copies) {
+        return MappingOperations.unionInPlace(copies.a, copies.b).size();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(MappingOperationsBenchmark.class.getSimpleName());
+        if (System.getProperty("links") != null) {
+            options.param("links", System.getProperty("links").split(","));
+        }
+        new Runner(options.build()).run();
+    }
+}
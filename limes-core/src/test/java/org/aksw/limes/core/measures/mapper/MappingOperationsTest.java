@@ -0,0 +1,170 @@
+package org.aksw.limes.core.measures.mapper;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.io.mapping.MappingFactory.MappingType;
+import org.aksw.limes.core.io.mapping.PrimitiveMapping;
+import org.junit.Test;
+
+public class MappingOperationsTest {
+
+    private static AMapping random(AMapping m, Random random, int links, int sources) {
+        for (int i = 0; i < links; i++) {
+            // multiples of 1/8 are exact in float precision
+            m.add("s" + random.nextInt(sources), "t" + random.nextInt(sources / 4 + 1),
+                    (1 + random.nextInt(8)) / 8d);
+        }
+        return m;
+    }
+
+    private static AMapping union(AMapping a, AMapping b) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : a.getMap().keySet()) {
+            for (String t : a.getMap().get(s).keySet()) {
+                m.add(s, t, a.getConfidence(s, t));
+            }
+        }
+        for (String s : b.getMap().keySet()) {
+            for (String t : b.getMap().get(s).keySet()) {
+                m.add(s, t, b.getConfidence(s, t));
+            }
+        }
+        return m;
+    }
+
+    private static AMapping intersection(AMapping a, AMapping b) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : a.getMap().keySet()) {
+            for (String t : a.getMap().get(s).keySet()) {
+                if (b.contains(s, t)) {
+                    m.add(s, t, Math.min(a.getConfidence(s, t), b.getConfidence(s, t)));
+                }
+            }
+        }
+        return m;
+    }
+
+    private static AMapping difference(AMapping a, AMapping b) {
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (String s : a.getMap().keySet()) {
+            for (String t : a.getMap().get(s).keySet()) {
+                if (!b.contains(s, t)) {
+                    m.add(s, t, a.getConfidence(s, t));
+                }
+            }
+        }
+        return m;
+    }
+
+    private static void assertOperations(AMapping a, AMapping b, int parallelism) {
+        AMapping union = MappingOperations.union(a, b, parallelism);
+        assertEquals(union(a, b).getMap(), union.getMap());
+        assertEquals(union(a, b).size(), union.size());
+        AMapping intersection = MappingOperations.intersection(a, b, parallelism);
+        assertEquals(intersection(a, b).getMap(), intersection.getMap());
+        assertEquals(intersection(a, b).size(), intersection.size());
+        AMapping difference = MappingOperations.difference(a, b, parallelism);
+        assertEquals(difference(a, b).getMap(), difference.getMap());
+        assertEquals(difference(a, b).size(), difference.size());
+    }
+
+    @Test
+    public void memoryMappings() {
+        Random random = new Random(3);
+        AMapping a = random(MappingFactory.createDefaultMapping(), random, 2000, 500);
+        AMapping b = random(MappingFactory.createDefaultMapping(), random, 1000, 500);
+        assertOperations(a, b, 1);
+        assertOperations(b, a, 1);
+        assertOperations(a, MappingFactory.createDefaultMapping(), 1);
+        assertOperations(MappingFactory.createDefaultMapping(), b, 1);
+    }
+
+    @Test
+    public void primitiveMappings() {
+        Random random = new Random(5);
+        PrimitiveMapping a = (PrimitiveMapping) random(MappingFactory.createMapping(MappingType.PRIMITIVE_MAPPING),
+                random, 2000, 500);
+        AMapping b = random(a.createSibling(), random, 1000, 500);
+        assertTrue(a.sharesDictionaries((PrimitiveMapping) b));
+        assertOperations(a, b, 1);
+        assertOperations(b, a, 1);
+        assertOperations(a, a.getSubMap(0.5), 1);
+        assertTrue(MappingOperations.union(a, b) instanceof PrimitiveMapping);
+        // mappings with their own dictionaries are combined on their maps
+        AMapping c = random(MappingFactory.createMapping(MappingType.PRIMITIVE_MAPPING), random, 1000, 500);
+        assertOperations(a, c, 1);
+        assertOperations(c, a, 1);
+        AMapping d = random(MappingFactory.createDefaultMapping(), random, 1000, 500);
+        assertOperations(a, d, 1);
+        assertOperations(d, a, 1);
+    }
+
+    @Test
+    public void partitioned() throws Exception {
+        Random random = new Random(7);
+        int links = MappingOperations.PARALLEL_THRESHOLD + 1000;
+        AMapping a = random(MappingFactory.createDefaultMapping(), random, links, links / 2);
+        AMapping b = random(MappingFactory.createDefaultMapping(), random, links, links / 2);
+        assertOperations(a, b, 4);
+        assertOperations(b, a, 3);
+        assertEquals(MappingOperations.union(a, b).getMap(), MappingOperations.union(a, b, 4).getMap());
+        // within a fork-join pool, the partitions are combined by its workers
+        ForkJoinPool pool = new ForkJoinPool(2);
+        try {
+            pool.submit(() -> assertOperations(a, b, 4)).get();
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    public void unionInPlace() {
+        Random random = new Random(11);
+        AMapping a = random(MappingFactory.createDefaultMapping(), random, 2000, 500);
+        AMapping b = random(MappingFactory.createDefaultMapping(), random, 1000, 500);
+        AMapping expected = union(a, b);
+        AMapping union = MappingOperations.unionInPlace(b, a);
+        // the smaller mapping is added to the larger one
+        assertSame(a, union);
+        assertEquals(expected.getMap(), union.getMap());
+        assertEquals(expected.size(), union.size());
+
+        PrimitiveMapping p = (PrimitiveMapping) random(MappingFactory.createMapping(MappingType.PRIMITIVE_MAPPING),
+                random, 2000, 500);
+        AMapping q = random(p.createSibling(), random, 1000, 500);
+        expected = union(p, q);
+        union = MappingOperations.unionInPlace(p, q);
+        assertSame(p, union);
+        assertEquals(expected.getMap(), union.getMap());
+        assertEquals(expected.size(), union.size());
+    }
+
+    @Test
+    public void resultsDoNotShareMaps() {
+        AMapping a = MappingFactory.createDefaultMapping();
+        AMapping b = MappingFactory.createDefaultMapping();
+        a.add("a", "x", 0.5);
+        a.add("b", "y", 0.5);
+        b.add("b", "y", 0.75);
+        AMapping difference = MappingOperations.difference(a, b);
+        AMapping union = MappingOperations.union(a, b);
+        difference.add("a", "z", 1d);
+        union.add("a", "w", 1d);
+        assertFalse(a.contains("a", "z"));
+        assertFalse(a.contains("a", "w"));
+        assertEquals(0.75, union.getConfidence("b", "y"), 0d);
+        // keys without links are kept by differences only
+        a.getMap().put("c", new HashMap<String, Double>());
+        assertTrue(MappingOperations.difference(a, b).getMap().containsKey("c"));
+        assertFalse(MappingOperations.union(a, b).getMap().containsKey("c"));
+    }
+}
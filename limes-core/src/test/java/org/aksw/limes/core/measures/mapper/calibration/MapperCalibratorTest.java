@@ -0,0 +1,95 @@
+package org.aksw.limes.core.measures.mapper.calibration;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.aksw.limes.core.util.RandomStringGenerator;
+import org.junit.Test;
+
+public class MapperCalibratorTest {
+
+    @Test
+    public void fitRecoversLinearModel() {
+        double[] expected = { 3, 0.01, 0.02, 1e-5, -4 };
+        List<double[]> features = new ArrayList<>();
+        List<Double> values = new ArrayList<>();
+        for (int s : new int[] { 100, 1000, 5000 }) {
+            for (int t : new int[] { 200, 800, 3000 }) {
+                for (double threshold : new double[] { 0.2, 0.6, 0.9 }) {
+                    double[] x = MapperCalibration.getFeatures(s, t, threshold);
+                    double y = 0;
+                    for (int i = 0; i < x.length; i++) {
+                        y += expected[i] * x[i];
+                    }
+                    features.add(x);
+                    values.add(y);
+                }
+            }
+        }
+        assertArrayEquals(expected, MapperCalibrator.fit(features, values), 1e-4);
+    }
+
+    @Test
+    public void calibrateAndPersist() throws IOException {
+        MapperCalibration calibration = new MapperCalibrator(new RandomStringGenerator(5, 10),
+                new int[] { 50, 100 }, new double[] { 0.6, 0.9 })
+                        .calibrate(Arrays.asList(MeasureType.JARO, MeasureType.TRIGRAM), new MapperCalibration());
+        assertTrue(calibration.isCalibrated(MeasureType.JARO));
+        assertTrue(calibration.isCalibrated(MeasureType.TRIGRAM));
+        assertFalse(calibration.isCalibrated(MeasureType.LEVENSHTEIN));
+        assertTrue(Double.isNaN(calibration.getRuntime(MeasureType.LEVENSHTEIN, 10, 10, 0.5)));
+        assertTrue(calibration.getRuntime(MeasureType.JARO, 100, 100, 0.9) >= 0);
+
+        File file = File.createTempFile("calibration", ".properties");
+        try {
+            calibration.save(file);
+            MapperCalibration loaded = MapperCalibration.load(file);
+            assertArrayEquals(calibration.getCoefficients(MeasureType.JARO),
+                    loaded.getCoefficients(MeasureType.JARO), 0d);
+            assertEquals(calibration.getRuntime(MeasureType.TRIGRAM, 1000, 2000, 0.7),
+                    loaded.getRuntime(MeasureType.TRIGRAM, 1000, 2000, 0.7), 0d);
+        } finally {
+            file.delete();
+        }
+        assertFalse(MapperCalibration.load(file).isCalibrated(MeasureType.JARO));
+    }
+
+    @Test
+    public void defaultIsLoadedOnce() throws IOException {
+        MapperCalibration calibration = new MapperCalibration();
+        calibration.setCoefficients(MeasureType.JARO, new double[] { 1, 0, 0, 0.5, 0 });
+        File file = File.createTempFile("calibration", ".properties");
+        String property = System.getProperty(MapperCalibration.FILE_PROPERTY);
+        try {
+            calibration.save(file);
+            System.setProperty(MapperCalibration.FILE_PROPERTY, file.getPath());
+            MapperCalibration loaded = MapperCalibration.getDefault();
+            assertTrue(loaded.isCalibrated(MeasureType.JARO));
+            assertSame(loaded, MapperCalibration.getDefault());
+            // changed files are loaded again
+            calibration.setCoefficients(MeasureType.TRIGRAM, new double[] { 1, 0, 0, 0.5, 0 });
+            calibration.save(file);
+            file.setLastModified(file.lastModified() + 2000);
+            assertNotSame(loaded, MapperCalibration.getDefault());
+            assertTrue(MapperCalibration.getDefault().isCalibrated(MeasureType.TRIGRAM));
+        } finally {
+            if (property == null) {
+                System.clearProperty(MapperCalibration.FILE_PROPERTY);
+            } else {
+                System.setProperty(MapperCalibration.FILE_PROPERTY, property);
+            }
+            file.delete();
+        }
+    }
+}
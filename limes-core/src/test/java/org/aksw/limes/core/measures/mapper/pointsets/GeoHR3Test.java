@@ -0,0 +1,31 @@
+package org.aksw.limes.core.measures.mapper.pointsets;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomPointGenerator;
+import org.junit.Test;
+
+public class GeoHR3Test {
+
+    @Test
+    public void parallelSameAsSerial() {
+        RandomPointGenerator generator = new RandomPointGenerator(40, 45, 0, 5, new Random(7));
+        OrchidMapper orchid = new OrchidMapper();
+        Set<Polygon> source = orchid.getPolygons(generator.generateData(1000), DataGenerator.LABEL);
+        Set<Polygon> target = orchid.getPolygons(generator.generateData(1000), DataGenerator.LABEL);
+
+        AMapping serial = new GeoHR3(10f, GeoHR3.DEFAULT_GRANULARITY, MeasureType.GEO_NAIVE_HAUSDORFF).run(source,
+                target);
+        GeoHR3 parallel = new GeoHR3(10f, GeoHR3.DEFAULT_GRANULARITY, MeasureType.GEO_NAIVE_HAUSDORFF, 4);
+        assertEquals(4, parallel.getParallelism());
+        assertTrue(serial.size() > 0);
+        assertEquals(serial, parallel.run(source, target));
+    }
+}
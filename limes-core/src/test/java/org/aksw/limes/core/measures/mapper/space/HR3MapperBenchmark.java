@@ -0,0 +1,86 @@
+package org.aksw.limes.core.measures.mapper.space;
+
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.pointsets.GeoHR3;
+import org.aksw.limes.core.measures.mapper.pointsets.OrchidMapper;
+import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomPointGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the serial and the parallel mode of HR3 and GeoHR3 on random
+ * points. Run with the main method or the JMH runner, e.g.
+ * -Dparallelism=1,8 selects the thread counts of the comparison.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HR3MapperBenchmark {
+
+    @Param({ "1", "4" })
+    public int parallelism;
+
+    @Param({ "20000" })
+    public int size;
+
+    private ACache source;
+    private ACache target;
+    private Set<Polygon> sourcePolygons;
+    private Set<Polygon> targetPolygons;
+
+    @Setup
+    public void setUp() {
+        DataGenerator generator = new RandomPointGenerator(40, 55, 0, 15, new Random(42));
+        source = generator.generateData(size);
+        target = generator.generateData(size);
+        OrchidMapper orchid = new OrchidMapper();
+        sourcePolygons = orchid.getPolygons(source, DataGenerator.LABEL);
+        targetPolygons = orchid.getPolygons(target, DataGenerator.LABEL);
+    }
+
+    @Benchmark
+    public AMapping hr3() {
+        return new HR3Mapper(parallelism).getMapping(source, target, "?x", "?y",
+                "euclidean(x." + RandomPointGenerator.LAT + "|" + RandomPointGenerator.LONG + ",y."
+                        + RandomPointGenerator.LAT + "|" + RandomPointGenerator.LONG + ")",
+                0.9);
+    }
+
+    @Benchmark
+    public AMapping geoHR3() {
+        return new GeoHR3(10f, GeoHR3.DEFAULT_GRANULARITY, MeasureType.GEO_NAIVE_HAUSDORFF, parallelism)
+                .run(sourcePolygons, targetPolygons);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(HR3MapperBenchmark.class.getSimpleName());
+        if (System.getProperty("parallelism") != null) {
+            options.param("parallelism", System.getProperty("parallelism").split(","));
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,112 @@
+package org.aksw.limes.core.measures.mapper.space;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.space.blocking.BlockKeys;
+import org.aksw.limes.core.measures.mapper.space.blocking.EuclideanBlockingModule;
+import org.aksw.limes.core.measures.mapper.space.blocking.HR3Blocker;
+import org.aksw.limes.core.measures.mapper.space.blocking.IBlockingModule;
+import org.aksw.limes.core.measures.measure.space.EuclideanMeasure;
+import org.aksw.limes.core.util.RandomPointGenerator;
+import org.junit.Test;
+
+public class HR3MapperTest {
+
+    private static final String[] PROPERTIES = { "lat", "long", "alt" };
+
+    private ACache createCache(String prefix, int size, int dim, Random random) {
+        ACache cache = new MemoryCache();
+        for (int i = 0; i < size; i++) {
+            for (int d = 0; d < dim; d++) {
+                cache.addTriple(prefix + i, PROPERTIES[d], "" + random.nextDouble() * 2);
+            }
+        }
+        // several values and values that are not numbers
+        for (int d = 0; d < dim; d++) {
+            cache.addTriple(prefix + 0, PROPERTIES[d], "" + random.nextDouble() * 2);
+            cache.addTriple(prefix + 1, PROPERTIES[d], "n/a");
+        }
+        return cache;
+    }
+
+    private AMapping bruteForce(ACache source, ACache target, String properties, int dim, double threshold) {
+        EuclideanMeasure measure = new EuclideanMeasure();
+        measure.setDimension(dim);
+        AMapping mapping = MappingFactory.createDefaultMapping();
+        for (Instance s : source.getAllInstances()) {
+            for (Instance t : target.getAllInstances()) {
+                double sim = measure.getSimilarity(s, t, properties, properties);
+                if (sim >= threshold) {
+                    mapping.add(s.getUri(), t.getUri(), sim);
+                }
+            }
+        }
+        return mapping;
+    }
+
+    @Test
+    public void sameAsBruteForce() {
+        Random random = new Random(42);
+        for (int dim = 1; dim <= 3; dim++) {
+            ACache source = createCache("s", 300, dim, random);
+            ACache target = createCache("t", 300, dim, random);
+            String properties = String.join("|", Arrays.copyOf(PROPERTIES, dim));
+            String expression = "euclidean(x." + properties + ",y." + properties + ")";
+            for (double threshold : new double[] { 0.5, 0.7, 0.9 }) {
+                for (int granularity : new int[] { 1, 4 }) {
+                    HR3Mapper mapper = new HR3Mapper();
+                    mapper.granularity = granularity;
+                    AMapping mapping = mapper.getMapping(source, target, "?x", "?y", expression, threshold);
+                    AMapping expected = bruteForce(source, target, properties, dim, threshold);
+                    assertTrue(expected.size() > 0);
+                    assertEquals(expected, mapping);
+                }
+            }
+        }
+    }
+
+    @Test
+    public void blockOffsets() {
+        IBlockingModule[] modules = { new EuclideanBlockingModule("lat|long", "euclidean", 0.5),
+                new HR3Blocker("lat|long", "euclidean", 0.5, 4) };
+        ArrayList<Integer> blockId = new ArrayList<Integer>(Arrays.asList(3, -7));
+        for (IBlockingModule module : modules) {
+            Set<Long> expected = new HashSet<Long>();
+            for (ArrayList<Integer> block : module.getBlocksToCompare(blockId)) {
+                expected.add(BlockKeys.pack(new int[] { block.get(0), block.get(1) }));
+            }
+            Set<Long> keys = new HashSet<Long>();
+            for (int[] offset : module.getBlockOffsets()) {
+                keys.add(BlockKeys.pack(new int[] { 3, -7 }, offset));
+            }
+            assertEquals(expected, keys);
+        }
+        assertEquals(new EuclideanBlockingModule("lat|long", "euclidean", 0.5).getBlockId(
+                new double[] { 2.5, -0.5 })[0], 2);
+    }
+
+    @Test
+    public void parallelSameAsSerial() {
+        RandomPointGenerator generator = new RandomPointGenerator(0, 20, 0, 20, new Random(7));
+        ACache source = generator.generateData(5000);
+        ACache target = generator.generateData(5000);
+        String expression = "euclidean(x.lat|long,y.lat|long)";
+        AMapping serial = new HR3Mapper().getMapping(source, target, "?x", "?y", expression, 0.9);
+        HR3Mapper mapper = new HR3Mapper(4);
+        assertEquals(4, mapper.getParallelism());
+        assertTrue(serial.size() > 0);
+        assertEquals(serial, mapper.getMapping(source, target, "?x", "?y", expression, 0.9));
+    }
+}
@@ -0,0 +1,99 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.aksw.limes.core.exceptions.MappingSizeExceededException;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperFixtures;
+import org.junit.Before;
+import org.junit.Test;
+
+public class EDJoinMapperTest {
+
+    private static final String EXPRESSION = "levenshtein(x.label,y.label)";
+    private static final String ALPHABET = "abcdef";
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(42);
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < 800; i++) {
+            String label = randomLabel(random);
+            source.addTriple("S" + i, "label", label);
+            target.addTriple("T" + i, "label", MapperFixtures.mutate(random, label, ALPHABET, 2));
+            if (i % 7 == 0) {
+                source.addTriple("S" + i, "label", randomLabel(random));
+            }
+        }
+    }
+
+    private String randomLabel(Random random) {
+        return MapperFixtures.string(random, ALPHABET, 3 + random.nextInt(10));
+    }
+
+    private AMapping bruteForce(double threshold) {
+        return MapperFixtures.bruteForce(source, target, "label",
+                (a, b) -> 1.0 / (1 + EDJoinMapper.editDistance(a, b)), threshold);
+    }
+
+    @Test
+    public void sameAsBruteForce() {
+        for (double threshold : new double[] { 1, 0.5, 0.3 }) {
+            AMapping expected = bruteForce(threshold);
+            assertTrue(expected.size() > 0);
+            assertEquals(expected, new EDJoinMapper().getMapping(source, target, "?x", "?y", EXPRESSION, threshold));
+            assertEquals(expected, new EDJoinMapper(4).getMapping(source, target, "?x", "?y", EXPRESSION,
+                    threshold));
+        }
+    }
+
+    @Test
+    public void maxMappingSize() {
+        for (int parallelism : new int[] { 1, 4 }) {
+            EDJoinMapper mapper = new EDJoinMapper(parallelism);
+            AMapping expected = mapper.getMapping(source, target, "?x", "?y", EXPRESSION, 0.3);
+            mapper.setMaxMappingSize(expected.size());
+            assertEquals(expected, mapper.getMapping(source, target, "?x", "?y", EXPRESSION, 0.3));
+            // the workers abort as soon as their mappings are too large
+            mapper.setMaxMappingSize(expected.size() / 10);
+            try {
+                mapper.getMapping(source, target, "?x", "?y", EXPRESSION, 0.3);
+                fail();
+            } catch (MappingSizeExceededException e) {
+            }
+        }
+    }
+
+    @Test
+    public void concurrentInvocations() throws Exception {
+        EDJoinMapper mapper = new EDJoinMapper(2);
+        AMapping expected = mapper.getMapping(source, target, "?x", "?y", EXPRESSION, 0.5);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<AMapping>> results = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                results.add(executor.submit(() -> mapper.getMapping(source, target, "?x", "?y", EXPRESSION, 0.5)));
+            }
+            for (Future<AMapping> result : results) {
+                assertEquals(expected, result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package org.aksw.limes.core.measures.mapper.string;
 
 
+import static org.junit.Assert.assertEquals;
+
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Map;
+import java.util.Random;
 import java.util.Set;
 
 import org.aksw.limes.core.io.mapping.AMapping;
@@ -20,6 +23,55 @@ public class JaroMapperTest extends JaroMapper {
         deduplicationTest(jm, 1000, 1.0);
     }
 
+    @Test
+    public void sameAsBruteForce() {
+        Random random = new Random(3);
+        Map<String, Set<String>> sourceMap = generateRandomMap(random, 400);
+        Map<String, Set<String>> targetMap = generateRandomMap(random, 400);
+        for (double threshold : new double[] { 0.6, 0.8, 0.9 }) {
+            AMapping expected = bruteForce(sourceMap, targetMap, threshold);
+            for (int parallelism : new int[] { 1, 3 }) {
+                JaroMapper jm = new JaroMapper(parallelism);
+                AMapping m = jm.runWithoutPrefixFilter(sourceMap, targetMap, threshold);
+                // the measure computes in float, the mapper in double, hence
+                // they may disagree on pairs at the threshold
+                for (String s : expected.getMap().keySet()) {
+                    for (String t : expected.getMap().get(s).keySet()) {
+                        if (expected.getConfidence(s, t) >= threshold + 1e-6) {
+                            assertEquals(expected.getConfidence(s, t), m.getConfidence(s, t), 1e-6);
+                        }
+                    }
+                }
+                for (String s : m.getMap().keySet()) {
+                    for (String t : m.getMap().get(s).keySet()) {
+                        assertEquals(new JaroMeasure().getSimilarity(s, t), m.getConfidence(s, t), 1e-6);
+                    }
+                }
+                assertEquals(new JaroMapper(1).run(sourceMap, targetMap, threshold),
+                        jm.run(sourceMap, targetMap, threshold));
+            }
+        }
+    }
+
+    /**
+     * Generates strings over a small alphabet, some of which are longer than
+     * 64 characters.
+     */
+    private Map<String, Set<String>> generateRandomMap(Random random, int size) {
+        Map<String, Set<String>> map = new HashMap<String, Set<String>>();
+        while (map.size() < size) {
+            StringBuilder s = new StringBuilder();
+            int length = map.size() % 10 == 0 ? 60 + random.nextInt(20) : 1 + random.nextInt(20);
+            for (int i = 0; i < length; i++) {
+                s.append((char) ('a' + random.nextInt(5)));
+            }
+            Set<String> set = new HashSet<String>();
+            set.add(s.toString());
+            map.put(s.toString(), set);
+        }
+        return map;
+    }
+
     /**
      * Returns the set of characters contained in a string
      *
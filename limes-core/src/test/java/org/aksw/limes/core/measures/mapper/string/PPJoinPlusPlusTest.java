@@ -0,0 +1,67 @@
+package org.aksw.limes.core.measures.mapper.string;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperFixtures;
+import org.junit.Before;
+import org.junit.Test;
+
+public class PPJoinPlusPlusTest {
+
+    private static final String[] WORDS = { "data", "link", "graph", "node", "edge", "query", "store", "triple",
+            "class", "label", "name", "type", "value", "space", "time", "path" };
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(42);
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < 1500; i++) {
+            source.addTriple("S" + i, "label", randomLabel(random));
+            target.addTriple("T" + i, "label", randomLabel(random));
+            if (i % 7 == 0) {
+                source.addTriple("S" + i, "label", randomLabel(random));
+            }
+        }
+    }
+
+    private String randomLabel(Random random) {
+        return MapperFixtures.label(random, WORDS, 6);
+    }
+
+    private void compare(String measure, double threshold) {
+        String expression = measure + "(x.label,y.label)";
+        AMapping serial = new PPJoinPlusPlus().getMapping(source, target, "?x", "?y", expression, threshold);
+        AMapping parallel = new PPJoinPlusPlus(4).getMapping(source, target, "?x", "?y", expression, threshold);
+        assertTrue(serial.size() > 0);
+        assertEquals(serial.size(), parallel.size());
+        assertEquals(serial.getMap(), parallel.getMap());
+    }
+
+    @Test
+    public void parallelMatchesSerial() {
+        compare("jaccard", 0.5);
+        compare("jaccard", 0.8);
+        compare("cosine", 0.7);
+        compare("trigram", 0.6);
+        compare("overlap", 1);
+    }
+
+    @Test
+    public void singleSourceInstance() {
+        ACache small = new MemoryCache();
+        small.addTriple("S1", "label", "graph data");
+        AMapping m = new PPJoinPlusPlus(4).getMapping(small, target, "?x", "?y", "jaccard(x.label,y.label)", 1.0);
+        assertEquals(new PPJoinPlusPlus().getMapping(small, target, "?x", "?y", "jaccard(x.label,y.label)", 1.0)
+                .getMap(), m.getMap());
+    }
+}
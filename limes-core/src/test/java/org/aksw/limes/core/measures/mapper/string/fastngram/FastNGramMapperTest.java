@@ -0,0 +1,84 @@
+package org.aksw.limes.core.measures.mapper.string.fastngram;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.MapperFixtures;
+import org.aksw.limes.core.measures.measure.string.QGramSimilarityMeasure;
+import org.junit.Test;
+
+public class FastNGramMapperTest {
+
+    private Set<String> randomStrings(Random random, int n) {
+        Set<String> strings = new HashSet<>();
+        while (strings.size() < n) {
+            strings.add(MapperFixtures.string(random, "abcde  _", random.nextInt(12)));
+        }
+        return strings;
+    }
+
+    private AMapping bruteForce(Set<String> source, Set<String> target, int q, double threshold) {
+        NGramTokenizer tokenizer = new NGramTokenizer();
+        QGramSimilarityMeasure measure = new QGramSimilarityMeasure(q);
+        return MapperFixtures.bruteForce(source, target,
+                (s, t) -> measure.getSimilarity(tokenizer.tokenize(t, q), tokenizer.tokenize(s, q)), threshold);
+    }
+
+    @Test
+    public void computeMatchesBruteForce() {
+        Random random = new Random(7);
+        Set<String> source = randomStrings(random, 300);
+        Set<String> target = randomStrings(random, 300);
+        for (int q : new int[] { 2, 3, 4 }) {
+            for (double threshold : new double[] { 0.3, 0.6, 1.0 }) {
+                AMapping expected = bruteForce(source, target, q, threshold);
+                AMapping actual = FastNGramMapper.compute(source, target, q, threshold);
+                assertTrue(expected.size() > 0);
+                assertEquals(expected.getMap(), actual.getMap());
+            }
+        }
+    }
+
+    @Test
+    public void indexPartitionsBySize() {
+        Index index = new Index(3, Arrays.asList("abcd", "ab", "abcdef", "  ab  "));
+        assertEquals(4, index.size());
+        // "ab" and "  ab  " are padded to "ab_"
+        assertEquals(0, index.getFirstId(1));
+        assertEquals(2, index.getFirstId(2));
+        assertEquals(3, index.getFirstId(3));
+        assertEquals(4, index.getFirstId(5));
+        assertEquals(2, index.getSize(2));
+        assertEquals(4, index.tokenize("abcdef"));
+        for (int i = 0; i < 4; i++) {
+            int[] postings = index.getPostings(index.getGramId(i));
+            assertTrue(postings.length > 0);
+            assertEquals(3, postings[postings.length - 1]);
+        }
+        assertEquals(1, index.tokenize("xyz"));
+        assertEquals(-1, index.getGramId(0));
+    }
+
+    @Test
+    public void getMapping() {
+        ACache source = new MemoryCache();
+        ACache target = new MemoryCache();
+        source.addTriple("S1", "name", "kleanthi");
+        source.addTriple("S2", "name", "axel");
+        target.addTriple("T1", "name", "kleanthis");
+        target.addTriple("T2", "name", "kleanthi");
+        target.addTriple("T3", "name", "mohamed");
+        AMapping m = new FastNGramMapper().getMapping(source, target, "?x", "?y", "qgrams(x.name,y.name)", 0.5);
+        assertEquals(2, m.size());
+        assertEquals(1.0, m.getConfidence("S1", "T2"), 0.0);
+        assertEquals(6.0 / 7.0, m.getConfidence("S1", "T1"), 1e-9);
+    }
+}
@@ -0,0 +1,73 @@
+package org.aksw.limes.core.measures.mapper.topology;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomPolygonGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Runs RADON for the relations of the ten topological relation mappers on
+ * random rectangles, serially and with several threads. Run with the main
+ * method or the JMH runner, e.g. -Dparallelism=1,8 selects the thread counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RADONBenchmark {
+
+    @Param({ RADON.EQUALS, RADON.DISJOINT, RADON.INTERSECTS, RADON.TOUCHES, RADON.CROSSES, RADON.WITHIN,
+            RADON.CONTAINS, RADON.OVERLAPS, RADON.COVERS, RADON.COVEREDBY })
+    public String relation;
+
+    @Param({ "1", "4" })
+    public int parallelism;
+
+    @Param({ "5000" })
+    public int size;
+
+    private Map<String, Geometry> source;
+    private Map<String, Geometry> target;
+
+    @Setup
+    public void setUp() {
+        DataGenerator generator = new RandomPolygonGenerator(0, 0, 100, 0.25, 8, new Random(42));
+        source = RADON.getGeometryMapFromCache(generator.generateData(size), DataGenerator.LABEL);
+        target = RADON.getGeometryMapFromCache(generator.generateData(size), DataGenerator.LABEL);
+    }
+
+    @Benchmark
+    public AMapping radon() {
+        return RADON.getMapping(source, target, relation, parallelism);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(RADONBenchmark.class.getSimpleName());
+        if (System.getProperty("parallelism") != null) {
+            options.param("parallelism", System.getProperty("parallelism").split(","));
+        }
+        new Runner(options.build()).run();
+    }
+}
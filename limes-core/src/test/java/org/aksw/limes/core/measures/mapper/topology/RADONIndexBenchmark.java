@@ -0,0 +1,101 @@
+package org.aksw.limes.core.measures.mapper.topology;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomPolygonGenerator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.vividsolutions.jts.geom.Geometry;
+
+/**
+ * Compares the grid and the STR tree of RADON on uniform rectangles of
+ * similar size and on skewed data, where a few large rectangles among many
+ * small ones, e.g. regions next to buildings, are replicated into many squares
+ * of the grid but are stored once in the tree. Run with the main method or the JMH
+ * runner, e.g. -Dparallelism=1,8 selects the thread counts.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class RADONIndexBenchmark {
+
+    @Param({ "GRID", "RTREE" })
+    public RADON.IndexType indexType;
+
+    @Param({ "uniform", "skewed" })
+    public String distribution;
+
+    @Param({ RADON.INTERSECTS, RADON.WITHIN, RADON.TOUCHES })
+    public String relation;
+
+    @Param({ "1" })
+    public int parallelism;
+
+    @Param({ "5000" })
+    public int size;
+
+    private Map<String, Geometry> source;
+    private Map<String, Geometry> target;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        source = generate(random);
+        target = generate(random);
+    }
+
+    private Map<String, Geometry> generate(Random random) {
+        DataGenerator small = new RandomPolygonGenerator(0, 0, 100, 0.25, 8, random);
+        if (distribution.equals("uniform")) {
+            return RADON.getGeometryMapFromCache(small.generateData(size), DataGenerator.LABEL);
+        }
+        // 1% of the rectangles span up to half of the bounding box
+        int large = Math.max(1, size / 100);
+        DataGenerator huge = new RandomPolygonGenerator(0, 0, 100, 0.25, 200, random);
+        Map<String, Geometry> result = new HashMap<>();
+        for (Map.Entry<String, Geometry> e : RADON
+                .getGeometryMapFromCache(small.generateData(size - large), DataGenerator.LABEL).entrySet()) {
+            result.put("small" + e.getKey(), e.getValue());
+        }
+        for (Map.Entry<String, Geometry> e : RADON.getGeometryMapFromCache(huge.generateData(large),
+                DataGenerator.LABEL).entrySet()) {
+            result.put("large" + e.getKey(), e.getValue());
+        }
+        return result;
+    }
+
+    @Benchmark
+    public AMapping radon() {
+        return RADON.getMapping(source, target, relation, parallelism, indexType);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(RADONIndexBenchmark.class.getSimpleName());
+        if (System.getProperty("parallelism") != null) {
+            options.param("parallelism", System.getProperty("parallelism").split(","));
+        }
+        new Runner(options.build()).run();
+    }
+}
@@ -2,12 +2,31 @@ package org.aksw.limes.core.measures.mapper.topology;
 
 import static org.aksw.limes.core.measures.mapper.pointsets.OrchidMapper.getPoints;
 
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
-
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
 import org.aksw.limes.core.measures.mapper.pointsets.Polygon;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.aksw.limes.core.measures.measure.MeasureType;
+import org.aksw.limes.core.util.DataGenerator;
+import org.aksw.limes.core.util.RandomPolygonGenerator;
 import org.junit.Test;
 
+import com.vividsolutions.jts.geom.Geometry;
+
 public class RADONTest {
 
     @Test
@@ -62,4 +81,142 @@ public class RADONTest {
 
     }
 
+    @Test
+    public void parallelSameAsBruteForce() {
+        RandomPolygonGenerator generator = new RandomPolygonGenerator(0, 0, 20, 0.5, 6, new Random(3));
+        Map<String, Geometry> source = RADON.getGeometryMapFromCache(generator.generateData(300),
+                DataGenerator.LABEL);
+        Map<String, Geometry> target = RADON.getGeometryMapFromCache(generator.generateData(200),
+                DataGenerator.LABEL);
+        String[] relations = { RADON.EQUALS, RADON.DISJOINT, RADON.INTERSECTS, RADON.TOUCHES, RADON.CROSSES,
+                RADON.WITHIN, RADON.CONTAINS, RADON.OVERLAPS, RADON.COVERS, RADON.COVEREDBY };
+        for (String relation : relations) {
+            AMapping expected = MappingFactory.createDefaultMapping();
+            for (Map.Entry<String, Geometry> s : source.entrySet()) {
+                for (Map.Entry<String, Geometry> t : target.entrySet()) {
+                    if (relate(s.getValue(), t.getValue(), relation)) {
+                        expected.add(s.getKey(), t.getKey(), 1.0d);
+                    }
+                }
+            }
+            AMapping serial = RADON.getMapping(source, target, relation, 1);
+            assertEquals(relation, expected, serial);
+            assertEquals(relation, serial, RADON.getMapping(source, target, relation, 4));
+            // the smaller dataset is swapped to the source
+            assertEquals(relation, serial.reverseSourceTarget(), RADON.getMapping(target, source,
+                    inverse(relation), 4));
+            assertEquals(relation, expected, RADON.getMapping(source, target, relation, 1, RADON.IndexType.RTREE));
+            assertEquals(relation, expected, RADON.getMapping(source, target, relation, 4, RADON.IndexType.RTREE));
+        }
+        assertTrue(RADON.getMapping(source, target, RADON.TOUCHES, 4).size() > 0);
+        assertTrue(RADON.getMapping(source, target, RADON.EQUALS, 4).size() > 0);
+    }
+
+    @Test
+    public void concurrentCallsKeepTheirOrientation() throws Exception {
+        RandomPolygonGenerator generator = new RandomPolygonGenerator(0, 0, 20, 0.5, 6, new Random(9));
+        Map<String, Geometry> source = RADON.getGeometryMapFromCache(generator.generateData(300),
+                DataGenerator.LABEL);
+        Map<String, Geometry> target = RADON.getGeometryMapFromCache(generator.generateData(100),
+                DataGenerator.LABEL);
+        RADON.Theta theta = RADON.GridSizeHeuristics.decideForTheta(
+                new RADON.GridSizeHeuristics(source.values()), new RADON.GridSizeHeuristics(target.values()),
+                RADON.DEFAULT_HEURISTIC_STAT_MEASURE);
+        RADON.Theta inverse = RADON.GridSizeHeuristics.decideForTheta(
+                new RADON.GridSizeHeuristics(target.values()), new RADON.GridSizeHeuristics(source.values()),
+                RADON.DEFAULT_HEURISTIC_STAT_MEASURE);
+        assertTrue(theta.swap != inverse.swap);
+        AMapping expected = RADON.getMapping(source, target, RADON.INTERSECTS, 1);
+        AMapping expectedInverse = RADON.getMapping(target, source, RADON.INTERSECTS, 1);
+        // calls with opposite swap decisions run concurrently
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                boolean swapped = i % 2 == 0;
+                results.add(executor.submit(() -> swapped
+                        ? expectedInverse.equals(RADON.getMapping(target, source, RADON.INTERSECTS, 1))
+                        : expected.equals(RADON.getMapping(source, target, RADON.INTERSECTS, 1))));
+            }
+            for (Future<Boolean> result : results) {
+                assertTrue(result.get());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void indexSelectedByMeasure() {
+        assertEquals(RADON.IndexType.GRID, RADON.getIndexType("top_within"));
+        assertEquals(RADON.IndexType.RTREE, RADON.getIndexType("top_within_rtree"));
+        assertEquals(MeasureType.TOP_WITHIN, MeasureFactory.getMeasureType("top_within_rtree"));
+
+        RandomPolygonGenerator generator = new RandomPolygonGenerator(0, 0, 10, 0.5, 6, new Random(5));
+        ACache source = generator.generateData(100);
+        ACache target = generator.generateData(100);
+        ContainsMapper mapper = new ContainsMapper();
+        AMapping grid = mapper.getMapping(source, target, "?x", "?y", "top_contains(x.label,y.label)", 1.0);
+        AMapping tree = mapper.getMapping(source, target, "?x", "?y", "top_contains_rtree(x.label,y.label)", 1.0);
+        assertTrue(grid.size() > 0);
+        assertEquals(grid, tree);
+    }
+
+    @Test
+    public void cachedSameAsPlainGeometries() {
+        RandomPolygonGenerator generator = new RandomPolygonGenerator(0, 0, 20, 0.5, 6, new Random(13));
+        ACache source = generator.generateData(200);
+        ACache target = generator.generateData(100);
+        Map<String, Geometry> sourceMap = RADON.getGeometryMapFromCache(source, DataGenerator.LABEL);
+        Map<String, Geometry> targetMap = RADON.getGeometryMapFromCache(target, DataGenerator.LABEL);
+        String[] relations = { RADON.INTERSECTS, RADON.TOUCHES, RADON.WITHIN, RADON.CONTAINS, RADON.COVERS };
+        for (String relation : relations) {
+            // the cached mappings compare the prepared geometries of the stores
+            AMapping expected = RADON.getMapping(sourceMap, targetMap, relation, 1);
+            assertEquals(relation, expected, RADON.getMapping(source, target, "?x", "?y",
+                    "top_" + relation + "(x.label,y.label)", 1.0, relation));
+            assertEquals(relation, expected, RADON.getMapping(source, target, "?x", "?y",
+                    "top_" + relation + "_rtree(x.label,y.label)", 1.0, relation));
+        }
+    }
+
+    private static String inverse(String relation) {
+        switch (relation) {
+        case RADON.WITHIN:
+            return RADON.CONTAINS;
+        case RADON.CONTAINS:
+            return RADON.WITHIN;
+        case RADON.COVERS:
+            return RADON.COVEREDBY;
+        case RADON.COVEREDBY:
+            return RADON.COVERS;
+        default:
+            return relation;
+        }
+    }
+
+    private static boolean relate(Geometry a, Geometry b, String relation) {
+        switch (relation) {
+        case RADON.EQUALS:
+            return a.equals(b);
+        case RADON.DISJOINT:
+            return a.disjoint(b);
+        case RADON.INTERSECTS:
+            return a.intersects(b);
+        case RADON.TOUCHES:
+            return a.touches(b);
+        case RADON.CROSSES:
+            return a.crosses(b);
+        case RADON.WITHIN:
+            return a.within(b);
+        case RADON.CONTAINS:
+            return a.contains(b);
+        case RADON.OVERLAPS:
+            return a.overlaps(b);
+        case RADON.COVERS:
+            return a.covers(b);
+        default:
+            return a.coveredBy(b);
+        }
+    }
 }
@@ -0,0 +1,107 @@
+package org.aksw.limes.core.measures.measure.compiled;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.Instance;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.measures.mapper.AMapper;
+import org.aksw.limes.core.measures.mapper.MapperFactory;
+import org.aksw.limes.core.measures.measure.MeasureFactory;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CompiledMeasureTest {
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        source = new MemoryCache();
+        target = new MemoryCache();
+        source.addTriple("S1", "name", "kleanthi georgala");
+        source.addTriple("S2", "name", "axel ngonga ngomo");
+        source.addTriple("S3", "name", "mohamed sherif");
+        source.addTriple("S3", "name", "mohamed ahmed sherif");
+
+        target.addTriple("T1", "name", "kleanthi georgalla");
+        target.addTriple("T2", "name", "axel ngomo");
+        target.addTriple("T3", "name", "mohamed sherif");
+    }
+
+    /**
+     * Similarity of a pair as computed by the mapper of the expression on
+     * caches holding only the two instances.
+     */
+    private double getMapperSimilarity(Instance s, Instance t, String expression, double threshold) {
+        AMapper mapper = MapperFactory.createMapper(MeasureFactory.getMeasureType(expression));
+        ACache sourceCache = new MemoryCache();
+        ACache targetCache = new MemoryCache();
+        sourceCache.addInstance(s);
+        targetCache.addInstance(t);
+        AMapping m = mapper.getMapping(sourceCache, targetCache, "?x", "?y", expression, threshold);
+        double similarity = m.getConfidence(s.getUri(), t.getUri());
+        return similarity >= threshold ? similarity : 0d;
+    }
+
+    @Test
+    public void atomicMeasuresAgreeWithMappers() {
+        String[] expressions = { "trigrams(x.name,y.name)", "jaccard(x.name,y.name)", "cosine(x.name,y.name)",
+                "overlap(x.name,y.name)", "levenshtein(x.name,y.name)", "jaro(x.name,y.name)",
+                "qgrams(x.name,y.name)" };
+        double[] thresholds = { 0.1, 0.5, 0.9 };
+        for (String expression : expressions) {
+            for (double threshold : thresholds) {
+                ICompiledMeasure measure = CompiledMeasureFactory.compile(expression, threshold, "?x", "?y");
+                for (String s : source.getAllUris()) {
+                    for (String t : target.getAllUris()) {
+                        Instance sInstance = source.getInstance(s);
+                        Instance tInstance = target.getInstance(t);
+                        assertEquals(expression + "|" + threshold + " on (" + s + "," + t + ")",
+                                getMapperSimilarity(sInstance, tInstance, expression, threshold),
+                                measure.getSimilarity(sInstance, tInstance), 1e-6);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void complexMeasures() {
+        Instance s1 = source.getInstance("S1");
+        Instance t1 = target.getInstance("T1");
+        Instance t3 = target.getInstance("T3");
+
+        ICompiledMeasure and = CompiledMeasureFactory
+                .compile("AND(levenshtein(x.name,y.name)|0.5,exactmatch(x.name,y.name)|0.5)", 0.5, "?x", "?y");
+        assertEquals(0d, and.getSimilarity(s1, t1), 0d);
+        assertEquals(1d, and.getSimilarity(source.getInstance("S3"), t3), 0d);
+
+        ICompiledMeasure or = CompiledMeasureFactory
+                .compile("OR(levenshtein(x.name,y.name)|0.5,exactmatch(x.name,y.name)|0.5)", 0.5, "?x", "?y");
+        assertEquals(0.5d, or.getSimilarity(s1, t1), 1e-9);
+        assertEquals(0d, or.getSimilarity(s1, t3), 0d);
+
+        ICompiledMeasure minus = CompiledMeasureFactory
+                .compile("MINUS(levenshtein(x.name,y.name)|0.5,exactmatch(x.name,y.name)|0.5)", 0.5, "?x", "?y");
+        assertEquals(0.5d, minus.getSimilarity(s1, t1), 1e-9);
+        assertEquals(0d, minus.getSimilarity(source.getInstance("S3"), t3), 0d);
+
+        ICompiledMeasure add = CompiledMeasureFactory
+                .compile("ADD(0.7*levenshtein(x.name,y.name),0.3*exactmatch(x.name,y.name))", 0.5, "?x", "?y");
+        assertEquals(0d, add.getSimilarity(s1, t1), 0d);
+        assertEquals(1d, add.getSimilarity(source.getInstance("S3"), t3), 1e-9);
+        assertTrue(add instanceof ComplexCompiledMeasure);
+    }
+
+    @Test
+    public void compiledMeasuresAreReused() {
+        ICompiledMeasure m1 = CompiledMeasureFactory.getCompiledMeasure("jaro(x.name,y.name)", 0.8, "?x", "?y");
+        ICompiledMeasure m2 = CompiledMeasureFactory.getCompiledMeasure("jaro(x.name,y.name)", 0.8, "?x", "?y");
+        assertTrue(m1 == m2);
+        assertEquals(0.8, m1.getThreshold(), 0d);
+    }
+}
@@ -0,0 +1,66 @@
+package org.aksw.limes.core.measures.measure.string;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Random;
+
+import org.aksw.limes.core.measures.mapper.MapperFixtures;
+import org.junit.Test;
+
+public class BitParallelLevenshteinTest {
+
+    private static int matrix(String x, String y) {
+        int[][] d = new int[x.length() + 1][y.length() + 1];
+        for (int i = 0; i <= x.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= y.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= x.length(); i++) {
+            for (int j = 1; j <= y.length(); j++) {
+                int cost = x.charAt(i - 1) == y.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[x.length()][y.length()];
+    }
+
+    @Test
+    public void sameAsDynamicProgram() {
+        Random random = new Random(7);
+        String[] alphabets = { "ab", "abcdefgh", "aäöü中文" };
+        for (int round = 0; round < 3000; round++) {
+            String alphabet = alphabets[round % alphabets.length];
+            // lengths around the word size of the bit-vector algorithm
+            int bound = round % 3 == 0 ? 150 : 70;
+            String x = MapperFixtures.string(random, alphabet, random.nextInt(bound));
+            String y = random.nextBoolean() ? MapperFixtures.string(random, alphabet, random.nextInt(bound))
+                    : MapperFixtures.mutate(random, x, alphabet, 5);
+            int expected = matrix(x, y);
+            assertEquals(x + " " + y, expected, BitParallelLevenshtein.distance(x, y));
+            int max = random.nextInt(10);
+            assertEquals(x + " " + y, Math.min(expected, max + 1), BitParallelLevenshtein.distance(x, y, max));
+        }
+    }
+
+    @Test
+    public void edgeCases() {
+        assertEquals(0, BitParallelLevenshtein.distance("", ""));
+        assertEquals(3, BitParallelLevenshtein.distance("", "abc"));
+        assertEquals(3, BitParallelLevenshtein.distance("kitten", "sitting"));
+        assertEquals(2, BitParallelLevenshtein.distance("kitten", "sitting", 1));
+        assertEquals(4, BitParallelLevenshtein.distance("a", "abcde", 3));
+        String word = MapperFixtures.string(new Random(1), "xyz", 64);
+        assertEquals(1, BitParallelLevenshtein.distance(word, word.substring(1)));
+        assertEquals(0, BitParallelLevenshtein.distance(word, word, 0));
+    }
+
+    @Test
+    public void levenshteinMeasure() {
+        LevenshteinMeasure measure = new LevenshteinMeasure();
+        assertEquals(1d, measure.getSimilarity("", ""), 0d);
+        assertEquals(1f - 3f / 7, measure.getSimilarity("kitten", "sitting"), 0d);
+        assertEquals(0d, measure.getSimilarity("abc", "xyz"), 0d);
+    }
+}
@@ -0,0 +1,132 @@
+package org.aksw.limes.core.measures.measure.string;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import uk.ac.shef.wit.simmetrics.similaritymetrics.Levenshtein;
+
+/**
+ * Compares the Levenshtein kernels on pairs of similar strings: the matrix
+ * dynamic program EDJoinMapper used before, SimMetrics, which
+ * LevenshteinMeasure used before, and {@link BitParallelLevenshtein} with and
+ * without a bound. Lengths above 64 characters measure the fallback of the
+ * bit-vector algorithm. Run with the main method or the JMH runner, e.g.
+ * -Dlength=16,256 selects the string lengths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class LevenshteinBenchmark {
+
+    private static final int PAIRS = 1000;
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz ";
+
+    @Param({ "8", "32", "64", "256" })
+    public int length;
+
+    @Param({ "2" })
+    public int max;
+
+    private String[] x;
+    private String[] y;
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        x = new String[PAIRS];
+        y = new String[PAIRS];
+        for (int i = 0; i < PAIRS; i++) {
+            StringBuilder s = new StringBuilder();
+            for (int k = 0; k < length; k++) {
+                s.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            x[i] = s.toString();
+            // every second pair is within the bound
+            for (int k = i % 2 == 0 ? 1 : length / 4 + 3; k > 0; k--) {
+                s.setCharAt(random.nextInt(length), ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+            }
+            y[i] = s.toString();
+        }
+    }
+
+    private static int matrix(String x, String y) {
+        int[][] d = new int[x.length() + 1][y.length() + 1];
+        for (int i = 0; i <= x.length(); i++) {
+            d[i][0] = i;
+        }
+        for (int j = 0; j <= y.length(); j++) {
+            d[0][j] = j;
+        }
+        for (int i = 1; i <= x.length(); i++) {
+            for (int j = 1; j <= y.length(); j++) {
+                int cost = x.charAt(i - 1) == y.charAt(j - 1) ? 0 : 1;
+                d[i][j] = Math.min(Math.min(d[i - 1][j] + 1, d[i][j - 1] + 1), d[i - 1][j - 1] + cost);
+            }
+        }
+        return d[x.length()][y.length()];
+    }
+
+    @Benchmark
+    public long matrix() {
+        long sum = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            sum += matrix(x[i], y[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public double simMetrics() {
+        Levenshtein levenshtein = new Levenshtein();
+        double sum = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            sum += levenshtein.getSimilarity(x[i], y[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long bitParallel() {
+        long sum = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            sum += BitParallelLevenshtein.distance(x[i], y[i]);
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long bitParallelBounded() {
+        long sum = 0;
+        for (int i = 0; i < PAIRS; i++) {
+            sum += BitParallelLevenshtein.distance(x[i], y[i], max);
+        }
+        return sum;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        OptionsBuilder options = new OptionsBuilder();
+        options.include(LevenshteinBenchmark.class.getSimpleName());
+        if (System.getProperty("length") != null) {
+            options.param("length", System.getProperty("length").split(","));
+        }
+        new Runner(options.build()).run();
+    }
+}
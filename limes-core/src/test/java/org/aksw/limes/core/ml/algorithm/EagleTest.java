@@ -1,7 +1,9 @@
 package org.aksw.limes.core.ml.algorithm;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.fail;
 
+import org.aksw.limes.core.datastrutures.GoldStandard;
 import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
 import org.aksw.limes.core.exceptions.UnsupportedMLImplementationException;
 import org.aksw.limes.core.io.mapping.AMapping;
@@ -13,6 +15,13 @@ import org.aksw.limes.core.ml.algorithm.MLImplementationType;
 import org.aksw.limes.core.ml.algorithm.MLResults;
 import org.aksw.limes.core.ml.algorithm.SupervisedMLAlgorithm;
 import org.aksw.limes.core.ml.algorithm.UnsupervisedMLAlgorithm;
+import org.aksw.limes.core.ml.algorithm.eagle.core.ExpressionProblem;
+import org.aksw.limes.core.ml.algorithm.eagle.core.LinkSpecGeneticLearnerConfig;
+import org.aksw.limes.core.ml.algorithm.eagle.core.PseudoFMeasureFitnessFunction;
+import org.jgap.FitnessFunction;
+import org.jgap.InvalidConfigurationException;
+import org.jgap.gp.GPProgramBase;
+import org.jgap.gp.impl.GPPopulation;
 import org.junit.Test;
 
 
@@ -45,6 +54,57 @@ public class EagleTest extends MLAlgorithmTest{
         assert (resultMap.getSize() > 0);     
     }
     
+    @Test
+    public void testUnsupervisedParallel() throws UnsupportedMLImplementationException {
+        UnsupervisedMLAlgorithm eagleUnsup = MLAlgorithmFactory.createMLAlgorithm(Eagle.class,
+                MLImplementationType.UNSUPERVISED).asUnsupervised();
+        eagleUnsup.init(null, sc, tc);
+        eagleUnsup.getMl().setConfiguration(config);
+        eagleUnsup.setParameter(Eagle.PROPERTY_MAPPING, pm);
+        eagleUnsup.setParameter(Eagle.PARALLELISM, 4);
+
+        PseudoFMeasure pfm = new PseudoFMeasure();
+        MLResults mlModel = eagleUnsup.learn(pfm);
+        AMapping resultMap = eagleUnsup.predict(sc, tc, mlModel);
+
+        // the fitness computed in parallel is the one of the learned specification
+        double pseudoFMeasure = pfm.getPseudoFMeasure(resultMap, new GoldStandard(resultMap, sc, tc), 1d);
+        assertEquals(Math.abs(1d - pseudoFMeasure), mlModel.getQuality(), 1e-9);
+    }
+
+    @Test
+    public void testParallelFitnessEqualsSerial() throws InvalidConfigurationException {
+        LinkSpecGeneticLearnerConfig jgapConfig = new LinkSpecGeneticLearnerConfig(config.getSourceInfo(),
+                config.getTargetInfo(), pm);
+        jgapConfig.sC = sc;
+        jgapConfig.tC = tc;
+        jgapConfig.setPopulationSize(40);
+        jgapConfig.setPropertyMapping(pm);
+        // the fitness function is a singleton, drop the one of former tests
+        PseudoFMeasureFitnessFunction.getInstance(jgapConfig, new PseudoFMeasure(), sc, tc).destroy();
+        PseudoFMeasureFitnessFunction fitness = PseudoFMeasureFitnessFunction.getInstance(jgapConfig,
+                new PseudoFMeasure(), sc, tc);
+        org.jgap.Configuration.reset();
+        jgapConfig.setFitnessFunction(fitness);
+        GPPopulation population = new ExpressionProblem(jgapConfig).create().getGPPopulation();
+
+        fitness.clearFitnessCache();
+        fitness.setParallelism(1);
+        fitness.evaluatePopulation(population);
+        double[] serial = new double[population.size()];
+        for (int i = 0; i < serial.length; i++) {
+            serial[i] = ((GPProgramBase) population.getGPProgram(i)).getFitnessValueDirectly();
+            population.getGPProgram(i).setFitnessValue(FitnessFunction.NO_FITNESS_VALUE);
+        }
+        fitness.clearFitnessCache();
+        fitness.setParallelism(4);
+        fitness.evaluatePopulation(population);
+        for (int i = 0; i < serial.length; i++) {
+            assertEquals(serial[i], ((GPProgramBase) population.getGPProgram(i)).getFitnessValueDirectly(), 0d);
+        }
+        fitness.destroy();
+    }
+
 /* ------------------------------ supervised tests  -----------------------------*/    
     @Test
     public void testSupervisedBatch() throws UnsupportedMLImplementationException {
@@ -100,4 +100,9 @@ public class WombatCompleteTest {
         assert (resultMap.equals(refMap));
     }
 
+    @Test
+    public void testParallelism() throws UnsupportedMLImplementationException {
+        WombatFixtures.assertParallelLearningIsSerial(WombatComplete.class, sc, tc);
+    }
+
 }
@@ -0,0 +1,50 @@
+package org.aksw.limes.core.ml.algorithm;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.aksw.limes.core.evaluation.qualititativeMeasures.PseudoFMeasure;
+import org.aksw.limes.core.exceptions.UnsupportedMLImplementationException;
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.ml.algorithm.wombat.AWombat;
+
+/**
+ * Shared checks of the tests of the Wombat algorithms.
+ *
+ * @version 1.0
+ */
+public class WombatFixtures {
+
+    private WombatFixtures() {
+    }
+
+    /**
+     * Asserts that unsupervised learning on several threads finds the same
+     * link specification, quality and mapping as serial learning.
+     */
+    public static void assertParallelLearningIsSerial(Class<? extends AWombat> algorithm, ACache sc, ACache tc)
+            throws UnsupportedMLImplementationException {
+        MLResults serial = learnUnsupervised(algorithm, sc, tc, 1);
+        MLResults parallel = learnUnsupervised(algorithm, sc, tc, 4);
+        assertEquals(serial.getLinkSpecification().getFullExpression(),
+                parallel.getLinkSpecification().getFullExpression());
+        assertEquals(serial.getQuality(), parallel.getQuality(), 0d);
+        assertEquals(serial.getMapping(), parallel.getMapping());
+    }
+
+    /**
+     * @return the results of unsupervised learning with the given number of
+     *         threads
+     */
+    public static MLResults learnUnsupervised(Class<? extends AWombat> algorithm, ACache sc, ACache tc,
+            int parallelism) throws UnsupportedMLImplementationException {
+        UnsupervisedMLAlgorithm wombat = MLAlgorithmFactory.createMLAlgorithm(algorithm,
+                MLImplementationType.UNSUPERVISED).asUnsupervised();
+        List<LearningParameter> parameters = new ArrayList<>();
+        parameters.add(new LearningParameter(AWombat.PARAMETER_PARALLELISM, parallelism));
+        wombat.init(parameters, sc, tc);
+        return wombat.learn(new PseudoFMeasure());
+    }
+}
@@ -134,4 +134,9 @@ public class WombatSimpleTest {
         return result;
     }
 
+    @Test
+    public void testParallelism() throws UnsupportedMLImplementationException {
+        WombatFixtures.assertParallelLearningIsSerial(WombatSimple.class, sc, tc);
+    }
+
 }
@@ -0,0 +1,86 @@
+package org.aksw.limes.core.ml.algorithm.wombat;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.aksw.limes.core.io.cache.ACache;
+import org.aksw.limes.core.io.cache.MemoryCache;
+import org.aksw.limes.core.io.mapping.AMapping;
+import org.aksw.limes.core.io.mapping.MappingFactory;
+import org.aksw.limes.core.measures.mapper.MapperFixtures;
+import org.aksw.limes.core.measures.mapper.string.PPJoinPlusPlus;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MappingStoreTest {
+
+    private ACache source;
+    private ACache target;
+
+    @Before
+    public void setUp() {
+        Random random = new Random(13);
+        source = new MemoryCache();
+        target = new MemoryCache();
+        for (int i = 0; i < 200; i++) {
+            source.addTriple("S" + i, "name", MapperFixtures.label(random, "abcdef", 4, 2, 2));
+            target.addTriple("T" + i, "name", MapperFixtures.label(random, "abcdef", 4, 2, 2));
+        }
+    }
+
+    private AMapping execute(double threshold) {
+        return new PPJoinPlusPlus().getMapping(source, target, "?x", "?y", "jaccard(x.name,y.name)", threshold);
+    }
+
+    @Test
+    public void executesAtomicMeasuresOnce() {
+        MappingStore store = new MappingStore(source, target, MappingStore.DEFAULT_CAPACITY);
+        AMapping lowest = store.getAtomicMapping("jaccard", "name", "name", 0.4, t -> execute(t));
+        assertTrue(lowest.size() > 0);
+        for (double threshold = 1d; threshold > 0.4d; threshold *= 0.9) {
+            assertEquals(execute(threshold).getMap(),
+                    store.getAtomicMapping("jaccard", "name", "name", threshold, t -> execute(t)).getMap());
+        }
+        assertSame(lowest, store.getAtomicMapping("jaccard", "name", "name", 0.4, t -> execute(t)));
+        assertEquals(1, store.getExecutions());
+        // lower thresholds are executed and replace the stored mapping
+        assertEquals(execute(0.3).getMap(),
+                store.getAtomicMapping("jaccard", "name", "name", 0.3, t -> execute(t)).getMap());
+        store.getAtomicMapping("jaccard", "name", "name", 0.35, t -> execute(t));
+        assertEquals(2, store.getExecutions());
+        // every part of the key distinguishes measures
+        store.getAtomicMapping("cosine", "name", "name", 0.4, t -> execute(t));
+        store.getAtomicMapping("jaccard", "label", "name", 0.4, t -> execute(t));
+        store.getAtomicMapping("jaccard", "name", "label", 0.4, t -> execute(t));
+        assertEquals(5, store.getExecutions());
+        assertEquals(4, store.size());
+    }
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        MappingStore store = new MappingStore(source, target, 25 * MappingStore.LINK_WEIGHT);
+        AMapping m = MappingFactory.createDefaultMapping();
+        for (int i = 0; i < 9; i++) {
+            m.add("s" + i, "t", 1d);
+        }
+        store.putMapping("a", m);
+        store.putMapping("b", m);
+        assertSame(m, store.getMapping("a"));
+        store.putMapping("c", m);
+        assertEquals(2, store.size());
+        assertEquals(20 * MappingStore.LINK_WEIGHT, store.getWeight());
+        assertNull(store.getMapping("b"));
+        assertSame(m, store.getMapping("a"));
+        // mappings larger than the capacity are not kept
+        AMapping large = execute(0.1);
+        assertTrue(large.size() > 25);
+        store.putMapping("d", large);
+        assertEquals(0, store.size());
+        assertEquals(0, store.getWeight());
+        assertTrue(store.isFor(source, target));
+    }
+}